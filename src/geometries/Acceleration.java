@@ -0,0 +1,40 @@
+package geometries;
+
+import java.util.List;
+
+/**
+ * The structure a {@link Geometries} collection organizes its bounded geometries in.
+ */
+public enum Acceleration {
+    /**
+     * No structure - every geometry is tested against every ray
+     */
+    LIST,
+    /**
+     * Bounding volume hierarchy of linked node objects
+     */
+    BVH,
+    /**
+     * Bounding volume hierarchy laid out depth-first in flat arrays
+     */
+    FLAT_BVH,
+    /**
+     * Uniform grid of cells walked along the ray, for dense evenly spread geometries of similar sizes
+     */
+    GRID;
+
+    /**
+     * Builds the structure over bounded geometries
+     *
+     * @param geometries the geometries, all of them must have a bounding box
+     * @return the structure
+     */
+    Accelerator build(List<Intersectable> geometries) {
+        return switch (this) {
+            case LIST -> new ListScan(geometries);
+            case BVH -> new Bvh(geometries);
+            case FLAT_BVH -> new FlatBvh(new Bvh(geometries));
+            case GRID -> new UniformGrid(geometries);
+        };
+    }
+}
@@ -0,0 +1,63 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import primitives.BoundingBox;
+import primitives.Double3;
+import primitives.Ray;
+
+/**
+ * Structure organizing the bounded geometries of a collection for the ray queries.
+ */
+interface Accelerator {
+
+    /**
+     * Getter of the box bounding all the geometries
+     *
+     * @return the bounding box, null if there are no geometries
+     */
+    BoundingBox getBoundingBox();
+
+    /**
+     * Getter of the build time and quality figures of the structure
+     *
+     * @return the figures
+     */
+    BuildStats getBuildStats();
+
+    /**
+     * Copies the structure for the frozen snapshot of a scene, over the copies of its geometries.
+     * Everything else never changes once built, so it is shared with the copy.
+     *
+     * @param snapshot the copies of the snapshot so far
+     * @return the copy
+     */
+    Accelerator copy(Snapshot snapshot);
+
+    /**
+     * Finds all the intersections of a ray with the geometries
+     *
+     * @param ray  the ray
+     * @param hits the buffer receiving the intersections
+     */
+    void findGeoIntersections(Ray ray, HitBuffer hits);
+
+    /**
+     * Finds the intersection closest to the ray head before a maximal distance
+     *
+     * @param ray  the ray
+     * @param tMax the distance from the ray head beyond which intersections are ignored
+     * @return the closest intersection before tMax, null if there is none
+     */
+    GeoPoint findClosestGeoIntersection(Ray ray, double tMax);
+
+    /**
+     * Any-hit query of a shadow ray, which stops as soon as the light is blocked
+     *
+     * @param ray  the shadow ray
+     * @param tMax the distance of the light source from the ray head
+     * @param ktr  the transparency coefficient accumulated so far
+     * @param minK the threshold below which the light is considered blocked
+     * @return the transparency coefficient, {@link Double3#ZERO} if the light is blocked
+     */
+    Double3 findTransparency(Ray ray, double tMax, Double3 ktr, double minK);
+}
@@ -0,0 +1,234 @@
+package geometries;
+
+/**
+ * Build time and quality figures of the acceleration structure of a {@link Geometries} collection,
+ * used to tune the structure parameters.
+ */
+public final class BuildStats {
+
+    /**
+     * The build time in nanoseconds
+     */
+    private final long buildNanos;
+
+    /**
+     * The amount of nodes
+     */
+    private int nodes = 0;
+
+    /**
+     * The amount of leaves
+     */
+    private int leaves = 0;
+
+    /**
+     * The amount of primitives in all the leaves
+     */
+    private int primitives = 0;
+
+    /**
+     * The depth of the deepest leaf, the root being at depth 0
+     */
+    private int depth = 0;
+
+    /**
+     * The amount of primitives in the smallest leaf
+     */
+    private int minLeafSize = Integer.MAX_VALUE;
+
+    /**
+     * The amount of primitives in the largest leaf
+     */
+    private int maxLeafSize = 0;
+
+    /**
+     * The surface area heuristic cost, relative to the cost of a single intersection test
+     */
+    private double sahCost = 0;
+
+    /**
+     * Collects the figures of a hierarchy
+     *
+     * @param root       the root of the hierarchy, null if it is empty
+     * @param buildNanos the build time in nanoseconds
+     */
+    BuildStats(Bvh.Node root, long buildNanos) {
+        this.buildNanos = buildNanos;
+        if (root != null) collect(root, 0, root.box.surfaceArea());
+    }
+
+    /**
+     * Constructs empty figures, to be filled by {@link #addInner(double)} and {@link #addLeaf(int, int, double)}
+     *
+     * @param buildNanos the build time in nanoseconds
+     */
+    BuildStats(long buildNanos) {
+        this.buildNanos = buildNanos;
+    }
+
+    /**
+     * Constructs the figures of a structure with a single leaf holding all the primitives
+     *
+     * @param primitives the amount of primitives
+     * @param buildNanos the build time in nanoseconds
+     */
+    BuildStats(int primitives, long buildNanos) {
+        this.buildNanos = buildNanos;
+        addLeaf(0, primitives, 1);
+    }
+
+    /**
+     * Constructs the same figures with another build time
+     *
+     * @param other      the figures
+     * @param buildNanos the build time in nanoseconds
+     */
+    BuildStats(BuildStats other, long buildNanos) {
+        this.buildNanos = buildNanos;
+        nodes = other.nodes;
+        leaves = other.leaves;
+        primitives = other.primitives;
+        depth = other.depth;
+        minLeafSize = other.minLeafSize;
+        maxLeafSize = other.maxLeafSize;
+        sahCost = other.sahCost;
+    }
+
+    /**
+     * Adds the figures of a subtree.
+     * The cost of a node is weighted by its area relative to the root area,
+     * which is the probability of a ray crossing the root to cross the node.
+     *
+     * @param node     the subtree root
+     * @param depth    the depth of the subtree root
+     * @param rootArea the surface area of the root box
+     */
+    private void collect(Bvh.Node node, int depth, double rootArea) {
+        double probability = node.box.surfaceArea() / rootArea;
+        if (node.left == null)
+            addLeaf(depth, node.count, probability);
+        else {
+            addInner(probability);
+            collect(node.left, depth + 1, rootArea);
+            collect(node.right, depth + 1, rootArea);
+        }
+    }
+
+    /**
+     * Adds a node that only leads to other nodes
+     *
+     * @param probability the probability of a ray crossing the structure to visit the node
+     */
+    void addInner(double probability) {
+        ++nodes;
+        sahCost += probability * BvhNodes.TRAVERSAL_COST;
+    }
+
+    /**
+     * Adds a node holding primitives. An empty leaf still costs a visit.
+     *
+     * @param depth       the depth of the leaf
+     * @param count       the amount of primitives in the leaf
+     * @param probability the probability of a ray crossing the structure to visit the leaf
+     */
+    void addLeaf(int depth, int count, double probability) {
+        ++nodes;
+        if (count == 0) {
+            sahCost += probability * BvhNodes.TRAVERSAL_COST;
+            return;
+        }
+        ++leaves;
+        primitives += count;
+        if (depth > this.depth) this.depth = depth;
+        if (count < minLeafSize) minLeafSize = count;
+        if (count > maxLeafSize) maxLeafSize = count;
+        sahCost += probability * count;
+    }
+
+    /**
+     * Getter of the build time
+     *
+     * @return the build time in nanoseconds
+     */
+    long getBuildNanos() {
+        return buildNanos;
+    }
+
+    /**
+     * Getter of the build time
+     *
+     * @return the build time in milliseconds
+     */
+    public double getBuildMillis() {
+        return buildNanos / 1e6;
+    }
+
+    /**
+     * Getter of the amount of nodes
+     *
+     * @return the amount of nodes
+     */
+    public int getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Getter of the amount of leaves holding primitives
+     *
+     * @return the amount of leaves
+     */
+    public int getLeaves() {
+        return leaves;
+    }
+
+    /**
+     * Getter of the depth of the deepest leaf
+     *
+     * @return the depth, the root being at depth 0
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Getter of the amount of primitives in the smallest leaf
+     *
+     * @return the smallest leaf size
+     */
+    public int getMinLeafSize() {
+        return leaves == 0 ? 0 : minLeafSize;
+    }
+
+    /**
+     * Getter of the amount of primitives in the largest leaf
+     *
+     * @return the largest leaf size
+     */
+    public int getMaxLeafSize() {
+        return maxLeafSize;
+    }
+
+    /**
+     * Getter of the average amount of primitives in a leaf
+     *
+     * @return the average leaf size, 0 if there are no leaves
+     */
+    public double getAverageLeafSize() {
+        return leaves == 0 ? 0 : (double) primitives / leaves;
+    }
+
+    /**
+     * Getter of the surface area heuristic cost
+     *
+     * @return the expected cost of a ray crossing the root, relative to the cost of a single intersection test
+     */
+    public double getSahCost() {
+        return sahCost;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("built in %.1f ms: %d nodes, %d leaves of %d..%d (avg %.2f) primitives, depth %d, SAH cost %.2f",
+                getBuildMillis(), nodes, leaves, getMinLeafSize(), maxLeafSize, getAverageLeafSize(), depth, sahCost);
+    }
+}
@@ -0,0 +1,485 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import primitives.BoundingBox;
+import primitives.Double3;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BinaryOperator;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+import static geometries.BvhNodes.*;
+
+/**
+ * Bounding volume hierarchy over bounded intersectables.
+ * The tree is built top-down, and every split is chosen by the surface area heuristic (SAH)
+ * evaluated over a fixed number of centroid bins, see {@link BvhNodes}.
+ * Large hierarchies are built in parallel on the common fork/join pool: the two subtrees of a large range
+ * are built by separate tasks, and the bounds and bins of a large range are gathered by separate tasks
+ * over its halves and merged. The result is the same tree a single thread builds.
+ */
+class Bvh implements Accelerator {
+
+    /**
+     * Ranges of at least this many geometries have their subtrees built by separate tasks
+     */
+    private static final int PARALLEL_BUILD_CUTOFF = 4096;
+
+    /**
+     * Ranges of at least this many geometries have their bounds and bins gathered by separate tasks
+     */
+    private static final int PARALLEL_BINNING_CUTOFF = 16384;
+
+    /**
+     * Node of the hierarchy. Inner nodes have two children, leaves refer to a range of the primitives array.
+     */
+    static final class Node {
+        /**
+         * The box bounding everything under the node
+         */
+        final BoundingBox box;
+        /**
+         * The children of an inner node, null for a leaf
+         */
+        Node left, right;
+        /**
+         * The range of primitives of a leaf
+         */
+        int start, count;
+
+        /**
+         * Constructs a node with its box
+         *
+         * @param box the bounding box
+         */
+        Node(BoundingBox box) {
+            this.box = box;
+        }
+    }
+
+    /**
+     * The box and the centroid bounds of a range of primitives
+     */
+    private final class Bounds {
+        /**
+         * The box bounding the primitives
+         */
+        BoundingBox box = null;
+        /**
+         * The minimal centroid coordinates, indexed by axis
+         */
+        final double[] cMin = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY};
+        /**
+         * The maximal centroid coordinates, indexed by axis
+         */
+        final double[] cMax = {Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+
+        /**
+         * Adds a primitive
+         *
+         * @param i the primitive index
+         * @return the bounds themselves
+         */
+        Bounds add(int i) {
+            box = box == null ? boxes[i] : box.union(boxes[i]);
+            for (int axis = 0; axis < 3; ++axis) {
+                double c = boxes[i].getCenter(axis);
+                if (c < cMin[axis]) cMin[axis] = c;
+                if (c > cMax[axis]) cMax[axis] = c;
+            }
+            return this;
+        }
+
+        /**
+         * Adds the bounds of another range
+         *
+         * @param other the other bounds
+         * @return the bounds themselves
+         */
+        Bounds merge(Bounds other) {
+            box = box.union(other.box);
+            for (int axis = 0; axis < 3; ++axis) {
+                cMin[axis] = Math.min(cMin[axis], other.cMin[axis]);
+                cMax[axis] = Math.max(cMax[axis], other.cMax[axis]);
+            }
+            return this;
+        }
+    }
+
+    /**
+     * The centroid bins of a range of primitives along all the axes
+     */
+    private final class Bins {
+        /**
+         * The minimal centroid coordinates, indexed by axis
+         */
+        final double[] cMin;
+        /**
+         * The centroid extents, indexed by axis
+         */
+        final double[] extent = new double[3];
+        /**
+         * The amount of primitives in every bin, {@link BvhNodes#BINS} bins per axis
+         */
+        final int[] count = new int[3 * BINS];
+        /**
+         * The box of the primitives in every bin, six coordinates per bin
+         */
+        final double[] box = new double[6 * 3 * BINS];
+
+        /**
+         * Constructs empty bins over centroid bounds
+         *
+         * @param bounds the centroid bounds of the binned range
+         */
+        Bins(Bounds bounds) {
+            cMin = bounds.cMin;
+            for (int axis = 0; axis < 3; ++axis)
+                extent[axis] = bounds.cMax[axis] - bounds.cMin[axis];
+            for (int b = 0; b < 3 * BINS; ++b)
+                empty(box, 6 * b);
+        }
+
+        /**
+         * Adds a primitive
+         *
+         * @param i the primitive index
+         * @return the bins themselves
+         */
+        Bins add(int i) {
+            for (int axis = 0; axis < 3; ++axis) {
+                if (extent[axis] <= 0) continue;
+                int b = axis * BINS + bin(boxes[i].getCenter(axis), cMin[axis], extent[axis], BINS);
+                ++count[b];
+                expand(box, 6 * b, boxes[i]);
+            }
+            return this;
+        }
+
+        /**
+         * Adds the bins of another range
+         *
+         * @param other the other bins
+         * @return the bins themselves
+         */
+        Bins merge(Bins other) {
+            for (int b = 0; b < 3 * BINS; ++b) {
+                count[b] += other.count[b];
+                expand(box, 6 * b, other.box, 6 * b);
+            }
+            return this;
+        }
+    }
+
+    /**
+     * The geometries ordered so that every leaf refers to a contiguous range
+     */
+    private final Intersectable[] primitives;
+
+    /**
+     * The boxes of the primitives, in the same order
+     */
+    private final BoundingBox[] boxes;
+
+    /**
+     * The root of the hierarchy
+     */
+    private final Node root;
+
+    /**
+     * The build figures of the hierarchy
+     */
+    private final BuildStats stats;
+
+    /**
+     * Builds a hierarchy over bounded geometries.
+     *
+     * @param geometries the geometries, all of them must have a bounding box
+     */
+    Bvh(List<Intersectable> geometries) {
+        long start = System.nanoTime();
+        primitives = geometries.toArray(new Intersectable[0]);
+        boxes = new BoundingBox[primitives.length];
+        for (int i = 0; i < primitives.length; ++i)
+            boxes[i] = primitives[i].getBoundingBox();
+        if (primitives.length == 0)
+            root = null;
+        else if (primitives.length < PARALLEL_BUILD_CUTOFF)
+            root = build(0, primitives.length);
+        else
+            root = ForkJoinPool.commonPool().invoke(ForkJoinTask.adapt(() -> build(0, primitives.length)));
+        stats = new BuildStats(root, System.nanoTime() - start);
+    }
+
+    /**
+     * Constructs the copy of a hierarchy over the copies of its geometries, sharing its nodes
+     *
+     * @param tree     the hierarchy
+     * @param snapshot the copies of the snapshot so far
+     */
+    private Bvh(Bvh tree, Snapshot snapshot) {
+        primitives = snapshot.copy(tree.primitives);
+        boxes = tree.boxes;
+        root = tree.root;
+        stats = tree.stats;
+    }
+
+    @Override
+    public Bvh copy(Snapshot snapshot) {
+        return new Bvh(this, snapshot);
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return root == null ? null : root.box;
+    }
+
+    @Override
+    public BuildStats getBuildStats() {
+        return stats;
+    }
+
+    /**
+     * Getter of the root of the hierarchy
+     *
+     * @return the root, null if the hierarchy is empty
+     */
+    Node getRoot() {
+        return root;
+    }
+
+    /**
+     * Getter of the geometries, ordered so that every leaf refers to a contiguous range
+     *
+     * @return the geometries
+     */
+    Intersectable[] getPrimitives() {
+        return primitives;
+    }
+
+    /**
+     * Recursively builds the subtree over a range of the primitives
+     *
+     * @param start first primitive (inclusive)
+     * @param end   last primitive (exclusive)
+     * @return the subtree root
+     */
+    private Node build(int start, int end) {
+        Bounds bounds = gather(start, end, Bounds::new, Bounds::add, Bounds::merge);
+        BoundingBox box = bounds.box;
+
+        Node node = new Node(box);
+        int count = end - start;
+        if (count <= 2) return leaf(node, start, count);
+
+        // find the best split among the bin borders of all axes
+        Bins bins = gather(start, end, () -> new Bins(bounds), Bins::add, Bins::merge);
+        Split best = new Split();
+        // all the centroids coincide - nothing to split by
+        if (!best.find(bins.count, bins.box, 6, BINS, bins.extent)) return leaf(node, start, count);
+        int bestAxis = best.axis, bestBin = best.bin;
+
+        double splitCost = TRAVERSAL_COST + best.cost / box.surfaceArea();
+        if (splitCost >= count && count <= MAX_LEAF_SIZE) return leaf(node, start, count);
+
+        // partition the range by the chosen border
+        double cMin = bins.cMin[bestAxis], extent = bins.extent[bestAxis];
+        int mid = start;
+        for (int i = start; i < end; ++i) {
+            if (bin(boxes[i].getCenter(bestAxis), cMin, extent, BINS) < bestBin) {
+                swap(i, mid);
+                ++mid;
+            }
+        }
+
+        // the subtrees cover disjoint ranges, so they can be built concurrently
+        if (count >= PARALLEL_BUILD_CUTOFF) {
+            int split = mid;
+            ForkJoinTask<Node> left = ForkJoinTask.adapt(() -> build(start, split)).fork();
+            node.right = build(mid, end);
+            node.left = left.join();
+        } else {
+            node.left = build(start, mid);
+            node.right = build(mid, end);
+        }
+        return node;
+    }
+
+    /**
+     * Gathers a figure over a range of the primitives, splitting large ranges between tasks
+     *
+     * @param start  first primitive (inclusive)
+     * @param end    last primitive (exclusive)
+     * @param create creates an empty figure
+     * @param add    adds a primitive to a figure
+     * @param merge  adds a figure to another one
+     * @param <T>    the figure type
+     * @return the figure of the range
+     */
+    private static <T> T gather(int start, int end, Supplier<T> create,
+                                ObjIntConsumer<T> add, BinaryOperator<T> merge) {
+        if (end - start < PARALLEL_BINNING_CUTOFF) {
+            T result = create.get();
+            for (int i = start; i < end; ++i)
+                add.accept(result, i);
+            return result;
+        }
+        int mid = (start + end) >>> 1;
+        ForkJoinTask<T> left = ForkJoinTask.adapt(() -> gather(start, mid, create, add, merge)).fork();
+        T right = gather(mid, end, create, add, merge);
+        return merge.apply(left.join(), right);
+    }
+
+    /**
+     * Turns a node into a leaf
+     *
+     * @param node  the node
+     * @param start first primitive of the leaf
+     * @param count amount of primitives in the leaf
+     * @return the node
+     */
+    private static Node leaf(Node node, int start, int count) {
+        node.start = start;
+        node.count = count;
+        return node;
+    }
+
+    /**
+     * Swaps two primitives together with their boxes
+     *
+     * @param i first index
+     * @param j second index
+     */
+    private void swap(int i, int j) {
+        Intersectable p = primitives[i];
+        primitives[i] = primitives[j];
+        primitives[j] = p;
+        BoundingBox b = boxes[i];
+        boxes[i] = boxes[j];
+        boxes[j] = b;
+    }
+
+    @Override
+    public void findGeoIntersections(Ray ray, HitBuffer hits) {
+        if (root == null) return;
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        double invX = 1 / dir.getX(), invY = 1 / dir.getY(), invZ = 1 / dir.getZ();
+
+        Node[] stack = new Node[64];
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            Node node = stack[--top];
+            if (node.box.intersect(ox, oy, oz, invX, invY, invZ, Double.POSITIVE_INFINITY) == Double.POSITIVE_INFINITY)
+                continue;
+            if (node.left == null) {
+                for (int i = node.start; i < node.start + node.count; ++i)
+                    primitives[i].findGeoIntersections(ray, hits);
+            } else {
+                if (top + 2 > stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+                stack[top++] = node.right;
+                stack[top++] = node.left;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Nodes are visited nearer child first, and the maximal distance shrinks with every hit found,
+     * so nodes and geometries behind the closest hit so far are skipped.
+     */
+    @Override
+    public GeoPoint findClosestGeoIntersection(Ray ray, double tMax) {
+        if (root == null) return null;
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        double invX = 1 / dir.getX(), invY = 1 / dir.getY(), invZ = 1 / dir.getZ();
+
+        GeoPoint closest = null;
+        Node[] stack = new Node[64];
+        double[] entries = new double[64];
+        int top = 0;
+        double rootEntry = root.box.intersect(ox, oy, oz, invX, invY, invZ, tMax);
+        if (rootEntry == Double.POSITIVE_INFINITY) return null;
+        stack[top] = root;
+        entries[top++] = rootEntry;
+        while (top > 0) {
+            Node node = stack[--top];
+            // the node may have been pushed before a nearer hit was found
+            if (entries[top] >= tMax) continue;
+            if (node.left == null) {
+                for (int i = node.start; i < node.start + node.count; ++i) {
+                    GeoPoint geoPoint = primitives[i].findClosestGeoIntersection(ray, tMax);
+                    if (geoPoint != null) {
+                        closest = geoPoint;
+                        tMax = geoPoint.distance(p0);
+                    }
+                }
+            } else {
+                double tLeft = node.left.box.intersect(ox, oy, oz, invX, invY, invZ, tMax);
+                double tRight = node.right.box.intersect(ox, oy, oz, invX, invY, invZ, tMax);
+                if (top + 2 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                    entries = Arrays.copyOf(entries, entries.length * 2);
+                }
+                // push the farther child first so the nearer one is visited first
+                Node near = node.left, far = node.right;
+                if (tRight < tLeft) {
+                    near = node.right;
+                    far = node.left;
+                    double tmp = tLeft;
+                    tLeft = tRight;
+                    tRight = tmp;
+                }
+                if (tRight != Double.POSITIVE_INFINITY) {
+                    stack[top] = far;
+                    entries[top++] = tRight;
+                }
+                if (tLeft != Double.POSITIVE_INFINITY) {
+                    stack[top] = near;
+                    entries[top++] = tLeft;
+                }
+            }
+        }
+        return closest;
+    }
+
+    @Override
+    public Double3 findTransparency(Ray ray, double tMax, Double3 ktr, double minK) {
+        if (root == null) return ktr;
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        double invX = 1 / dir.getX(), invY = 1 / dir.getY(), invZ = 1 / dir.getZ();
+
+        Node[] stack = new Node[64];
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            Node node = stack[--top];
+            if (node.box.intersect(ox, oy, oz, invX, invY, invZ, tMax) == Double.POSITIVE_INFINITY)
+                continue;
+            if (node.left == null) {
+                for (int i = node.start; i < node.start + node.count; ++i) {
+                    ktr = primitives[i].findTransparency(ray, tMax, ktr, minK);
+                    if (ktr.lowerThan(minK)) return Double3.ZERO;
+                }
+            } else {
+                if (top + 2 > stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+                stack[top++] = node.right;
+                stack[top++] = node.left;
+            }
+        }
+        return ktr;
+    }
+}
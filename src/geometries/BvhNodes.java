@@ -0,0 +1,302 @@
+package geometries;
+
+import primitives.BoundingBox;
+
+import java.util.Arrays;
+
+/**
+ * The pieces shared by the bounding volume hierarchies: the surface area heuristic over centroid bins
+ * that chooses the splits while building, and the node boxes kept as floats in flat arrays while tracing.<br/>
+ * A box kept in a double array takes six coordinates from its start (minimal x, y, z then maximal x, y, z),
+ * and node i of a flat hierarchy keeps its box in {@code bounds[6i .. 6i+5]}, rounded outwards to floats.
+ */
+final class BvhNodes {
+
+    /**
+     * Number of centroid bins evaluated per axis when looking for a split
+     */
+    static final int BINS = 12;
+
+    /**
+     * Maximal amount of primitives left in a leaf when splitting is not worth it
+     */
+    static final int MAX_LEAF_SIZE = 4;
+
+    /**
+     * Cost of visiting an inner node relative to a single intersection test
+     */
+    static final double TRAVERSAL_COST = 0.125;
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private BvhNodes() {
+    }
+
+    /**
+     * The cheapest split of a range among the bin borders of all axes, with the scratch arrays of the search,
+     * so a builder may reuse it for all its nodes
+     */
+    static final class Split {
+        /**
+         * The heuristic cost of the split, the areas of the children weighted by their amounts of primitives
+         */
+        double cost;
+        /**
+         * The axis of the split, -1 if no split was found
+         */
+        int axis;
+        /**
+         * The first bin right of the split
+         */
+        int bin;
+        /**
+         * The box accumulated by the sweeps over the bins
+         */
+        private final double[] acc = new double[6];
+        /**
+         * The area of the bins right of every border
+         */
+        private final double[] rightArea = new double[BINS];
+        /**
+         * The amount of primitives right of every border
+         */
+        private final int[] rightCount = new int[BINS];
+
+        /**
+         * Finds the border with the lowest cost by sweeping the bins of every axis from both sides
+         *
+         * @param binCount the amount of primitives in every bin, {@link #BINS} per axis
+         * @param binBox   the box of every bin, bin b of an axis at {@code stride * (axis * BINS + b)}
+         * @param stride   the distance between the boxes of consecutive bins
+         * @param bins     the amount of bins used on every axis
+         * @param extent   the extent of the centroids along every axis, the axes without extent are skipped
+         * @return whether a split was found, false if all the centroids coincide
+         */
+        boolean find(int[] binCount, double[] binBox, int stride, int bins, double[] extent) {
+            cost = Double.POSITIVE_INFINITY;
+            axis = -1;
+            bin = 0;
+            for (int a = 0; a < 3; ++a) {
+                if (extent[a] <= 0) continue;
+                int first = a * BINS;
+                // sweep from the right to get the area and the count right of each border
+                empty(acc, 0);
+                int accCount = 0;
+                for (int b = bins - 1; b > 0; --b) {
+                    expand(acc, 0, binBox, stride * (first + b));
+                    accCount += binCount[first + b];
+                    rightArea[b] = accCount == 0 ? 0 : area(acc, 0);
+                    rightCount[b] = accCount;
+                }
+                // sweep from the left and evaluate the heuristic at each border
+                empty(acc, 0);
+                accCount = 0;
+                for (int b = 1; b < bins; ++b) {
+                    expand(acc, 0, binBox, stride * (first + b - 1));
+                    accCount += binCount[first + b - 1];
+                    if (accCount == 0 || rightCount[b] == 0) continue;
+                    double c = area(acc, 0) * accCount + rightArea[b] * rightCount[b];
+                    if (c < cost) {
+                        cost = c;
+                        axis = a;
+                        bin = b;
+                    }
+                }
+            }
+            return axis >= 0;
+        }
+    }
+
+    /**
+     * Checks the nodes of a flat hierarchy read back from a file, so that a traversal stays within the arrays:
+     * a leaf must refer to a range of the primitives, and the right child of an inner node must come
+     * after its left child and within the nodes
+     *
+     * @param nodes      the child offsets or primitive ranges, two integers per node
+     * @param primitives the amount of primitives
+     * @throws IllegalArgumentException if a node is out of range
+     */
+    static void checkNodes(int[] nodes, int primitives) {
+        if (nodes.length % 2 != 0)
+            throw new IllegalArgumentException("Hierarchy nodes must have two integers each");
+        int count = nodes.length / 2;
+        for (int node = 0; node < count; ++node) {
+            int offset = nodes[2 * node], size = nodes[2 * node + 1];
+            if (size > 0 ? offset < 0 || offset > primitives - size
+                    : size < 0 || offset <= node + 1 || offset >= count)
+                throw new IllegalArgumentException("Hierarchy node " + node + " is out of range");
+        }
+    }
+
+    /**
+     * Calculates the bin of a centroid coordinate
+     *
+     * @param center the centroid coordinate
+     * @param min    the minimal centroid coordinate
+     * @param extent the extent of centroid coordinates
+     * @param bins   the amount of bins
+     * @return the bin index
+     */
+    static int bin(double center, double min, double extent, int bins) {
+        int b = (int) (bins * (center - min) / extent);
+        return b < bins ? b : bins - 1;
+    }
+
+    /**
+     * Makes a box empty, so that expanding it by any box gives that box
+     *
+     * @param a   the array of boxes
+     * @param off the start of the box
+     */
+    static void empty(double[] a, int off) {
+        Arrays.fill(a, off, off + 3, Double.POSITIVE_INFINITY);
+        Arrays.fill(a, off + 3, off + 6, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Expands a box to contain another box
+     *
+     * @param a    the array of the expanded box
+     * @param off  the start of the expanded box
+     * @param b    the array of the other box
+     * @param bOff the start of the other box
+     */
+    static void expand(double[] a, int off, double[] b, int bOff) {
+        for (int axis = 0; axis < 3; ++axis) {
+            if (b[bOff + axis] < a[off + axis]) a[off + axis] = b[bOff + axis];
+            if (b[bOff + 3 + axis] > a[off + 3 + axis]) a[off + 3 + axis] = b[bOff + 3 + axis];
+        }
+    }
+
+    /**
+     * Expands a box to contain a bounding box
+     *
+     * @param a   the array of the expanded box
+     * @param off the start of the expanded box
+     * @param box the bounding box
+     */
+    static void expand(double[] a, int off, BoundingBox box) {
+        for (int axis = 0; axis < 3; ++axis) {
+            if (box.getMin(axis) < a[off + axis]) a[off + axis] = box.getMin(axis);
+            if (box.getMax(axis) > a[off + 3 + axis]) a[off + 3 + axis] = box.getMax(axis);
+        }
+    }
+
+    /**
+     * Calculates the surface area of a box, the same as {@link BoundingBox#surfaceArea()}
+     *
+     * @param a   the array of the box
+     * @param off the start of the box
+     * @return the surface area
+     */
+    static double area(double[] a, int off) {
+        double dx = a[off + 3] - a[off], dy = a[off + 4] - a[off + 1], dz = a[off + 5] - a[off + 2];
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * Calculates the surface area of a node box
+     *
+     * @param bounds the node boxes
+     * @param node   the node index
+     * @return the surface area
+     */
+    static double area(float[] bounds, int node) {
+        int b = 6 * node;
+        double dx = (double) bounds[b + 3] - bounds[b], dy = (double) bounds[b + 4] - bounds[b + 1];
+        double dz = (double) bounds[b + 5] - bounds[b + 2];
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * Stores a node box, rounded outwards to floats so that it still contains everything under the node
+     *
+     * @param bounds the node boxes
+     * @param node   the node index
+     * @param box    the box
+     */
+    static void store(float[] bounds, int node, BoundingBox box) {
+        for (int axis = 0; axis < 3; ++axis) {
+            bounds[6 * node + axis] = floor(box.getMin(axis));
+            bounds[6 * node + 3 + axis] = ceil(box.getMax(axis));
+        }
+    }
+
+    /**
+     * Getter of the box of a node
+     *
+     * @param bounds the node boxes
+     * @param node   the node index
+     * @return the box
+     */
+    static BoundingBox box(float[] bounds, int node) {
+        int b = 6 * node;
+        return new BoundingBox(bounds[b], bounds[b + 1], bounds[b + 2], bounds[b + 3], bounds[b + 4], bounds[b + 5]);
+    }
+
+    /**
+     * Rounds a coordinate down to a float
+     *
+     * @param value the coordinate
+     * @return the largest float not above it
+     */
+    static float floor(double value) {
+        float result = (float) value;
+        return result > value ? Math.nextDown(result) : result;
+    }
+
+    /**
+     * Rounds a coordinate up to a float
+     *
+     * @param value the coordinate
+     * @return the smallest float not below it
+     */
+    static float ceil(double value) {
+        float result = (float) value;
+        return result < value ? Math.nextUp(result) : result;
+    }
+
+    /**
+     * Slab test of a node box, the same as {@link BoundingBox#intersect(double, double, double, double, double, double, double)}
+     *
+     * @param bounds the node boxes
+     * @param node   the node index
+     * @param ox     origin x coordinate
+     * @param oy     origin y coordinate
+     * @param oz     origin z coordinate
+     * @param invX   reciprocal of the direction x coordinate
+     * @param invY   reciprocal of the direction y coordinate
+     * @param invZ   reciprocal of the direction z coordinate
+     * @param tMax   the ray parameter beyond which hits are not interesting
+     * @return the ray parameter where the ray enters the box (0 if it starts inside),
+     * or positive infinity if the ray misses the box before tMax
+     */
+    static double intersect(float[] bounds, int node, double ox, double oy, double oz,
+                            double invX, double invY, double invZ, double tMax) {
+        int b = 6 * node;
+        double tNear = 0;
+        double tFar = tMax;
+
+        double t1 = (bounds[b] - ox) * invX;
+        double t2 = (bounds[b + 3] - ox) * invX;
+        if (t1 > t2) { double tmp = t1; t1 = t2; t2 = tmp; }
+        if (t1 > tNear) tNear = t1;
+        if (t2 < tFar) tFar = t2;
+        if (tNear > tFar) return Double.POSITIVE_INFINITY;
+
+        t1 = (bounds[b + 1] - oy) * invY;
+        t2 = (bounds[b + 4] - oy) * invY;
+        if (t1 > t2) { double tmp = t1; t1 = t2; t2 = tmp; }
+        if (t1 > tNear) tNear = t1;
+        if (t2 < tFar) tFar = t2;
+        if (tNear > tFar) return Double.POSITIVE_INFINITY;
+
+        t1 = (bounds[b + 2] - oz) * invZ;
+        t2 = (bounds[b + 5] - oz) * invZ;
+        if (t1 > t2) { double tmp = t1; t1 = t2; t2 = tmp; }
+        if (t1 > tNear) tNear = t1;
+        if (t2 < tFar) tFar = t2;
+        return tNear > tFar ? Double.POSITIVE_INFINITY : tNear;
+    }
+}
@@ -0,0 +1,561 @@
+package geometries;
+
+import primitives.Color;
+import primitives.Double3;
+import primitives.Material;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Transform;
+import primitives.Vector;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary form of geometry trees, for the compiled scene files of {@link scene.SceneCache}.<br/>
+ * A tree is written as a stream of records, every record after the records it refers to, so geometries
+ * shared by several collections or instances are written once and stay shared after reading.
+ * Materials are records of their own for the same reason. The arrays of meshes and the finished structures
+ * of collections are written whole, and reading copies them out of the buffer in bulk instead of rebuilding them.
+ * Numbers are big-endian, as written by {@link DataOutput}.
+ */
+public final class CompiledGeometry {
+
+    /**
+     * Record tag of the end of the stream, followed by the root geometry
+     */
+    private static final byte END = 0;
+    /**
+     * Record tag of a material
+     */
+    private static final byte MATERIAL = 1;
+    /**
+     * Record tag of a sphere
+     */
+    private static final byte SPHERE = 2;
+    /**
+     * Record tag of a plane
+     */
+    private static final byte PLANE = 3;
+    /**
+     * Record tag of a triangle
+     */
+    private static final byte TRIANGLE = 4;
+    /**
+     * Record tag of a polygon
+     */
+    private static final byte POLYGON = 5;
+    /**
+     * Record tag of a tube
+     */
+    private static final byte TUBE = 6;
+    /**
+     * Record tag of a cylinder
+     */
+    private static final byte CYLINDER = 7;
+    /**
+     * Record tag of a triangle mesh
+     */
+    private static final byte MESH = 8;
+    /**
+     * Record tag of an instance
+     */
+    private static final byte INSTANCE = 9;
+    /**
+     * Record tag of a geometries collection
+     */
+    private static final byte GEOMETRIES = 10;
+
+    /**
+     * Size in bytes of the buffer arrays are converted in before being written
+     */
+    private static final int STAGING_SIZE = 1 << 16;
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private CompiledGeometry() {
+    }
+
+    /**
+     * Writes a geometry tree, building the structures of its collections if they are not built yet
+     *
+     * @param geometry the root of the tree
+     * @param out      the output
+     * @throws IOException              if writing fails
+     * @throws IllegalArgumentException if the tree holds a kind of geometry that cannot be compiled
+     */
+    public static void write(Intersectable geometry, DataOutput out) throws IOException {
+        Output output = new Output(out);
+        int root = output.geometry(geometry);
+        out.writeByte(END);
+        out.writeInt(root);
+    }
+
+    /**
+     * Reads a geometry tree written by {@link #write(Intersectable, DataOutput)}, from the current position of the
+     * buffer on. The buffer is left after the tree.
+     *
+     * @param in the buffer, in big-endian order
+     * @return the root of the tree
+     * @throws IllegalArgumentException if the records are malformed
+     */
+    public static Intersectable read(ByteBuffer in) {
+        return new Input(in).read();
+    }
+
+    /**
+     * The writing side: the records written so far, and the conversions of values and arrays to bytes
+     */
+    static final class Output {
+        /**
+         * The output
+         */
+        private final DataOutput out;
+        /**
+         * The index of every geometry written so far
+         */
+        private final Map<Intersectable, Integer> geometries = new IdentityHashMap<>();
+        /**
+         * The index of every material written so far
+         */
+        private final Map<Material, Integer> materials = new IdentityHashMap<>();
+        /**
+         * The buffer arrays are converted in, in the byte order of the output
+         */
+        private final ByteBuffer staging = ByteBuffer.allocate(STAGING_SIZE);
+
+        /**
+         * Constructs the writing side
+         *
+         * @param out the output
+         */
+        private Output(DataOutput out) {
+            this.out = out;
+        }
+
+        /**
+         * Writes the record of a geometry and the records it refers to, unless it was written already
+         *
+         * @param geometry the geometry
+         * @return the index of the geometry record
+         * @throws IOException              if writing fails
+         * @throws IllegalArgumentException if the geometry cannot be compiled
+         */
+        int geometry(Intersectable geometry) throws IOException {
+            Integer index = geometries.get(geometry);
+            if (index != null) return index;
+
+            Class<?> type = geometry.getClass();
+            if (type == Geometries.class) {
+                Geometries collection = (Geometries) geometry;
+                for (Intersectable child : collection.getChildren())
+                    geometry(child);
+                out.writeByte(GEOMETRIES);
+                collection.write(this);
+            } else if (type == Instance.class) {
+                Instance instance = (Instance) geometry;
+                int content = geometry(instance.getContent());
+                out.writeByte(INSTANCE);
+                out.writeInt(content);
+                doubles(instance.getTransform().getMatrix());
+            } else if (type == TriangleMesh.class) {
+                TriangleMesh mesh = (TriangleMesh) geometry;
+                int surfaces = mesh.getSurfaceCount();
+                int[] surfaceMaterials = new int[surfaces];
+                for (int i = 0; i < surfaces; ++i)
+                    surfaceMaterials[i] = material(mesh.getSurface(i).getMaterial());
+                out.writeByte(MESH);
+                out.writeInt(surfaces);
+                for (int i = 0; i < surfaces; ++i) {
+                    out.writeInt(surfaceMaterials[i]);
+                    color(mesh.getSurface(i).getEmission());
+                }
+                mesh.write(this);
+            } else if (type == Sphere.class) {
+                Sphere sphere = (Sphere) geometry;
+                surface(SPHERE, sphere);
+                out.writeDouble(sphere.radius);
+                point(sphere.getCenter());
+            } else if (type == Plane.class) {
+                Plane plane = (Plane) geometry;
+                surface(PLANE, plane);
+                point(plane.getPoint());
+                point(plane.getNormal());
+            } else if (type == Triangle.class || type == Polygon.class) {
+                Polygon polygon = (Polygon) geometry;
+                surface(type == Triangle.class ? TRIANGLE : POLYGON, polygon);
+                out.writeInt(polygon.vertices.size());
+                for (Point vertex : polygon.vertices)
+                    point(vertex);
+            } else if (type == Tube.class || type == Cylinder.class) {
+                Tube tube = (Tube) geometry;
+                surface(type == Cylinder.class ? CYLINDER : TUBE, tube);
+                out.writeDouble(tube.getRadius());
+                point(tube.getAxisRay().getP0());
+                point(tube.getAxisRay().getDir());
+                if (type == Cylinder.class) out.writeDouble(((Cylinder) geometry).getHeight());
+            } else
+                throw new IllegalArgumentException("Cannot compile a geometry of " + type.getName());
+
+            index = geometries.size();
+            geometries.put(geometry, index);
+            return index;
+        }
+
+        /**
+         * Writes the material of a geometry if it was not written yet, then the record tag
+         * and the material and emission of the geometry
+         *
+         * @param tag      the record tag
+         * @param geometry the geometry
+         * @throws IOException if writing fails
+         */
+        private void surface(byte tag, Geometry geometry) throws IOException {
+            int material = material(geometry.getMaterial());
+            out.writeByte(tag);
+            out.writeInt(material);
+            color(geometry.getEmission());
+        }
+
+        /**
+         * Writes the record of a material, unless it was written already
+         *
+         * @param material the material
+         * @return the index of the material record
+         * @throws IOException if writing fails
+         */
+        private int material(Material material) throws IOException {
+            Integer index = materials.get(material);
+            if (index != null) return index;
+            out.writeByte(MATERIAL);
+            triad(material.getKd());
+            triad(material.getKs());
+            triad(material.getKr());
+            triad(material.getKt());
+            out.writeInt(material.getShininess());
+            index = materials.size();
+            materials.put(material, index);
+            return index;
+        }
+
+        /**
+         * Writes an integer
+         *
+         * @param value the integer
+         * @throws IOException if writing fails
+         */
+        void writeInt(int value) throws IOException {
+            out.writeInt(value);
+        }
+
+        /**
+         * Writes three numbers
+         *
+         * @param triad the numbers
+         * @throws IOException if writing fails
+         */
+        private void triad(Double3 triad) throws IOException {
+            out.writeDouble(triad.getD1());
+            out.writeDouble(triad.getD2());
+            out.writeDouble(triad.getD3());
+        }
+
+        /**
+         * Writes a color
+         *
+         * @param color the color
+         * @throws IOException if writing fails
+         */
+        private void color(Color color) throws IOException {
+            triad(color.getRgb());
+        }
+
+        /**
+         * Writes the coordinates of a point or a vector
+         *
+         * @param point the point
+         * @throws IOException if writing fails
+         */
+        private void point(Point point) throws IOException {
+            out.writeDouble(point.getX());
+            out.writeDouble(point.getY());
+            out.writeDouble(point.getZ());
+        }
+
+        /**
+         * Writes the length of an array and its elements
+         *
+         * @param array the array
+         * @throws IOException if writing fails
+         */
+        void doubles(double[] array) throws IOException {
+            out.writeInt(array.length);
+            int chunk = STAGING_SIZE / Double.BYTES;
+            for (int offset = 0; offset < array.length; offset += chunk) {
+                int length = Math.min(chunk, array.length - offset);
+                staging.clear();
+                staging.asDoubleBuffer().put(array, offset, length);
+                out.write(staging.array(), 0, length * Double.BYTES);
+            }
+        }
+
+        /**
+         * Writes the length of an array and its elements
+         *
+         * @param array the array
+         * @throws IOException if writing fails
+         */
+        void floats(float[] array) throws IOException {
+            out.writeInt(array.length);
+            int chunk = STAGING_SIZE / Float.BYTES;
+            for (int offset = 0; offset < array.length; offset += chunk) {
+                int length = Math.min(chunk, array.length - offset);
+                staging.clear();
+                staging.asFloatBuffer().put(array, offset, length);
+                out.write(staging.array(), 0, length * Float.BYTES);
+            }
+        }
+
+        /**
+         * Writes the length of an array and its elements
+         *
+         * @param array the array, null is written as the length -1
+         * @throws IOException if writing fails
+         */
+        void ints(int[] array) throws IOException {
+            if (array == null) {
+                out.writeInt(-1);
+                return;
+            }
+            out.writeInt(array.length);
+            int chunk = STAGING_SIZE / Integer.BYTES;
+            for (int offset = 0; offset < array.length; offset += chunk) {
+                int length = Math.min(chunk, array.length - offset);
+                staging.clear();
+                staging.asIntBuffer().put(array, offset, length);
+                out.write(staging.array(), 0, length * Integer.BYTES);
+            }
+        }
+    }
+
+    /**
+     * The reading side: the records read so far, and the conversions of bytes to values and arrays
+     */
+    static final class Input {
+        /**
+         * The buffer
+         */
+        private final ByteBuffer in;
+        /**
+         * The geometries read so far, by record index
+         */
+        private final List<Intersectable> geometries = new ArrayList<>();
+        /**
+         * The materials read so far, by record index
+         */
+        private final List<Material> materials = new ArrayList<>();
+
+        /**
+         * Constructs the reading side
+         *
+         * @param in the buffer
+         */
+        private Input(ByteBuffer in) {
+            this.in = in;
+        }
+
+        /**
+         * Reads the records up to the end of the stream
+         *
+         * @return the root geometry
+         * @throws IllegalArgumentException if the records are malformed
+         */
+        private Intersectable read() {
+            while (true) {
+                byte tag = in.get();
+                switch (tag) {
+                    case END -> {
+                        return geometry(in.getInt());
+                    }
+                    case MATERIAL -> materials.add(new Material().setKd(triad()).setKs(triad())
+                            .setKr(triad()).setKt(triad()).setShininess(in.getInt()));
+                    case GEOMETRIES -> geometries.add(new Geometries(this));
+                    case INSTANCE -> {
+                        Intersectable content = geometry(in.getInt());
+                        geometries.add(new Instance(content, new Transform(doubles())));
+                    }
+                    case MESH -> {
+                        int surfaces = in.getInt();
+                        if (surfaces <= 0) throw new IllegalArgumentException("Malformed mesh record");
+                        Material[] surfaceMaterials = new Material[surfaces];
+                        Color[] emissions = new Color[surfaces];
+                        for (int i = 0; i < surfaces; ++i) {
+                            surfaceMaterials[i] = material(in.getInt());
+                            emissions[i] = color();
+                        }
+                        TriangleMesh mesh = new TriangleMesh(this, surfaces);
+                        for (int i = 0; i < surfaces; ++i)
+                            mesh.getSurface(i).setMaterial(surfaceMaterials[i]).setEmission(emissions[i]);
+                        geometries.add(mesh);
+                    }
+                    case SPHERE, PLANE, TRIANGLE, POLYGON, TUBE, CYLINDER -> {
+                        Material material = material(in.getInt());
+                        Color emission = color();
+                        Geometry geometry = switch (tag) {
+                            case SPHERE -> new Sphere(in.getDouble(), point());
+                            case PLANE -> new Plane(point(), vector());
+                            case TRIANGLE -> {
+                                if (in.getInt() != 3) throw new IllegalArgumentException("Malformed triangle record");
+                                yield new Triangle(point(), point(), point());
+                            }
+                            case POLYGON -> {
+                                Point[] vertices = new Point[in.getInt()];
+                                for (int i = 0; i < vertices.length; ++i)
+                                    vertices[i] = point();
+                                yield new Polygon(vertices);
+                            }
+                            case TUBE -> new Tube(in.getDouble(), new Ray(point(), vector()));
+                            default -> new Cylinder(in.getDouble(), new Ray(point(), vector()), in.getDouble());
+                        };
+                        geometries.add(geometry.setMaterial(material).setEmission(emission));
+                    }
+                    default -> throw new IllegalArgumentException("Unknown geometry record " + tag);
+                }
+            }
+        }
+
+        /**
+         * Getter of a geometry read before
+         *
+         * @param index the index of the geometry record
+         * @return the geometry
+         * @throws IllegalArgumentException if no such record was read
+         */
+        Intersectable geometry(int index) {
+            if (index < 0 || index >= geometries.size())
+                throw new IllegalArgumentException("Reference to a missing geometry record " + index);
+            return geometries.get(index);
+        }
+
+        /**
+         * Getter of a material read before
+         *
+         * @param index the index of the material record
+         * @return the material
+         * @throws IllegalArgumentException if no such record was read
+         */
+        private Material material(int index) {
+            if (index < 0 || index >= materials.size())
+                throw new IllegalArgumentException("Reference to a missing material record " + index);
+            return materials.get(index);
+        }
+
+        /**
+         * Reads an integer
+         *
+         * @return the integer
+         */
+        int readInt() {
+            return in.getInt();
+        }
+
+        /**
+         * Reads three numbers
+         *
+         * @return the numbers
+         */
+        private Double3 triad() {
+            return new Double3(in.getDouble(), in.getDouble(), in.getDouble());
+        }
+
+        /**
+         * Reads a color
+         *
+         * @return the color
+         */
+        private Color color() {
+            return new Color(in.getDouble(), in.getDouble(), in.getDouble());
+        }
+
+        /**
+         * Reads a point
+         *
+         * @return the point
+         */
+        private Point point() {
+            return new Point(in.getDouble(), in.getDouble(), in.getDouble());
+        }
+
+        /**
+         * Reads a vector
+         *
+         * @return the vector
+         */
+        private Vector vector() {
+            return new Vector(in.getDouble(), in.getDouble(), in.getDouble());
+        }
+
+        /**
+         * Reads the length of an array and makes room for its elements
+         *
+         * @param bytes the size of an element in bytes
+         * @return the length
+         * @throws IllegalArgumentException if the elements do not fit in the rest of the buffer
+         */
+        private int length(int bytes) {
+            int length = in.getInt();
+            if (length < 0 || (long) length * bytes > in.remaining())
+                throw new IllegalArgumentException("Malformed array length " + length);
+            return length;
+        }
+
+        /**
+         * Copies an array out of the buffer
+         *
+         * @return the array
+         * @throws IllegalArgumentException if the array is malformed
+         */
+        double[] doubles() {
+            double[] array = new double[length(Double.BYTES)];
+            in.asDoubleBuffer().get(array);
+            in.position(in.position() + array.length * Double.BYTES);
+            return array;
+        }
+
+        /**
+         * Copies an array out of the buffer
+         *
+         * @return the array
+         * @throws IllegalArgumentException if the array is malformed
+         */
+        float[] floats() {
+            float[] array = new float[length(Float.BYTES)];
+            in.asFloatBuffer().get(array);
+            in.position(in.position() + array.length * Float.BYTES);
+            return array;
+        }
+
+        /**
+         * Copies an array out of the buffer
+         *
+         * @return the array, null if it was written as null
+         * @throws IllegalArgumentException if the array is malformed
+         */
+        int[] ints() {
+            if (in.getInt(in.position()) == -1) {
+                in.getInt();
+                return null;
+            }
+            int[] array = new int[length(Integer.BYTES)];
+            in.asIntBuffer().get(array);
+            in.position(in.position() + array.length * Integer.BYTES);
+            return array;
+        }
+    }
+}
@@ -1,12 +1,10 @@
 package geometries;
 
+import primitives.BoundingBox;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import static primitives.Util.alignZero;
 import static primitives.Util.isZero;
 
@@ -22,6 +20,11 @@ public class Cylinder extends Tube {
      */
     private final double height;
 
+    /**
+     * The box bounding the cylinder
+     */
+    private final BoundingBox box;
+
     /**
      * Constructs a Cylinder with a given radius, axis Ray and height.
      *
@@ -32,6 +35,22 @@ public class Cylinder extends Tube {
     public Cylinder(double radius, Ray axisRay, double height) {
         super(radius, axisRay);
         this.height = height;
+
+        // each base is a disk, which extends radius * sin(angle between the axis and the coordinate axis)
+        Vector dir = axisRay.getDir();
+        double ex = radius * Math.sqrt(Math.max(0, 1 - dir.getX() * dir.getX()));
+        double ey = radius * Math.sqrt(Math.max(0, 1 - dir.getY() * dir.getY()));
+        double ez = radius * Math.sqrt(Math.max(0, 1 - dir.getZ() * dir.getZ()));
+        Point o1 = axisRay.getP0();
+        Point o2 = axisRay.getPoint(height);
+        box = new BoundingBox(Math.min(o1.getX(), o2.getX()) - ex, Math.min(o1.getY(), o2.getY()) - ey,
+                Math.min(o1.getZ(), o2.getZ()) - ez, Math.max(o1.getX(), o2.getX()) + ex,
+                Math.max(o1.getY(), o2.getY()) + ey, Math.max(o1.getZ(), o2.getZ()) + ez);
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return box;
     }
 
     /**
@@ -67,23 +86,15 @@ public class Cylinder extends Tube {
     }
 
     /**
-     * @param ray the ray
-     * @return list of intersection points
+     * Checks whether a point of the tube surface is between the two bases of the cylinder
+     *
+     * @param axial the distance of the projection of the point on the axis from the axis head
+     * @return true if the point belongs to the cylinder
      */
     @Override
-    public List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
-        List<GeoPoint> res = new ArrayList<>();
-        List<GeoPoint> lst = super.findGeoIntersectionsHelper(ray);
-        if (lst != null)
-            for (GeoPoint geoPoint : lst) {
-                double distance = alignZero(geoPoint.point.subtract(axisRay.getP0()).dotProduct(axisRay.getDir()));
-                if (distance > 0 && distance <= height)
-                    res.add(geoPoint);
-            }
-
-        if (res.size() == 0)
-            return null;
-        return res;
+    protected boolean isOnSurface(double axial) {
+        double distance = alignZero(axial);
+        return distance > 0 && distance <= height;
     }
 
     @Override
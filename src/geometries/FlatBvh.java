@@ -0,0 +1,321 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import primitives.BoundingBox;
+import primitives.Double3;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Bounding volume hierarchy flattened into arrays, so the traversal reads consecutive memory
+ * and touches no node objects.<br/>
+ * The nodes are laid out depth-first: the left child of an inner node directly follows it,
+ * and the node keeps the index of its right child. Node i keeps its box in {@code bounds[6i .. 6i+5]}
+ * (minimal x, y, z then maximal x, y, z, rounded outwards to floats, see {@link BvhNodes}) and two integers in {@code nodes[2i], nodes[2i+1]}:
+ * for a leaf the first primitive and the amount of primitives, for an inner node the right child and 0.
+ */
+class FlatBvh implements Accelerator {
+
+    /**
+     * The boxes of the nodes, six coordinates per node
+     */
+    private final float[] bounds;
+
+    /**
+     * The child offset or primitive range of the nodes, two integers per node
+     */
+    private final int[] nodes;
+
+    /**
+     * The geometries ordered so that every leaf refers to a contiguous range
+     */
+    private final Intersectable[] primitives;
+
+    /**
+     * The box bounding the whole hierarchy
+     */
+    private final BoundingBox box;
+
+    /**
+     * The build figures of the hierarchy, collected from the flat nodes, including the time of building the linked nodes
+     */
+    private final BuildStats stats;
+
+    /**
+     * Index of the next node to be written while flattening
+     */
+    private int next = 0;
+
+    /**
+     * Flattens a hierarchy of linked nodes
+     *
+     * @param tree the hierarchy
+     */
+    FlatBvh(Bvh tree) {
+        long start = System.nanoTime();
+        primitives = tree.getPrimitives();
+        int count = count(tree.getRoot());
+        bounds = new float[6 * count];
+        nodes = new int[2 * count];
+        if (count > 0) flatten(tree.getRoot());
+        box = count == 0 ? null : BvhNodes.box(bounds, 0);
+        stats = collect(tree.getBuildStats().getBuildNanos() + System.nanoTime() - start);
+    }
+
+    /**
+     * Reads a hierarchy written by {@link #write(CompiledGeometry.Output)}.
+     * The figures are collected again from the nodes, with the reading time as the build time.
+     *
+     * @param in the reading side
+     * @throws IllegalArgumentException if the arrays are malformed or a node or a geometry is out of range
+     */
+    FlatBvh(CompiledGeometry.Input in) {
+        long start = System.nanoTime();
+        bounds = in.floats();
+        nodes = in.ints();
+        int[] order = in.ints();
+        if (bounds == null || nodes == null || order == null || bounds.length != 3 * nodes.length)
+            throw new IllegalArgumentException("Malformed hierarchy record");
+        BvhNodes.checkNodes(nodes, order.length);
+        primitives = new Intersectable[order.length];
+        for (int i = 0; i < order.length; ++i)
+            primitives[i] = in.geometry(order[i]);
+        box = nodes.length == 0 ? null : BvhNodes.box(bounds, 0);
+        stats = collect(System.nanoTime() - start);
+    }
+
+    /**
+     * Constructs the copy of a hierarchy over the copies of its geometries, sharing its nodes
+     *
+     * @param tree     the hierarchy
+     * @param snapshot the copies of the snapshot so far
+     */
+    private FlatBvh(FlatBvh tree, Snapshot snapshot) {
+        bounds = tree.bounds;
+        nodes = tree.nodes;
+        primitives = snapshot.copy(tree.primitives);
+        box = tree.box;
+        stats = tree.stats;
+    }
+
+    @Override
+    public FlatBvh copy(Snapshot snapshot) {
+        return new FlatBvh(this, snapshot);
+    }
+
+    /**
+     * Writes the arrays of the hierarchy and the order of its geometries, which must be written before
+     *
+     * @param out the writing side
+     * @throws IOException if writing fails
+     */
+    void write(CompiledGeometry.Output out) throws IOException {
+        out.floats(bounds);
+        out.ints(nodes);
+        int[] order = new int[primitives.length];
+        for (int i = 0; i < primitives.length; ++i)
+            order[i] = out.geometry(primitives[i]);
+        out.ints(order);
+    }
+
+    /**
+     * Collects the figures of the nodes, the same way as they are collected from linked nodes,
+     * so a hierarchy read back has the same figures as the one written.
+     * The children follow their parent in the layout, so a single pass in node order knows every depth.
+     *
+     * @param buildNanos the build time in nanoseconds, without the collection
+     * @return the figures
+     */
+    private BuildStats collect(long buildNanos) {
+        long start = System.nanoTime();
+        BuildStats figures = new BuildStats(0);
+        int count = getNodeCount();
+        if (count > 0) {
+            double rootArea = BvhNodes.area(bounds, 0);
+            int[] depths = new int[count];
+            for (int node = 0; node < count; ++node) {
+                double probability = BvhNodes.area(bounds, node) / rootArea;
+                if (nodes[2 * node + 1] > 0)
+                    figures.addLeaf(depths[node], nodes[2 * node + 1], probability);
+                else {
+                    figures.addInner(probability);
+                    depths[node + 1] = depths[nodes[2 * node]] = depths[node] + 1;
+                }
+            }
+        }
+        return new BuildStats(figures, buildNanos + System.nanoTime() - start);
+    }
+
+    /**
+     * Counts the nodes of a subtree
+     *
+     * @param node the subtree root
+     * @return the amount of nodes
+     */
+    private static int count(Bvh.Node node) {
+        if (node == null) return 0;
+        return node.left == null ? 1 : 1 + count(node.left) + count(node.right);
+    }
+
+    /**
+     * Writes a subtree depth-first from the next free node on
+     *
+     * @param node the subtree root
+     */
+    private void flatten(Bvh.Node node) {
+        int index = next++;
+        BvhNodes.store(bounds, index, node.box);
+        if (node.left == null) {
+            nodes[2 * index] = node.start;
+            nodes[2 * index + 1] = node.count;
+        } else {
+            flatten(node.left);
+            nodes[2 * index] = next;
+            flatten(node.right);
+        }
+    }
+
+    /**
+     * Getter of the amount of nodes
+     *
+     * @return the amount of nodes
+     */
+    int getNodeCount() {
+        return nodes.length / 2;
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return box;
+    }
+
+    @Override
+    public BuildStats getBuildStats() {
+        return stats;
+    }
+
+    @Override
+    public void findGeoIntersections(Ray ray, HitBuffer hits) {
+        if (nodes.length == 0) return;
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        double invX = 1 / dir.getX(), invY = 1 / dir.getY(), invZ = 1 / dir.getZ();
+
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (BvhNodes.intersect(bounds, node, ox, oy, oz, invX, invY, invZ, Double.POSITIVE_INFINITY)
+                    == Double.POSITIVE_INFINITY)
+                continue;
+            int offset = nodes[2 * node], count = nodes[2 * node + 1];
+            if (count > 0) {
+                for (int i = offset; i < offset + count; ++i)
+                    primitives[i].findGeoIntersections(ray, hits);
+            } else {
+                if (top + 2 > stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+                stack[top++] = offset;
+                stack[top++] = node + 1;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Nodes are visited nearer child first, and the maximal distance shrinks with every hit found,
+     * so nodes and geometries behind the closest hit so far are skipped.
+     */
+    @Override
+    public GeoPoint findClosestGeoIntersection(Ray ray, double tMax) {
+        if (nodes.length == 0) return null;
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        double invX = 1 / dir.getX(), invY = 1 / dir.getY(), invZ = 1 / dir.getZ();
+
+        GeoPoint closest = null;
+        int[] stack = new int[64];
+        double[] entries = new double[64];
+        int top = 0;
+        double rootEntry = BvhNodes.intersect(bounds, 0, ox, oy, oz, invX, invY, invZ, tMax);
+        if (rootEntry == Double.POSITIVE_INFINITY) return null;
+        stack[top] = 0;
+        entries[top++] = rootEntry;
+        while (top > 0) {
+            int node = stack[--top];
+            // the node may have been pushed before a nearer hit was found
+            if (entries[top] >= tMax) continue;
+            int offset = nodes[2 * node], count = nodes[2 * node + 1];
+            if (count > 0) {
+                for (int i = offset; i < offset + count; ++i) {
+                    GeoPoint geoPoint = primitives[i].findClosestGeoIntersection(ray, tMax);
+                    if (geoPoint != null) {
+                        closest = geoPoint;
+                        tMax = geoPoint.distance(p0);
+                    }
+                }
+            } else {
+                int near = node + 1, far = offset;
+                double tNear = BvhNodes.intersect(bounds, near, ox, oy, oz, invX, invY, invZ, tMax);
+                double tFar = BvhNodes.intersect(bounds, far, ox, oy, oz, invX, invY, invZ, tMax);
+                if (top + 2 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                    entries = Arrays.copyOf(entries, entries.length * 2);
+                }
+                // push the farther child first so the nearer one is visited first
+                if (tFar < tNear) {
+                    near = offset;
+                    far = node + 1;
+                    double tmp = tNear;
+                    tNear = tFar;
+                    tFar = tmp;
+                }
+                if (tFar != Double.POSITIVE_INFINITY) {
+                    stack[top] = far;
+                    entries[top++] = tFar;
+                }
+                if (tNear != Double.POSITIVE_INFINITY) {
+                    stack[top] = near;
+                    entries[top++] = tNear;
+                }
+            }
+        }
+        return closest;
+    }
+
+    @Override
+    public Double3 findTransparency(Ray ray, double tMax, Double3 ktr, double minK) {
+        if (nodes.length == 0) return ktr;
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        double invX = 1 / dir.getX(), invY = 1 / dir.getY(), invZ = 1 / dir.getZ();
+
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (BvhNodes.intersect(bounds, node, ox, oy, oz, invX, invY, invZ, tMax) == Double.POSITIVE_INFINITY)
+                continue;
+            int offset = nodes[2 * node], count = nodes[2 * node + 1];
+            if (count > 0) {
+                for (int i = offset; i < offset + count; ++i) {
+                    ktr = primitives[i].findTransparency(ray, tMax, ktr, minK);
+                    if (ktr.lowerThan(minK)) return Double3.ZERO;
+                }
+            } else {
+                if (top + 2 > stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+                stack[top++] = offset;
+                stack[top++] = node + 1;
+            }
+        }
+        return ktr;
+    }
+}
@@ -1,9 +1,13 @@
 package geometries;
 
+import primitives.BoundingBox;
+import primitives.Double3;
 import primitives.Ray;
 
+import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * The class Geometries represents a collection of geometries.
@@ -11,6 +15,9 @@ import java.util.List;
  * It is composed of a list of geometries.
  * It is used to find intersections between a ray and the geometries in the collection.
  * It is used to find the closest intersection point to a given point.
+ * The bounded geometries are organized in an acceleration structure (built lazily on the first query),
+ * while the unbounded ones are always tested.
+ * The structure is chosen by {@link #setAcceleration(Acceleration)}, a flattened hierarchy by default.
  */
 public class Geometries extends Intersectable {
 
@@ -19,6 +26,31 @@ public class Geometries extends Intersectable {
      */
     private final List<Intersectable> geometriesList = new LinkedList<>();
 
+    /**
+     * The geometries without a bounding box, they are tested against every ray.
+     */
+    private List<Intersectable> unbounded = null;
+
+    /**
+     * The kind of structure the bounded geometries are organized in
+     */
+    private Acceleration acceleration = Acceleration.FLAT_BVH;
+
+    /**
+     * The structure over the bounded geometries, null until the first query after a change.
+     */
+    private volatile Accelerator accelerator = null;
+
+    /**
+     * The counter of the bounding box pre-test, applied to every geometry added to the collection
+     */
+    private LongAdder culledTests = null;
+
+    /**
+     * Whether the collection is the copy in a frozen scene and must not change any more
+     */
+    private boolean frozen = false;
+
     /**
      * Constructs a geometries object from a list of geometries.
      */
@@ -34,32 +66,240 @@ public class Geometries extends Intersectable {
         add(geometries);
     }
 
+    /**
+     * Reads a collection written by {@link #write(CompiledGeometry.Output)}, with its structure as it was built
+     *
+     * @param in the reading side
+     * @throws IllegalArgumentException if the record is malformed
+     */
+    Geometries(CompiledGeometry.Input in) {
+        int[] children = in.ints();
+        if (children == null) throw new IllegalArgumentException("Malformed geometries record");
+        for (int child : children) {
+            Intersectable geometry = in.geometry(child);
+            geometriesList.add(geometry);
+            geometry.addContainer(this);
+        }
+        int kind = in.readInt();
+        if (kind < 0 || kind >= Acceleration.values().length)
+            throw new IllegalArgumentException("Unknown acceleration " + kind);
+        acceleration = Acceleration.values()[kind];
+        if (in.readInt() != 0) {
+            int[] infinite = in.ints();
+            if (infinite == null) throw new IllegalArgumentException("Malformed geometries record");
+            unbounded = new LinkedList<>();
+            for (int geometry : infinite)
+                unbounded.add(in.geometry(geometry));
+            accelerator = new FlatBvh(in);
+        }
+    }
+
+    /**
+     * Writes the collection, its children must be written before.
+     * A flattened hierarchy is written as it is, with the order of its geometries,
+     * the other kinds of structures are rebuilt by the reading side on the first query.
+     *
+     * @param out the writing side
+     * @throws IOException if writing fails
+     */
+    void write(CompiledGeometry.Output out) throws IOException {
+        Accelerator structure = getAccelerator();
+        int[] children = new int[geometriesList.size()];
+        int i = 0;
+        for (Intersectable geometry : geometriesList)
+            children[i++] = out.geometry(geometry);
+        out.ints(children);
+        out.writeInt(acceleration.ordinal());
+        if (structure instanceof FlatBvh flat) {
+            out.writeInt(1);
+            int[] infinite = new int[unbounded.size()];
+            i = 0;
+            for (Intersectable geometry : unbounded)
+                infinite[i++] = out.geometry(geometry);
+            out.ints(infinite);
+            flat.write(out);
+        } else
+            out.writeInt(0);
+    }
+
+    /**
+     * Getter of the geometries in the collection
+     *
+     * @return the geometries, in the order they were added
+     */
+    List<Intersectable> getChildren() {
+        return geometriesList;
+    }
+
     /**
      * Adds geometries to the geometries list.
+     * The structures of the collections and instances containing this one are dropped as well,
+     * since they were built over its old bounds.
      *
      * @param geometries The geometries to add.
      */
     public void add(Intersectable... geometries) {
+        checkNotFrozen();
         this.geometriesList.addAll(List.of(geometries));
+        for (Intersectable geometry : geometries) {
+            geometry.setBoundingBoxCulling(culledTests);
+            geometry.addContainer(this);
+        }
+        changed();
+    }
+
+    @Override
+    void changed() {
+        accelerator = null;
+        super.changed();
+    }
+
+    /**
+     * Setter of the kind of structure the bounded geometries are organized in
+     *
+     * @param acceleration the kind of structure
+     * @return the geometries collection itself
+     */
+    public Geometries setAcceleration(Acceleration acceleration) {
+        if (acceleration == null)
+            throw new IllegalArgumentException("acceleration must not be null");
+        checkNotFrozen();
+        this.acceleration = acceleration;
+        accelerator = null;
+        return this;
+    }
+
+    /**
+     * Turns the bounding box pre-test on or off for the collection and all the geometries in it
+     *
+     * @param culledTests the counter of the skipped tests, null to turn the pre-test off
+     * @return the geometries collection itself
+     */
+    @Override
+    public Geometries setBoundingBoxCulling(LongAdder culledTests) {
+        checkNotFrozen();
+        super.setBoundingBoxCulling(culledTests);
+        this.culledTests = culledTests;
+        for (Intersectable geometry : geometriesList)
+            geometry.setBoundingBoxCulling(culledTests);
+        return this;
+    }
+
+    /**
+     * Takes a frozen snapshot of the collection, as done by {@link scene.Scene#freeze()}: a copy of the collection
+     * and of everything in it, with the structures built, in which the geometries with equal materials share
+     * a single frozen copy of the material and nothing may change. The collection itself, its geometries
+     * and their materials are left as they are and may go on changing.
+     *
+     * @return the snapshot
+     */
+    public Geometries snapshot() {
+        return copy(new Snapshot());
+    }
+
+    /**
+     * {@inheritDoc}
+     * The structure is built if needed, and its copy refers to the copies of the geometries.
+     */
+    @Override
+    Geometries copy(Snapshot snapshot) {
+        Accelerator structure = getAccelerator();
+        Geometries copy = new Geometries();
+        copy.acceleration = acceleration;
+        copy.setBoundingBoxCulling(culledTests);
+        for (Intersectable geometry : geometriesList)
+            copy.geometriesList.add(snapshot.copy(geometry));
+        List<Intersectable> infinite = new LinkedList<>();
+        for (Intersectable geometry : unbounded)
+            infinite.add(snapshot.copy(geometry));
+        copy.unbounded = infinite;
+        copy.accelerator = structure.copy(snapshot);
+        copy.frozen = true;
+        return copy;
+    }
+
+    /**
+     * Checks that the collection may still change
+     *
+     * @throws IllegalStateException if the collection is frozen
+     */
+    private void checkNotFrozen() {
+        if (frozen) throw new IllegalStateException("A geometries collection of a frozen scene must not change");
+    }
+
+    /**
+     * Builds the structure if the geometries changed since it was last built.
+     * Synchronized so that rendering threads racing on the first ray build it only once.
+     *
+     * @return the structure over the bounded geometries
+     */
+    private Accelerator getAccelerator() {
+        Accelerator result = accelerator;
+        if (result != null) return result;
+        synchronized (this) {
+            if (accelerator == null) {
+                List<Intersectable> bounded = new LinkedList<>();
+                List<Intersectable> infinite = new LinkedList<>();
+                for (Intersectable geometry : geometriesList)
+                    (geometry.getBoundingBox() == null ? infinite : bounded).add(geometry);
+                unbounded = infinite;
+                accelerator = acceleration.build(bounded);
+            }
+            return accelerator;
+        }
     }
 
     /**
-     * Find Geometry intersections list.
+     * Getter of the build time and quality figures of the structure over the bounded geometries,
+     * building the structure if the geometries changed since it was last built
      *
-     * @param ray the ray
-     * @return the list of intersection points
+     * @return the figures
      */
+    public BuildStats getBuildStats() {
+        return getAccelerator().getBuildStats();
+    }
+
     @Override
-    public List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
-        List<GeoPoint> intersections = null;
-
-        for (var geometry : geometriesList) {
-            var geometryIntersections = geometry.findGeoIntersections(ray);
-            if (geometryIntersections != null) {
-                if (intersections == null) intersections = new LinkedList<>();
-                intersections.addAll(geometryIntersections);
+    public BoundingBox getBoundingBox() {
+        Accelerator structure = getAccelerator();
+        return unbounded.isEmpty() ? structure.getBoundingBox() : null;
+    }
+
+    /**
+     * Find Geometry intersections - the unbounded geometries are tested one by one, the rest through the structure.
+     *
+     * @param ray  the ray
+     * @param hits the buffer receiving the intersections
+     */
+    @Override
+    protected void findGeoIntersectionsHelper(Ray ray, HitBuffer hits) {
+        getAccelerator().findGeoIntersections(ray, hits);
+        for (var geometry : unbounded)
+            geometry.findGeoIntersections(ray, hits);
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double tMax) {
+        Accelerator structure = getAccelerator();
+        GeoPoint closest = null;
+        for (var geometry : unbounded) {
+            GeoPoint geoPoint = geometry.findClosestGeoIntersection(ray, tMax);
+            if (geoPoint != null) {
+                closest = geoPoint;
+                tMax = geoPoint.distance(ray.getP0());
             }
         }
-        return intersections;
+        GeoPoint bounded = structure.findClosestGeoIntersection(ray, tMax);
+        return bounded == null ? closest : bounded;
+    }
+
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double tMax, Double3 ktr, double minK) {
+        Accelerator structure = getAccelerator();
+        for (var geometry : unbounded) {
+            ktr = geometry.findTransparency(ray, tMax, ktr, minK);
+            if (ktr.lowerThan(minK)) return Double3.ZERO;
+        }
+        return structure.findTransparency(ray, tMax, ktr, minK);
     }
 }
@@ -1,8 +1,10 @@
 package geometries;
 
 import primitives.Color;
+import primitives.Double3;
 import primitives.Material;
 import primitives.Point;
+import primitives.Ray;
 import primitives.Vector;
 
 
@@ -10,7 +12,7 @@ import primitives.Vector;
  * The Geometry abstract represents a geometric shape or object in 3D space.
  * Implementing classes must provide a method to retrieve the normal vector at a given point on the surface.
  */
-public abstract class Geometry extends Intersectable {
+public abstract class Geometry extends Intersectable implements Cloneable {
 
     /**
      * The color of the geometry.
@@ -22,6 +24,11 @@ public abstract class Geometry extends Intersectable {
      */
     private Material material = new Material();
 
+    /**
+     * Whether the geometry is the copy in a frozen scene and must not change any more
+     */
+    private boolean frozen = false;
+
     /**
      * Function will set the color of the geometry
      *
@@ -29,6 +36,7 @@ public abstract class Geometry extends Intersectable {
      * @return the emission
      */
     public Geometry setEmission(Color emission) {
+        checkNotFrozen();
         this.emission = emission;
         return this;
     }
@@ -58,10 +66,47 @@ public abstract class Geometry extends Intersectable {
      * @return the material of the geometry
      */
     public Geometry setMaterial(Material material) {
+        checkNotFrozen();
         this.material = material;
         return this;
     }
 
+    /**
+     * Checks that the geometry may still change
+     *
+     * @throws IllegalStateException if the geometry is frozen
+     */
+    private void checkNotFrozen() {
+        if (frozen) throw new IllegalStateException("A geometry of a frozen scene must not change");
+    }
+
+    /**
+     * {@inheritDoc}
+     * The shape is shared, as it never changes, and the material is replaced by its frozen copy.
+     */
+    @Override
+    Geometry copy(Snapshot snapshot) {
+        try {
+            Geometry copy = (Geometry) clone();
+            copy.copyLooks(this, snapshot);
+            return copy;
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("A geometry must be cloneable", e);
+        }
+    }
+
+    /**
+     * Sets the emission and the frozen copy of the material of another geometry, and freezes this geometry
+     *
+     * @param other    the geometry to copy the looks of
+     * @param snapshot the copies of the snapshot so far
+     */
+    void copyLooks(Geometry other, Snapshot snapshot) {
+        emission = other.emission;
+        material = snapshot.material(other.material);
+        frozen = true;
+    }
+
     /**
      * Returns the normal vector at the given point on the surface of the geometry.
      *
@@ -69,4 +114,39 @@ public abstract class Geometry extends Intersectable {
      * @return the normal vector at the given point
      */
     public abstract Vector getNormal(Point point);
+
+    /**
+     * Creates the intersection point at a distance along a ray
+     *
+     * @param ray the ray
+     * @param t   the distance from the ray head
+     * @return the intersection point
+     */
+    GeoPoint createGeoPoint(Ray ray, double t) {
+        return new GeoPoint(this, ray.getPoint(t), t);
+    }
+
+    /**
+     * Creates the intersection point of an element inside the geometry at a distance along a ray.
+     * Geometries without elements ignore the element.
+     *
+     * @param ray     the ray
+     * @param t       the distance from the ray head
+     * @param element the element hit, -1 if unknown
+     * @return the intersection point
+     */
+    GeoPoint createGeoPoint(Ray ray, double t, int element) {
+        return createGeoPoint(ray, t);
+    }
+
+    /**
+     * An opaque geometry blocks the light with any hit before the light source,
+     * so the nearest-hit query is enough and the rest of the hits are never collected.
+     */
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double tMax, Double3 ktr, double minK) {
+        if (material.getKt().lowerThan(minK))
+            return findClosestGeoIntersectionHelper(ray, tMax) == null ? ktr : Double3.ZERO;
+        return super.findTransparencyHelper(ray, tMax, ktr, minK);
+    }
 }
@@ -0,0 +1,183 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import primitives.Ray;
+import primitives.Transform;
+import primitives.Vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reusable array-backed buffer of the intersections of a ray.<br/>
+ * A hit is kept as its geometry and its distance along the ray, so adding one creates no object.
+ * Every thread owns a buffer of its own, see {@link #ofCurrentThread()}.
+ * A query appends its hits after the ones already in the buffer, so queries can nest:
+ * the caller remembers the {@link #size()} before the query and {@link #truncate(int) truncates} back to it
+ * when it is done with the hits.<br/>
+ * A hit found inside an {@link Instance} keeps the transform from the object space of its geometry
+ * to the space of the query, and its distance is measured in the space of the query.
+ */
+public final class HitBuffer {
+
+    /**
+     * The buffer of every thread
+     */
+    private static final ThreadLocal<HitBuffer> BUFFERS = ThreadLocal.withInitial(HitBuffer::new);
+
+    /**
+     * The geometries of the hits
+     */
+    private Geometry[] geometries = new Geometry[16];
+
+    /**
+     * The distances of the hits from the ray head
+     */
+    private double[] distances = new double[16];
+
+    /**
+     * The elements hit inside the geometries (e.g. the face of a mesh), -1 for geometries without elements
+     */
+    private int[] elements = new int[16];
+
+    /**
+     * The transforms from the object space of the hit geometries to the space of the query, null for no transform
+     */
+    private Transform[] transforms = new Transform[16];
+
+    /**
+     * The amount of hits in the buffer
+     */
+    private int size = 0;
+
+    /**
+     * Getter of the buffer owned by the current thread
+     *
+     * @return the buffer
+     */
+    public static HitBuffer ofCurrentThread() {
+        return BUFFERS.get();
+    }
+
+    /**
+     * Adds a hit
+     *
+     * @param geometry the geometry hit
+     * @param t        the distance of the hit from the ray head
+     */
+    public void add(Geometry geometry, double t) {
+        add(geometry, t, -1);
+    }
+
+    /**
+     * Adds a hit of an element inside a geometry
+     *
+     * @param geometry the geometry hit
+     * @param t        the distance of the hit from the ray head
+     * @param element  the element hit inside the geometry
+     */
+    public void add(Geometry geometry, double t, int element) {
+        if (size == distances.length) {
+            geometries = Arrays.copyOf(geometries, size * 2);
+            distances = Arrays.copyOf(distances, size * 2);
+            elements = Arrays.copyOf(elements, size * 2);
+            transforms = Arrays.copyOf(transforms, size * 2);
+        }
+        transforms[size] = null;
+        elements[size] = element;
+        geometries[size] = geometry;
+        distances[size++] = t;
+    }
+
+    /**
+     * Getter of the amount of hits in the buffer
+     *
+     * @return the amount of hits
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Drops the hits added after the buffer had a given size
+     *
+     * @param size the size to go back to
+     */
+    public void truncate(int size) {
+        if (size < 0 || size > this.size)
+            throw new IllegalArgumentException("size must be between 0 and the current size");
+        Arrays.fill(geometries, size, this.size, null);
+        Arrays.fill(transforms, size, this.size, null);
+        this.size = size;
+    }
+
+    /**
+     * Getter of the geometry of a hit
+     *
+     * @param index the index of the hit
+     * @return the geometry
+     */
+    public Geometry getGeometry(int index) {
+        return geometries[index];
+    }
+
+    /**
+     * Getter of the distance of a hit from the ray head
+     *
+     * @param index the index of the hit
+     * @return the distance
+     */
+    public double getT(int index) {
+        return distances[index];
+    }
+
+    /**
+     * Moves the hits from an index on from the object space of an instance to the space around it
+     *
+     * @param from      the index of the first hit
+     * @param transform the transform of the instance from its object space to the space around it
+     * @param scale     the length in the object space of a unit length along the ray in the space around it
+     */
+    void transform(int from, Transform transform, double scale) {
+        for (int i = from; i < size; ++i) {
+            distances[i] /= scale;
+            transforms[i] = transforms[i] == null ? transform : transforms[i].then(transform);
+        }
+    }
+
+    /**
+     * Creates the intersection points of the hits from an index on
+     *
+     * @param ray  the ray of the hits
+     * @param from the index of the first hit
+     * @return the intersections, null if there are none
+     */
+    public List<GeoPoint> toGeoPoints(Ray ray, int from) {
+        if (from >= size) return null;
+        List<GeoPoint> intersections = new ArrayList<>(size - from);
+        for (int i = from; i < size; ++i)
+            intersections.add(toGeoPoint(ray, i));
+        return intersections;
+    }
+
+    /**
+     * Creates the intersection point of a hit.
+     * A hit found inside an instance is created in the object space of its geometry and moved to the space of the query.
+     *
+     * @param ray   the ray of the hit
+     * @param index the index of the hit
+     * @return the intersection point
+     */
+    public GeoPoint toGeoPoint(Ray ray, int index) {
+        Transform transform = transforms[index];
+        if (transform == null) return geometries[index].createGeoPoint(ray, distances[index], elements[index]);
+        Transform toObject = transform.inverse();
+        Vector dir = toObject.transformVector(ray.getDir());
+        double scale = dir.length();
+        GeoPoint hit = geometries[index].createGeoPoint(new Ray(toObject.transformPoint(ray.getP0()), dir),
+                distances[index] * scale, elements[index]);
+        return new GeoPoint(hit.geometry, transform.transformPoint(hit.point), distances[index])
+                .setNormal(transform.transformNormal(hit.getNormal()));
+    }
+}
@@ -0,0 +1,149 @@
+package geometries;
+
+import primitives.BoundingBox;
+import primitives.Double3;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Transform;
+import primitives.Vector;
+
+
+/**
+ * A placed copy of shared content.<br/>
+ * The content is defined once in its own object space (typically a {@link Geometries} with its own
+ * acceleration structure), and every instance refers to it together with a transform placing it in the scene.
+ * Rays are moved into the object space instead of moving the content, so a thousand copies of a model cost
+ * a thousand small instances rather than a thousand copies of its geometries.
+ * Instances added to a {@link Geometries} get their own structure over their boxes, which gives two levels:
+ * one structure over the instances, and one shared structure inside the content.
+ */
+public class Instance extends Intersectable {
+
+    /**
+     * The shared content, in its object space
+     */
+    private final Intersectable content;
+
+    /**
+     * The transform from the object space of the content to the space around the instance
+     */
+    private final Transform transform;
+
+    /**
+     * The transform from the space around the instance to the object space of the content
+     */
+    private final Transform toObject;
+
+    /**
+     * The box bounding the placed content, null until first needed after a change of the content
+     */
+    private volatile BoundingBox box = null;
+
+    /**
+     * Constructs an instance of content
+     *
+     * @param content   the shared content
+     * @param transform the transform from the object space of the content to the space around the instance
+     * @throws IllegalArgumentException if the content or the transform is null
+     */
+    public Instance(Intersectable content, Transform transform) {
+        if (content == null || transform == null)
+            throw new IllegalArgumentException("An instance needs content and a transform");
+        this.content = content;
+        this.transform = transform;
+        this.toObject = transform.inverse();
+        content.addContainer(this);
+    }
+
+    /**
+     * Getter of the shared content
+     *
+     * @return the content, in its object space
+     */
+    public Intersectable getContent() {
+        return content;
+    }
+
+    /**
+     * Getter of the transform placing the content
+     *
+     * @return the transform from the object space of the content to the space around the instance
+     */
+    public Transform getTransform() {
+        return transform;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The copies of instances of the same content share the copy of the content.
+     */
+    @Override
+    Instance copy(Snapshot snapshot) {
+        Instance copy = new Instance(snapshot.copy(content), transform);
+        copy.box = getBoundingBox();
+        copy.setBoundingBoxCulling(getBoundingBoxCulling());
+        return copy;
+    }
+
+    @Override
+    void changed() {
+        box = null;
+        super.changed();
+    }
+
+    /**
+     * Getter of the box bounding the placed content - the box of the transformed corners of the content box
+     *
+     * @return the bounding box, null if the content is unbounded
+     */
+    @Override
+    public BoundingBox getBoundingBox() {
+        BoundingBox result = box;
+        if (result != null) return result;
+        BoundingBox contentBox = content.getBoundingBox();
+        if (contentBox == null) return null;
+        Point[] corners = new Point[8];
+        for (int i = 0; i < 8; ++i)
+            corners[i] = transform.transformPoint(new Point(
+                    (i & 1) == 0 ? contentBox.getMin(0) : contentBox.getMax(0),
+                    (i & 2) == 0 ? contentBox.getMin(1) : contentBox.getMax(1),
+                    (i & 4) == 0 ? contentBox.getMin(2) : contentBox.getMax(2)));
+        return box = new BoundingBox(corners);
+    }
+
+    /**
+     * Moves a ray into the object space of the content
+     *
+     * @param ray the ray
+     * @param dir the ray direction in the object space, not normalized
+     * @return the ray in the object space
+     */
+    private Ray toObject(Ray ray, Vector dir) {
+        return new Ray(toObject.transformPoint(ray.getP0()), dir);
+    }
+
+    @Override
+    protected void findGeoIntersectionsHelper(Ray ray, HitBuffer hits) {
+        Vector dir = toObject.transformVector(ray.getDir());
+        int from = hits.size();
+        content.findGeoIntersections(toObject(ray, dir), hits);
+        hits.transform(from, transform, dir.length());
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double tMax) {
+        Vector dir = toObject.transformVector(ray.getDir());
+        double scale = dir.length();
+        Ray objectRay = toObject(ray, dir);
+        GeoPoint hit = content.findClosestGeoIntersection(objectRay, tMax * scale);
+        if (hit == null) return null;
+        return new GeoPoint(hit.geometry, transform.transformPoint(hit.point), hit.distance(objectRay.getP0()) / scale)
+                .setNormal(transform.transformNormal(hit.getNormal()));
+    }
+
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double tMax, Double3 ktr, double minK) {
+        Vector dir = toObject.transformVector(ray.getDir());
+        return content.findTransparency(toObject(ray, dir), tMax * dir.length(), ktr, minK);
+    }
+}
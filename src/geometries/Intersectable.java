@@ -1,9 +1,14 @@
 package geometries;
 
+import primitives.BoundingBox;
+import primitives.Double3;
 import primitives.Point;
 import primitives.Ray;
+import primitives.Vector;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 
 /**
@@ -11,6 +16,18 @@ import java.util.List;
  */
 public abstract class Intersectable {
 
+    /**
+     * Counter of the exact intersection tests skipped by the bounding box pre-test,
+     * null when the pre-test is turned off
+     */
+    private LongAdder culledTests = null;
+
+    /**
+     * The collections and instances containing the intersectable, told when its bounds may have changed,
+     * null while it is in none
+     */
+    private List<Intersectable> containers = null;
+
     /**
      * helper class to connect point to Geometry
      */
@@ -27,14 +44,68 @@ public abstract class Intersectable {
         public Point point;
 
         /**
-         * constructor of the helper class
+         * The distance of the point from the head of the ray that hit it, NaN if unknown
+         */
+        public final double t;
+
+        /**
+         * The normal of the geometry at the point, null until it is needed
+         */
+        private Vector normal;
+
+        /**
+         * constructor of the helper class, for a point whose distance along the ray is unknown
          *
          * @param geometry to set
          * @param point    to set
          */
         public GeoPoint(Geometry geometry, Point point) {
+            this(geometry, point, Double.NaN);
+        }
+
+        /**
+         * constructor of the helper class
+         *
+         * @param geometry to set
+         * @param point    to set
+         * @param t        the distance of the point from the head of the ray that hit it
+         */
+        public GeoPoint(Geometry geometry, Point point, double t) {
             this.geometry = geometry;
             this.point = point;
+            this.t = t;
+        }
+
+        /**
+         * Getter of the distance of the point from a ray head - a plain read when the distance is known
+         *
+         * @param p0 the head of the ray that hit the point
+         * @return the distance
+         */
+        public double distance(Point p0) {
+            return Double.isNaN(t) ? point.distance(p0) : t;
+        }
+
+        /**
+         * Getter of the normal of the geometry at the point. It is calculated once, when first needed,
+         * unless the geometry has already set it while intersecting.
+         *
+         * @return the normal
+         */
+        public Vector getNormal() {
+            if (normal == null) normal = geometry.getNormal(point);
+            return normal;
+        }
+
+        /**
+         * Setter of the normal of the geometry at the point, for geometries that work it out while intersecting
+         *
+         * @param normal the normal
+         * @return the geoPoint itself
+         */
+        public GeoPoint setNormal(Vector normal) {
+            this.normal = normal;
+            return this;
         }
 
         @Override
@@ -48,6 +119,7 @@ public abstract class Intersectable {
             return "GeoPoint{" +
                     "geometry=" + geometry +
                     ", point=" + point +
+                    ", t=" + t +
                     '}';
         }
     }
@@ -71,14 +143,238 @@ public abstract class Intersectable {
      * @return a list of all intersections points
      */
     public final List<GeoPoint> findGeoIntersections(Ray ray) {
+        if (culledTests != null) {
+            BoundingBox box = getBoundingBox();
+            if (box != null && box.intersect(ray, Double.POSITIVE_INFINITY) == Double.POSITIVE_INFINITY) {
+                culledTests.increment();
+                return null;
+            }
+        }
         return findGeoIntersectionsHelper(ray);
     }
 
     /**
-     * helper function that returns a list of all intersections of a ray
+     * Finds all the intersections of a ray and appends them to a buffer, without creating any object
+     *
+     * @param ray  the ray to check for intersections
+     * @param hits the buffer receiving the intersections
+     */
+    public final void findGeoIntersections(Ray ray, HitBuffer hits) {
+        if (culledTests != null) {
+            BoundingBox box = getBoundingBox();
+            if (box != null && box.intersect(ray, Double.POSITIVE_INFINITY) == Double.POSITIVE_INFINITY) {
+                culledTests.increment();
+                return;
+            }
+        }
+        findGeoIntersectionsHelper(ray, hits);
+    }
+
+    /**
+     * Finds the intersection of a ray that is the closest to the ray head
+     *
+     * @param ray the ray to check for intersections
+     * @return the closest intersection point, null if there are no intersections
+     */
+    public final GeoPoint findClosestGeoIntersection(Ray ray) {
+        return findClosestGeoIntersection(ray, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Finds the intersection of a ray that is the closest to the ray head and lies before a maximal distance
+     *
+     * @param ray  the ray to check for intersections
+     * @param tMax the distance from the ray head beyond which intersections are ignored
+     * @return the closest intersection point before tMax, null if there is none
+     */
+    public final GeoPoint findClosestGeoIntersection(Ray ray, double tMax) {
+        if (culledTests != null) {
+            BoundingBox box = getBoundingBox();
+            if (box != null && box.intersect(ray, tMax) == Double.POSITIVE_INFINITY) {
+                culledTests.increment();
+                return null;
+            }
+        }
+        return findClosestGeoIntersectionHelper(ray, tMax);
+    }
+
+    /**
+     * Any-hit query of a shadow ray: calculates how much light passes through the intersectable
+     * between the ray head and a maximal distance.
+     * The transparency coefficients of all the hits are multiplied,
+     * and the query stops as soon as the product falls below a threshold (e.g. at the first opaque hit).
+     *
+     * @param ray  the shadow ray
+     * @param tMax the distance of the light source from the ray head
+     * @param minK the threshold below which the light is considered blocked
+     * @return the transparency coefficient, {@link Double3#ZERO} if the light is blocked
+     */
+    public final Double3 findTransparency(Ray ray, double tMax, double minK) {
+        return findTransparency(ray, tMax, Double3.ONE, minK);
+    }
+
+    /**
+     * Any-hit query of a shadow ray that continues an already accumulated transparency coefficient
+     *
+     * @param ray  the shadow ray
+     * @param tMax the distance of the light source from the ray head
+     * @param ktr  the transparency coefficient accumulated so far
+     * @param minK the threshold below which the light is considered blocked
+     * @return the transparency coefficient, {@link Double3#ZERO} if the light is blocked
+     */
+    public final Double3 findTransparency(Ray ray, double tMax, Double3 ktr, double minK) {
+        if (culledTests != null) {
+            BoundingBox box = getBoundingBox();
+            if (box != null && box.intersect(ray, tMax) == Double.POSITIVE_INFINITY) {
+                culledTests.increment();
+                return ktr;
+            }
+        }
+        return findTransparencyHelper(ray, tMax, ktr, minK);
+    }
+
+    /**
+     * Turns the bounding box pre-test of the intersection queries on or off.
+     * When it is on, a ray that misses the bounding box is rejected without the exact intersection test,
+     * and the rejection is counted.
+     *
+     * @param culledTests the counter of the skipped tests, null to turn the pre-test off
+     * @return the intersectable itself
+     */
+    public Intersectable setBoundingBoxCulling(LongAdder culledTests) {
+        this.culledTests = culledTests;
+        return this;
+    }
+
+    /**
+     * Getter of the counter of the bounding box pre-test
+     *
+     * @return the counter of the skipped tests, null if the pre-test is off
+     */
+    LongAdder getBoundingBoxCulling() {
+        return culledTests;
+    }
+
+    /**
+     * Registers a collection or an instance containing the intersectable, so that it is told
+     * by {@link #changed()} when the bounds of the intersectable may have changed
+     *
+     * @param container the containing collection or instance
+     */
+    void addContainer(Intersectable container) {
+        if (containers == null) containers = new ArrayList<>(1);
+        containers.add(container);
+    }
+
+    /**
+     * Drops whatever was built lazily from the bounds of the content, after the content changed,
+     * and tells the containers, whose structures were built from the bounds of this intersectable
+     */
+    void changed() {
+        if (containers != null)
+            for (Intersectable container : containers)
+                container.changed();
+    }
+
+    /**
+     * Copies the intersectable for the frozen snapshot of a scene, see {@link Snapshot}.
+     * The copy must not change, and must have built whatever the original builds lazily.
+     * Intersectables without any state that may change are shared rather than copied.
+     *
+     * @param snapshot the copies of the snapshot so far
+     * @return the copy
+     */
+    Intersectable copy(Snapshot snapshot) {
+        return this;
+    }
+
+    /**
+     * Returns the axis-aligned box that bounds the intersectable.
+     * Unbounded intersectables (e.g. planes and infinite tubes) have no box.
+     *
+     * @return the bounding box, or null if the intersectable is unbounded
+     */
+    public BoundingBox getBoundingBox() {
+        return null;
+    }
+
+    /**
+     * helper function that returns a list of all intersections of a ray.
+     * The intersections are collected in the buffer of the current thread.
      *
      * @param ray the ray to check for intersections
      * @return a list of all intersections points
      */
-    protected abstract List<GeoPoint> findGeoIntersectionsHelper(Ray ray);
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+        HitBuffer hits = HitBuffer.ofCurrentThread();
+        int mark = hits.size();
+        try {
+            findGeoIntersectionsHelper(ray, hits);
+            return hits.toGeoPoints(ray, mark);
+        } finally {
+            hits.truncate(mark);
+        }
+    }
+
+    /**
+     * helper function that appends all intersections of a ray to a buffer
+     *
+     * @param ray  the ray to check for intersections
+     * @param hits the buffer receiving the intersections
+     */
+    protected abstract void findGeoIntersectionsHelper(Ray ray, HitBuffer hits);
+
+    /**
+     * helper function that returns the closest intersection of a ray before a maximal distance.
+     * The default implementation picks it from all the intersections,
+     * geometries that can find it directly should override it.
+     *
+     * @param ray  the ray to check for intersections
+     * @param tMax the distance from the ray head beyond which intersections are ignored
+     * @return the closest intersection point before tMax, null if there is none
+     */
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double tMax) {
+        HitBuffer hits = HitBuffer.ofCurrentThread();
+        int mark = hits.size();
+        try {
+            findGeoIntersectionsHelper(ray, hits);
+            int closest = -1;
+            for (int i = mark; i < hits.size(); ++i) {
+                if (hits.getT(i) < tMax) {
+                    tMax = hits.getT(i);
+                    closest = i;
+                }
+            }
+            return closest < 0 ? null : hits.toGeoPoint(ray, closest);
+        } finally {
+            hits.truncate(mark);
+        }
+    }
+
+    /**
+     * helper function of the any-hit query of a shadow ray.
+     * The default implementation goes over all the intersections.
+     *
+     * @param ray  the shadow ray
+     * @param tMax the distance of the light source from the ray head
+     * @param ktr  the transparency coefficient accumulated so far
+     * @param minK the threshold below which the light is considered blocked
+     * @return the transparency coefficient, {@link Double3#ZERO} if the light is blocked
+     */
+    protected Double3 findTransparencyHelper(Ray ray, double tMax, Double3 ktr, double minK) {
+        HitBuffer hits = HitBuffer.ofCurrentThread();
+        int mark = hits.size();
+        try {
+            findGeoIntersectionsHelper(ray, hits);
+            for (int i = mark; i < hits.size(); ++i) {
+                if (hits.getT(i) < tMax) {
+                    ktr = ktr.product(hits.getGeometry(i).getMaterial().getKt());
+                    if (ktr.lowerThan(minK)) return Double3.ZERO;
+                }
+            }
+            return ktr;
+        } finally {
+            hits.truncate(mark);
+        }
+    }
 }
\ No newline at end of file
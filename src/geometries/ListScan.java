@@ -0,0 +1,99 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import primitives.BoundingBox;
+import primitives.Double3;
+import primitives.Ray;
+
+import java.util.List;
+
+/**
+ * Plain scan over bounded geometries, testing every one of them against every ray.
+ */
+class ListScan implements Accelerator {
+
+    /**
+     * The geometries
+     */
+    private final Intersectable[] primitives;
+
+    /**
+     * The box bounding all the geometries
+     */
+    private final BoundingBox box;
+
+    /**
+     * The build figures of the scan
+     */
+    private final BuildStats stats;
+
+    /**
+     * Constructs the scan over bounded geometries
+     *
+     * @param geometries the geometries, all of them must have a bounding box
+     */
+    ListScan(List<Intersectable> geometries) {
+        long start = System.nanoTime();
+        primitives = geometries.toArray(new Intersectable[0]);
+        BoundingBox union = null;
+        for (Intersectable geometry : primitives)
+            union = union == null ? geometry.getBoundingBox() : union.union(geometry.getBoundingBox());
+        box = union;
+        stats = new BuildStats(primitives.length, System.nanoTime() - start);
+    }
+
+    /**
+     * Constructs the copy of a scan over the copies of its geometries
+     *
+     * @param scan     the scan
+     * @param snapshot the copies of the snapshot so far
+     */
+    private ListScan(ListScan scan, Snapshot snapshot) {
+        primitives = snapshot.copy(scan.primitives);
+        box = scan.box;
+        stats = scan.stats;
+    }
+
+    @Override
+    public ListScan copy(Snapshot snapshot) {
+        return new ListScan(this, snapshot);
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return box;
+    }
+
+    @Override
+    public BuildStats getBuildStats() {
+        return stats;
+    }
+
+    @Override
+    public void findGeoIntersections(Ray ray, HitBuffer hits) {
+        for (Intersectable geometry : primitives)
+            geometry.findGeoIntersections(ray, hits);
+    }
+
+    @Override
+    public GeoPoint findClosestGeoIntersection(Ray ray, double tMax) {
+        GeoPoint closest = null;
+        for (Intersectable geometry : primitives) {
+            GeoPoint geoPoint = geometry.findClosestGeoIntersection(ray, tMax);
+            if (geoPoint != null) {
+                closest = geoPoint;
+                tMax = geoPoint.distance(ray.getP0());
+            }
+        }
+        return closest;
+    }
+
+    @Override
+    public Double3 findTransparency(Ray ray, double tMax, Double3 ktr, double minK) {
+        for (Intersectable geometry : primitives) {
+            ktr = geometry.findTransparency(ray, tMax, ktr, minK);
+            if (ktr.lowerThan(minK)) return Double3.ZERO;
+        }
+        return ktr;
+    }
+}
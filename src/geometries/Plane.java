@@ -4,10 +4,9 @@ import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
 
-import java.util.List;
-
 import static primitives.Util.alignZero;
 import static primitives.Util.isZero;
+import static primitives.VectorMath.dot;
 
 /**
  * Represents a plane in 3D space.
@@ -71,17 +70,44 @@ public class Plane extends Geometry {
     }
 
     /**
-     * @param ray the ray
-     * @return list of intersection points
+     * Gets the reference point of the plane.
+     *
+     * @return A point on the plane.
      */
+    public Point getPoint() {
+        return this.q0;
+    }
+
+    /**
+     * @param ray  the ray
+     * @param hits the buffer receiving the intersections
+     */
+    @Override
+    protected void findGeoIntersectionsHelper(Ray ray, HitBuffer hits) {
+        double t = intersectionDistance(ray);
+        // if the intersection is behind the ray
+        if (alignZero(t) > 0) hits.add(this, t);
+    }
+
     @Override
-    public List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double tMax) {
+        double t = intersectionDistance(ray);
+        return alignZero(t) > 0 && t < tMax ? new GeoPoint(this, ray.getPoint(t), t) : null;
+    }
+
+    /**
+     * Calculates the distance from the ray head to the plane along the ray
+     *
+     * @param ray the ray
+     * @return the distance, 0 if the ray is parallel to the plane or starts on it
+     */
+    double intersectionDistance(Ray ray) {
+        Point p0 = ray.getP0();
         double nv = normal.dotProduct(ray.getDir());
         // if the ray is parallel to the plane or if the ray starts on the plane
-        if (isZero(nv) || q0.equals(ray.getP0())) return null;
+        if (isZero(nv) || q0.equals(p0)) return 0;
 
-        double t = normal.dotProduct(q0.subtract(ray.getP0())) / nv;
-        // if the intersection is behind the ray
-        return alignZero(t) > 0 ? List.of(new GeoPoint(this, ray.getPoint(t))) : null;
+        return dot(normal.getX(), normal.getY(), normal.getZ(),
+                q0.getX() - p0.getX(), q0.getY() - p0.getY(), q0.getZ() - p0.getZ()) / nv;
     }
 }
\ No newline at end of file
@@ -1,10 +1,10 @@
 package geometries;
 
+import primitives.BoundingBox;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
 
-import java.util.LinkedList;
 import java.util.List;
 
 import static primitives.Util.alignZero;
@@ -26,6 +26,20 @@ public class Polygon extends Geometry {
      */
     protected final Plane plane;
     private final int size;
+    /**
+     * The box bounding the polygon
+     */
+    private final BoundingBox box;
+    /**
+     * The coordinate axis the polygon is projected along - the one its normal is most aligned with,
+     * -1 if the edge lines are not prepared
+     */
+    private final int projectionAxis;
+    /**
+     * The lines of the projected edges: edgeA * u + edgeB * v + edgeC is the distance of a projected point
+     * from the line of the edge, positive inside the polygon, null if they are not prepared
+     */
+    private final double[] edgeA, edgeB, edgeC;
 
     /**
      * Polygon constructor based on vertices list. The list must be ordered by edge
@@ -50,18 +64,63 @@ public class Polygon extends Geometry {
      *                                  </ul>
      */
     public Polygon(Point... vertices) {
+        this(true, vertices);
+    }
+
+    /**
+     * Polygon constructor for the subclasses that intersect rays by themselves,
+     * which may skip preparing the projected edge lines {@link #intersect(Ray)} uses
+     *
+     * @param projectEdges whether to prepare the projected edge lines
+     * @param vertices     list of vertices according to their order by edge path
+     * @throws IllegalArgumentException in any case of illegal combination of vertices,
+     *                                  see {@link #Polygon(Point...)}
+     */
+    protected Polygon(boolean projectEdges, Point... vertices) {
         if (vertices.length < 3)
             throw new IllegalArgumentException("A polygon can't have less than 3 vertices");
         this.vertices = List.of(vertices);
         size = vertices.length;
+        box = new BoundingBox(vertices);
 
         // Generate the plane according to the first three vertices and associate the
         // polygon with this plane.
         // The plane holds the invariant normal (orthogonal unit) vector to the polygon
         plane = new Plane(vertices[0], vertices[1], vertices[2]);
-        if (size == 3) return; // no need for more tests for a Triangle
 
         Vector n = plane.getNormal();
+        if (!projectEdges) {
+            projectionAxis = -1;
+            edgeA = edgeB = edgeC = null;
+        } else {
+            // Project the polygon on the coordinate plane it is least slanted to, and prepare its edge lines there
+            double nx = Math.abs(n.getX()), ny = Math.abs(n.getY()), nz = Math.abs(n.getZ());
+            projectionAxis = nx >= ny && nx >= nz ? 0 : ny >= nz ? 1 : 2;
+            double[] u = new double[size];
+            double[] v = new double[size];
+            for (int i = 0; i < size; ++i) {
+                u[i] = projectU(vertices[i].getX(), vertices[i].getY(), vertices[i].getZ());
+                v[i] = projectV(vertices[i].getX(), vertices[i].getY(), vertices[i].getZ());
+            }
+            // twice the signed area of the projection tells the direction the vertices go around
+            double area = 0;
+            for (int i = 0; i < size; ++i)
+                area += u[i] * v[(i + 1) % size] - u[(i + 1) % size] * v[i];
+            edgeA = new double[size];
+            edgeB = new double[size];
+            edgeC = new double[size];
+            for (int i = 0; i < size; ++i) {
+                int j = (i + 1) % size;
+                double eu = u[j] - u[i], ev = v[j] - v[i];
+                // the normal of the edge line pointing into the polygon
+                double scale = (area > 0 ? 1 : -1) / Math.sqrt(eu * eu + ev * ev);
+                edgeA[i] = -ev * scale;
+                edgeB[i] = eu * scale;
+                edgeC[i] = -(edgeA[i] * u[i] + edgeB[i] * v[i]);
+            }
+        }
+        if (size == 3) return; // no need for more tests for a Triangle
+
         // Subtracting any subsequent points will throw an IllegalArgumentException
         // because of Zero Vector if they are in the same point
         Vector edge1 = vertices[vertices.length - 1].subtract(vertices[vertices.length - 2]);
@@ -94,21 +153,25 @@ public class Polygon extends Geometry {
         return plane.getNormal();
     }
 
+    @Override
+    public BoundingBox getBoundingBox() {
+        return box;
+    }
+
     /**
-     * @param ray the ray
-     * @return list of intersection points
+     * @param ray  the ray
+     * @param hits the buffer receiving the intersections
      */
     @Override
-    public List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
-
-        List<GeoPoint> planeIntersections = plane.findGeoIntersections(ray);
-
-        if (planeIntersections == null || !isRayOnPolygon(ray)) return null;
-
-        var result = new LinkedList<GeoPoint>();
-        result.add(new GeoPoint(this, planeIntersections.get(0).point));
+    protected void findGeoIntersectionsHelper(Ray ray, HitBuffer hits) {
+        double t = intersect(ray);
+        if (t != Double.POSITIVE_INFINITY) hits.add(this, t);
+    }
 
-        return result;
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double tMax) {
+        double t = intersect(ray);
+        return t < tMax ? new GeoPoint(this, ray.getPoint(t), t) : null;
     }
 
     /**
@@ -116,22 +179,52 @@ public class Polygon extends Geometry {
      * @return <b>True</b> if on polygon, <b>false</b> otherwise.
      */
     public boolean isRayOnPolygon(Ray ray) {
-        Vector v1, v2;
-        v1 = vertices.get(0).subtract(ray.getP0());
-        v2 = vertices.get(1).subtract(ray.getP0());
-
-        double prevN = ray.getDir().dotProduct((v1.crossProduct(v2)).normalize());
-        double curN;
-        if (alignZero(prevN) == 0) return false;
-
-        for (int i = 1; i < vertices.size(); i++) {
-            v1 = v2;
-            v2 = vertices.get((i + 1) % vertices.size()).subtract(ray.getP0());
-            curN = ray.getDir().dotProduct((v1.crossProduct(v2)).normalize());
-            if (alignZero(curN) == 0 || alignZero(curN * prevN) < 0)
-                return false;
-            prevN = curN;
-        }
-        return true;
+        return intersect(ray) != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Intersects a ray with the polygon. The plane hit is projected on the coordinate plane prepared
+     * at construction, and tested against the edge lines there with two multiplications and two additions per edge.
+     *
+     * @param ray the ray
+     * @return the distance of the hit from the ray head, {@link Double#POSITIVE_INFINITY} if the ray misses
+     * the polygon, passes on its border or is parallel to it
+     */
+    public double intersect(Ray ray) {
+        double t = plane.intersectionDistance(ray);
+        // if the intersection is behind the ray
+        if (alignZero(t) <= 0) return Double.POSITIVE_INFINITY;
+
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double x = p0.getX() + dir.getX() * t, y = p0.getY() + dir.getY() * t, z = p0.getZ() + dir.getZ() * t;
+        double u = projectU(x, y, z), v = projectV(x, y, z);
+        for (int i = 0; i < size; ++i)
+            if (alignZero(edgeA[i] * u + edgeB[i] * v + edgeC[i]) <= 0) return Double.POSITIVE_INFINITY;
+        return t;
+    }
+
+    /**
+     * Calculates the first coordinate of a point projected along the projection axis
+     *
+     * @param x x of the point
+     * @param y y of the point
+     * @param z z of the point
+     * @return the first projected coordinate
+     */
+    private double projectU(double x, double y, double z) {
+        return projectionAxis == 0 ? y : projectionAxis == 1 ? z : x;
+    }
+
+    /**
+     * Calculates the second coordinate of a point projected along the projection axis
+     *
+     * @param x x of the point
+     * @param y y of the point
+     * @param z z of the point
+     * @return the second projected coordinate
+     */
+    private double projectV(double x, double y, double z) {
+        return projectionAxis == 0 ? z : projectionAxis == 1 ? x : y;
     }
 }
@@ -0,0 +1,72 @@
+package geometries;
+
+import primitives.Double3;
+import primitives.Material;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The copies made while taking the frozen snapshot of a geometry tree, see {@link Geometries#snapshot()}.<br/>
+ * Every intersectable is copied once however many times it is referred to, so content shared by instances
+ * stays shared in the snapshot, and the geometries with equal materials get a single frozen copy of the material.
+ * The originals are left as they are.
+ */
+final class Snapshot {
+
+    /**
+     * The copy of every intersectable copied so far
+     */
+    private final Map<Intersectable, Intersectable> copies = new IdentityHashMap<>();
+
+    /**
+     * The frozen copies of the materials, by their values
+     */
+    private final Map<List<Object>, Material> materials = new HashMap<>();
+
+    /**
+     * Getter of the copy of an intersectable, copying it on first use
+     *
+     * @param intersectable the original
+     * @return the copy
+     */
+    Intersectable copy(Intersectable intersectable) {
+        Intersectable copy = copies.get(intersectable);
+        if (copy == null) {
+            // not computeIfAbsent, as copying a collection copies its children recursively
+            copy = intersectable.copy(this);
+            copies.put(intersectable, copy);
+        }
+        return copy;
+    }
+
+    /**
+     * Getter of the copies of intersectables
+     *
+     * @param intersectables the originals
+     * @return the copies, in the same order
+     */
+    Intersectable[] copy(Intersectable[] intersectables) {
+        Intersectable[] result = Arrays.copyOf(intersectables, intersectables.length);
+        for (int i = 0; i < result.length; ++i)
+            result[i] = copy(result[i]);
+        return result;
+    }
+
+    /**
+     * Getter of the frozen copy of a material, shared by all the materials with the same values
+     *
+     * @param material the original
+     * @return the frozen copy
+     */
+    Material material(Material material) {
+        Double3 kD = material.getKd(), kS = material.getKs(), kR = material.getKr(), kT = material.getKt();
+        // the exact values, as the tolerance of Double3 equality does not go with its hash
+        List<Object> values = List.of(kD.getD1(), kD.getD2(), kD.getD3(), kS.getD1(), kS.getD2(), kS.getD3(),
+                kR.getD1(), kR.getD2(), kR.getD3(), kT.getD1(), kT.getD2(), kT.getD3(), material.getShininess());
+        return materials.computeIfAbsent(values, key -> new Material(material).freeze());
+    }
+}
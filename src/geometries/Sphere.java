@@ -1,12 +1,13 @@
 package geometries;
 
+import primitives.BoundingBox;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
 
-import java.util.List;
-
 import static primitives.Util.alignZero;
+import static primitives.VectorMath.dot;
+import static primitives.VectorMath.lengthSquared;
 
 /**
  * Represents a sphere in 3D space.
@@ -18,6 +19,11 @@ public class Sphere extends RadialGeometry {
      */
     private final Point center;
 
+    /**
+     * The box bounding the sphere.
+     */
+    private final BoundingBox box;
+
     /**
      * Constructs a sphere with a given radius and center point.
      *
@@ -27,6 +33,22 @@ public class Sphere extends RadialGeometry {
     public Sphere(double radius, Point center) {
         super(radius);
         this.center = center;
+        this.box = new BoundingBox(center.getX() - radius, center.getY() - radius, center.getZ() - radius,
+                center.getX() + radius, center.getY() + radius, center.getZ() + radius);
+    }
+
+    /**
+     * Gets the center point of the sphere.
+     *
+     * @return The center point of the sphere.
+     */
+    public Point getCenter() {
+        return this.center;
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return box;
     }
 
     /**
@@ -41,30 +63,53 @@ public class Sphere extends RadialGeometry {
     }
 
     /**
-     * @param ray the ray to find intersections with
-     * @return list of intersection points
+     * @param ray  the ray to find intersections with
+     * @param hits the buffer receiving the intersections
      */
     @Override
-    public List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+    protected void findGeoIntersectionsHelper(Ray ray, HitBuffer hits) {
         // Ray starts at the center of the sphere
-        if (center.equals(ray.getP0()))
-            return List.of(new GeoPoint(this, ray.getPoint(radius)));
+        if (center.equals(ray.getP0())) {
+            hits.add(this, radius);
+            return;
+        }
 
-        Vector u = center.subtract(ray.getP0());
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ux = center.getX() - p0.getX(), uy = center.getY() - p0.getY(), uz = center.getZ() - p0.getZ();
         // Not the other way around to not break LoD
-        double tm = u.dotProduct(ray.getDir());
-        double dSquared = u.lengthSquared() - tm * tm;
+        double tm = dot(ux, uy, uz, dir.getX(), dir.getY(), dir.getZ());
+        double dSquared = lengthSquared(ux, uy, uz) - tm * tm;
         double thSquared = radiusSquared - dSquared;
         // No intersection points or ray is tangent ot sphere
-        if (alignZero(thSquared) <= 0) return null;
+        if (alignZero(thSquared) <= 0) return;
 
         double th = Math.sqrt(thSquared); // it's always positive
         double t1 = tm + th; // it's always greater than t2
-        if (alignZero(t1) <= 0) return null;
+        if (alignZero(t1) <= 0) return;
 
         double t2 = tm - th;
-        return alignZero(t2) > 0 ?
-                List.of(new GeoPoint(this ,ray.getPoint(t2)), new GeoPoint(this,ray.getPoint(t1))) :
-                List.of(new GeoPoint(this,ray.getPoint(t1)));
+        if (alignZero(t2) > 0) hits.add(this, t2);
+        hits.add(this, t1);
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double tMax) {
+        // Ray starts at the center of the sphere
+        if (center.equals(ray.getP0()))
+            return radius < tMax ? new GeoPoint(this, ray.getPoint(radius), radius) : null;
+
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ux = center.getX() - p0.getX(), uy = center.getY() - p0.getY(), uz = center.getZ() - p0.getZ();
+        double tm = dot(ux, uy, uz, dir.getX(), dir.getY(), dir.getZ());
+        double thSquared = radiusSquared - (lengthSquared(ux, uy, uz) - tm * tm);
+        // No intersection points or ray is tangent ot sphere
+        if (alignZero(thSquared) <= 0) return null;
+
+        double th = Math.sqrt(thSquared);
+        // the nearer point is in front of the ray head unless the head is inside the sphere
+        double t = alignZero(tm - th) > 0 ? tm - th : tm + th;
+        return alignZero(t) > 0 && t < tMax ? new GeoPoint(this, ray.getPoint(t), t) : null;
     }
 }
@@ -4,56 +4,94 @@ import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
 
-import java.util.List;
-
 import static primitives.Util.alignZero;
+import static primitives.Util.isZero;
+import static primitives.VectorMath.*;
 
 /**
  * Represents a triangle in 3D space.
  */
 public class Triangle extends Polygon {
 
+    /**
+     * The first vertex
+     */
+    private final double v0x, v0y, v0z;
+
+    /**
+     * The edge from the first vertex to the second one
+     */
+    private final double e1x, e1y, e1z;
+
+    /**
+     * The edge from the first vertex to the third one
+     */
+    private final double e2x, e2y, e2z;
+
     /**
      * Constructs a triangle with the given vertices.
+     * The projected edge lines of a polygon are not prepared, as the triangle is intersected by its own edges.
      *
      * @param p1 The first vertex of the triangle.
      * @param p2 The second vertex of the triangle.
      * @param p3 The third vertex of the triangle.
      */
     public Triangle(Point p1, Point p2, Point p3) {
-        super(p1, p2, p3);
+        super(false, p1, p2, p3);
+        v0x = p1.getX();
+        v0y = p1.getY();
+        v0z = p1.getZ();
+        e1x = p2.getX() - v0x;
+        e1y = p2.getY() - v0y;
+        e1z = p2.getZ() - v0z;
+        e2x = p3.getX() - v0x;
+        e2y = p3.getY() - v0y;
+        e2z = p3.getZ() - v0z;
     }
 
     /**
-     * @param ray the ray to find intersections with
-     * @return list of intersection points
+     * Intersects a ray with the triangle by the Moller-Trumbore algorithm, using the edges prepared
+     * at construction. The hit is expressed by its distance along the ray and its barycentric coordinates,
+     * so no object is created.
+     *
+     * @param ray         the ray
+     * @param barycentric array receiving the weights of the second and the third vertex at the hit
+     *                    (the first vertex weighs the rest), null if they are not needed
+     * @return the distance of the hit from the ray head, {@link Double#POSITIVE_INFINITY} if the ray misses
+     * the triangle, passes on its border or is parallel to it
      */
-    @Override
-    public List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
-        var intersection = plane.findGeoIntersections(ray);
-        if (intersection == null) return null;
-
+    public double intersect(Ray ray, double[] barycentric) {
         Point p0 = ray.getP0();
         Vector dir = ray.getDir();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+
+        double px = crossX(dy, dz, e2y, e2z), py = crossY(dx, dz, e2x, e2z), pz = crossZ(dx, dy, e2x, e2y);
+        double det = dot(e1x, e1y, e1z, px, py, pz);
+        // the ray is parallel to the triangle
+        if (isZero(det)) return Double.POSITIVE_INFINITY;
+
+        double invDet = 1 / det;
+        double sx = p0.getX() - v0x, sy = p0.getY() - v0y, sz = p0.getZ() - v0z;
+        double u = dot(sx, sy, sz, px, py, pz) * invDet;
+        if (alignZero(u) <= 0 || alignZero(u - 1) >= 0) return Double.POSITIVE_INFINITY;
 
-        // take care of the 1st edge
-        Vector v1 = vertices.get(0).subtract(p0);
-        Vector v2 = vertices.get(1).subtract(p0);
-        Vector n1 = v1.crossProduct(v2).normalize();
-        double s1 = alignZero(dir.dotProduct(n1));
-        if (s1 == 0) return null;
-
-        // take care of the 2nd edge
-        Vector v3 = vertices.get(2).subtract(p0);
-        Vector n2 = v2.crossProduct(v3).normalize();
-        double s2 = alignZero(dir.dotProduct(n2));
-        if (s1 * s2 <= 0) return null;
-
-        Vector n3 = v3.crossProduct(v1).normalize();
-        double s3 = alignZero(dir.dotProduct(n3));
-        if (s1 * s3 <= 0) return null;
-
-        intersection.get(0).geometry = this;
-        return intersection;
+        double qx = crossX(sy, sz, e1y, e1z), qy = crossY(sx, sz, e1x, e1z), qz = crossZ(sx, sy, e1x, e1y);
+        double v = dot(dx, dy, dz, qx, qy, qz) * invDet;
+        if (alignZero(v) <= 0 || alignZero(u + v - 1) >= 0) return Double.POSITIVE_INFINITY;
+
+        double t = dot(e2x, e2y, e2z, qx, qy, qz) * invDet;
+        // the triangle is behind the ray head
+        if (alignZero(t) <= 0) return Double.POSITIVE_INFINITY;
+
+        if (barycentric != null) {
+            barycentric[0] = u;
+            barycentric[1] = v;
+        }
+        return t;
+    }
+
+    @Override
+    public double intersect(Ray ray) {
+        return intersect(ray, null);
     }
-}
\ No newline at end of file
+}
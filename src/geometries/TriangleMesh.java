@@ -0,0 +1,793 @@
+package geometries;
+
+import primitives.BoundingBox;
+import primitives.Double3;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static geometries.BvhNodes.*;
+import static primitives.Util.alignZero;
+import static primitives.Util.isZero;
+import static primitives.VectorMath.*;
+
+/**
+ * Indexed triangle mesh kept in flat arrays.<br/>
+ * The vertices are shared between the faces: the coordinates of vertex v are {@code positions[3v .. 3v+2]},
+ * and the vertices of face f are {@code indices[3f .. 3f+2]}. Every face belongs to a {@link #getSurface(int) surface}
+ * that holds its material and emission. The mesh keeps its own bounding volume hierarchy over the faces,
+ * laid out depth-first like {@link FlatBvh} and built by the same heuristic, see {@link BvhNodes}.
+ * A face costs a few dozen bytes instead of the several objects of a {@link Triangle}.
+ */
+public class TriangleMesh extends Intersectable {
+
+    /**
+     * The coordinates of the vertices, three per vertex
+     */
+    private final double[] positions;
+
+    /**
+     * The vertex indices of the faces, three per face, ordered so that every leaf refers to a contiguous range
+     */
+    private final int[] indices;
+
+    /**
+     * The surface of every face, in the same order, null if all the faces belong to surface 0
+     */
+    private final int[] faceSurfaces;
+
+    /**
+     * The surfaces of the faces
+     */
+    private final Surface[] surfaces;
+
+    /**
+     * The boxes of the hierarchy nodes, six coordinates per node (minimal x, y, z then maximal x, y, z)
+     */
+    private final float[] bounds;
+
+    /**
+     * The right child and 0 of an inner node, or the first face and the amount of faces of a leaf, two per node
+     */
+    private final int[] nodes;
+
+    /**
+     * The box bounding the mesh
+     */
+    private final BoundingBox box;
+
+    /**
+     * The material and emission of a group of faces of the mesh.
+     * A surface is hit only through its mesh, which knows the face and thus the normal.
+     */
+    private final class Surface extends Geometry {
+        /**
+         * {@inheritDoc}
+         * The normal of the face the point lies on. The hits of the mesh carry the normal of their face already,
+         * so the faces of the surface are searched here only for a point given alone.
+         *
+         * @throws IllegalArgumentException if the point is not over any face of the surface
+         */
+        @Override
+        public Vector getNormal(Point point) {
+            return faceNormal(faceAt(this, point));
+        }
+
+        @Override
+        protected void findGeoIntersectionsHelper(Ray ray, HitBuffer hits) {
+            // the faces are intersected by the mesh
+        }
+
+        @Override
+        GeoPoint createGeoPoint(Ray ray, double t, int face) {
+            return createGeoPoint(ray, t).setNormal(faceNormal(face));
+        }
+    }
+
+    /**
+     * Constructs a mesh with all the faces on a single surface
+     *
+     * @param positions the coordinates of the vertices, three per vertex
+     * @param indices   the vertex indices of the faces, three per face
+     * @throws IllegalArgumentException if the arrays are malformed or an index is out of range
+     */
+    public TriangleMesh(double[] positions, int[] indices) {
+        this(positions, indices, null);
+    }
+
+    /**
+     * Constructs a mesh
+     *
+     * @param positions    the coordinates of the vertices, three per vertex
+     * @param indices      the vertex indices of the faces, three per face
+     * @param faceSurfaces the surface of every face, null to put all the faces on surface 0
+     * @throws IllegalArgumentException if the arrays are malformed or an index is out of range
+     */
+    public TriangleMesh(double[] positions, int[] indices, int[] faceSurfaces) {
+        this(positions, indices, faceSurfaces, true);
+    }
+
+    /**
+     * Constructs a mesh over the given arrays without copying them, for loaders that fill the arrays
+     * for the mesh alone. The mesh reorders the faces in place, so the arrays must not be used afterwards.
+     *
+     * @param positions    the coordinates of the vertices, three per vertex
+     * @param indices      the vertex indices of the faces, three per face
+     * @param faceSurfaces the surface of every face, null to put all the faces on surface 0
+     * @return the mesh
+     * @throws IllegalArgumentException if the arrays are malformed or an index is out of range
+     */
+    public static TriangleMesh wrap(double[] positions, int[] indices, int[] faceSurfaces) {
+        return new TriangleMesh(positions, indices, faceSurfaces, false);
+    }
+
+    /**
+     * Constructs a mesh
+     *
+     * @param positions    the coordinates of the vertices, three per vertex
+     * @param indices      the vertex indices of the faces, three per face
+     * @param faceSurfaces the surface of every face, null to put all the faces on surface 0
+     * @param copy         whether to copy the arrays or to take them over
+     * @throws IllegalArgumentException if the arrays are malformed or an index is out of range
+     */
+    private TriangleMesh(double[] positions, int[] indices, int[] faceSurfaces, boolean copy) {
+        if (positions == null || positions.length % 3 != 0)
+            throw new IllegalArgumentException("Mesh positions must have three coordinates per vertex");
+        if (indices == null || indices.length == 0 || indices.length % 3 != 0)
+            throw new IllegalArgumentException("Mesh indices must have three vertices per face, and at least one face");
+        int vertices = positions.length / 3;
+        for (int index : indices)
+            if (index < 0 || index >= vertices)
+                throw new IllegalArgumentException("Mesh vertex index " + index + " is out of range");
+        int faces = indices.length / 3;
+        int surfaceCount = 1;
+        if (faceSurfaces != null) {
+            if (faceSurfaces.length != faces)
+                throw new IllegalArgumentException("Mesh must have one surface index per face");
+            for (int surface : faceSurfaces) {
+                if (surface < 0)
+                    throw new IllegalArgumentException("Mesh surface index must not be negative");
+                surfaceCount = Math.max(surfaceCount, surface + 1);
+            }
+        }
+
+        this.positions = copy ? positions.clone() : positions;
+        this.indices = copy ? indices.clone() : indices;
+        this.faceSurfaces = faceSurfaces == null || !copy ? faceSurfaces : faceSurfaces.clone();
+        surfaces = new Surface[surfaceCount];
+        for (int i = 0; i < surfaceCount; ++i)
+            surfaces[i] = new Surface();
+
+        Builder builder = new Builder(faces);
+        builder.build();
+        bounds = builder.nodeBounds.length == 6 * builder.next
+                ? builder.nodeBounds : Arrays.copyOf(builder.nodeBounds, 6 * builder.next);
+        nodes = builder.nodeData.length == 2 * builder.next
+                ? builder.nodeData : Arrays.copyOf(builder.nodeData, 2 * builder.next);
+        box = BvhNodes.box(bounds, 0);
+    }
+
+    /**
+     * Reads a mesh written by {@link #write(CompiledGeometry.Output)}, with its hierarchy as it was built
+     *
+     * @param in           the reading side
+     * @param surfaceCount the amount of surfaces, read before by the caller
+     * @throws IllegalArgumentException if the arrays are malformed or an index is out of range
+     */
+    TriangleMesh(CompiledGeometry.Input in, int surfaceCount) {
+        positions = in.doubles();
+        indices = in.ints();
+        faceSurfaces = in.ints();
+        bounds = in.floats();
+        nodes = in.ints();
+        if (positions == null || positions.length % 3 != 0 || indices == null || indices.length == 0
+                || indices.length % 3 != 0 || faceSurfaces != null && faceSurfaces.length != indices.length / 3
+                || nodes == null || nodes.length == 0 || bounds == null || bounds.length != 3 * nodes.length)
+            throw new IllegalArgumentException("Malformed mesh record");
+        int vertices = positions.length / 3;
+        for (int index : indices)
+            if (index < 0 || index >= vertices)
+                throw new IllegalArgumentException("Mesh vertex index " + index + " is out of range");
+        if (faceSurfaces != null)
+            for (int surface : faceSurfaces)
+                if (surface < 0 || surface >= surfaceCount)
+                    throw new IllegalArgumentException("Mesh surface index " + surface + " is out of range");
+        BvhNodes.checkNodes(nodes, indices.length / 3);
+        surfaces = new Surface[surfaceCount];
+        for (int i = 0; i < surfaceCount; ++i)
+            surfaces[i] = new Surface();
+        box = BvhNodes.box(bounds, 0);
+    }
+
+    /**
+     * Writes the arrays of the mesh and of its hierarchy, the surfaces are written by the caller
+     *
+     * @param out the writing side
+     * @throws IOException if writing fails
+     */
+    void write(CompiledGeometry.Output out) throws IOException {
+        out.doubles(positions);
+        out.ints(indices);
+        out.ints(faceSurfaces);
+        out.floats(bounds);
+        out.ints(nodes);
+    }
+
+    /**
+     * Constructs the copy of a mesh for the snapshot of a scene, sharing its arrays,
+     * which never change once built, with frozen copies of its surfaces
+     *
+     * @param mesh     the mesh
+     * @param snapshot the copies of the snapshot so far
+     */
+    private TriangleMesh(TriangleMesh mesh, Snapshot snapshot) {
+        positions = mesh.positions;
+        indices = mesh.indices;
+        faceSurfaces = mesh.faceSurfaces;
+        bounds = mesh.bounds;
+        nodes = mesh.nodes;
+        box = mesh.box;
+        surfaces = new Surface[mesh.surfaces.length];
+        for (int i = 0; i < surfaces.length; ++i) {
+            surfaces[i] = new Surface();
+            surfaces[i].copyLooks(mesh.surfaces[i], snapshot);
+        }
+        setBoundingBoxCulling(mesh.getBoundingBoxCulling());
+    }
+
+    @Override
+    TriangleMesh copy(Snapshot snapshot) {
+        return new TriangleMesh(this, snapshot);
+    }
+
+    /**
+     * Getter of the amount of surfaces
+     *
+     * @return the amount of surfaces
+     */
+    public int getSurfaceCount() {
+        return surfaces.length;
+    }
+
+    /**
+     * Getter of a surface, to set the material and the emission of its faces
+     *
+     * @param index the surface index
+     * @return the surface
+     * @throws IllegalArgumentException if no face belongs to the surface
+     */
+    public Geometry getSurface(int index) {
+        if (index < 0 || index >= surfaces.length)
+            throw new IllegalArgumentException("Mesh has no surface " + index);
+        return surfaces[index];
+    }
+
+    /**
+     * Getter of the storage of the mesh - the bytes of its vertex coordinates, vertex indices, surface indices
+     * and hierarchy nodes, without the object headers
+     *
+     * @return the amount of bytes
+     */
+    long getStorageBytes() {
+        return (long) positions.length * Double.BYTES + (long) indices.length * Integer.BYTES
+                + (faceSurfaces == null ? 0 : (long) faceSurfaces.length * Integer.BYTES)
+                + (long) bounds.length * Float.BYTES + (long) nodes.length * Integer.BYTES;
+    }
+
+    /**
+     * Getter of the amount of faces
+     *
+     * @return the amount of faces
+     */
+    public int getFaceCount() {
+        return indices.length / 3;
+    }
+
+    /**
+     * Getter of the amount of vertices
+     *
+     * @return the amount of vertices
+     */
+    public int getVertexCount() {
+        return positions.length / 3;
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return box;
+    }
+
+    /**
+     * Getter of the surface of a face
+     *
+     * @param face the face
+     * @return the surface
+     */
+    private Surface surfaceOf(int face) {
+        return surfaces[faceSurfaces == null ? 0 : faceSurfaces[face]];
+    }
+
+    /**
+     * Calculates the normal of a face, by the order of its vertices like {@link Plane#Plane(Point, Point, Point)}
+     *
+     * @param face the face
+     * @return the normal
+     */
+    private Vector faceNormal(int face) {
+        int i0 = 3 * indices[3 * face], i1 = 3 * indices[3 * face + 1], i2 = 3 * indices[3 * face + 2];
+        double e1x = positions[i1] - positions[i0], e1y = positions[i1 + 1] - positions[i0 + 1];
+        double e1z = positions[i1 + 2] - positions[i0 + 2];
+        double e2x = positions[i2] - positions[i0], e2y = positions[i2 + 1] - positions[i0 + 1];
+        double e2z = positions[i2 + 2] - positions[i0 + 2];
+        return new Vector(crossX(e1y, e1z, e2y, e2z), crossY(e1x, e1z, e2x, e2z), crossZ(e1x, e1y, e2x, e2y))
+                .normalize();
+    }
+
+    /**
+     * Finds the face of a surface a point lies on: among the faces the point projects into,
+     * the one whose plane is nearest to the point
+     *
+     * @param surface the surface
+     * @param point   the point
+     * @return the face
+     * @throws IllegalArgumentException if the point does not project into any face of the surface
+     */
+    private int faceAt(Surface surface, Point point) {
+        double px = point.getX(), py = point.getY(), pz = point.getZ();
+        int nearest = -1;
+        double nearestDistance = Double.POSITIVE_INFINITY;
+        for (int face = 0; face < indices.length / 3; ++face) {
+            if (surfaceOf(face) != surface) continue;
+            int i0 = 3 * indices[3 * face], i1 = 3 * indices[3 * face + 1], i2 = 3 * indices[3 * face + 2];
+            double v0x = positions[i0], v0y = positions[i0 + 1], v0z = positions[i0 + 2];
+            double e1x = positions[i1] - v0x, e1y = positions[i1 + 1] - v0y, e1z = positions[i1 + 2] - v0z;
+            double e2x = positions[i2] - v0x, e2y = positions[i2 + 1] - v0y, e2z = positions[i2 + 2] - v0z;
+            double wx = px - v0x, wy = py - v0y, wz = pz - v0z;
+
+            // the barycentric coordinates of the projection of the point on the plane of the face
+            double d11 = dot(e1x, e1y, e1z, e1x, e1y, e1z), d12 = dot(e1x, e1y, e1z, e2x, e2y, e2z);
+            double d22 = dot(e2x, e2y, e2z, e2x, e2y, e2z);
+            double w1 = dot(wx, wy, wz, e1x, e1y, e1z), w2 = dot(wx, wy, wz, e2x, e2y, e2z);
+            double det = d11 * d22 - d12 * d12;
+            // a degenerate face has no plane
+            if (isZero(det)) continue;
+            double u = (d22 * w1 - d12 * w2) / det, v = (d11 * w2 - d12 * w1) / det;
+            if (alignZero(u) < 0 || alignZero(v) < 0 || alignZero(u + v - 1) > 0) continue;
+
+            double nx = crossX(e1y, e1z, e2y, e2z), ny = crossY(e1x, e1z, e2x, e2z), nz = crossZ(e1x, e1y, e2x, e2y);
+            double distance = Math.abs(dot(wx, wy, wz, nx, ny, nz)) / Math.sqrt(lengthSquared(nx, ny, nz));
+            if (distance < nearestDistance) {
+                nearestDistance = distance;
+                nearest = face;
+            }
+        }
+        if (nearest < 0)
+            throw new IllegalArgumentException("Point " + point + " is not on the mesh surface");
+        return nearest;
+    }
+
+    /**
+     * Intersects a face by the Moller-Trumbore algorithm, the same as {@link Triangle#intersect(Ray, double[])}
+     *
+     * @param face the face
+     * @param ox   ray origin x coordinate
+     * @param oy   ray origin y coordinate
+     * @param oz   ray origin z coordinate
+     * @param dx   ray direction x coordinate
+     * @param dy   ray direction y coordinate
+     * @param dz   ray direction z coordinate
+     * @return the distance of the hit from the ray head, positive infinity if the ray misses the face
+     */
+    private double intersect(int face, double ox, double oy, double oz, double dx, double dy, double dz) {
+        int i0 = 3 * indices[3 * face], i1 = 3 * indices[3 * face + 1], i2 = 3 * indices[3 * face + 2];
+        double v0x = positions[i0], v0y = positions[i0 + 1], v0z = positions[i0 + 2];
+        double e1x = positions[i1] - v0x, e1y = positions[i1 + 1] - v0y, e1z = positions[i1 + 2] - v0z;
+        double e2x = positions[i2] - v0x, e2y = positions[i2 + 1] - v0y, e2z = positions[i2 + 2] - v0z;
+
+        double px = crossX(dy, dz, e2y, e2z), py = crossY(dx, dz, e2x, e2z), pz = crossZ(dx, dy, e2x, e2y);
+        double det = dot(e1x, e1y, e1z, px, py, pz);
+        // the ray is parallel to the face
+        if (isZero(det)) return Double.POSITIVE_INFINITY;
+
+        double invDet = 1 / det;
+        double sx = ox - v0x, sy = oy - v0y, sz = oz - v0z;
+        double u = dot(sx, sy, sz, px, py, pz) * invDet;
+        if (alignZero(u) <= 0 || alignZero(u - 1) >= 0) return Double.POSITIVE_INFINITY;
+
+        double qx = crossX(sy, sz, e1y, e1z), qy = crossY(sx, sz, e1x, e1z), qz = crossZ(sx, sy, e1x, e1y);
+        double v = dot(dx, dy, dz, qx, qy, qz) * invDet;
+        if (alignZero(v) <= 0 || alignZero(u + v - 1) >= 0) return Double.POSITIVE_INFINITY;
+
+        double t = dot(e2x, e2y, e2z, qx, qy, qz) * invDet;
+        // the face is behind the ray head
+        return alignZero(t) <= 0 ? Double.POSITIVE_INFINITY : t;
+    }
+
+    @Override
+    protected void findGeoIntersectionsHelper(Ray ray, HitBuffer hits) {
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+        double invX = 1 / dx, invY = 1 / dy, invZ = 1 / dz;
+
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (BvhNodes.intersect(bounds, node, ox, oy, oz, invX, invY, invZ, Double.POSITIVE_INFINITY)
+                    == Double.POSITIVE_INFINITY)
+                continue;
+            int offset = nodes[2 * node], count = nodes[2 * node + 1];
+            if (count > 0) {
+                for (int face = offset; face < offset + count; ++face) {
+                    double t = intersect(face, ox, oy, oz, dx, dy, dz);
+                    if (t != Double.POSITIVE_INFINITY) hits.add(surfaceOf(face), t, face);
+                }
+            } else {
+                if (top + 2 > stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+                stack[top++] = offset;
+                stack[top++] = node + 1;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Nodes are visited nearer child first, and the maximal distance shrinks with every hit found.
+     * Only the closest face found gets an intersection point.
+     */
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double tMax) {
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+        double invX = 1 / dx, invY = 1 / dy, invZ = 1 / dz;
+
+        int closest = -1;
+        int[] stack = new int[64];
+        double[] entries = new double[64];
+        int top = 0;
+        double rootEntry = BvhNodes.intersect(bounds, 0, ox, oy, oz, invX, invY, invZ, tMax);
+        if (rootEntry == Double.POSITIVE_INFINITY) return null;
+        stack[top] = 0;
+        entries[top++] = rootEntry;
+        while (top > 0) {
+            int node = stack[--top];
+            // the node may have been pushed before a nearer hit was found
+            if (entries[top] >= tMax) continue;
+            int offset = nodes[2 * node], count = nodes[2 * node + 1];
+            if (count > 0) {
+                for (int face = offset; face < offset + count; ++face) {
+                    double t = intersect(face, ox, oy, oz, dx, dy, dz);
+                    if (t < tMax) {
+                        tMax = t;
+                        closest = face;
+                    }
+                }
+            } else {
+                int near = node + 1, far = offset;
+                double tNear = BvhNodes.intersect(bounds, near, ox, oy, oz, invX, invY, invZ, tMax);
+                double tFar = BvhNodes.intersect(bounds, far, ox, oy, oz, invX, invY, invZ, tMax);
+                if (top + 2 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                    entries = Arrays.copyOf(entries, entries.length * 2);
+                }
+                // push the farther child first so the nearer one is visited first
+                if (tFar < tNear) {
+                    near = offset;
+                    far = node + 1;
+                    double tmp = tNear;
+                    tNear = tFar;
+                    tFar = tmp;
+                }
+                if (tFar != Double.POSITIVE_INFINITY) {
+                    stack[top] = far;
+                    entries[top++] = tFar;
+                }
+                if (tNear != Double.POSITIVE_INFINITY) {
+                    stack[top] = near;
+                    entries[top++] = tNear;
+                }
+            }
+        }
+        return closest < 0 ? null : surfaceOf(closest).createGeoPoint(ray, tMax, closest);
+    }
+
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double tMax, Double3 ktr, double minK) {
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+        double invX = 1 / dx, invY = 1 / dy, invZ = 1 / dz;
+
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (BvhNodes.intersect(bounds, node, ox, oy, oz, invX, invY, invZ, tMax) == Double.POSITIVE_INFINITY)
+                continue;
+            int offset = nodes[2 * node], count = nodes[2 * node + 1];
+            if (count > 0) {
+                for (int face = offset; face < offset + count; ++face) {
+                    if (intersect(face, ox, oy, oz, dx, dy, dz) < tMax) {
+                        ktr = ktr.product(surfaceOf(face).getMaterial().getKt());
+                        if (ktr.lowerThan(minK)) return Double3.ZERO;
+                    }
+                }
+            } else {
+                if (top + 2 > stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+                stack[top++] = offset;
+                stack[top++] = node + 1;
+            }
+        }
+        return ktr;
+    }
+
+    /**
+     * Top-down builder of the hierarchy, choosing every split by the surface area heuristic over centroid bins
+     * like {@link Bvh}. It reorders the faces of the mesh so that every leaf refers to a contiguous range.
+     * The face boxes are kept as floats rounded outwards like the node boxes, and the centroids are taken
+     * from them. The node arrays start at one node per face, which is about what the heuristic builds,
+     * and grow only if more nodes are needed. The face boxes are dropped as soon as the hierarchy is built,
+     * so the builder needs little more memory than the hierarchy it builds.
+     */
+    private final class Builder {
+        /**
+         * The boxes of the faces, six coordinates per face, rounded outwards, null once the hierarchy is built
+         */
+        float[] faceBounds;
+        /**
+         * The boxes of the nodes written so far
+         */
+        float[] nodeBounds;
+        /**
+         * The child offsets or face ranges of the nodes written so far
+         */
+        int[] nodeData;
+        /**
+         * Index of the next node to be written
+         */
+        int next = 0;
+        /**
+         * The amount of faces in every bin, {@link BvhNodes#BINS} bins per axis
+         */
+        final int[] binCount = new int[3 * BINS];
+        /**
+         * The box of every bin followed by the box of the doubled centroids in it, twelve coordinates per bin
+         */
+        final double[] binBox = new double[12 * 3 * BINS];
+        /**
+         * The extent of the doubled centroids of the node being split, indexed by axis
+         */
+        final double[] extents = new double[3];
+        /**
+         * The search for the split, reused by all the nodes
+         */
+        final Split split = new Split();
+
+        /**
+         * Prepares the boxes of the faces
+         *
+         * @param faces the amount of faces
+         */
+        Builder(int faces) {
+            faceBounds = new float[6 * faces];
+            for (int face = 0; face < faces; ++face) {
+                int i0 = 3 * indices[3 * face], i1 = 3 * indices[3 * face + 1], i2 = 3 * indices[3 * face + 2];
+                for (int axis = 0; axis < 3; ++axis) {
+                    double a = positions[i0 + axis], b = positions[i1 + axis], c = positions[i2 + axis];
+                    faceBounds[6 * face + axis] = floor(Math.min(a, Math.min(b, c)));
+                    faceBounds[6 * face + 3 + axis] = ceil(Math.max(a, Math.max(b, c)));
+                }
+            }
+            nodeBounds = new float[6 * faces];
+            nodeData = new int[2 * faces];
+        }
+
+        /**
+         * Builds the hierarchy over all the faces
+         */
+        void build() {
+            int faces = faceBounds.length / 6;
+            double[] box = new double[12];
+            empty(box, 0);
+            empty(box, 6);
+            for (int face = 0; face < faces; ++face)
+                add(box, 0, face);
+
+            // the nodes are written depth-first, the left child right after its parent, while the right children
+            // wait on an explicit stack (first face, last face, parent) - skewed splits of a large mesh
+            // may nest too deep for the call stack
+            int[] ranges = new int[3 * 32];
+            double[][] boxes = new double[32][];
+            int top = 0, start = 0, end = faces;
+            while (true) {
+                int node = next;
+                double[] left = new double[12], right = new double[12];
+                int mid = node(start, end, box, left, right);
+                if (mid >= 0) {
+                    if (top == boxes.length) {
+                        ranges = Arrays.copyOf(ranges, 6 * top);
+                        boxes = Arrays.copyOf(boxes, 2 * top);
+                    }
+                    ranges[3 * top] = mid;
+                    ranges[3 * top + 1] = end;
+                    ranges[3 * top + 2] = node;
+                    boxes[top++] = right;
+                    end = mid;
+                    box = left;
+                } else {
+                    if (top == 0) break;
+                    --top;
+                    start = ranges[3 * top];
+                    end = ranges[3 * top + 1];
+                    nodeData[2 * ranges[3 * top + 2]] = next;
+                    box = boxes[top];
+                    boxes[top] = null;
+                }
+            }
+            faceBounds = null;
+        }
+
+        /**
+         * Writes the next free node over a range of the faces, as a leaf or as an inner node split in two.
+         * The faces are binned along all the axes in a single pass, the range is partitioned by the best split,
+         * and the boxes of the two children are gathered from the bins.
+         *
+         * @param start first face (inclusive)
+         * @param end   last face (exclusive)
+         * @param box   the box of the faces followed by the box of their doubled centroids
+         * @param left  the array receiving the boxes of the left child
+         * @param right the array receiving the boxes of the right child
+         * @return the first face of the right child, or -1 if the node is a leaf
+         */
+        int node(int start, int end, double[] box, double[] left, double[] right) {
+            int node = next++;
+            if (node == nodeData.length / 2) {
+                // a binary tree over the faces has at most 2 * faces - 1 nodes
+                int capacity = Math.min(node + (node >> 1) + 1, 2 * (faceBounds.length / 6) - 1);
+                nodeBounds = Arrays.copyOf(nodeBounds, 6 * capacity);
+                nodeData = Arrays.copyOf(nodeData, 2 * capacity);
+            }
+            // the face boxes are floats already, so the node box is exact
+            for (int k = 0; k < 6; ++k)
+                nodeBounds[6 * node + k] = (float) box[k];
+
+            int count = end - start;
+            if (count <= 2) {
+                leaf(node, start, count);
+                return -1;
+            }
+
+            // small nodes get as many bins as faces, as more bins cannot tell more splits apart
+            int bins = Math.min(BINS, count);
+            for (int axis = 0; axis < 3; ++axis) {
+                Arrays.fill(binCount, axis * BINS, axis * BINS + bins, 0);
+                for (int b = axis * BINS; b < axis * BINS + bins; ++b) {
+                    empty(binBox, 12 * b);
+                    empty(binBox, 12 * b + 6);
+                }
+            }
+            for (int face = start; face < end; ++face) {
+                for (int axis = 0; axis < 3; ++axis) {
+                    double min = box[6 + axis], extent = box[9 + axis] - min;
+                    if (extent <= 0) continue;
+                    int b = axis * BINS + bin(center(face, axis), min, extent, bins);
+                    ++binCount[b];
+                    add(binBox, 12 * b, face);
+                }
+            }
+
+            // find the best split among the bin borders of all axes
+            for (int axis = 0; axis < 3; ++axis)
+                extents[axis] = box[9 + axis] - box[6 + axis];
+            // all the centroids coincide - nothing to split by
+            if (!split.find(binCount, binBox, 12, bins, extents)) {
+                leaf(node, start, count);
+                return -1;
+            }
+            int bestAxis = split.axis, bestBin = split.bin;
+            double splitCost = TRAVERSAL_COST + split.cost / area(box, 0);
+            if (splitCost >= count && count <= MAX_LEAF_SIZE) {
+                leaf(node, start, count);
+                return -1;
+            }
+
+            // gather the boxes of the children from the bins
+            for (double[] child : new double[][]{left, right}) {
+                empty(child, 0);
+                empty(child, 6);
+            }
+            for (int b = 0; b < bins; ++b) {
+                double[] child = b < bestBin ? left : right;
+                expand(child, 0, binBox, 12 * (bestAxis * BINS + b));
+                expand(child, 6, binBox, 12 * (bestAxis * BINS + b) + 6);
+            }
+
+            // partition the range by the chosen border, swapping only the misplaced faces from both ends
+            double min = box[6 + bestAxis], extent = box[9 + bestAxis] - min;
+            int mid = start, last = end - 1;
+            while (true) {
+                while (mid <= last && bin(center(mid, bestAxis), min, extent, bins) < bestBin) ++mid;
+                while (mid <= last && bin(center(last, bestAxis), min, extent, bins) >= bestBin) --last;
+                if (mid >= last) break;
+                swap(mid++, last--);
+            }
+
+            return mid;
+        }
+
+        /**
+         * Expands a box and a centroid box to contain a face and its doubled centroid
+         *
+         * @param a    the array of the boxes
+         * @param off  the start of the box, followed by the centroid box
+         * @param face the face
+         */
+        void add(double[] a, int off, int face) {
+            int f = 6 * face;
+            for (int axis = 0; axis < 3; ++axis) {
+                double min = faceBounds[f + axis], max = faceBounds[f + 3 + axis], center = min + max;
+                if (min < a[off + axis]) a[off + axis] = min;
+                if (max > a[off + 3 + axis]) a[off + 3 + axis] = max;
+                if (center < a[off + 6 + axis]) a[off + 6 + axis] = center;
+                if (center > a[off + 9 + axis]) a[off + 9 + axis] = center;
+            }
+        }
+
+        /**
+         * Calculates the doubled centroid coordinate of a face, the sum of its minimal and maximal coordinates
+         *
+         * @param face the face
+         * @param axis the axis
+         * @return the doubled centroid coordinate
+         */
+        double center(int face, int axis) {
+            return (double) faceBounds[6 * face + axis] + faceBounds[6 * face + 3 + axis];
+        }
+
+        /**
+         * Turns a node into a leaf
+         *
+         * @param node  the node
+         * @param start first face of the leaf
+         * @param count amount of faces in the leaf
+         */
+        void leaf(int node, int start, int count) {
+            nodeData[2 * node] = start;
+            nodeData[2 * node + 1] = count;
+        }
+
+        /**
+         * Swaps two faces together with their surfaces and boxes
+         *
+         * @param i first face
+         * @param j second face
+         */
+        void swap(int i, int j) {
+            for (int k = 0; k < 3; ++k) {
+                int tmp = indices[3 * i + k];
+                indices[3 * i + k] = indices[3 * j + k];
+                indices[3 * j + k] = tmp;
+            }
+            if (faceSurfaces != null) {
+                int tmp = faceSurfaces[i];
+                faceSurfaces[i] = faceSurfaces[j];
+                faceSurfaces[j] = tmp;
+            }
+            for (int k = 0; k < 6; ++k) {
+                float tmp = faceBounds[6 * i + k];
+                faceBounds[6 * i + k] = faceBounds[6 * j + k];
+                faceBounds[6 * j + k] = tmp;
+            }
+        }
+    }
+}
@@ -4,11 +4,9 @@ import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
 
-import java.util.LinkedList;
-import java.util.List;
-
 import static primitives.Util.alignZero;
 import static primitives.Util.isZero;
+import static primitives.VectorMath.*;
 
 /**
  * Represents a tube in 3D space.
@@ -56,66 +54,119 @@ public class Tube extends RadialGeometry {
     }
 
     @Override
-    public List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+    protected void findGeoIntersectionsHelper(Ray ray, HitBuffer hits) {
+        Point p0 = ray.getP0();
         Vector dir = ray.getDir();
+        Point o = axisRay.getP0();
         Vector v = axisRay.getDir();
-        double dirV = dir.dotProduct(v);
-
-        if (ray.getP0().equals(axisRay.getP0())) { // In case the ray starts on the p0.
-            if (isZero(dirV))
-                return List.of(new Intersectable.GeoPoint(this, ray.getPoint(radius)));
-
-            if (dir.equals(v.scale(dir.dotProduct(v))))
-                return null;
-
-
-            return List.of(new Intersectable.GeoPoint(this, ray.getPoint(
-                    Math.sqrt(radius * radius / dir.subtract(v.scale(dir.dotProduct(v))).lengthSquared()))));
-
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+        double vx = v.getX(), vy = v.getY(), vz = v.getZ();
+        double dirV = dot(dx, dy, dz, vx, vy, vz);
+
+        if (p0.equals(o)) { // In case the ray starts on the p0.
+            if (isZero(dirV)) {
+                addIfOnSurface(ray, radius, hits);
+                return;
+            }
 
+            // the part of the ray direction orthogonal to the axis
+            double wx = dx - vx * dirV, wy = dy - vy * dirV, wz = dz - vz * dirV;
+            if (!isZeroVector(wx, wy, wz))
+                addIfOnSurface(ray, Math.sqrt(radius * radius / lengthSquared(wx, wy, wz)), hits);
+            return;
         }
-        Vector deltaP = ray.getP0().subtract(axisRay.getP0());
-        double dpV = deltaP.dotProduct(v);
+        double deltaX = p0.getX() - o.getX(), deltaY = p0.getY() - o.getY(), deltaZ = p0.getZ() - o.getZ();
+        double dpV = dot(deltaX, deltaY, deltaZ, vx, vy, vz);
 
         double a = 1 - dirV * dirV;
-        double b = 2 * (dir.dotProduct(deltaP) - dirV * dpV);
-        double c = deltaP.lengthSquared() - dpV * dpV - radius * radius;
+        double b = 2 * (dot(dx, dy, dz, deltaX, deltaY, deltaZ) - dirV * dpV);
+        double c = lengthSquared(deltaX, deltaY, deltaZ) - dpV * dpV - radius * radius;
 
         if (isZero(a)) {
-            if (isZero(b)) { // If a constant equation.
-                return null;
-            }
-            return List.of(new Intersectable.GeoPoint(this,ray.getPoint(-c / b))); // if it's linear, there's a solution.
+            if (!isZero(b)) // If not a constant equation.
+                addIfOnSurface(ray, -c / b, hits); // if it's linear, there's a solution.
+            return;
         }
 
         double discriminant = alignZero(b * b - 4 * a * c);
 
-        if (discriminant < 0) // No real solutions.
-            return null;
+        if (discriminant <= 0) // No real solutions.
+            return;
 
         double t1 = alignZero(-(b + Math.sqrt(discriminant)) / (2 * a)); // Positive solution.
         double t2 = alignZero(-(b - Math.sqrt(discriminant)) / (2 * a)); // Negative solution.
 
-        if (discriminant <= 0) // No real solutions.
-            return null;
+        if (t1 > 0) addIfOnSurface(ray, t1, hits);
+        if (t2 > 0) addIfOnSurface(ray, t2, hits);
+    }
 
-        if (t1 > 0 && t2 > 0) {
-            List<GeoPoint> points = new LinkedList<>();
-            points.add(new Intersectable.GeoPoint(this,ray.getPoint(t1)));
-            points.add(new Intersectable.GeoPoint(this,ray.getPoint(t2)));
-            return points;
+    /**
+     * Adds the intersection at a distance along the ray, if the point there belongs to the geometry
+     *
+     * @param ray  the ray
+     * @param t    the distance from the ray head
+     * @param hits the buffer receiving the intersections
+     */
+    private void addIfOnSurface(Ray ray, double t, HitBuffer hits) {
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        Point o = axisRay.getP0();
+        double qx = p0.getX(), qy = p0.getY(), qz = p0.getZ();
+        if (!isZero(t)) {
+            qx += dir.getX() * t;
+            qy += dir.getY() * t;
+            qz += dir.getZ() * t;
         }
-        else if (t1 > 0) {
-            List<GeoPoint> points = new LinkedList<>();
-            points.add(new Intersectable.GeoPoint(this,ray.getPoint(t1)));
-            return  points;
+        Vector v = axisRay.getDir();
+        if (isOnSurface(dot(qx - o.getX(), qy - o.getY(), qz - o.getZ(), v.getX(), v.getY(), v.getZ())))
+            hits.add(this, t);
+    }
+
+    /**
+     * Creates the intersection point at a distance along the ray.
+     * The point is projected on the axis anyway, so the intersection gets its normal on the way.
+     *
+     * @param ray the ray
+     * @param t   the distance from the ray head
+     * @return the intersection point with its normal
+     */
+    @Override
+    GeoPoint createGeoPoint(Ray ray, double t) {
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        Point o = axisRay.getP0();
+        Vector v = axisRay.getDir();
+        double qx = p0.getX(), qy = p0.getY(), qz = p0.getZ();
+        if (!isZero(t)) {
+            qx += dir.getX() * t;
+            qy += dir.getY() * t;
+            qz += dir.getZ() * t;
         }
-        else if (t2 > 0) {
-            List<GeoPoint> points = new LinkedList<>();
-            points.add(new Intersectable.GeoPoint(this,ray.getPoint(t2)));
-            return points;
+        double vx = v.getX(), vy = v.getY(), vz = v.getZ();
+        double axial = dot(qx - o.getX(), qy - o.getY(), qz - o.getZ(), vx, vy, vz);
+
+        // the normal goes from the projection of the point on the axis to the point
+        double ax = o.getX(), ay = o.getY(), az = o.getZ();
+        if (!isZero(axial)) {
+            ax += vx * axial;
+            ay += vy * axial;
+            az += vz * axial;
         }
-        return null;
+        GeoPoint hit = super.createGeoPoint(ray, t);
+        if (!isZeroVector(qx - ax, qy - ay, qz - az))
+            hit.setNormal(new Vector(qx - ax, qy - ay, qz - az).normalize());
+        return hit;
+    }
+
+    /**
+     * Checks whether a point of the infinite tube surface belongs to the geometry.
+     * The tube is infinite, so all of them do.
+     *
+     * @param axial the distance of the projection of the point on the axis from the axis head
+     * @return true if the point belongs to the geometry
+     */
+    protected boolean isOnSurface(double axial) {
+        return true;
     }
 
     @Override
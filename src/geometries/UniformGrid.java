@@ -0,0 +1,418 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import primitives.BoundingBox;
+import primitives.Double3;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Uniform grid over bounded intersectables.<br/>
+ * The box of all the geometries is divided into equal cells, and every cell lists the geometries whose boxes
+ * overlap it. A ray walks the cells it crosses in order by the 3D digital differential analyzer (3D-DDA).
+ * A geometry overlapping several cells is tested only once per ray: the last ray that tested every geometry
+ * is recorded in a per-thread mailbox.<br/>
+ * The cells are kept in compressed rows: the geometries of cell c are
+ * {@code cellPrimitives[cellStart[c] .. cellStart[c + 1] - 1]}, and cell (x, y, z) is {@code x + nx * (y + ny * z)}.
+ */
+class UniformGrid implements Accelerator {
+
+    /**
+     * Aimed amount of cells per geometry
+     */
+    private static final double DENSITY = 3;
+
+    /**
+     * Maximal amount of cells along an axis
+     */
+    private static final int MAX_RESOLUTION = 128;
+
+    /**
+     * Axes shorter than this part of the longest axis are not divided
+     */
+    private static final double FLAT_AXIS = 1e-3;
+
+    /**
+     * Per-thread record of the last ray that tested every geometry
+     */
+    private static final class Mailbox {
+        /**
+         * The stamp of the last ray that tested every geometry
+         */
+        int[] stamps;
+        /**
+         * The stamp of the current ray
+         */
+        int ray = 0;
+    }
+
+    /**
+     * The geometries
+     */
+    private final Intersectable[] primitives;
+
+    /**
+     * The box bounding all the geometries
+     */
+    private final BoundingBox box;
+
+    /**
+     * The amount of cells along every axis
+     */
+    private final int[] resolution = new int[3];
+
+    /**
+     * The minimal coordinates of the grid, indexed by axis
+     */
+    private final double[] origin = new double[3];
+
+    /**
+     * The cell sizes, indexed by axis
+     */
+    private final double[] cellSize = new double[3];
+
+    /**
+     * The index of the first geometry of every cell in {@link #cellPrimitives}, and the total at the end
+     */
+    private final int[] cellStart;
+
+    /**
+     * The geometries of all the cells, one cell after the other
+     */
+    private final int[] cellPrimitives;
+
+    /**
+     * The mailboxes of the threads using the grid
+     */
+    private final ThreadLocal<Mailbox> mailboxes = ThreadLocal.withInitial(Mailbox::new);
+
+    /**
+     * The build figures of the grid
+     */
+    private final BuildStats stats;
+
+    /**
+     * Builds a grid over bounded geometries.
+     * The resolution is chosen so that there are about {@link #DENSITY} cubic cells per geometry.
+     *
+     * @param geometries the geometries, all of them must have a bounding box
+     */
+    UniformGrid(List<Intersectable> geometries) {
+        long start = System.nanoTime();
+        primitives = geometries.toArray(new Intersectable[0]);
+        BoundingBox[] boxes = new BoundingBox[primitives.length];
+        BoundingBox union = null;
+        for (int i = 0; i < primitives.length; ++i) {
+            boxes[i] = primitives[i].getBoundingBox();
+            union = union == null ? boxes[i] : union.union(boxes[i]);
+        }
+        box = union;
+
+        if (box == null) {
+            cellStart = new int[1];
+            cellPrimitives = new int[0];
+            stats = new BuildStats(0, System.nanoTime() - start);
+            return;
+        }
+
+        // choose the cell side from the volume spanned by the axes that are not flat
+        double[] extent = new double[3];
+        double longest = 0;
+        for (int axis = 0; axis < 3; ++axis) {
+            extent[axis] = box.getMax(axis) - box.getMin(axis);
+            longest = Math.max(longest, extent[axis]);
+        }
+        double volume = 1;
+        int dimensions = 0;
+        for (int axis = 0; axis < 3; ++axis)
+            if (extent[axis] > FLAT_AXIS * longest) {
+                volume *= extent[axis];
+                ++dimensions;
+            }
+        double cellsPerUnit = Math.pow(DENSITY * primitives.length / volume, 1.0 / dimensions);
+        for (int axis = 0; axis < 3; ++axis) {
+            int cells = extent[axis] > FLAT_AXIS * longest ? (int) Math.round(extent[axis] * cellsPerUnit) : 1;
+            resolution[axis] = Math.max(1, Math.min(MAX_RESOLUTION, cells));
+            origin[axis] = box.getMin(axis);
+            cellSize[axis] = extent[axis] / resolution[axis];
+        }
+
+        // count the geometries of every cell, then place them
+        int cellCount = resolution[0] * resolution[1] * resolution[2];
+        cellStart = new int[cellCount + 1];
+        int[][] ranges = new int[primitives.length][];
+        for (int i = 0; i < primitives.length; ++i) {
+            ranges[i] = cellRange(boxes[i]);
+            forEachCell(ranges[i], cell -> ++cellStart[cell + 1]);
+        }
+        for (int cell = 0; cell < cellCount; ++cell)
+            cellStart[cell + 1] += cellStart[cell];
+        cellPrimitives = new int[cellStart[cellCount]];
+        int[] fill = cellStart.clone();
+        for (int i = 0; i < primitives.length; ++i) {
+            int primitive = i;
+            forEachCell(ranges[i], cell -> cellPrimitives[fill[cell]++] = primitive);
+        }
+
+        // every cell is a leaf, reached with the probability of its area
+        BuildStats figures = new BuildStats(System.nanoTime() - start);
+        double cellArea = 2 * (cellSize[0] * cellSize[1] + cellSize[1] * cellSize[2] + cellSize[2] * cellSize[0]);
+        double probability = cellArea / box.surfaceArea();
+        for (int cell = 0; cell < cellCount; ++cell)
+            figures.addLeaf(0, cellStart[cell + 1] - cellStart[cell], probability);
+        stats = figures;
+    }
+
+    /**
+     * Constructs the copy of a grid over the copies of its geometries, sharing its cells
+     *
+     * @param grid     the grid
+     * @param snapshot the copies of the snapshot so far
+     */
+    private UniformGrid(UniformGrid grid, Snapshot snapshot) {
+        primitives = snapshot.copy(grid.primitives);
+        box = grid.box;
+        System.arraycopy(grid.resolution, 0, resolution, 0, 3);
+        System.arraycopy(grid.origin, 0, origin, 0, 3);
+        System.arraycopy(grid.cellSize, 0, cellSize, 0, 3);
+        cellStart = grid.cellStart;
+        cellPrimitives = grid.cellPrimitives;
+        stats = grid.stats;
+    }
+
+    @Override
+    public UniformGrid copy(Snapshot snapshot) {
+        return new UniformGrid(this, snapshot);
+    }
+
+    /**
+     * Calculates the cells a box overlaps
+     *
+     * @param b the box
+     * @return the minimal cell indices along the axes followed by the maximal ones
+     */
+    private int[] cellRange(BoundingBox b) {
+        int[] range = new int[6];
+        for (int axis = 0; axis < 3; ++axis) {
+            range[axis] = cellOf(axis, b.getMin(axis));
+            range[axis + 3] = cellOf(axis, b.getMax(axis));
+        }
+        return range;
+    }
+
+    /**
+     * Applies an action to every cell in a range
+     *
+     * @param range  the minimal cell indices along the axes followed by the maximal ones
+     * @param action the action, receiving the cell index
+     */
+    private void forEachCell(int[] range, IntConsumer action) {
+        for (int z = range[2]; z <= range[5]; ++z)
+            for (int y = range[1]; y <= range[4]; ++y)
+                for (int x = range[0]; x <= range[3]; ++x)
+                    action.accept(x + resolution[0] * (y + resolution[1] * z));
+    }
+
+    /**
+     * Calculates the cell index along an axis of a coordinate, clamped to the grid
+     *
+     * @param axis       the axis
+     * @param coordinate the coordinate
+     * @return the cell index along the axis
+     */
+    private int cellOf(int axis, double coordinate) {
+        int index = (int) ((coordinate - origin[axis]) / cellSize[axis]);
+        return index < 0 ? 0 : Math.min(index, resolution[axis] - 1);
+    }
+
+    /**
+     * Getter of the amount of cells along the axes
+     *
+     * @return the resolution
+     */
+    int[] getResolution() {
+        return resolution.clone();
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return box;
+    }
+
+    @Override
+    public BuildStats getBuildStats() {
+        return stats;
+    }
+
+    /**
+     * Starts a new ray in the mailbox of the current thread
+     *
+     * @return the mailbox, with the new ray stamp
+     */
+    private Mailbox newRay() {
+        Mailbox mailbox = mailboxes.get();
+        if (mailbox.stamps == null || ++mailbox.ray == Integer.MAX_VALUE) {
+            // stamps would wrap around - start over
+            mailbox.stamps = new int[primitives.length];
+            mailbox.ray = 1;
+        }
+        return mailbox;
+    }
+
+    /**
+     * Walk of a ray through the cells it crosses, by 3D-DDA
+     */
+    private final class Walk {
+        /**
+         * The current cell indices along the axes
+         */
+        final int[] index = new int[3];
+        /**
+         * The index step along the axes, 1 or -1
+         */
+        final int[] step = new int[3];
+        /**
+         * The ray parameter where the ray leaves the current cell along the axes
+         */
+        final double[] next = new double[3];
+        /**
+         * The ray parameter advance per cell along the axes
+         */
+        final double[] delta = new double[3];
+        /**
+         * The ray parameter where the ray leaves the current cell
+         */
+        double exit;
+
+        /**
+         * Places the walk in the cell the ray enters the grid in
+         *
+         * @param ray   the ray
+         * @param entry the ray parameter where the ray enters the grid
+         */
+        Walk(Ray ray, double entry) {
+            Point p0 = ray.getP0();
+            Vector dir = ray.getDir();
+            double[] o = {p0.getX(), p0.getY(), p0.getZ()};
+            double[] d = {dir.getX(), dir.getY(), dir.getZ()};
+            for (int axis = 0; axis < 3; ++axis) {
+                index[axis] = cellOf(axis, o[axis] + d[axis] * entry);
+                if (d[axis] > 0) {
+                    step[axis] = 1;
+                    next[axis] = (origin[axis] + (index[axis] + 1) * cellSize[axis] - o[axis]) / d[axis];
+                    delta[axis] = cellSize[axis] / d[axis];
+                } else if (d[axis] < 0) {
+                    step[axis] = -1;
+                    next[axis] = (origin[axis] + index[axis] * cellSize[axis] - o[axis]) / d[axis];
+                    delta[axis] = -cellSize[axis] / d[axis];
+                } else {
+                    next[axis] = Double.POSITIVE_INFINITY;
+                    delta[axis] = Double.POSITIVE_INFINITY;
+                }
+            }
+            exit = Math.min(next[0], Math.min(next[1], next[2]));
+        }
+
+        /**
+         * Getter of the current cell
+         *
+         * @return the cell index
+         */
+        int cell() {
+            return index[0] + resolution[0] * (index[1] + resolution[1] * index[2]);
+        }
+
+        /**
+         * Moves to the next cell along the ray
+         *
+         * @return false if the ray left the grid
+         */
+        boolean advance() {
+            int axis = next[0] < next[1] ? (next[0] < next[2] ? 0 : 2) : (next[1] < next[2] ? 1 : 2);
+            index[axis] += step[axis];
+            if (index[axis] < 0 || index[axis] >= resolution[axis]) return false;
+            next[axis] += delta[axis];
+            exit = Math.min(next[0], Math.min(next[1], next[2]));
+            return true;
+        }
+    }
+
+    /**
+     * Starts the walk of a ray through the grid
+     *
+     * @param ray  the ray
+     * @param tMax the ray parameter beyond which the grid is not interesting
+     * @return the walk, null if the ray misses the grid before tMax
+     */
+    private Walk walk(Ray ray, double tMax) {
+        if (box == null) return null;
+        double entry = box.intersect(ray, tMax);
+        return entry == Double.POSITIVE_INFINITY ? null : new Walk(ray, entry);
+    }
+
+    @Override
+    public void findGeoIntersections(Ray ray, HitBuffer hits) {
+        Walk walk = walk(ray, Double.POSITIVE_INFINITY);
+        if (walk == null) return;
+        Mailbox mailbox = newRay();
+        do {
+            int cell = walk.cell();
+            for (int i = cellStart[cell]; i < cellStart[cell + 1]; ++i) {
+                int primitive = cellPrimitives[i];
+                if (mailbox.stamps[primitive] == mailbox.ray) continue;
+                mailbox.stamps[primitive] = mailbox.ray;
+                primitives[primitive].findGeoIntersections(ray, hits);
+            }
+        } while (walk.advance());
+    }
+
+    /**
+     * {@inheritDoc}
+     * The cells are visited in the ray order, so the walk stops at the first cell that ends beyond the closest
+     * hit so far. A geometry tested in an earlier cell already gave its closest hit, so skipping it is safe.
+     */
+    @Override
+    public GeoPoint findClosestGeoIntersection(Ray ray, double tMax) {
+        Walk walk = walk(ray, tMax);
+        if (walk == null) return null;
+        Mailbox mailbox = newRay();
+        Point p0 = ray.getP0();
+        GeoPoint closest = null;
+        do {
+            int cell = walk.cell();
+            for (int i = cellStart[cell]; i < cellStart[cell + 1]; ++i) {
+                int primitive = cellPrimitives[i];
+                if (mailbox.stamps[primitive] == mailbox.ray) continue;
+                mailbox.stamps[primitive] = mailbox.ray;
+                GeoPoint geoPoint = primitives[primitive].findClosestGeoIntersection(ray, tMax);
+                if (geoPoint != null) {
+                    closest = geoPoint;
+                    tMax = geoPoint.distance(p0);
+                }
+            }
+        } while (walk.exit < tMax && walk.advance());
+        return closest;
+    }
+
+    @Override
+    public Double3 findTransparency(Ray ray, double tMax, Double3 ktr, double minK) {
+        Walk walk = walk(ray, tMax);
+        if (walk == null) return ktr;
+        Mailbox mailbox = newRay();
+        do {
+            int cell = walk.cell();
+            for (int i = cellStart[cell]; i < cellStart[cell + 1]; ++i) {
+                int primitive = cellPrimitives[i];
+                if (mailbox.stamps[primitive] == mailbox.ray) continue;
+                mailbox.stamps[primitive] = mailbox.ray;
+                ktr = primitives[primitive].findTransparency(ray, tMax, ktr, minK);
+                if (ktr.lowerThan(minK)) return Double3.ZERO;
+            }
+        } while (walk.exit < tMax && walk.advance());
+        return ktr;
+    }
+}
@@ -24,6 +24,15 @@ public class DirectionalLight extends Light implements LightSource{
         this.direction = direction.normalize();
     }
 
+    /**
+     * getter for the direction
+     *
+     * @return the light's direction, normalized
+     */
+    public Vector getDirection() {
+        return direction;
+    }
+
     @Override
     public Color getIntensity(Point point) {
         return intensity;
@@ -2,6 +2,7 @@ package lighting;
 
 import primitives.Color;
 import primitives.Point;
+import primitives.Sampler;
 import primitives.Vector;
 
 import java.util.List;
@@ -41,4 +42,28 @@ public interface LightSource {
      * @return list of points that represent a grid of the light source
      */
     List<Point> getGrid(Vector v);
+
+    /**
+     * returns the points of the light source a sampler picks for the shadow rays,
+     * the grid of {@link #getGrid(Vector)} for a light source without an area
+     *
+     * @param v        vector of the light source to the point on the geometry
+     * @param sampler  the sequence of the points
+     * @param count    the amount of points
+     * @param scramble the scrambling of the sequence
+     * @return list of the sampled points
+     */
+    default List<Point> getGrid(Vector v, Sampler sampler, int count, long scramble) {
+        return getGrid(v);
+    }
+
+    /**
+     * Copies the light source for the frozen snapshot of a scene, so that later changes of the light
+     * do not reach the snapshot. A light source that never changes is shared rather than copied.
+     *
+     * @return the copy
+     */
+    default LightSource copy() {
+        return this;
+    }
 }
@@ -3,6 +3,7 @@ package lighting;
 import primitives.Color;
 import primitives.Grid;
 import primitives.Point;
+import primitives.Sampler;
 import primitives.Vector;
 
 import java.util.List;
@@ -12,9 +13,13 @@ import static primitives.Util.isZero;
 /**
  * PointLight class represents a point light in a scene.
  */
-public class PointLight extends Light implements LightSource{
+public class PointLight extends Light implements LightSource, Cloneable {
     private final Point position;
     private final double radius;
+    /**
+     * The offsets of the soft shadow samples on the light disk, built once per light
+     */
+    protected final double[] gridOffsets;
     private double kC = 1;
     private double kL = 0;
     private double kQ = 0;
@@ -29,6 +34,7 @@ public class PointLight extends Light implements LightSource{
         super(intensity);
         this.position = position;
         this.radius = 0.0;
+        this.gridOffsets = null;
     }
 
 
@@ -42,6 +48,16 @@ public class PointLight extends Light implements LightSource{
         super(intensity);
         this.position = position;
         this.radius = radius;
+        this.gridOffsets = isZero(radius) ? null : Grid.constructCircleOffsets(Grid.getXY_SIZE(), radius);
+    }
+
+    @Override
+    public PointLight copy() {
+        try {
+            return (PointLight) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("A point light must be cloneable", e);
+        }
     }
 
     /**
@@ -78,6 +94,51 @@ public class PointLight extends Light implements LightSource{
         return this;
     }
 
+    /**
+     * getter for the position
+     *
+     * @return the light's position
+     */
+    public Point getPosition() {
+        return position;
+    }
+
+    /**
+     * getter for the radius
+     *
+     * @return the light's radius, 0 for a light without soft shadows
+     */
+    public double getRadius() {
+        return radius;
+    }
+
+    /**
+     * getter for kC
+     *
+     * @return the constant attenuation factor
+     */
+    public double getKc() {
+        return kC;
+    }
+
+    /**
+     * getter for kL
+     *
+     * @return the linear attenuation factor
+     */
+    public double getKl() {
+        return kL;
+    }
+
+    /**
+     * getter for kQ
+     *
+     * @return the quadratic attenuation factor
+     */
+    public double getKq() {
+        return kQ;
+    }
+
     @Override
     public Color getIntensity(Point point) {
         double dis = position.distanceSquared(point);
@@ -96,12 +157,13 @@ public class PointLight extends Light implements LightSource{
 
     @Override
     public List<Point> getGrid(Vector v) {
-        if (isZero(radius)){
-            return List.of(position);
-        }else {
-            Vector v2 = !(isZero(v.getZ()) || isZero(v.getY())) ? new Vector(0,v.getZ(),-v.getY()) :
-                    new Vector(0,1,1).normalize();
-            return Grid.constructCircleGrid(Grid.getXY_SIZE(), position, radius, v2, v2.crossProduct(v).normalize());
-        }
+        // the disk faces the shading point, only its basis is computed per query
+        return gridOffsets == null ? List.of(position) : Grid.circleGrid(gridOffsets, position, v);
+    }
+
+    @Override
+    public List<Point> getGrid(Vector v, Sampler sampler, int count, long scramble) {
+        return gridOffsets == null ? getGrid(v)
+                : Grid.circleGrid(Grid.sampleCircleOffsets(sampler, count, scramble, radius), position, v);
     }
 }
@@ -3,12 +3,12 @@ package lighting;
 import primitives.Color;
 import primitives.Grid;
 import primitives.Point;
+import primitives.Sampler;
 import primitives.Vector;
 
 import java.util.List;
 
 import static primitives.Util.alignZero;
-import static primitives.Util.isZero;
 /**
  * SpotLight class represents a spot light in a scene.
  */
@@ -40,12 +40,17 @@ public class SpotLight extends PointLight{
     public SpotLight(Color intensity, Point position, Vector direction, double radius) {
         super(intensity, position, radius);
         this.direction = direction.normalize();
-        Vector v = !(isZero(direction.getZ()) || isZero(direction.getY())) ? new Vector(0,direction.getZ(),-direction.getY()) :
-                new Vector(0,1,1).normalize();
-        if (radius == 0)
-            grid = List.of(position);
-        else
-            grid = Grid.constructCircleGrid(Grid.getXY_SIZE(), position, radius,v, direction.crossProduct(v));
+        // the spot disk always faces its direction, so it is turned once
+        grid = gridOffsets == null ? List.of(position) : List.copyOf(Grid.circleGrid(gridOffsets, position, this.direction));
+    }
+
+    /**
+     * getter for the direction
+     *
+     * @return the light's direction, normalized
+     */
+    public Vector getDirection() {
+        return direction;
     }
 
     @Override
@@ -59,4 +64,10 @@ public class SpotLight extends PointLight{
     public List<Point> getGrid(Vector v) {
         return grid;
     }
+
+    @Override
+    public List<Point> getGrid(Vector v, Sampler sampler, int count, long scramble) {
+        // the sampled disk faces the spot direction as its fixed grid does
+        return gridOffsets == null ? grid : super.getGrid(direction, sampler, count, scramble);
+    }
 }
@@ -0,0 +1,189 @@
+package primitives;
+
+/**
+ * Axis-aligned bounding box in 3D space.
+ * It is used to skip the exact intersection tests of geometries that a ray cannot reach.
+ */
+public final class BoundingBox {
+
+    /**
+     * Small padding added to every box so flat geometries get a non-degenerate slab
+     */
+    private static final double PADDING = 1e-7;
+
+    /**
+     * The minimal coordinates of the box, indexed by axis (x = 0, y = 1, z = 2)
+     */
+    private final double[] min;
+
+    /**
+     * The maximal coordinates of the box, indexed by axis (x = 0, y = 1, z = 2)
+     */
+    private final double[] max;
+
+    /**
+     * Constructs a bounding box from its minimal and maximal coordinates.
+     *
+     * @param minX minimal x coordinate
+     * @param minY minimal y coordinate
+     * @param minZ minimal z coordinate
+     * @param maxX maximal x coordinate
+     * @param maxY maximal y coordinate
+     * @param maxZ maximal z coordinate
+     * @throws IllegalArgumentException if a minimal coordinate is bigger than the maximal one
+     */
+    public BoundingBox(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        if (minX > maxX || minY > maxY || minZ > maxZ)
+            throw new IllegalArgumentException("Minimal coordinates of a bounding box must not exceed the maximal ones");
+        min = new double[]{minX - PADDING, minY - PADDING, minZ - PADDING};
+        max = new double[]{maxX + PADDING, maxY + PADDING, maxZ + PADDING};
+    }
+
+    /**
+     * Constructs the smallest bounding box that contains all the given points.
+     *
+     * @param points the points to bound
+     * @throws IllegalArgumentException if no points are given
+     */
+    public BoundingBox(Point... points) {
+        if (points.length == 0)
+            throw new IllegalArgumentException("A bounding box needs at least one point");
+        min = new double[]{Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY};
+        max = new double[]{Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (Point p : points) {
+            min[0] = Math.min(min[0], p.xyz.d1 - PADDING);
+            min[1] = Math.min(min[1], p.xyz.d2 - PADDING);
+            min[2] = Math.min(min[2], p.xyz.d3 - PADDING);
+            max[0] = Math.max(max[0], p.xyz.d1 + PADDING);
+            max[1] = Math.max(max[1], p.xyz.d2 + PADDING);
+            max[2] = Math.max(max[2], p.xyz.d3 + PADDING);
+        }
+    }
+
+    /**
+     * Constructs a box from already padded coordinate arrays
+     *
+     * @param min minimal coordinates
+     * @param max maximal coordinates
+     */
+    private BoundingBox(double[] min, double[] max) {
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * Getter of the minimal coordinate along an axis
+     *
+     * @param axis the axis (x = 0, y = 1, z = 2)
+     * @return the minimal coordinate
+     */
+    public double getMin(int axis) {
+        return min[axis];
+    }
+
+    /**
+     * Getter of the maximal coordinate along an axis
+     *
+     * @param axis the axis (x = 0, y = 1, z = 2)
+     * @return the maximal coordinate
+     */
+    public double getMax(int axis) {
+        return max[axis];
+    }
+
+    /**
+     * Getter of the center coordinate along an axis
+     *
+     * @param axis the axis (x = 0, y = 1, z = 2)
+     * @return the center coordinate
+     */
+    public double getCenter(int axis) {
+        return (min[axis] + max[axis]) / 2;
+    }
+
+    /**
+     * Computes the smallest box containing both this box and the other one.
+     *
+     * @param other the other box
+     * @return the united box
+     */
+    public BoundingBox union(BoundingBox other) {
+        return new BoundingBox(
+                new double[]{Math.min(min[0], other.min[0]), Math.min(min[1], other.min[1]), Math.min(min[2], other.min[2])},
+                new double[]{Math.max(max[0], other.max[0]), Math.max(max[1], other.max[1]), Math.max(max[2], other.max[2])});
+    }
+
+    /**
+     * Computes the surface area of the box, which is the probability measure used by the surface area heuristic
+     *
+     * @return the surface area
+     */
+    public double surfaceArea() {
+        double dx = max[0] - min[0];
+        double dy = max[1] - min[1];
+        double dz = max[2] - min[2];
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * Slab test of the box against a ray.
+     *
+     * @param ray  the ray
+     * @param tMax the ray parameter beyond which hits are not interesting
+     * @return the ray parameter where the ray enters the box (0 if it starts inside),
+     * or positive infinity if the ray misses the box before tMax
+     */
+    public double intersect(Ray ray, double tMax) {
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        return intersect(p0.xyz.d1, p0.xyz.d2, p0.xyz.d3,
+                1 / dir.xyz.d1, 1 / dir.xyz.d2, 1 / dir.xyz.d3, tMax);
+    }
+
+    /**
+     * Slab test of the box against a ray given by its origin and the reciprocals of its direction,
+     * so a ray that is tested against many boxes computes the divisions once.
+     *
+     * @param ox   origin x coordinate
+     * @param oy   origin y coordinate
+     * @param oz   origin z coordinate
+     * @param invX reciprocal of the direction x coordinate
+     * @param invY reciprocal of the direction y coordinate
+     * @param invZ reciprocal of the direction z coordinate
+     * @param tMax the ray parameter beyond which hits are not interesting
+     * @return the ray parameter where the ray enters the box (0 if it starts inside),
+     * or positive infinity if the ray misses the box before tMax
+     */
+    public double intersect(double ox, double oy, double oz, double invX, double invY, double invZ, double tMax) {
+        double tNear = 0;
+        double tFar = tMax;
+
+        // a NaN (ray parallel to a slab and starting on its border) fails the comparisons and is ignored
+        double t1 = (min[0] - ox) * invX;
+        double t2 = (max[0] - ox) * invX;
+        if (t1 > t2) { double tmp = t1; t1 = t2; t2 = tmp; }
+        if (t1 > tNear) tNear = t1;
+        if (t2 < tFar) tFar = t2;
+        if (tNear > tFar) return Double.POSITIVE_INFINITY;
+
+        t1 = (min[1] - oy) * invY;
+        t2 = (max[1] - oy) * invY;
+        if (t1 > t2) { double tmp = t1; t1 = t2; t2 = tmp; }
+        if (t1 > tNear) tNear = t1;
+        if (t2 < tFar) tFar = t2;
+        if (tNear > tFar) return Double.POSITIVE_INFINITY;
+
+        t1 = (min[2] - oz) * invZ;
+        t2 = (max[2] - oz) * invZ;
+        if (t1 > t2) { double tmp = t1; t1 = t2; t2 = tmp; }
+        if (t1 > tNear) tNear = t1;
+        if (t2 < tFar) tFar = t2;
+        return tNear > tFar ? Double.POSITIVE_INFINITY : tNear;
+    }
+
+    @Override
+    public String toString() {
+        return "BoundingBox{" + "min=(" + min[0] + "," + min[1] + "," + min[2] + ")" +
+                ", max=(" + max[0] + "," + max[1] + "," + max[2] + ")}";
+    }
+}
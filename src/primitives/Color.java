@@ -53,6 +53,10 @@ public class Color {
       return new java.awt.Color(ir > 255 ? 255 : ir, ig > 255 ? 255 : ig, ib > 255 ? 255 : ib);
    }
 
+   /** RGB components getter
+    * @return the triad of Red/Green/Blue components */
+   public Double3 getRgb() { return rgb; }
+
    /** Operation of adding this and one or more other colors (by component)
     * @param  colors one or more other colors to add
     * @return        new Color object which is a result of the operation */
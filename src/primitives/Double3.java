@@ -58,6 +58,33 @@ public class Double3 {
         this.d3 = value;
     }
 
+    /**
+     * Getter of the first number
+     *
+     * @return the first number
+     */
+    public double getD1() {
+        return d1;
+    }
+
+    /**
+     * Getter of the second number
+     *
+     * @return the second number
+     */
+    public double getD2() {
+        return d2;
+    }
+
+    /**
+     * Getter of the third number
+     *
+     * @return the third number
+     */
+    public double getD3() {
+        return d3;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
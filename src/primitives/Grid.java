@@ -1,7 +1,10 @@
 package primitives;
 
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.RandomAccess;
 
 import static primitives.Util.alignZero;
 import static primitives.Util.isZero;
@@ -13,6 +16,12 @@ public abstract class Grid {
     
     private static final int XY_SIZE = 17;
 
+    /**
+     * The amount of leading samples of a circle grid that form the probe set:
+     * the center and eight points near the rim
+     */
+    private static final int PROBE_SIZE = 9;
+
     /**
      * Gets the size of the grid.
      * @return the size of the grid
@@ -22,6 +31,14 @@ public abstract class Grid {
     }
 
 
+    /**
+     * Gets the size of the probe set at the head of a circle grid.
+     * @return the amount of probe samples
+     */
+    public static int getProbeSize() {
+        return PROBE_SIZE;
+    }
+
     /**
      * Construct a grid of points on a circle.
      * @param xy the number of points on the circle
@@ -61,4 +78,181 @@ public abstract class Grid {
         }
         return result;
     }
+
+    /**
+     * Construct the offsets of a grid of points on a circle, relative to the circle center.
+     * The offsets do not depend on the circle orientation, so they can be built once and turned
+     * towards any direction by {@link #circleGrid(double[], Point, Vector)}.
+     * The first {@link #getProbeSize()} offsets are the probe set - the center and eight points near the rim,
+     * which are enough to tell a fully lit or fully shadowed point from a penumbra one.
+     *
+     * @param xy     the number of points on each side of the square lattice cut to the circle
+     * @param radius the radius of the circle
+     * @return the offsets as pairs (right, up) in one array: right0, up0, right1, up1, ...
+     */
+    public static double[] constructCircleOffsets(int xy, double radius) {
+        if (xy < 1)
+            throw new IllegalArgumentException("xy must be over than 0");
+        if ((xy == 1) || (isZero(radius)))
+            return new double[]{0, 0};
+
+        double[] offsets = new double[2 * xy * xy];
+        int size = 0;
+        double rxy = (2 * radius) / xy;
+        for (int i = 0; i < xy; i++) {
+            double yI = alignZero((i - (xy - 1) / 2.0) * rxy);
+            for (int j = 0; j < xy; j++) {
+                double xJ = alignZero((j - (xy - 1) / 2.0) * rxy);
+                if (xJ * xJ + yI * yI <= radius * radius) {
+                    offsets[size++] = xJ;
+                    offsets[size++] = yI;
+                }
+            }
+        }
+        offsets = Arrays.copyOf(offsets, size);
+
+        // move the samples nearest to the center and to eight rim directions to the head of the grid
+        int probes = Math.min(PROBE_SIZE, size / 2);
+        for (int k = 0; k < probes; k++) {
+            double angle = (k - 1) * Math.PI / 4;
+            double targetX = k == 0 ? 0 : radius * Math.cos(angle);
+            double targetY = k == 0 ? 0 : radius * Math.sin(angle);
+            int nearest = 2 * k;
+            double minDistance = Double.POSITIVE_INFINITY;
+            for (int i = 2 * k; i < size; i += 2) {
+                double dx = offsets[i] - targetX, dy = offsets[i + 1] - targetY;
+                double distance = dx * dx + dy * dy;
+                if (distance < minDistance) {
+                    minDistance = distance;
+                    nearest = i;
+                }
+            }
+            double x = offsets[nearest], y = offsets[nearest + 1];
+            System.arraycopy(offsets, 2 * k, offsets, 2 * k + 2, nearest - 2 * k);
+            offsets[2 * k] = x;
+            offsets[2 * k + 1] = y;
+        }
+        return offsets;
+    }
+
+    /**
+     * Construct the offsets of sample points on a circle, relative to the circle center, as
+     * {@link #constructCircleOffsets(int, double)} does for the fixed grid.
+     * The points of a sampler sequence are mapped from the square to the disk. Every sampler spreads any
+     * leading run of its points over the whole square - the low-discrepancy sequences by construction and
+     * the jittered sampling by the order of its cells - so the first {@link #getProbeSize()} offsets are
+     * spread over the whole disk and serve as the probe set.
+     *
+     * @param sampler  the sequence of the points
+     * @param count    the amount of points
+     * @param scramble the scrambling of the sequence
+     * @param radius   the radius of the circle
+     * @return the offsets as pairs (right, up) in one array: right0, up0, right1, up1, ...
+     */
+    public static double[] sampleCircleOffsets(Sampler sampler, int count, long scramble, double radius) {
+        if (count < 1)
+            throw new IllegalArgumentException("count must be over than 0");
+        double[] offsets = new double[2 * count];
+        double[] uv = new double[2];
+        for (int i = 0; i < count; i++) {
+            sampler.sample(i, count, scramble, uv);
+            Sampler.toDisk(uv);
+            offsets[2 * i] = uv[0] * radius;
+            offsets[2 * i + 1] = uv[1] * radius;
+        }
+        return offsets;
+    }
+
+    /**
+     * Turn a circle grid built by {@link #constructCircleOffsets(int, double)} so that
+     * it is centered at a point and orthogonal to a direction.
+     * The points are computed on access, so the grid itself allocates only the returned list.
+     *
+     * @param offsets the offsets of the grid points relative to the center
+     * @param center  the center of the circle
+     * @param normal  the direction orthogonal to the circle (need not be normalized)
+     * @return the grid points
+     */
+    public static List<Point> circleGrid(double[] offsets, Point center, Vector normal) {
+        return new CircleGrid(offsets, center, normal);
+    }
+
+    /**
+     * Read-only list of the points of a circle grid, computed from the offsets by a change of basis
+     */
+    private static final class CircleGrid extends AbstractList<Point> implements RandomAccess {
+        /**
+         * The offsets of the points relative to the center
+         */
+        private final double[] offsets;
+        /**
+         * The center of the circle
+         */
+        private final double cx, cy, cz;
+        /**
+         * The unit vector of the circle plane the first offset of a pair is measured along
+         */
+        private final double rx, ry, rz;
+        /**
+         * The unit vector of the circle plane the second offset of a pair is measured along
+         */
+        private final double ux, uy, uz;
+
+        /**
+         * Constructs the grid and its orthonormal basis
+         *
+         * @param offsets the offsets of the grid points relative to the center
+         * @param center  the center of the circle
+         * @param normal  the direction orthogonal to the circle
+         */
+        CircleGrid(double[] offsets, Point center, Vector normal) {
+            this.offsets = offsets;
+            cx = center.xyz.d1;
+            cy = center.xyz.d2;
+            cz = center.xyz.d3;
+
+            double nx = normal.xyz.d1, ny = normal.xyz.d2, nz = normal.xyz.d3;
+            // up = normal x (the coordinate axis least aligned with the normal)
+            double ax = Math.abs(nx), ay = Math.abs(ny), az = Math.abs(nz);
+            double upX, upY, upZ;
+            if (ax <= ay && ax <= az) {
+                upX = 0;
+                upY = nz;
+                upZ = -ny;
+            } else if (ay <= az) {
+                upX = -nz;
+                upY = 0;
+                upZ = nx;
+            } else {
+                upX = ny;
+                upY = -nx;
+                upZ = 0;
+            }
+            double upLength = Math.sqrt(upX * upX + upY * upY + upZ * upZ);
+            ux = upX / upLength;
+            uy = upY / upLength;
+            uz = upZ / upLength;
+
+            // right = up x normal
+            double rightX = uy * nz - uz * ny;
+            double rightY = uz * nx - ux * nz;
+            double rightZ = ux * ny - uy * nx;
+            double rightLength = Math.sqrt(rightX * rightX + rightY * rightY + rightZ * rightZ);
+            rx = rightX / rightLength;
+            ry = rightY / rightLength;
+            rz = rightZ / rightLength;
+        }
+
+        @Override
+        public Point get(int index) {
+            double right = offsets[2 * index];
+            double up = offsets[2 * index + 1];
+            return new Point(cx + right * rx + up * ux, cy + right * ry + up * uy, cz + right * rz + up * uz);
+        }
+
+        @Override
+        public int size() {
+            return offsets.length / 2;
+        }
+    }
 }
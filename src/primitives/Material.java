@@ -8,27 +8,115 @@ public class Material {
     /**
      * The diffuse factor of the material.
      */
-    public Double3 kD = Double3.ZERO;
+    private Double3 kD = Double3.ZERO;
 
     /**
      * The specular factor of the material.
      */
-    public Double3 kS = Double3.ZERO;
+    private Double3 kS = Double3.ZERO;
 
     /**
      * kR - reflection coefficient
      */
-    public Double3 kR = Double3.ZERO;
+    private Double3 kR = Double3.ZERO;
 
     /**
      * kT - transparency coefficient
      */
-    public Double3 kT = Double3.ZERO;
+    private Double3 kT = Double3.ZERO;
 
     /**
      * The shininess factor of the material.
      */
-    public int nShininess = 0;
+    private int nShininess = 0;
+
+    /**
+     * Whether the material belongs to a frozen scene and must not change any more
+     */
+    private boolean frozen = false;
+
+    /**
+     * Constructs a material with all the factors zero
+     */
+    public Material() {
+    }
+
+    /**
+     * Constructs a copy of a material, which may change independently of it
+     *
+     * @param other the material to copy
+     */
+    public Material(Material other) {
+        kD = other.kD;
+        kS = other.kS;
+        kR = other.kR;
+        kT = other.kT;
+        nShininess = other.nShininess;
+    }
+
+    /**
+     * Getter of the diffuse factor
+     *
+     * @return the diffuse factor
+     */
+    public Double3 getKd() {
+        return kD;
+    }
+
+    /**
+     * Getter of the specular factor
+     *
+     * @return the specular factor
+     */
+    public Double3 getKs() {
+        return kS;
+    }
+
+    /**
+     * Getter of the reflection coefficient
+     *
+     * @return the reflection coefficient
+     */
+    public Double3 getKr() {
+        return kR;
+    }
+
+    /**
+     * Getter of the transparency coefficient
+     *
+     * @return the transparency coefficient
+     */
+    public Double3 getKt() {
+        return kT;
+    }
+
+    /**
+     * Getter of the shininess
+     *
+     * @return the shininess
+     */
+    public int getShininess() {
+        return nShininess;
+    }
+
+    /**
+     * Forbids any further change through the setters, for the copy of a material in a frozen scene
+     *
+     * @return this material
+     */
+    public Material freeze() {
+        frozen = true;
+        return this;
+    }
+
+    /**
+     * Checks that the material may still change
+     *
+     * @throws IllegalStateException if the material is frozen
+     */
+    private void checkNotFrozen() {
+        if (frozen) throw new IllegalStateException("A material of a frozen scene must not change");
+    }
 
     /**
      * setter for kD
@@ -37,6 +125,7 @@ public class Material {
      * @return this material
      */
     public Material setKd(Double3 kD) {
+        checkNotFrozen();
         this.kD = kD;
         return this;
     }
@@ -48,6 +137,7 @@ public class Material {
      * @return this material
      */
     public Material setKd(double kD) {
+        checkNotFrozen();
         this.kD = new Double3(kD);
         return this;
     }
@@ -59,6 +149,7 @@ public class Material {
      * @return this material
      */
     public Material setKs(Double3 kS) {
+        checkNotFrozen();
         this.kS = kS;
         return this;
     }
@@ -70,6 +161,7 @@ public class Material {
      * @return this material
      */
     public Material setKs(double kS) {
+        checkNotFrozen();
         this.kS = new Double3(kS);
         return this;
     }
@@ -81,6 +173,7 @@ public class Material {
      * @return this material
      */
     public Material setKr(Double3 kR) {
+        checkNotFrozen();
         this.kR = kR;
         return this;
     }
@@ -92,6 +185,7 @@ public class Material {
      * @return this material
      */
     public Material setKr(double kR) {
+        checkNotFrozen();
         this.kR = new Double3(kR);
         return this;
     }
@@ -103,6 +197,7 @@ public class Material {
      * @return this material
      */
     public Material setKt(Double3 kT) {
+        checkNotFrozen();
         this.kT = kT;
         return this;
     }
@@ -114,6 +209,7 @@ public class Material {
      * @return this material
      */
     public Material setKt(double kT) {
+        checkNotFrozen();
         this.kT = new Double3(kT);
         return this;
     }
@@ -125,6 +221,7 @@ public class Material {
      * @return this material
      */
     public Material setShininess(int nShininess) {
+        checkNotFrozen();
         this.nShininess = nShininess;
         return this;
     }
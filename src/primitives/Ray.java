@@ -104,7 +104,7 @@ public class Ray {
         GeoPoint result = null;
         double minDistance = Double.POSITIVE_INFINITY;
         for (GeoPoint point : points) {
-            double distance = point.point.distance(p0);
+            double distance = point.distance(p0);
             if (distance < minDistance) {
                 minDistance = distance;
                 result = point;
@@ -0,0 +1,158 @@
+package primitives;
+
+/**
+ * Sequences of sample points in the unit square, for the rays that sample an area such as a pixel or a light disk.
+ * Stratified and low-discrepancy points cover the area more evenly than random or regular ones, so they reach
+ * the same quality with fewer rays and without the banding of a fixed lattice.<br/>
+ * Every sequence is scrambled by a value, 0 for the plain sequence. The renderer derives the value from the pixel
+ * sample being traced and the use site, see {@link #scramble(Site)}, so neighbouring pixels get differently placed
+ * points and the remaining error turns into fine noise.
+ */
+public enum Sampler {
+
+    /**
+     * Jittered stratified sampling - the square is cut into as many cells of equal area as samples,
+     * and every sample is placed randomly in its own cell. The cells are visited in a golden ratio order
+     * rather than row by row, so that the first samples are already spread over the whole square
+     */
+    JITTERED {
+        @Override
+        public void sample(int index, int count, long scramble, double[] uv) {
+            int cell = (int) ((long) index * stride(count) % count);
+            int columns = (int) Math.ceil(Math.sqrt(count));
+            int full = count / columns * columns;
+            // the cells of the last partial row are wider, so that all the cells have the same area
+            int cells = cell < full ? columns : count - full;
+            int column = cell < full ? cell % columns : cell - full;
+            double y0 = (double) (cell < full ? cell / columns * columns : full) / count;
+            long hash = SamplingRandom.hash(scramble, cell);
+            uv[0] = (column + SamplingRandom.unit(hash)) / cells;
+            uv[1] = y0 + SamplingRandom.unit(SamplingRandom.mix(hash)) * cells / count;
+        }
+    },
+
+    /**
+     * The Halton sequence of the bases 2 and 3, scrambled by a random shift of the square (Cranley-Patterson rotation)
+     */
+    HALTON {
+        @Override
+        public void sample(int index, int count, long scramble, double[] uv) {
+            uv[0] = shift((Integer.reverse(index) & 0xFFFFFFFFL) * 0x1p-32, SamplingRandom.unit(scramble));
+            double inverse = 0, digit = 1.0 / 3;
+            for (int n = index; n != 0; n /= 3, digit /= 3)
+                inverse += (n % 3) * digit;
+            uv[1] = shift(inverse, SamplingRandom.unit(SamplingRandom.mix(scramble)));
+        }
+    },
+
+    /**
+     * The first two dimensions of the Sobol sequence, scrambled by random digit flips that keep
+     * every power of 2 long run of samples stratified in both dimensions
+     */
+    SOBOL {
+        @Override
+        public void sample(int index, int count, long scramble, double[] uv) {
+            int x = 0, y = 0;
+            for (int n = index, v = 1 << 31, w = 1 << 31; n != 0; n >>>= 1, v >>>= 1, w ^= w >>> 1)
+                if ((n & 1) != 0) {
+                    x ^= v;
+                    y ^= w;
+                }
+            uv[0] = ((x ^ (int) scramble) & 0xFFFFFFFFL) * 0x1p-32;
+            uv[1] = ((y ^ (int) (scramble >>> 32)) & 0xFFFFFFFFL) * 0x1p-32;
+        }
+    };
+
+    /**
+     * The use sites of the samplers, each scrambled independently of the others
+     */
+    public enum Site {
+        /**
+         * The points of a pixel the camera rays pass through
+         */
+        PIXEL,
+        /**
+         * The points of a light disk the shadow rays are cast towards
+         */
+        LIGHT_DISK
+    }
+
+    /**
+     * Computes a sample of the sequence
+     *
+     * @param index    the index of the sample, from 0 to count - 1
+     * @param count    the amount of samples taken, used only by the stratified sampling
+     * @param scramble the scrambling of the sequence, 0 for the plain sequence
+     * @param uv       the array the coordinates of the sample in [0, 1) are stored into
+     */
+    public abstract void sample(int index, int count, long scramble, double[] uv);
+
+    /**
+     * Maps a sample of the unit square to the unit disk, in place.
+     * The concentric mapping keeps the areas and the neighbourhoods of the square,
+     * so the samples stay as evenly spread as they were.
+     *
+     * @param uv the coordinates of the sample in the square, replaced by its coordinates on the disk
+     */
+    public static void toDisk(double[] uv) {
+        double a = 2 * uv[0] - 1, b = 2 * uv[1] - 1;
+        if (a == 0 && b == 0) {
+            uv[0] = uv[1] = 0;
+            return;
+        }
+        double r, phi;
+        if (Math.abs(a) > Math.abs(b)) {
+            r = a;
+            phi = Math.PI / 4 * (b / a);
+        } else {
+            r = b;
+            phi = Math.PI / 2 - Math.PI / 4 * (a / b);
+        }
+        uv[0] = r * Math.cos(phi);
+        uv[1] = r * Math.sin(phi);
+    }
+
+    /**
+     * Getter of the scrambling of a use site in the pixel sample the calling thread traces,
+     * a sub-stream of its {@link SamplingRandom} stream
+     *
+     * @param site the use site
+     * @return the scrambling
+     */
+    public static long scramble(Site site) {
+        return SamplingRandom.split(site.ordinal());
+    }
+
+    /**
+     * Finds the stride of the golden ratio order of the jittered cells: the amount of cells nearest to
+     * their total amount divided by the golden ratio that has no common divisor with the total amount,
+     * so that striding through the cells visits every cell once
+     *
+     * @param count the amount of cells
+     * @return the stride
+     */
+    private static int stride(int count) {
+        int stride = (int) Math.round(count * 0.6180339887498949);
+        for (; ; ++stride) {
+            int a = stride, b = count;
+            while (b != 0) {
+                int r = a % b;
+                a = b;
+                b = r;
+            }
+            if (a == 1) return stride;
+        }
+    }
+
+    /**
+     * Shifts a number in [0, 1) cyclically
+     *
+     * @param x     the number
+     * @param shift the shift in [0, 1)
+     * @return the shifted number in [0, 1)
+     */
+    private static double shift(double x, double shift) {
+        x += shift;
+        return x >= 1 ? x - 1 : x;
+    }
+}
@@ -0,0 +1,110 @@
+package primitives;
+
+/**
+ * Deterministic random numbers for the stochastic sampling of the rendering.<br/>
+ * Every thread has its own stream, set by {@link #seed(long, int, int, int)} to the pixel sample it traces next.
+ * The numbers are a counter-based hash of the seed, the pixel, the sample and the index of the number in
+ * the stream, so they do not depend on the thread that traces the pixel or on the order of the pixels,
+ * no state is shared between threads, and two renderings with the same seed give identical images.
+ */
+public final class SamplingRandom {
+
+    /**
+     * The increment of the golden ratio sequence, to spread consecutive counters before they are mixed
+     */
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    /**
+     * The bits flipped in the key of a stream before its sub-stream keys are derived from it
+     */
+    private static final long SPLIT = 0xD1B54A32D192ED03L;
+
+    /**
+     * The stream of each thread: the key of the pixel sample and the amount of numbers drawn from it
+     */
+    private static final ThreadLocal<long[]> STREAM = ThreadLocal.withInitial(() -> new long[2]);
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private SamplingRandom() {
+    }
+
+    /**
+     * Sets the stream of the calling thread to the pixel sample it traces next
+     *
+     * @param seed   the seed of the rendering
+     * @param col    the column of the pixel
+     * @param row    the row of the pixel
+     * @param sample the index of the sample in the pixel
+     */
+    public static void seed(long seed, int col, int row, int sample) {
+        long[] stream = STREAM.get();
+        stream[0] = hash(hash(hash(seed, col), row), sample);
+        stream[1] = 0;
+    }
+
+    /**
+     * Draws the next number of the stream of the calling thread
+     *
+     * @return the number in [0, 1)
+     */
+    public static double next() {
+        return unit(nextLong());
+    }
+
+    /**
+     * Draws the next 64 random bits of the stream of the calling thread
+     *
+     * @return the bits
+     */
+    public static long nextLong() {
+        long[] stream = STREAM.get();
+        return hash(stream[0], stream[1]++);
+    }
+
+    /**
+     * Getter of the key of an independent sub-stream of the pixel sample the calling thread traces,
+     * to be hashed by its own counters without drawing from the stream of the thread
+     *
+     * @param id the identifier of the sub-stream
+     * @return the key of the sub-stream
+     */
+    public static long split(long id) {
+        // the keys of the sub-streams differ from the numbers of the stream itself
+        return hash(mix(STREAM.get()[0] ^ SPLIT), id);
+    }
+
+    /**
+     * Computes a number of a counter-based stream
+     *
+     * @param key     the key of the stream
+     * @param counter the index of the number in the stream
+     * @return 64 random bits
+     */
+    static long hash(long key, long counter) {
+        return mix(key + (counter + 1) * GOLDEN);
+    }
+
+    /**
+     * Mixes the bits of a value into a well spread hash (the finalizer of SplitMix64)
+     *
+     * @param z the value
+     * @return the hash
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Turns the high bits of a hash into a number in [0, 1)
+     *
+     * @param hash the hash
+     * @return the number
+     */
+    static double unit(long hash) {
+        return (hash >>> 11) * 0x1p-53;
+    }
+}
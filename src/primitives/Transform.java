@@ -0,0 +1,226 @@
+package primitives;
+
+import java.util.Arrays;
+
+import static primitives.Util.isZero;
+
+/**
+ * Affine transform of the 3D space: a linear map followed by a translation.<br/>
+ * The transform is kept as a 3x4 matrix together with its inverse, so both directions cost the same.
+ * Transforms are immutable - composing or inverting creates a new one.
+ */
+public final class Transform {
+
+    /**
+     * The transform that leaves everything in place
+     */
+    public static final Transform IDENTITY = new Transform(new double[]{1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0});
+
+    /**
+     * The matrix of the transform, row by row - each row is three linear coefficients and a translation
+     */
+    private final double[] m;
+
+    /**
+     * The matrix of the inverse transform, in the same layout
+     */
+    private final double[] inv;
+
+    /**
+     * Constructs a transform from its matrix
+     *
+     * @param matrix the 3x4 matrix, row by row - each row is three linear coefficients and a translation
+     * @throws IllegalArgumentException if the matrix does not have 12 elements or is not invertible
+     */
+    public Transform(double... matrix) {
+        if (matrix.length != 12)
+            throw new IllegalArgumentException("An affine transform matrix must have 12 elements");
+        m = matrix.clone();
+        inv = invert(m);
+    }
+
+    /**
+     * Constructs a transform from its matrix and the matrix of its inverse
+     *
+     * @param m   the matrix
+     * @param inv the matrix of the inverse
+     */
+    private Transform(double[] m, double[] inv) {
+        this.m = m;
+        this.inv = inv;
+    }
+
+    /**
+     * Creates a translation
+     *
+     * @param offset the translation vector
+     * @return the transform
+     */
+    public static Transform translation(Vector offset) {
+        return new Transform(1, 0, 0, offset.xyz.d1, 0, 1, 0, offset.xyz.d2, 0, 0, 1, offset.xyz.d3);
+    }
+
+    /**
+     * Creates a scaling about the origin
+     *
+     * @param sx the scale factor along the x axis
+     * @param sy the scale factor along the y axis
+     * @param sz the scale factor along the z axis
+     * @return the transform
+     * @throws IllegalArgumentException if a factor is zero
+     */
+    public static Transform scaling(double sx, double sy, double sz) {
+        return new Transform(sx, 0, 0, 0, 0, sy, 0, 0, 0, 0, sz, 0);
+    }
+
+    /**
+     * Creates a uniform scaling about the origin
+     *
+     * @param s the scale factor
+     * @return the transform
+     * @throws IllegalArgumentException if the factor is zero
+     */
+    public static Transform scaling(double s) {
+        return scaling(s, s, s);
+    }
+
+    /**
+     * Creates a rotation about an axis through the origin.
+     * The rotation is counterclockwise when looking from the axis head towards the origin.
+     *
+     * @param axis    the axis direction
+     * @param degrees the rotation angle in degrees
+     * @return the transform
+     */
+    public static Transform rotation(Vector axis, double degrees) {
+        Vector u = axis.normalize();
+        double x = u.xyz.d1, y = u.xyz.d2, z = u.xyz.d3;
+        double angle = Math.toRadians(degrees);
+        double c = Math.cos(angle), s = Math.sin(angle), t = 1 - c;
+        return new Transform(
+                t * x * x + c, t * x * y - s * z, t * x * z + s * y, 0,
+                t * x * y + s * z, t * y * y + c, t * y * z - s * x, 0,
+                t * x * z - s * y, t * y * z + s * x, t * z * z + c, 0);
+    }
+
+    /**
+     * Composes this transform with another one applied after it
+     *
+     * @param next the transform applied after this one
+     * @return the composed transform
+     */
+    public Transform then(Transform next) {
+        return new Transform(multiply(next.m, m), multiply(inv, next.inv));
+    }
+
+    /**
+     * Getter of the matrix of the transform
+     *
+     * @return a copy of the 3x4 matrix, row by row - each row is three linear coefficients and a translation
+     */
+    public double[] getMatrix() {
+        return m.clone();
+    }
+
+    /**
+     * Getter of the inverse transform
+     *
+     * @return the inverse transform
+     */
+    public Transform inverse() {
+        return new Transform(inv, m);
+    }
+
+    /**
+     * Transforms a point
+     *
+     * @param p the point
+     * @return the transformed point
+     */
+    public Point transformPoint(Point p) {
+        double x = p.xyz.d1, y = p.xyz.d2, z = p.xyz.d3;
+        return new Point(m[0] * x + m[1] * y + m[2] * z + m[3],
+                m[4] * x + m[5] * y + m[6] * z + m[7],
+                m[8] * x + m[9] * y + m[10] * z + m[11]);
+    }
+
+    /**
+     * Transforms a direction, which the translation does not affect.
+     * The length of the direction changes by the scaling of the transform.
+     *
+     * @param v the direction
+     * @return the transformed direction
+     */
+    public Vector transformVector(Vector v) {
+        double x = v.xyz.d1, y = v.xyz.d2, z = v.xyz.d3;
+        return new Vector(m[0] * x + m[1] * y + m[2] * z,
+                m[4] * x + m[5] * y + m[6] * z,
+                m[8] * x + m[9] * y + m[10] * z);
+    }
+
+    /**
+     * Transforms a surface normal, so that it stays orthogonal to the transformed surface.
+     * Normals are transformed by the transposed inverse of the linear part.
+     *
+     * @param n the normal
+     * @return the transformed normal, normalized
+     */
+    public Vector transformNormal(Vector n) {
+        double x = n.xyz.d1, y = n.xyz.d2, z = n.xyz.d3;
+        return new Vector(inv[0] * x + inv[4] * y + inv[8] * z,
+                inv[1] * x + inv[5] * y + inv[9] * z,
+                inv[2] * x + inv[6] * y + inv[10] * z).normalize();
+    }
+
+    /**
+     * Multiplies two affine matrices
+     *
+     * @param a the left matrix
+     * @param b the right matrix, applied first
+     * @return the product matrix
+     */
+    private static double[] multiply(double[] a, double[] b) {
+        double[] r = new double[12];
+        for (int row = 0; row < 3; ++row) {
+            int i = 4 * row;
+            for (int col = 0; col < 4; ++col)
+                r[i + col] = a[i] * b[col] + a[i + 1] * b[4 + col] + a[i + 2] * b[8 + col];
+            r[i + 3] += a[i + 3];
+        }
+        return r;
+    }
+
+    /**
+     * Inverts an affine matrix by the adjugate of its linear part
+     *
+     * @param a the matrix
+     * @return the inverse matrix
+     * @throws IllegalArgumentException if the matrix is not invertible
+     */
+    private static double[] invert(double[] a) {
+        double c00 = a[5] * a[10] - a[6] * a[9];
+        double c01 = a[2] * a[9] - a[1] * a[10];
+        double c02 = a[1] * a[6] - a[2] * a[5];
+        double det = a[0] * c00 + a[4] * c01 + a[8] * c02;
+        if (isZero(det))
+            throw new IllegalArgumentException("An affine transform must be invertible");
+        double[] r = new double[12];
+        r[0] = c00 / det;
+        r[1] = c01 / det;
+        r[2] = c02 / det;
+        r[4] = (a[6] * a[8] - a[4] * a[10]) / det;
+        r[5] = (a[0] * a[10] - a[2] * a[8]) / det;
+        r[6] = (a[2] * a[4] - a[0] * a[6]) / det;
+        r[8] = (a[4] * a[9] - a[5] * a[8]) / det;
+        r[9] = (a[1] * a[8] - a[0] * a[9]) / det;
+        r[10] = (a[0] * a[5] - a[1] * a[4]) / det;
+        for (int row = 0; row < 3; ++row)
+            r[4 * row + 3] = -(r[4 * row] * a[3] + r[4 * row + 1] * a[7] + r[4 * row + 2] * a[11]);
+        return r;
+    }
+
+    @Override
+    public String toString() {
+        return "Transform" + Arrays.toString(m);
+    }
+}
@@ -60,14 +60,15 @@ public abstract class Util {
     }
 
     /**
-     * Provide a real random number in range between min and max
+     * Provide a real random number in range between min and max,
+     * drawn from the deterministic stream of the calling thread (see {@link SamplingRandom})
      *
      * @param min value (included)
      * @param max value (excluded)
      * @return the random value
      */
     public static double random(double min, double max) {
-        return Math.random() * (max - min) + min;
+        return SamplingRandom.next() * (max - min) + min;
     }
 
 }
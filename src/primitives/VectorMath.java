@@ -0,0 +1,113 @@
+package primitives;
+
+import static primitives.Util.isZero;
+
+/**
+ * VectorMath class holds vector operations on plain double coordinates.<br/>
+ * The intersection kernels keep their vectors in local variables and use these operations,
+ * so testing a ray against a geometry creates no {@link Point}, {@link Vector} or {@link Double3} objects.
+ * Every operation does the same arithmetic, in the same order, as the matching {@link Vector} method.
+ */
+public abstract class VectorMath {
+
+    /**
+     * Empty private constructor to hide the public one
+     */
+    private VectorMath() {
+    }
+
+    /**
+     * Calculates the dot product of two vectors
+     *
+     * @param ax x of the first vector
+     * @param ay y of the first vector
+     * @param az z of the first vector
+     * @param bx x of the second vector
+     * @param by y of the second vector
+     * @param bz z of the second vector
+     * @return the dot product
+     */
+    public static double dot(double ax, double ay, double az, double bx, double by, double bz) {
+        return ax * bx + ay * by + az * bz;
+    }
+
+    /**
+     * Calculates the squared length of a vector
+     *
+     * @param x x of the vector
+     * @param y y of the vector
+     * @param z z of the vector
+     * @return the squared length
+     */
+    public static double lengthSquared(double x, double y, double z) {
+        return x * x + y * y + z * z;
+    }
+
+    /**
+     * Calculates x of the cross product of two vectors
+     *
+     * @param ay y of the first vector
+     * @param az z of the first vector
+     * @param by y of the second vector
+     * @param bz z of the second vector
+     * @return x of the cross product
+     */
+    public static double crossX(double ay, double az, double by, double bz) {
+        return ay * bz - az * by;
+    }
+
+    /**
+     * Calculates y of the cross product of two vectors
+     *
+     * @param ax x of the first vector
+     * @param az z of the first vector
+     * @param bx x of the second vector
+     * @param bz z of the second vector
+     * @return y of the cross product
+     */
+    public static double crossY(double ax, double az, double bx, double bz) {
+        return az * bx - ax * bz;
+    }
+
+    /**
+     * Calculates z of the cross product of two vectors
+     *
+     * @param ax x of the first vector
+     * @param ay y of the first vector
+     * @param bx x of the second vector
+     * @param by y of the second vector
+     * @return z of the cross product
+     */
+    public static double crossZ(double ax, double ay, double bx, double by) {
+        return ax * by - ay * bx;
+    }
+
+    /**
+     * Checks whether a vector is [almost] the zero vector, which a {@link Vector} can't be
+     *
+     * @param x x of the vector
+     * @param y y of the vector
+     * @param z z of the vector
+     * @return true if all the coordinates are zero or almost zero
+     */
+    public static boolean isZeroVector(double x, double y, double z) {
+        return isZero(x) && isZero(y) && isZero(z);
+    }
+
+    /**
+     * Calculates the dot product of a vector with the normalized other vector
+     *
+     * @param dx x of the vector
+     * @param dy y of the vector
+     * @param dz z of the vector
+     * @param x  x of the vector to normalize
+     * @param y  y of the vector to normalize
+     * @param z  z of the vector to normalize
+     * @return the dot product, 0 if the vector to normalize is the zero vector, which has no direction
+     */
+    public static double dotNormalized(double dx, double dy, double dz, double x, double y, double z) {
+        if (isZeroVector(x, y, z)) return 0;
+        double scale = 1 / Math.sqrt(lengthSquared(x, y, z));
+        return dot(dx, dy, dz, x * scale, y * scale, z * scale);
+    }
+}
@@ -3,9 +3,18 @@ package renderer;
 import primitives.Color;
 import primitives.Point;
 import primitives.Ray;
+import primitives.Sampler;
+import primitives.SamplingRandom;
 import primitives.Vector;
 
+import java.util.Collections;
 import java.util.MissingResourceException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
 import static primitives.Util.alignZero;
@@ -27,6 +36,21 @@ public class Camera {
     private ImageWriter imageWriter;
     private RayTracerBase rayTracer;
     private double printInterval;
+    private RenderProgress.Listener progressListener;
+    private int tileSize = 16;
+    private RenderOrder renderOrder = RenderOrder.TILES;
+    /**
+     * The sequence of the rays through every pixel, null for a single ray through the pixel center
+     */
+    private Sampler pixelSampler = null;
+    /**
+     * The amount of rays through every pixel when it is sampled by {@link #pixelSampler}
+     */
+    private int pixelSamples = 1;
+    /**
+     * The seed of the random numbers of the sampling, see {@link SamplingRandom}
+     */
+    private long seed = 0;
 
     /**
      * Constructor for a new Camera.
@@ -62,12 +86,68 @@ public class Camera {
     }
 
     /**
-     * Sets debug printing on.
+     * Sets the size of the square tiles handed to the rendering threads.
+     * Smaller tiles balance the load better, bigger ones keep neighbouring rays together.
+     *
+     * @param tileSize the tile side in pixels
+     * @return the camera itself
+     */
+    public Camera setTileSize(int tileSize) {
+        if (tileSize < 1)
+            throw new IllegalArgumentException("tile size must be positive");
+        this.tileSize = tileSize;
+        return this;
+    }
+
+    /**
+     * Sets the antialiasing - the color of every pixel is the average of several rays through
+     * stratified or low-discrepancy points of the pixel, scrambled per pixel.
+     *
+     * @param sampler the sequence of the points in the pixels, null for a single ray through the pixel center
+     * @param count   the amount of rays per pixel
+     * @return the camera itself
+     */
+    public Camera setAntiAliasing(Sampler sampler, int count) {
+        if (count < 1)
+            throw new IllegalArgumentException("the amount of rays per pixel must be positive");
+        pixelSampler = sampler;
+        pixelSamples = sampler == null ? 1 : count;
+        return this;
+    }
+
+    /**
+     * Sets the seed of the random numbers of the sampling.
+     * Renderings of the same scene with the same seed give identical images, whatever the threads.
+     *
+     * @param seed the seed
+     * @return the camera itself
+     */
+    public Camera setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Sets debug printing on - the percent done is printed to the standard output.
      *
-     * @param interval the interval
+     * @param interval the time between prints in seconds
      * @return the debug print
      */
     public Camera setDebugPrint(double interval) {
+        return setProgressListener(progress -> System.out.printf("%5.1f%%\r", progress.getPercent()), interval);
+    }
+
+    /**
+     * Sets the listener receiving the progress of every rendering of the camera.
+     *
+     * @param listener the listener, null for none
+     * @param interval the time between reports in seconds, 0 for a final report only
+     * @return the camera itself
+     */
+    public Camera setProgressListener(RenderProgress.Listener listener, double interval) {
+        if (interval < 0)
+            throw new IllegalArgumentException("progress interval must not be negative");
+        progressListener = listener;
         printInterval = interval;
         return this;
     }
@@ -132,6 +212,20 @@ public class Camera {
         return height;
     }
 
+    /**
+     * Sets the order in which the pixels of the image are traversed.
+     * The order applies to a single rendering thread and to the pool of threads.
+     *
+     * @param renderOrder the traversal order
+     * @return the camera itself
+     */
+    public Camera setRenderOrder(RenderOrder renderOrder) {
+        if (renderOrder == null)
+            throw new IllegalArgumentException("render order must not be null");
+        this.renderOrder = renderOrder;
+        return this;
+    }
+
     /**
      * Gets distance from the camera to the view plane.
      *
@@ -199,6 +293,19 @@ public class Camera {
      * @return the ray through the pixel.
      */
     public Ray constructRay(int nX, int nY, int col, int row) {
+        return constructRay(nX, nY, (double) col, row);
+    }
+
+    /**
+     * Constructs a ray through a point of the view plane given in pixel units.
+     *
+     * @param nX  - the number of pixels in the width of the view plane.
+     * @param nY  - the number of pixels in the height of the view plane.
+     * @param col - the column of the point, whole at the pixel centers.
+     * @param row - the row of the point, whole at the pixel centers.
+     * @return the ray through the point.
+     */
+    private Ray constructRay(int nX, int nY, double col, double row) {
         // Calculate the center point of the view plane
         Point pCenter = position.add(vTo.scale(distance));
 
@@ -241,21 +348,81 @@ public class Camera {
         if (position == null || vTo == null || vUp == null)
             throw new MissingResourceException("", "Camera", "Camera position or orientation vectors are not set");
 
+        // the rendering threads read only the snapshot of the scene taken for this render
+        RayTracerBase tracer = rayTracer.freeze();
         int nX = imageWriter.getNx();
         int nY = imageWriter.getNy();
-        Pixel.initialize(nY, nX, printInterval);
-        if (this.threads >= 0)
-            for (int i = 0; i < nX; i++)
-                for (int j = 0; j < nY; j++)
-                    this.castRay(nX, nY, j, i);
-        else
-            IntStream.range(0, nY).parallel() //
-                    .forEach(i -> IntStream.range(0, nX) //
-                            .forEach(j -> this.castRay(nX, nY, j, i)));
+        RenderProgress progress = new RenderProgress((long) nX * nY, progressListener, printInterval);
+        try {
+            if (this.threads >= 0)
+                renderTiles(nX, nY, tracer, progress);
+            else
+                IntStream.range(0, nY).parallel() //
+                        .forEach(i -> IntStream.range(0, nX) //
+                                .forEach(j -> this.castRay(nX, nY, j, i, tracer, progress)));
+        } finally {
+            progress.finish();
+        }
 
         return this;
     }
 
+    /**
+     * Renders the image tile by tile in the configured render order, on the calling thread
+     * or by a pool of the configured amount of threads.
+     * Every thread takes the next tile when it finishes its previous one,
+     * so cheap and expensive regions of the image are balanced between the threads.
+     * A scanline order uses tiles of a single whole row.
+     *
+     * @param nX       the amount of pixel columns
+     * @param nY       the amount of pixel rows
+     * @param tracer   the ray tracer bound to the snapshot of the scene
+     * @param progress the progress of the rendering
+     */
+    private void renderTiles(int nX, int nY, RayTracerBase tracer, RenderProgress progress) {
+        int tileWidth = renderOrder == RenderOrder.SCANLINE ? nX : tileSize;
+        int tileHeight = renderOrder == RenderOrder.SCANLINE ? 1 : tileSize;
+        int tilesX = (nX + tileWidth - 1) / tileWidth;
+        int[] order = renderOrder.tileOrder(tilesX, (nY + tileHeight - 1) / tileHeight);
+        AtomicInteger nextTile = new AtomicInteger();
+        Callable<Void> worker = () -> {
+            for (int next = nextTile.getAndIncrement(); next < order.length; next = nextTile.getAndIncrement()) {
+                int tile = order[next];
+                int col0 = (tile % tilesX) * tileWidth;
+                int row0 = (tile / tilesX) * tileHeight;
+                int col1 = Math.min(col0 + tileWidth, nX);
+                int row1 = Math.min(row0 + tileHeight, nY);
+                for (int row = row0; row < row1; row++)
+                    for (int col = col0; col < col1; col++)
+                        castRay(nX, nY, col, row, tracer, progress);
+            }
+            return null;
+        };
+
+        if (threads == 0) {
+            try {
+                worker.call();
+            } catch (Exception e) {
+                throw e instanceof RuntimeException cause ? cause : new IllegalStateException("Rendering failed", e);
+            }
+            return;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (Future<Void> future : pool.invokeAll(Collections.nCopies(threads, worker)))
+                future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rendering was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException("Rendering failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
     /**
      * casts ray through pixel
      *
@@ -263,10 +430,26 @@ public class Camera {
      * @param nY
      * @param j
      * @param i
+     * @param tracer   the ray tracer bound to the snapshot of the scene
+     * @param progress the progress of the rendering
      */
-    private void castRay(int nX, int nY, int j, int i) {
-        this.imageWriter.writePixel(j, i, rayTracer.traceRay(constructRay(nX, nY, j, i)));
-        Pixel.pixelDone();
+    private void castRay(int nX, int nY, int j, int i, RayTracerBase tracer, RenderProgress progress) {
+        SamplingRandom.seed(seed, j, i, 0);
+        if (pixelSampler == null)
+            this.imageWriter.writePixel(j, i, tracer.traceRay(constructRay(nX, nY, j, i)));
+        else {
+            long scramble = Sampler.scramble(Sampler.Site.PIXEL);
+            double[] uv = new double[2];
+            Color color = Color.BLACK;
+            for (int k = 0; k < pixelSamples; k++) {
+                // every ray of the pixel gets its own scrambling of the other use sites
+                SamplingRandom.seed(seed, j, i, k);
+                pixelSampler.sample(k, pixelSamples, scramble, uv);
+                color = color.add(tracer.traceRay(constructRay(nX, nY, j + uv[0] - 0.5, i + uv[1] - 0.5)));
+            }
+            this.imageWriter.writePixel(j, i, color.reduce(pixelSamples));
+        }
+        progress.pixelDone();
     }
 
     /**
@@ -1,6 +1,7 @@
 package renderer;
 
 import primitives.*;
+import scene.FrozenScene;
 import scene.Scene;
 
 
@@ -10,22 +11,56 @@ import scene.Scene;
 public abstract class RayTracerBase {
 
     /**
-     * The scene
+     * The scene being rendered
      */
-    protected final Scene scene;
+    private final Scene source;
+
+    /**
+     * The snapshot of the scene the rays are traced in, null for a ray tracer not bound to a snapshot
+     */
+    protected final FrozenScene scene;
 
     /**
      * Constructor
      * @param scene the scene
      */
     public RayTracerBase(Scene scene) {
+        this.source = scene;
+        this.scene = null;
+    }
+
+    /**
+     * Constructs a copy of a ray tracer bound to a snapshot of its scene
+     * @param tracer the ray tracer
+     * @param scene  the snapshot
+     */
+    protected RayTracerBase(RayTracerBase tracer, FrozenScene scene) {
+        this.source = tracer.source;
         this.scene = scene;
     }
 
     /**
-     * Traces a ray
+     * Takes a new snapshot of the scene, leaving the scene itself mutable, and binds a copy of the ray tracer to it.
+     * The renderer takes it once per render and hands it to the rendering threads, which read the snapshot
+     * without any synchronization.
+     * @return the copy of the ray tracer bound to the snapshot
+     */
+    public RayTracerBase freeze() {
+        return bind(source.freeze());
+    }
+
+    /**
+     * Constructs a copy of the ray tracer, with the same settings, bound to a snapshot of its scene
+     * @param scene the snapshot
+     * @return the copy
+     */
+    protected abstract RayTracerBase bind(FrozenScene scene);
+
+    /**
+     * Traces a ray in the snapshot the ray tracer is bound to, see {@link #freeze()}
      * @param ray the ray
      * @return the color of the ray
+     * @throws IllegalStateException if the ray tracer is not bound to a snapshot
      */
     public abstract Color traceRay(Ray ray);
 }
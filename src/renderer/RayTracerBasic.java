@@ -3,6 +3,7 @@ package renderer;
 import geometries.Intersectable.GeoPoint;
 import lighting.LightSource;
 import primitives.*;
+import scene.FrozenScene;
 import scene.Scene;
 
 import java.util.List;
@@ -30,6 +31,21 @@ public class RayTracerBasic extends RayTracerBase {
      */
     private static final Double3 INIT_CALC_COLOR_K = Double3.ONE;
 
+    /**
+     * Whether soft shadows are sampled adaptively - the full light grid is cast only in penumbra regions
+     */
+    private boolean adaptiveSoftShadows = false;
+
+    /**
+     * The sequence of the shadow rays towards the light disks, null for the fixed grids of the lights
+     */
+    private Sampler lightSampler = null;
+
+    /**
+     * The amount of shadow rays per light disk when it is sampled by {@link #lightSampler}
+     */
+    private int lightSamples = 1;
+
 
     /**
      * Constructor
@@ -40,9 +56,61 @@ public class RayTracerBasic extends RayTracerBase {
         super(scene);
     }
 
+    /**
+     * Constructs a copy of a ray tracer, with the same settings, bound to a snapshot of its scene
+     *
+     * @param tracer the ray tracer
+     * @param scene  the snapshot
+     */
+    private RayTracerBasic(RayTracerBasic tracer, FrozenScene scene) {
+        super(tracer, scene);
+        this.adaptiveSoftShadows = tracer.adaptiveSoftShadows;
+        this.lightSampler = tracer.lightSampler;
+        this.lightSamples = tracer.lightSamples;
+    }
+
+    @Override
+    protected RayTracerBasic bind(FrozenScene scene) {
+        return new RayTracerBasic(this, scene);
+    }
+
+
+    /**
+     * Sets the sampling of the light disks for soft shadows.
+     * By default every light disk is covered by the fixed grid of its light. A sampler instead casts the given
+     * amount of shadow rays towards stratified or low-discrepancy points of the disk, scrambled per pixel,
+     * which reaches the quality of the fixed grid with a fraction of its rays.
+     *
+     * @param sampler the sequence of the points on the disks, null for the fixed grids of the lights
+     * @param count   the amount of shadow rays per light disk
+     * @return this ray tracer
+     */
+    public RayTracerBasic setSoftShadowSampling(Sampler sampler, int count) {
+        if (count < 1)
+            throw new IllegalArgumentException("the amount of shadow rays must be positive");
+        this.lightSampler = sampler;
+        this.lightSamples = count;
+        return this;
+    }
+
+    /**
+     * Sets the soft shadow sampling mode.
+     * In the adaptive mode only the probe set at the head of the light grid is cast first,
+     * and the rest of the grid is cast only if the probes disagree (i.e. the point is in a penumbra).
+     * In the exhaustive mode (the default) every grid point is cast.
+     *
+     * @param adaptive true for the adaptive mode, false for the exhaustive one
+     * @return this ray tracer
+     */
+    public RayTracerBasic setAdaptiveSoftShadows(boolean adaptive) {
+        this.adaptiveSoftShadows = adaptive;
+        return this;
+    }
 
     @Override
     public Color traceRay(Ray ray) {
+        if (scene == null)
+            throw new IllegalStateException("The ray tracer must be bound to a snapshot of the scene by freeze()");
         GeoPoint closestPoint = findClosestIntersection(ray);
         return closestPoint == null ? scene.background : calcColor(closestPoint, ray);
     }
@@ -67,7 +135,7 @@ public class RayTracerBasic extends RayTracerBase {
      */
     private Color calcColor(GeoPoint geoPoint, Ray ray, int level, Double3 k) {
         Vector v = ray.getDir();
-        Vector n = geoPoint.geometry.getNormal(geoPoint.point);
+        Vector n = geoPoint.getNormal();
         double vn = alignZero(v.dotProduct(n));
         if (vn == 0) return Color.BLACK;
 
@@ -116,8 +184,8 @@ public class RayTracerBasic extends RayTracerBase {
         Material material = geoPoint.geometry.getMaterial();
         Ray reflectedRay = constructReflectionRay(geoPoint, v, n, vn);
         Ray refractedRay = constructRefractionRay(geoPoint, v, n);
-        return calcGlobalEffect(level, material.kR, k, reflectedRay)
-                .add(calcGlobalEffect(level, material.kT, k, refractedRay));
+        return calcGlobalEffect(level, material.getKr(), k, reflectedRay)
+                .add(calcGlobalEffect(level, material.getKt(), k, refractedRay));
     }
 
     /**
@@ -149,7 +217,7 @@ public class RayTracerBasic extends RayTracerBase {
     private Double3 calcSpecular(Material material, Vector normal, Vector lightVector, double nl, Vector vector) {
         Vector reflectedVector = lightVector.subtract(normal.scale(2 * nl));
         double minusVR = alignZero(-vector.dotProduct(reflectedVector));
-        return minusVR <= 0 ? Double3.ZERO : material.kS.scale(Math.pow(minusVR, material.nShininess));
+        return minusVR <= 0 ? Double3.ZERO : material.getKs().scale(Math.pow(minusVR, material.getShininess()));
 
     }
 
@@ -161,7 +229,7 @@ public class RayTracerBasic extends RayTracerBase {
      * @return diffusive color
      */
     private Double3 calcDiffusive(Material material, double nl) {
-        return material.kD.scale(nl < 0 ? -nl : nl);
+        return material.getKd().scale(nl < 0 ? -nl : nl);
     }
 
     /**
@@ -198,32 +266,32 @@ public class RayTracerBasic extends RayTracerBase {
      * @return transparency value
      */
     private Double3 transparency(GeoPoint geoPoint, LightSource lightSource, Vector l, Vector n) {
-        List<Point> grid = lightSource.getGrid(l);
+        List<Point> grid = lightSampler == null ? lightSource.getGrid(l)
+                : lightSource.getGrid(l, lightSampler, lightSamples, Sampler.scramble(Sampler.Site.LIGHT_DISK));
         if (grid == null) {
             grid = List.of(geoPoint.point.add(l.scale(-1)));
         }
 
+        double lightDistance = lightSource.getDistance(geoPoint.point);
+        int size = grid.size();
+        int probes = adaptiveSoftShadows ? Math.min(Grid.getProbeSize(), size) : size;
         Double3 ktr = Double3.ZERO;
-        int counter = 0;
+        Double3 first = null;
+        boolean agree = true;
+        int i = 0;
         for (Point p : grid) {
-            List<GeoPoint> intersections = scene.geometries.findGeoIntersections(new Ray(geoPoint.point, p.subtract(geoPoint.point).normalize(),  n));
-            if (intersections == null) {
-                ktr = ktr.add(Double3.ONE);
-                counter++;
-            } else {
-                double lightDistance = lightSource.getDistance(geoPoint.point);
-                for (GeoPoint gp : intersections) {
-                    if (Util.alignZero(gp.point.distance(geoPoint.point) - lightDistance) <= 0) {
-                        ktr = ktr.add(gp.geometry.getMaterial().kT);
-                        counter++;
-                    } else {
-                        ktr = ktr.add(Double3.ONE);
-                        counter++;
-                    }
-                }
-            }
+            // all the probes agree - the point is fully lit or fully shadowed, the rest of the grid is not needed
+            if (i == probes && agree) return first.lowerThan(MIN_CALC_COLOR_K) ? Double3.ZERO : first;
+
+            Ray shadowRay = new Ray(geoPoint.point, p.subtract(geoPoint.point), n);
+            Double3 sample = scene.geometries.findTransparency(shadowRay, lightDistance, MIN_CALC_COLOR_K);
+            if (i == 0) first = sample;
+            else if (i < probes && agree) agree = sample.equals(first);
+            ktr = ktr.add(sample);
+            i++;
         }
-        return ktr.scale(1.0 / counter).lowerThan(MIN_CALC_COLOR_K) ? Double3.ZERO : ktr.scale(1.0 / counter);
+        ktr = ktr.scale(1.0 / size);
+        return ktr.lowerThan(MIN_CALC_COLOR_K) ? Double3.ZERO : ktr;
     }
 
     /**
@@ -259,7 +327,6 @@ public class RayTracerBasic extends RayTracerBase {
      * @return The closest intersection point with the ray.
      */
     private GeoPoint findClosestIntersection(Ray ray) {
-        var intersections = scene.geometries.findGeoIntersections(ray);
-        return intersections == null ? null : ray.findClosestGeoPoint(intersections);
+        return scene.geometries.findClosestGeoIntersection(ray);
     }
 }
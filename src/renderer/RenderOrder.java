@@ -0,0 +1,98 @@
+package renderer;
+
+import java.util.Arrays;
+
+/**
+ * The order in which the camera traverses the pixels of the image.
+ * Tiled orders keep neighbouring rays together, so the geometries and hierarchy nodes they visit
+ * stay warm in the cache from one ray to the next.
+ */
+public enum RenderOrder {
+    /**
+     * Row by row, each row left to right
+     */
+    SCANLINE,
+    /**
+     * Square tiles row by row, the pixels of each tile row by row
+     */
+    TILES,
+    /**
+     * Square tiles along the Morton (Z-order) curve
+     */
+    MORTON,
+    /**
+     * Square tiles along the Hilbert curve, where every tile is adjacent to the previous one
+     */
+    HILBERT;
+
+    /**
+     * Calculates the order of the tiles of a tile grid
+     *
+     * @param tilesX the amount of tile columns
+     * @param tilesY the amount of tile rows
+     * @return the row-major indices of the tiles in traversal order
+     */
+    int[] tileOrder(int tilesX, int tilesY) {
+        int tiles = tilesX * tilesY;
+        int[] order = new int[tiles];
+        if (this == SCANLINE || this == TILES) {
+            for (int i = 0; i < tiles; i++) order[i] = i;
+            return order;
+        }
+
+        int side = Integer.highestOneBit(Math.max(tilesX, tilesY) - 1) << 1;
+        if (side == 0) side = 1;
+        // sort the tiles by their curve index, packed above the tile index
+        long[] keys = new long[tiles];
+        for (int i = 0; i < tiles; i++) {
+            int x = i % tilesX, y = i / tilesX;
+            long curve = this == MORTON ? morton(x, y) : hilbert(side, x, y);
+            keys[i] = curve << 32 | i;
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < tiles; i++) order[i] = (int) keys[i];
+        return order;
+    }
+
+    /**
+     * Calculates the index of a cell along the Morton curve by interleaving the coordinate bits
+     *
+     * @param x the cell column
+     * @param y the cell row
+     * @return the curve index
+     */
+    private static long morton(int x, int y) {
+        long key = 0;
+        for (int bit = 0; bit < 16; bit++)
+            key |= ((long) (x >> bit & 1) << 2 * bit) | ((long) (y >> bit & 1) << 2 * bit + 1);
+        return key;
+    }
+
+    /**
+     * Calculates the index of a cell along the Hilbert curve covering a square grid
+     *
+     * @param side the side of the square grid (a power of 2)
+     * @param x    the cell column
+     * @param y    the cell row
+     * @return the curve index
+     */
+    private static long hilbert(int side, int x, int y) {
+        long d = 0;
+        for (int s = side / 2; s > 0; s /= 2) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+            // rotate the quadrant so the curve stays continuous
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = s - 1 - x;
+                    y = s - 1 - y;
+                }
+                int t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return d;
+    }
+}
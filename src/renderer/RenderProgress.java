@@ -0,0 +1,156 @@
+package renderer;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Progress of a single rendering of an image.<br/>
+ * The rendering threads count their finished pixels on a striped counter without any lock,
+ * and a separate reporter thread hands the progress to a listener at a low fixed rate.
+ */
+public final class RenderProgress {
+
+    /**
+     * Listener that receives the progress of a rendering
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Called periodically while rendering, and once more when the rendering is done.
+         * It is called from the reporter thread, or from the rendering thread for the final report.
+         *
+         * @param progress the progress of the rendering
+         */
+        void onProgress(RenderProgress progress);
+    }
+
+    /**
+     * The amount of pixels in the image
+     */
+    private final long totalPixels;
+
+    /**
+     * The amount of pixels done so far
+     */
+    private final LongAdder pixelsDone = new LongAdder();
+
+    /**
+     * The time the rendering started at, in nanoseconds
+     */
+    private final long startTime = System.nanoTime();
+
+    /**
+     * The listener receiving the reports, null if nobody listens
+     */
+    private final Listener listener;
+
+    /**
+     * The reporter thread, null if nobody listens
+     */
+    private final ScheduledExecutorService reporter;
+
+    /**
+     * Starts following a rendering
+     *
+     * @param totalPixels the amount of pixels in the image
+     * @param listener    the listener receiving the reports, null if nobody listens
+     * @param interval    the time between reports in seconds, 0 for a final report only
+     */
+    RenderProgress(long totalPixels, Listener listener, double interval) {
+        this.totalPixels = totalPixels;
+        this.listener = listener;
+        long period = (long) (interval * 1000);
+        if (listener == null || period <= 0) {
+            reporter = null;
+            return;
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "render-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> listener.onProgress(this), 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Counts a finished pixel
+     */
+    void pixelDone() {
+        pixelsDone.increment();
+    }
+
+    /**
+     * Stops the reporter and sends the final report
+     */
+    void finish() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            try {
+                reporter.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (listener != null) listener.onProgress(this);
+    }
+
+    /**
+     * Getter of the amount of pixels in the image
+     *
+     * @return the amount of pixels
+     */
+    public long getTotalPixels() {
+        return totalPixels;
+    }
+
+    /**
+     * Getter of the amount of pixels done so far
+     *
+     * @return the amount of pixels done
+     */
+    public long getPixelsDone() {
+        return pixelsDone.sum();
+    }
+
+    /**
+     * Calculates the part of the image done so far
+     *
+     * @return the percent done, between 0 and 100
+     */
+    public double getPercent() {
+        return totalPixels == 0 ? 100 : 100d * getPixelsDone() / totalPixels;
+    }
+
+    /**
+     * Calculates the time passed since the rendering started
+     *
+     * @return the elapsed time in seconds
+     */
+    public double getElapsedSeconds() {
+        return (System.nanoTime() - startTime) / 1e9;
+    }
+
+    /**
+     * Calculates the average rendering rate so far
+     *
+     * @return the amount of pixels done per second
+     */
+    public double getPixelsPerSecond() {
+        double elapsed = getElapsedSeconds();
+        return elapsed <= 0 ? 0 : getPixelsDone() / elapsed;
+    }
+
+    /**
+     * Estimates the time left by the average rendering rate so far
+     *
+     * @return the estimated time left in seconds, infinity if no pixel is done yet
+     */
+    public double getEtaSeconds() {
+        long done = getPixelsDone();
+        if (done >= totalPixels) return 0;
+        double rate = getPixelsPerSecond();
+        return rate == 0 ? Double.POSITIVE_INFINITY : (totalPixels - done) / rate;
+    }
+}
@@ -0,0 +1,59 @@
+package scene;
+
+import geometries.Geometries;
+import lighting.AmbientLight;
+import lighting.LightSource;
+import primitives.Color;
+
+import java.util.List;
+
+/**
+ * Immutable snapshot of a scene, taken by {@link Scene#freeze()} before rendering.<br/>
+ * The lights are copied into an array and the geometry tree is copied with its structures, the copied
+ * geometries with equal materials sharing a single frozen material, so the snapshot rejects any change.
+ * The rendering threads therefore read the snapshot without any synchronization, while the scene itself
+ * stays mutable and its later changes affect only later snapshots.
+ */
+public final class FrozenScene {
+
+    /**
+     * The name of the scene
+     */
+    public final String name;
+
+    /**
+     * The background color of the scene
+     */
+    public final Color background;
+
+    /**
+     * The ambient light of the scene
+     */
+    public final AmbientLight ambientLight;
+
+    /**
+     * The lights of the scene, in an unmodifiable list backed by an array
+     */
+    public final List<LightSource> lights;
+
+    /**
+     * The frozen copy of the geometries of the scene
+     */
+    public final Geometries geometries;
+
+    /**
+     * Takes the snapshot of a scene, leaving the scene as it is
+     *
+     * @param scene the scene
+     */
+    FrozenScene(Scene scene) {
+        name = scene.name;
+        background = scene.background;
+        ambientLight = scene.ambientLight;
+        LightSource[] copies = scene.lights.toArray(new LightSource[0]);
+        for (int i = 0; i < copies.length; ++i)
+            copies[i] = copies[i].copy();
+        lights = List.of(copies);
+        geometries = scene.geometries.snapshot();
+    }
+}
@@ -0,0 +1,1410 @@
+package scene;
+
+import geometries.TriangleMesh;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Loader of triangle meshes from Wavefront OBJ and PLY (ASCII or binary) files.<br/>
+ * The file is memory-mapped and cut into chunks that are parsed in parallel in two passes. The first pass
+ * counts the vertices and the triangles of every chunk, so the arrays of the mesh are allocated once at
+ * their final size; the second pass parses every chunk straight into its own range of the arrays.
+ * No object is created per vertex or per face, and the arrays are handed over to the mesh without a copy.
+ * The heap used while loading peaks at about 1.7 times the memory of the loaded mesh, mostly the face boxes
+ * and the node arrays of the hierarchy the mesh builds over its faces.
+ * Polygons are split into triangle fans. Texture coordinates, normals and other vertex properties are skipped.
+ * Every OBJ {@code usemtl} name gets a surface of the mesh, in the order of first use.
+ */
+public final class MeshLoader {
+
+    /**
+     * Approximate amount of bytes parsed by one parallel task
+     */
+    static final int CHUNK_SIZE = 1 << 22;
+
+    /**
+     * Size of the file windows mapped at a time
+     */
+    private static final int WINDOW = 1 << 26;
+
+    /**
+     * Powers of ten that are exact doubles, for the fast path of number parsing
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    /**
+     * Loading is done through the static methods only
+     */
+    private MeshLoader() {
+    }
+
+    /**
+     * Loads a mesh by the extension of its file, {@code .obj} or {@code .ply}
+     *
+     * @param path the file
+     * @return the mesh
+     * @throws IOException              if the file cannot be read or ends too early
+     * @throws IllegalArgumentException if the extension is unknown or the file is malformed,
+     *                                  with the line of the error for text files
+     */
+    public static TriangleMesh load(Path path) throws IOException {
+        return load(path, null);
+    }
+
+    /**
+     * Loads a mesh by the extension of its file, {@code .obj} or {@code .ply}, with the names of its surfaces
+     *
+     * @param path         the file
+     * @param surfaceNames list receiving the name of every surface of the mesh in order, starting with the empty
+     *                     name of surface 0 that holds the faces before any material; null if not needed
+     * @return the mesh
+     * @throws IOException              if the file cannot be read or ends too early
+     * @throws IllegalArgumentException if the extension is unknown or the file is malformed,
+     *                                  with the line of the error for text files
+     */
+    public static TriangleMesh load(Path path, List<String> surfaceNames) throws IOException {
+        return load(path, surfaceNames, CHUNK_SIZE);
+    }
+
+    /**
+     * Loads a mesh with a given amount of bytes per parallel task
+     *
+     * @param path         the file
+     * @param surfaceNames list receiving the names of the surfaces, null if not needed
+     * @param chunkSize    approximate amount of bytes parsed by one parallel task
+     * @return the mesh
+     * @throws IOException              if the file cannot be read or ends too early
+     * @throws IllegalArgumentException if the extension is unknown or the file is malformed
+     */
+    static TriangleMesh load(Path path, List<String> surfaceNames, int chunkSize) throws IOException {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean obj = name.endsWith(".obj");
+        if (!obj && !name.endsWith(".ply"))
+            throw new IllegalArgumentException("Unknown mesh file type: " + path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Source source = new Source(path, channel, chunkSize);
+            List<String> names = new ArrayList<>();
+            names.add("");
+            TriangleMesh mesh = obj ? loadObj(source, names) : loadPly(source);
+            if (surfaceNames != null) surfaceNames.addAll(names);
+            return mesh;
+        }
+    }
+
+    // ***************** OBJ ********************** //
+
+    /**
+     * Loads an OBJ file
+     *
+     * @param source the file
+     * @param names  list receiving the names of the materials, after the name of surface 0
+     * @return the mesh
+     * @throws IOException if the file cannot be read
+     */
+    private static TriangleMesh loadObj(Source source, List<String> names) throws IOException {
+        Chunk[] chunks = source.split(0);
+        // first pass - count what every chunk holds
+        inParallel(chunks.length, i -> {
+            Chunk chunk = chunks[i];
+            Lines lines = new Lines(source, chunk.open(source, 0), 0);
+            while (chunk.has(lines)) {
+                if (lines.nextToken()) {
+                    if (lines.tokenIs("v")) ++chunk.vertices;
+                    else if (lines.tokenIs("f")) {
+                        int n = 0;
+                        while (lines.nextToken()) ++n;
+                        chunk.triangles += Math.max(0, n - 2);
+                    } else if (lines.tokenIs("usemtl") && lines.nextToken()) chunk.materials.add(lines.token());
+                }
+                lines.endLine();
+            }
+            chunk.lines = lines.line;
+        });
+
+        // place every chunk in the arrays, and number the materials in the order of first use
+        Map<String, Integer> surfaces = new LinkedHashMap<>();
+        long line = 1, vertices = 0, triangles = 0;
+        int surface = 0;
+        for (Chunk chunk : chunks) {
+            chunk.firstLine = line;
+            chunk.firstVertex = (int) vertices;
+            chunk.firstTriangle = (int) triangles;
+            chunk.surface = surface;
+            line += chunk.lines;
+            vertices = checkedCount(vertices + chunk.vertices, "vertices", source);
+            triangles = checkedCount(triangles + chunk.triangles, "triangles", source);
+            for (String material : chunk.materials) {
+                Integer index = surfaces.get(material);
+                if (index == null) surfaces.put(material, index = surfaces.size() + 1);
+                surface = index;
+            }
+        }
+        names.addAll(surfaces.keySet());
+        int vertexCount = (int) vertices;
+        double[] positions = new double[3 * vertexCount];
+        int[] indices = new int[3 * (int) triangles];
+        int[] faceSurfaces = surfaces.isEmpty() ? null : new int[(int) triangles];
+
+        // second pass - fill the arrays
+        inParallel(chunks.length, i -> {
+            Chunk chunk = chunks[i];
+            Lines lines = new Lines(source, chunk.open(source, 0), chunk.firstLine);
+            int vertex = chunk.firstVertex, triangle = chunk.firstTriangle, current = chunk.surface;
+            int[] polygon = new int[8];
+            while (chunk.has(lines)) {
+                if (lines.nextToken()) {
+                    if (lines.tokenIs("v")) {
+                        for (int axis = 0; axis < 3; ++axis)
+                            positions[3 * vertex + axis] = lines.number();
+                        ++vertex;
+                    } else if (lines.tokenIs("f")) {
+                        int n = 0;
+                        while (lines.nextToken()) {
+                            // v, v/vt, v//vn or v/vt/vn, counted from 1 or backwards from the last vertex
+                            long index = lines.integer();
+                            if (index == 0) throw lines.error("vertex index 0");
+                            if (index < 0) index += vertex;
+                            else --index;
+                            if (index < 0 || index >= vertexCount)
+                                throw lines.error("vertex index " + lines.token() + " is out of range");
+                            if (n == polygon.length) polygon = Arrays.copyOf(polygon, 2 * n);
+                            polygon[n++] = (int) index;
+                        }
+                        if (n < 3) throw lines.error("a face needs at least three vertices");
+                        for (int k = 1; k < n - 1; ++k) {
+                            indices[3 * triangle] = polygon[0];
+                            indices[3 * triangle + 1] = polygon[k];
+                            indices[3 * triangle + 2] = polygon[k + 1];
+                            if (faceSurfaces != null) faceSurfaces[triangle] = current;
+                            ++triangle;
+                        }
+                    } else if (lines.tokenIs("usemtl") && lines.nextToken())
+                        current = surfaces.get(lines.token());
+                }
+                lines.endLine();
+            }
+        });
+        return TriangleMesh.wrap(positions, indices, faceSurfaces);
+    }
+
+    // ***************** PLY ********************** //
+
+    /**
+     * Loads a PLY file
+     *
+     * @param source the file
+     * @return the mesh
+     * @throws IOException if the file cannot be read or ends too early
+     */
+    private static TriangleMesh loadPly(Source source) throws IOException {
+        Header header = new Header(source);
+        Element vertex = header.element("vertex");
+        Element face = header.element("face");
+        if (vertex == null || face == null)
+            throw new IllegalArgumentException(source.path + ": a mesh needs vertex and face elements");
+        int[] axes = new int[vertex.properties.size()];
+        for (int axis = 0; axis < 3; ++axis) {
+            String name = "xyz".substring(axis, axis + 1);
+            int k = vertex.indexOf(name);
+            if (k < 0 || vertex.properties.get(k).countType != null)
+                throw new IllegalArgumentException(source.path + ": vertex property " + name + " is missing");
+            axes[k] = axis + 1;
+        }
+        int list = face.indexOf("vertex_indices");
+        if (list < 0) list = face.indexOf("vertex_index");
+        if (list < 0 || face.properties.get(list).countType == null)
+            throw new IllegalArgumentException(source.path + ": face property vertex_indices is missing");
+
+        double[] positions = new double[3 * checkedCount(vertex.count, "vertices", source)];
+        return header.ascii
+                ? loadAsciiPly(source, header, vertex, face, axes, list, positions)
+                : loadBinaryPly(source, header, vertex, face, axes, list, positions);
+    }
+
+    /**
+     * Loads the body of an ASCII PLY file, one record per line
+     *
+     * @param source    the file
+     * @param header    the header
+     * @param vertex    the vertex element
+     * @param face      the face element
+     * @param axes      the axis of every vertex property plus one, 0 for properties that are skipped
+     * @param list      the index of the face property that lists the vertices
+     * @param positions the vertex coordinates to fill
+     * @return the mesh
+     * @throws IOException if the file cannot be read
+     */
+    private static TriangleMesh loadAsciiPly(Source source, Header header, Element vertex, Element face,
+                                             int[] axes, int list, double[] positions) throws IOException {
+        Chunk[] chunks = source.split(header.end);
+        // first pass - count the lines and the records of every chunk
+        inParallel(chunks.length, i -> {
+            Chunk chunk = chunks[i];
+            Lines lines = new Lines(source, chunk.open(source, header.end), 0);
+            while (chunk.has(lines)) {
+                if (!lines.atLineEnd()) ++chunk.records;
+                lines.endLine();
+            }
+            chunk.lines = lines.line;
+        });
+        long line = header.lines + 1, record = 0;
+        for (Chunk chunk : chunks) {
+            chunk.firstLine = line;
+            chunk.firstRecord = record;
+            line += chunk.lines;
+            record += chunk.records;
+        }
+        if (record < header.records)
+            throw new IllegalArgumentException(source.path + ": the file ends after " + record + " of "
+                    + header.records + " records");
+
+        // second pass - count the triangles of the faces in every chunk
+        long vertexStart = header.firstRecord(vertex), faceStart = header.firstRecord(face);
+        inParallel(chunks.length, i -> chunks[i].triangles = walkAsciiPly(source, header, chunks[i], vertex, face,
+                vertexStart, faceStart, axes, list, null, null));
+        long triangles = 0;
+        for (Chunk chunk : chunks) {
+            chunk.firstTriangle = (int) triangles;
+            triangles = checkedCount(triangles + chunk.triangles, "triangles", source);
+        }
+
+        // third pass - fill the arrays
+        int[] indices = new int[3 * (int) triangles];
+        inParallel(chunks.length, i -> walkAsciiPly(source, header, chunks[i], vertex, face,
+                vertexStart, faceStart, axes, list, positions, indices));
+        return TriangleMesh.wrap(positions, indices, null);
+    }
+
+    /**
+     * Walks through the records of a chunk of an ASCII PLY file, either counting the triangles of its faces
+     * or filling the arrays
+     *
+     * @param source      the file
+     * @param header      the header
+     * @param chunk       the chunk
+     * @param vertex      the vertex element
+     * @param face        the face element
+     * @param vertexStart the record of the first vertex
+     * @param faceStart   the record of the first face
+     * @param axes        the axis of every vertex property plus one, 0 for properties that are skipped
+     * @param list        the index of the face property that lists the vertices
+     * @param positions   the vertex coordinates to fill, null to count the triangles only
+     * @param indices     the face vertex indices to fill, null to count the triangles only
+     * @return the amount of triangles in the chunk
+     * @throws IOException if the file cannot be read
+     */
+    private static int walkAsciiPly(Source source, Header header, Chunk chunk, Element vertex, Element face,
+                                    long vertexStart, long faceStart, int[] axes, int list,
+                                    double[] positions, int[] indices) throws IOException {
+        Lines lines = new Lines(source, chunk.open(source, header.end), chunk.firstLine);
+        long record = chunk.firstRecord;
+        int triangle = chunk.firstTriangle, triangles = 0;
+        while (chunk.has(lines)) {
+            if (!lines.atLineEnd()) {
+                if (positions != null && record >= vertexStart && record < vertexStart + vertex.count) {
+                    int v = (int) (record - vertexStart);
+                    for (int k = 0; k < axes.length; ++k) {
+                        if (vertex.properties.get(k).countType != null) lines.skipList();
+                        else if (axes[k] == 0) lines.number();
+                        else positions[3 * v + axes[k] - 1] = lines.number();
+                    }
+                } else if (record >= faceStart && record < faceStart + face.count) {
+                    for (int k = 0; k < face.properties.size(); ++k) {
+                        if (k != list) {
+                            if (face.properties.get(k).countType != null) lines.skipList();
+                            else lines.number();
+                            continue;
+                        }
+                        if (!lines.nextToken()) throw lines.error("the vertex list is missing");
+                        long n = lines.integer();
+                        if (n < 3) throw lines.error("a face needs at least three vertices");
+                        triangles = checkedCount(triangles + n - 2, "triangles", source);
+                        if (indices == null) break;
+                        int first = lines.vertex(vertex.count), previous = lines.vertex(vertex.count);
+                        for (long j = 2; j < n; ++j) {
+                            int current = lines.vertex(vertex.count);
+                            indices[3 * triangle] = first;
+                            indices[3 * triangle + 1] = previous;
+                            indices[3 * triangle + 2] = current;
+                            previous = current;
+                            ++triangle;
+                        }
+                    }
+                }
+                ++record;
+            }
+            lines.endLine();
+        }
+        return triangles;
+    }
+
+    /**
+     * Loads the body of a binary PLY file
+     *
+     * @param source    the file
+     * @param header    the header
+     * @param vertex    the vertex element
+     * @param face      the face element
+     * @param axes      the axis of every vertex property plus one, 0 for properties that are skipped
+     * @param list      the index of the face property that lists the vertices
+     * @param positions the vertex coordinates to fill
+     * @return the mesh
+     * @throws IOException if the file cannot be read or ends too early
+     */
+    private static TriangleMesh loadBinaryPly(Source source, Header header, Element vertex, Element face,
+                                              int[] axes, int list, double[] positions) throws IOException {
+        // find the blocks of the vertices and of the faces - records of lists have to be scanned one by one
+        Blocks vertexBlocks = null, faceBlocks = null;
+        long offset = header.end;
+        for (Element element : header.elements) {
+            Blocks blocks = new Blocks(source, header.order, element, offset, element == face ? list : -1);
+            if (element == vertex) vertexBlocks = blocks;
+            if (element == face) faceBlocks = blocks;
+            if (vertexBlocks != null && faceBlocks != null) break;
+            offset = blocks.offsets[blocks.offsets.length - 1];
+        }
+        Blocks vertices = vertexBlocks, faces = faceBlocks;
+
+        inParallel(vertices.count(), b -> {
+            Reader reader = new Reader(source.channel, header.order, vertices.offsets[b]);
+            for (int v = vertices.records[b]; v < vertices.records[b + 1]; ++v) {
+                for (int k = 0; k < axes.length; ++k) {
+                    Property property = vertex.properties.get(k);
+                    if (property.countType != null) reader.skipList(property);
+                    else if (axes[k] == 0) reader.skip(property.type.size);
+                    else positions[3 * v + axes[k] - 1] = reader.read(property.type);
+                }
+            }
+        });
+
+        int vertexCount = vertex.count;
+        int[] indices = new int[3 * faces.triangles[faces.count()]];
+        inParallel(faces.count(), b -> {
+            Reader reader = new Reader(source.channel, header.order, faces.offsets[b]);
+            int triangle = faces.triangles[b];
+            for (int f = faces.records[b]; f < faces.records[b + 1]; ++f) {
+                for (int k = 0; k < face.properties.size(); ++k) {
+                    Property property = face.properties.get(k);
+                    if (k != list) {
+                        if (property.countType != null) reader.skipList(property);
+                        else reader.skip(property.type.size);
+                        continue;
+                    }
+                    long n = (long) reader.read(property.countType);
+                    int first = vertex(reader, property.type, vertexCount, source, f);
+                    int previous = vertex(reader, property.type, vertexCount, source, f);
+                    for (long j = 2; j < n; ++j) {
+                        int current = vertex(reader, property.type, vertexCount, source, f);
+                        indices[3 * triangle] = first;
+                        indices[3 * triangle + 1] = previous;
+                        indices[3 * triangle + 2] = current;
+                        previous = current;
+                        ++triangle;
+                    }
+                }
+            }
+        });
+        return TriangleMesh.wrap(positions, indices, null);
+    }
+
+    /**
+     * Reads a vertex index of a face of a binary PLY file
+     *
+     * @param reader      the reader
+     * @param type        the type of the index
+     * @param vertexCount the amount of vertices
+     * @param source      the file
+     * @param face        the face
+     * @return the vertex index
+     * @throws IOException if the file ends too early
+     */
+    private static int vertex(Reader reader, Type type, int vertexCount, Source source, int face) throws IOException {
+        double index = reader.read(type);
+        if (index < 0 || index >= vertexCount)
+            throw new IllegalArgumentException(source.path + ": face " + face + ": vertex index "
+                    + (long) index + " is out of range");
+        return (int) index;
+    }
+
+    // ***************** Helpers ********************** //
+
+    /**
+     * Checks that an amount of vertices or triangles fits in the arrays of a mesh
+     *
+     * @param count  the amount
+     * @param what   what is counted, for the message
+     * @param source the file
+     * @return the amount
+     * @throws IllegalArgumentException if the arrays would be too long
+     */
+    private static int checkedCount(long count, String what, Source source) {
+        if (count > (Integer.MAX_VALUE - 8) / 3)
+            throw new IllegalArgumentException(source.path + ": too many " + what + " for a mesh");
+        return (int) count;
+    }
+
+    /**
+     * A task over one of several parts
+     */
+    @FunctionalInterface
+    private interface Task {
+        /**
+         * Runs the task
+         *
+         * @param index the part
+         * @throws IOException if the file cannot be read
+         */
+        void run(int index) throws IOException;
+    }
+
+    /**
+     * Runs a task over all the parts in parallel, like the rendering threads of the camera
+     *
+     * @param count the amount of parts
+     * @param task  the task
+     * @throws IOException if the file cannot be read
+     */
+    private static void inParallel(int count, Task task) throws IOException {
+        try {
+            IntStream.range(0, count).parallel().forEach(i -> {
+                try {
+                    task.run(i);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Parses a decimal number. Numbers whose digits fit in the 53 bits of a double and whose exponents are small
+     * are calculated directly, which rounds correctly since both the digits and the power of ten are exact
+     * doubles; anything else is left to {@link Double#parseDouble(String)}.
+     *
+     * @param text   the characters
+     * @param length the amount of characters
+     * @return the number
+     * @throws NumberFormatException if the characters are not a number
+     */
+    static double parseDouble(byte[] text, int length) {
+        int i = 0;
+        boolean negative = false;
+        if (i < length && (text[i] == '-' || text[i] == '+')) negative = text[i++] == '-';
+        long mantissa = 0;
+        int digits = 0, exponent = 0;
+        boolean any = false, exact = true;
+        for (; i < length && text[i] >= '0' && text[i] <= '9'; ++i, any = true) {
+            if (digits < 18) {
+                mantissa = mantissa * 10 + text[i] - '0';
+                if (mantissa != 0) ++digits;
+            } else {
+                ++exponent;
+                exact &= text[i] == '0';
+            }
+        }
+        if (i < length && text[i] == '.') {
+            for (++i; i < length && text[i] >= '0' && text[i] <= '9'; ++i, any = true) {
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + text[i] - '0';
+                    if (mantissa != 0) ++digits;
+                    --exponent;
+                } else exact &= text[i] == '0';
+            }
+        }
+        if (any && i < length && (text[i] == 'e' || text[i] == 'E')) {
+            int j = i + 1;
+            boolean negativeExponent = false;
+            if (j < length && (text[j] == '-' || text[j] == '+')) negativeExponent = text[j++] == '-';
+            int value = 0;
+            boolean anyExponent = false;
+            for (; j < length && text[j] >= '0' && text[j] <= '9'; ++j, anyExponent = true)
+                value = Math.min(value * 10 + text[j] - '0', 100000);
+            if (anyExponent) {
+                exponent += negativeExponent ? -value : value;
+                i = j;
+            }
+        }
+        if (any && i == length && exact && mantissa < 1L << 53 && Math.abs(exponent) < POWERS_OF_TEN.length) {
+            double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+            return negative ? -value : value;
+        }
+        return Double.parseDouble(new String(text, 0, length, StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * An open mesh file
+     */
+    private static final class Source {
+        /**
+         * The path of the file, for the messages
+         */
+        final Path path;
+        /**
+         * The channel of the file
+         */
+        final FileChannel channel;
+        /**
+         * The size of the file
+         */
+        final long size;
+        /**
+         * Approximate amount of bytes parsed by one parallel task
+         */
+        final int chunkSize;
+
+        /**
+         * Constructs the source
+         *
+         * @param path      the path of the file
+         * @param channel   the channel of the file
+         * @param chunkSize approximate amount of bytes parsed by one parallel task
+         * @throws IOException if the size of the file cannot be read
+         */
+        Source(Path path, FileChannel channel, int chunkSize) throws IOException {
+            this.path = path;
+            this.channel = channel;
+            this.size = channel.size();
+            this.chunkSize = chunkSize;
+        }
+
+        /**
+         * Cuts the text from an offset to the end of the file into chunks of about the chunk size
+         *
+         * @param start the offset where the text starts
+         * @return the chunks
+         */
+        Chunk[] split(long start) {
+            int count = (int) Math.max(1, (size - start + chunkSize - 1) / chunkSize);
+            Chunk[] chunks = new Chunk[count];
+            for (int i = 0; i < count; ++i)
+                chunks[i] = new Chunk(start + (long) i * chunkSize, i == count - 1 ? size : start + (long) (i + 1) * chunkSize);
+            return chunks;
+        }
+    }
+
+    /**
+     * A part of a text file parsed by one task: the lines that start between its two offsets.
+     * The counts are found by the first pass, and the positions in the arrays are then derived from them.
+     */
+    private static final class Chunk {
+        /**
+         * The offset where the chunk starts, possibly in the middle of a line that belongs to the previous chunk
+         */
+        final long start;
+        /**
+         * The offset where the next chunk starts
+         */
+        final long end;
+        /**
+         * Amount of lines in the chunk
+         */
+        long lines;
+        /**
+         * Amount of records in the chunk
+         */
+        long records;
+        /**
+         * Amount of vertices in the chunk
+         */
+        int vertices;
+        /**
+         * Amount of triangles in the chunk
+         */
+        int triangles;
+        /**
+         * The materials used in the chunk, in order
+         */
+        final List<String> materials = new ArrayList<>();
+        /**
+         * Number of the first line of the chunk in the file
+         */
+        long firstLine;
+        /**
+         * Index of the first record of the chunk
+         */
+        long firstRecord;
+        /**
+         * Index of the first vertex of the chunk
+         */
+        int firstVertex;
+        /**
+         * Index of the first triangle of the chunk
+         */
+        int firstTriangle;
+        /**
+         * The surface of the faces at the start of the chunk
+         */
+        int surface;
+
+        /**
+         * Constructs a chunk
+         *
+         * @param start the offset where the chunk starts
+         * @param end   the offset where the next chunk starts
+         */
+        Chunk(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * Opens a reader at the first line that starts in the chunk
+         *
+         * @param source    the file
+         * @param textStart the offset where the text of the file starts
+         * @return the reader
+         * @throws IOException if the file cannot be read
+         */
+        Reader open(Source source, long textStart) throws IOException {
+            if (start == textStart) return new Reader(source.channel, ByteOrder.BIG_ENDIAN, start);
+            // the line that runs into the chunk belongs to the previous one
+            Reader reader = new Reader(source.channel, ByteOrder.BIG_ENDIAN, start - 1);
+            int c;
+            do c = reader.next(); while (c != '\n' && c != -1);
+            return reader;
+        }
+
+        /**
+         * Checks whether there is another line of the chunk
+         *
+         * @param lines the lines of the chunk
+         * @return true if the next line starts in the chunk
+         * @throws IOException if the file cannot be read
+         */
+        boolean has(Lines lines) throws IOException {
+            return lines.reader.position() < end && lines.reader.peek() != -1;
+        }
+    }
+
+    /**
+     * Sequential reader of a file through mapped windows, mapping the next window as it advances
+     */
+    private static final class Reader {
+        /**
+         * The channel of the file
+         */
+        final FileChannel channel;
+        /**
+         * The byte order of binary numbers
+         */
+        final ByteOrder order;
+        /**
+         * The size of the file
+         */
+        final long size;
+        /**
+         * The mapped window
+         */
+        MappedByteBuffer window;
+        /**
+         * The offset of the window in the file
+         */
+        long windowStart;
+        /**
+         * The position in the window
+         */
+        int pos;
+        /**
+         * The size of the window
+         */
+        int limit;
+
+        /**
+         * Constructs a reader
+         *
+         * @param channel the channel of the file
+         * @param order   the byte order of binary numbers
+         * @param offset  the offset to start from
+         * @throws IOException if the file cannot be mapped
+         */
+        Reader(FileChannel channel, ByteOrder order, long offset) throws IOException {
+            this.channel = channel;
+            this.order = order;
+            this.size = channel.size();
+            map(offset);
+        }
+
+        /**
+         * Maps the window starting at an offset
+         *
+         * @param offset the offset
+         * @throws IOException if the file cannot be mapped
+         */
+        void map(long offset) throws IOException {
+            windowStart = offset;
+            pos = 0;
+            limit = (int) Math.min(WINDOW, size - offset);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, offset, limit);
+            window.order(order);
+        }
+
+        /**
+         * Getter of the position in the file
+         *
+         * @return the offset of the next byte
+         */
+        long position() {
+            return windowStart + pos;
+        }
+
+        /**
+         * Looks at the next byte without reading it
+         *
+         * @return the next byte, -1 at the end of the file
+         * @throws IOException if the file cannot be mapped
+         */
+        int peek() throws IOException {
+            if (pos == limit) {
+                if (position() == size) return -1;
+                map(position());
+            }
+            return window.get(pos) & 0xff;
+        }
+
+        /**
+         * Reads the next byte
+         *
+         * @return the next byte, -1 at the end of the file
+         * @throws IOException if the file cannot be mapped
+         */
+        int next() throws IOException {
+            int c = peek();
+            if (c >= 0) ++pos;
+            return c;
+        }
+
+        /**
+         * Makes sure that the next bytes are in the window
+         *
+         * @param bytes the amount of bytes
+         * @throws IOException if the file ends before these bytes
+         */
+        void require(long bytes) throws IOException {
+            if (limit - pos >= bytes) return;
+            if (position() + bytes > size) throw new EOFException("Unexpected end of file at offset " + position());
+            map(position());
+        }
+
+        /**
+         * Skips bytes
+         *
+         * @param bytes the amount of bytes
+         * @throws IOException if the file ends before these bytes
+         */
+        void skip(long bytes) throws IOException {
+            if (limit - pos >= bytes) pos += (int) bytes;
+            else {
+                if (position() + bytes > size) throw new EOFException("Unexpected end of file at offset " + position());
+                map(position() + bytes);
+            }
+        }
+
+        /**
+         * Reads a binary number
+         *
+         * @param type the type of the number
+         * @return the number
+         * @throws IOException if the file ends before the number
+         */
+        double read(Type type) throws IOException {
+            require(type.size);
+            double value = switch (type) {
+                case INT8 -> window.get(pos);
+                case UINT8 -> window.get(pos) & 0xff;
+                case INT16 -> window.getShort(pos);
+                case UINT16 -> window.getShort(pos) & 0xffff;
+                case INT32 -> window.getInt(pos);
+                case UINT32 -> window.getInt(pos) & 0xffffffffL;
+                case FLOAT32 -> window.getFloat(pos);
+                case FLOAT64 -> window.getDouble(pos);
+            };
+            pos += type.size;
+            return value;
+        }
+
+        /**
+         * Skips a binary list
+         *
+         * @param property the list property
+         * @throws IOException if the file ends before the end of the list
+         */
+        void skipList(Property property) throws IOException {
+            long n = (long) read(property.countType);
+            skip(n * property.type.size);
+        }
+    }
+
+    /**
+     * Tokenizer of the lines of a text file
+     */
+    private static final class Lines {
+        /**
+         * The file, for the messages
+         */
+        final Source source;
+        /**
+         * The reader of the file
+         */
+        final Reader reader;
+        /**
+         * The number of the current line in the file, or the amount of lines read when counting
+         */
+        long line;
+        /**
+         * The characters of the last token
+         */
+        byte[] token = new byte[64];
+        /**
+         * The amount of characters in the last token
+         */
+        int length;
+
+        /**
+         * Constructs a tokenizer
+         *
+         * @param source the file
+         * @param reader the reader, at the start of a line
+         * @param line   the number of the line
+         */
+        Lines(Source source, Reader reader, long line) {
+            this.source = source;
+            this.reader = reader;
+            this.line = line;
+        }
+
+        /**
+         * Skips blanks and checks whether the line has no more tokens
+         *
+         * @return true at the end of the line, at a comment or at the end of the file
+         * @throws IOException if the file cannot be read
+         */
+        boolean atLineEnd() throws IOException {
+            int c = reader.peek();
+            while (c == ' ' || c == '\t' || c == '\r') {
+                reader.next();
+                c = reader.peek();
+            }
+            return c == '\n' || c == '#' || c == -1;
+        }
+
+        /**
+         * Reads the next token of the line
+         *
+         * @return false if the line has no more tokens
+         * @throws IOException if the file cannot be read
+         */
+        boolean nextToken() throws IOException {
+            length = 0;
+            if (atLineEnd()) return false;
+            for (int c = reader.peek(); c != ' ' && c != '\t' && c != '\r' && c != '\n' && c != -1; c = reader.peek()) {
+                if (length == token.length) token = Arrays.copyOf(token, 2 * length);
+                token[length++] = (byte) reader.next();
+            }
+            return true;
+        }
+
+        /**
+         * Skips the rest of the line including its end
+         *
+         * @throws IOException if the file cannot be read
+         */
+        void endLine() throws IOException {
+            int c;
+            do c = reader.next(); while (c != '\n' && c != -1);
+            ++line;
+        }
+
+        /**
+         * Compares the last token with a keyword
+         *
+         * @param keyword the keyword
+         * @return true if they are the same
+         */
+        boolean tokenIs(String keyword) {
+            if (length != keyword.length()) return false;
+            for (int i = 0; i < length; ++i)
+                if (token[i] != keyword.charAt(i)) return false;
+            return true;
+        }
+
+        /**
+         * Getter of the last token
+         *
+         * @return the last token
+         */
+        String token() {
+            return new String(token, 0, length, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Reads the next token as a number
+         *
+         * @return the number
+         * @throws IOException              if the file cannot be read
+         * @throws IllegalArgumentException if the line has no more tokens or the token is not a number
+         */
+        double number() throws IOException {
+            if (!nextToken()) throw error("a number is missing");
+            try {
+                return parseDouble(token, length);
+            } catch (NumberFormatException e) {
+                throw error("malformed number " + token());
+            }
+        }
+
+        /**
+         * Parses the last token as an integer, up to a slash that starts OBJ texture and normal indices
+         *
+         * @return the integer
+         * @throws IllegalArgumentException if the token is not an integer
+         */
+        long integer() {
+            int i = 0;
+            boolean negative = length > 0 && token[0] == '-';
+            if (negative || length > 0 && token[0] == '+') ++i;
+            long value = 0;
+            int start = i;
+            for (; i < length && token[i] != '/'; ++i) {
+                if (token[i] < '0' || token[i] > '9' || value > Integer.MAX_VALUE)
+                    throw error("malformed integer " + token());
+                value = value * 10 + token[i] - '0';
+            }
+            if (i == start) throw error("malformed integer " + token());
+            return negative ? -value : value;
+        }
+
+        /**
+         * Reads the next token as a vertex index of a PLY face
+         *
+         * @param vertexCount the amount of vertices
+         * @return the vertex index
+         * @throws IOException              if the file cannot be read
+         * @throws IllegalArgumentException if the line has no more tokens or the index is out of range
+         */
+        int vertex(int vertexCount) throws IOException {
+            if (!nextToken()) throw error("a vertex index is missing");
+            long index = integer();
+            if (index < 0 || index >= vertexCount) throw error("vertex index " + index + " is out of range");
+            return (int) index;
+        }
+
+        /**
+         * Skips a list of numbers
+         *
+         * @throws IOException if the file cannot be read
+         */
+        void skipList() throws IOException {
+            if (!nextToken()) throw error("a list is missing");
+            for (long n = integer(); n > 0; --n)
+                number();
+        }
+
+        /**
+         * Creates an error for the current line
+         *
+         * @param message the message
+         * @return the error
+         */
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(source.path + ":" + line + ": " + message);
+        }
+    }
+
+    /**
+     * Types of PLY properties
+     */
+    private enum Type {
+        /**
+         * Signed byte
+         */
+        INT8(1),
+        /**
+         * Unsigned byte
+         */
+        UINT8(1),
+        /**
+         * Signed short
+         */
+        INT16(2),
+        /**
+         * Unsigned short
+         */
+        UINT16(2),
+        /**
+         * Signed int
+         */
+        INT32(4),
+        /**
+         * Unsigned int
+         */
+        UINT32(4),
+        /**
+         * Float
+         */
+        FLOAT32(4),
+        /**
+         * Double
+         */
+        FLOAT64(8);
+
+        /**
+         * The size of a binary value in bytes
+         */
+        final int size;
+
+        /**
+         * Constructs a type
+         *
+         * @param size the size of a binary value in bytes
+         */
+        Type(int size) {
+            this.size = size;
+        }
+
+        /**
+         * Finds a type by its name in the header, old or new
+         *
+         * @param name the name
+         * @return the type, null if unknown
+         */
+        static Type of(String name) {
+            return switch (name) {
+                case "char", "int8" -> INT8;
+                case "uchar", "uint8" -> UINT8;
+                case "short", "int16" -> INT16;
+                case "ushort", "uint16" -> UINT16;
+                case "int", "int32" -> INT32;
+                case "uint", "uint32" -> UINT32;
+                case "float", "float32" -> FLOAT32;
+                case "double", "float64" -> FLOAT64;
+                default -> null;
+            };
+        }
+    }
+
+    /**
+     * A property of a PLY element
+     */
+    private static final class Property {
+        /**
+         * The name of the property
+         */
+        final String name;
+        /**
+         * The type of the value, or of the items of a list
+         */
+        final Type type;
+        /**
+         * The type of the length of a list, null for a single value
+         */
+        final Type countType;
+
+        /**
+         * Constructs a property
+         *
+         * @param name      the name of the property
+         * @param type      the type of the value, or of the items of a list
+         * @param countType the type of the length of a list, null for a single value
+         */
+        Property(String name, Type type, Type countType) {
+            this.name = name;
+            this.type = type;
+            this.countType = countType;
+        }
+    }
+
+    /**
+     * An element of a PLY file - a kind of record, such as the vertices or the faces
+     */
+    private static final class Element {
+        /**
+         * The name of the element
+         */
+        final String name;
+        /**
+         * The amount of records
+         */
+        final int count;
+        /**
+         * The properties of every record, in order
+         */
+        final List<Property> properties = new ArrayList<>();
+
+        /**
+         * Constructs an element
+         *
+         * @param name  the name of the element
+         * @param count the amount of records
+         */
+        Element(String name, int count) {
+            this.name = name;
+            this.count = count;
+        }
+
+        /**
+         * Finds a property by its name
+         *
+         * @param property the name
+         * @return the index of the property, -1 if there is none
+         */
+        int indexOf(String property) {
+            for (int k = 0; k < properties.size(); ++k)
+                if (properties.get(k).name.equals(property)) return k;
+            return -1;
+        }
+
+        /**
+         * Calculates the size of a binary record
+         *
+         * @return the size in bytes, -1 if the records have lists and their sizes vary
+         */
+        int fixedSize() {
+            int size = 0;
+            for (Property property : properties) {
+                if (property.countType != null) return -1;
+                size += property.type.size;
+            }
+            return size;
+        }
+    }
+
+    /**
+     * The header of a PLY file
+     */
+    private static final class Header {
+        /**
+         * Whether the body is text
+         */
+        final boolean ascii;
+        /**
+         * The byte order of a binary body
+         */
+        final ByteOrder order;
+        /**
+         * The elements, in the order of the body
+         */
+        final List<Element> elements = new ArrayList<>();
+        /**
+         * The total amount of records
+         */
+        final long records;
+        /**
+         * The amount of lines of the header
+         */
+        final long lines;
+        /**
+         * The offset where the body starts
+         */
+        final long end;
+
+        /**
+         * Reads the header
+         *
+         * @param source the file
+         * @throws IOException              if the file cannot be read
+         * @throws IllegalArgumentException if the header is malformed
+         */
+        Header(Source source) throws IOException {
+            Lines lines = new Lines(source, new Reader(source.channel, ByteOrder.BIG_ENDIAN, 0), 1);
+            if (!lines.nextToken() || !lines.tokenIs("ply")) throw lines.error("not a PLY file");
+            lines.endLine();
+            String format = null;
+            long records = 0;
+            while (true) {
+                if (lines.reader.peek() == -1) throw lines.error("end_header is missing");
+                if (!lines.nextToken() || lines.tokenIs("comment") || lines.tokenIs("obj_info")) {
+                    lines.endLine();
+                    continue;
+                }
+                if (lines.tokenIs("end_header")) break;
+                if (lines.tokenIs("format")) {
+                    if (!lines.nextToken()) throw lines.error("the format is missing");
+                    format = lines.token();
+                } else if (lines.tokenIs("element")) {
+                    if (!lines.nextToken()) throw lines.error("the element name is missing");
+                    String name = lines.token();
+                    if (!lines.nextToken()) throw lines.error("the element count is missing");
+                    long count = lines.integer();
+                    if (count < 0 || count > Integer.MAX_VALUE) throw lines.error("bad element count " + count);
+                    elements.add(new Element(name, (int) count));
+                    records += count;
+                } else if (lines.tokenIs("property")) {
+                    if (elements.isEmpty()) throw lines.error("a property before any element");
+                    Type countType = null;
+                    if (!lines.nextToken()) throw lines.error("the property type is missing");
+                    if (lines.tokenIs("list")) {
+                        countType = type(lines);
+                        lines.nextToken();
+                    }
+                    Type type = Type.of(lines.token());
+                    if (type == null) throw lines.error("unknown property type " + lines.token());
+                    if (!lines.nextToken()) throw lines.error("the property name is missing");
+                    elements.get(elements.size() - 1).properties.add(new Property(lines.token(), type, countType));
+                } else throw lines.error("unknown header line " + lines.token());
+                lines.endLine();
+            }
+            lines.endLine();
+            if (format == null) throw lines.error("the format is missing");
+            ascii = format.equals("ascii");
+            if (!ascii && !format.equals("binary_little_endian") && !format.equals("binary_big_endian"))
+                throw lines.error("unknown format " + format);
+            order = format.equals("binary_little_endian") ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+            this.records = records;
+            this.lines = lines.line - 1;
+            this.end = lines.reader.position();
+        }
+
+        /**
+         * Reads the type of a property
+         *
+         * @param lines the header lines
+         * @return the type
+         * @throws IOException              if the file cannot be read
+         * @throws IllegalArgumentException if the type is missing or unknown
+         */
+        private static Type type(Lines lines) throws IOException {
+            if (!lines.nextToken()) throw lines.error("the property type is missing");
+            Type type = Type.of(lines.token());
+            if (type == null) throw lines.error("unknown property type " + lines.token());
+            return type;
+        }
+
+        /**
+         * Finds an element by its name
+         *
+         * @param name the name
+         * @return the element, null if there is none
+         */
+        Element element(String name) {
+            for (Element element : elements)
+                if (element.name.equals(name)) return element;
+            return null;
+        }
+
+        /**
+         * Calculates the index of the first record of an element among all the records
+         *
+         * @param element the element
+         * @return the index of its first record
+         */
+        long firstRecord(Element element) {
+            long record = 0;
+            for (Element other : elements) {
+                if (other == element) break;
+                record += other.count;
+            }
+            return record;
+        }
+    }
+
+    /**
+     * The records of a binary PLY element cut into blocks of about the chunk size, each parsed by one task
+     */
+    private static final class Blocks {
+        /**
+         * The first record of every block, and the amount of records at the end
+         */
+        int[] records;
+        /**
+         * The offset of every block in the file, and the offset after the element at the end
+         */
+        long[] offsets;
+        /**
+         * The first triangle of every block, and the amount of triangles at the end; null if not counted
+         */
+        int[] triangles;
+
+        /**
+         * Cuts an element into blocks. Blocks of records of a fixed size are calculated; records with lists
+         * are scanned one by one, counting the triangles of the vertex list if there is one.
+         *
+         * @param source  the file
+         * @param order   the byte order
+         * @param element the element
+         * @param offset  the offset of the element in the file
+         * @param list    the index of the property listing the vertices of a face, -1 if there is none
+         * @throws IOException              if the file ends too early
+         * @throws IllegalArgumentException if a face has less than three vertices
+         */
+        Blocks(Source source, ByteOrder order, Element element, long offset, int list) throws IOException {
+            int size = element.fixedSize();
+            if (size >= 0) {
+                int perBlock = Math.max(1, source.chunkSize / Math.max(1, size));
+                int count = Math.max(1, (int) ((element.count + (long) perBlock - 1) / perBlock));
+                records = new int[count + 1];
+                offsets = new long[count + 1];
+                for (int b = 0; b <= count; ++b) {
+                    records[b] = (int) Math.min(element.count, (long) b * perBlock);
+                    offsets[b] = offset + (long) records[b] * size;
+                }
+                return;
+            }
+            int blocks = 0;
+            records = new int[16];
+            offsets = new long[16];
+            triangles = new int[16];
+            Reader reader = new Reader(source.channel, order, offset);
+            long triangle = 0, blockStart = offset;
+            for (int r = 0; r <= element.count; ++r) {
+                if (r == 0 || r == element.count || reader.position() - blockStart >= source.chunkSize) {
+                    if (blocks == records.length) {
+                        records = Arrays.copyOf(records, 2 * blocks);
+                        offsets = Arrays.copyOf(offsets, 2 * blocks);
+                        triangles = Arrays.copyOf(triangles, 2 * blocks);
+                    }
+                    blockStart = reader.position();
+                    records[blocks] = r;
+                    offsets[blocks] = blockStart;
+                    triangles[blocks++] = (int) triangle;
+                    if (r == element.count) break;
+                }
+                for (int k = 0; k < element.properties.size(); ++k) {
+                    Property property = element.properties.get(k);
+                    if (property.countType == null) {
+                        reader.skip(property.type.size);
+                        continue;
+                    }
+                    long n = (long) reader.read(property.countType);
+                    if (k == list) {
+                        if (n < 3)
+                            throw new IllegalArgumentException(source.path + ": face " + r
+                                    + ": a face needs at least three vertices");
+                        triangle = checkedCount(triangle + n - 2, "triangles", source);
+                    }
+                    reader.skip(n * property.type.size);
+                }
+            }
+            records = Arrays.copyOf(records, blocks);
+            offsets = Arrays.copyOf(offsets, blocks);
+            triangles = Arrays.copyOf(triangles, blocks);
+        }
+
+        /**
+         * Getter of the amount of blocks
+         *
+         * @return the amount of blocks
+         */
+        int count() {
+            return records.length - 1;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import primitives.Color;
 import geometries.Geometries;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Represents a scene in 3D space.
@@ -36,6 +37,11 @@ public class Scene {
      */
     public List<LightSource> lights = new LinkedList<>();
 
+    /**
+     * Counter of the intersection tests skipped by the bounding box pre-test, null when it is turned off
+     */
+    private LongAdder culledTests = null;
+
     /**
      * constructor for Scene
      *
@@ -75,9 +81,31 @@ public class Scene {
      */
     public Scene setGeometries(Geometries geometries) {
         this.geometries = geometries;
+        geometries.setBoundingBoxCulling(culledTests);
+        return this;
+    }
+
+    /**
+     * function turns the bounding box pre-test of the scene geometries on or off
+     *
+     * @param culling true to reject rays that miss a geometry box before its exact intersection test
+     * @return this
+     */
+    public Scene setBoundingBoxCulling(boolean culling) {
+        culledTests = culling ? new LongAdder() : null;
+        geometries.setBoundingBoxCulling(culledTests);
         return this;
     }
 
+    /**
+     * function returns the amount of exact intersection tests avoided by the bounding box pre-test
+     *
+     * @return the amount of avoided tests, 0 if the pre-test is turned off
+     */
+    public long getCulledTests() {
+        return culledTests == null ? 0 : culledTests.sum();
+    }
+
     /**
      * function adds lights in the scene
      *
@@ -88,4 +116,14 @@ public class Scene {
         lights.add(light);
         return this;
     }
+
+    /**
+     * function takes an immutable snapshot of the scene to be rendered.
+     * The snapshot copies the lights and the geometries, so the scene itself may still change for later snapshots.
+     *
+     * @return the snapshot
+     */
+    public FrozenScene freeze() {
+        return new FrozenScene(this);
+    }
 }
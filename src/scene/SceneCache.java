@@ -0,0 +1,276 @@
+package scene;
+
+import geometries.CompiledGeometry;
+import geometries.Geometries;
+import lighting.AmbientLight;
+import lighting.DirectionalLight;
+import lighting.LightSource;
+import lighting.PointLight;
+import lighting.SpotLight;
+import primitives.Color;
+import primitives.Double3;
+import primitives.Point;
+import primitives.Vector;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Compiled scene files, to render a big scene again without loading and building it again.<br/>
+ * {@link #compile(Scene, Path)} writes the scene after its structures are built: the colors, the lights,
+ * and the geometry tree in the binary form of {@link CompiledGeometry}, with the arrays of the meshes and the
+ * flattened hierarchies of the collections as they are in memory. {@link #load(Path)} maps the file and copies
+ * the arrays out of it in bulk, so no mesh is parsed and no hierarchy is built again.
+ * Collections organized in other kinds of structures are rebuilt on their first query.<br/>
+ * A file is read back only by the same {@link #VERSION} of the format, and must not exceed 2 GB.
+ */
+public final class SceneCache {
+
+    /**
+     * The first bytes of a compiled scene file
+     */
+    private static final int MAGIC = 0x52545343;
+
+    /**
+     * Version of the format, to be raised on every change of the written records
+     */
+    public static final int VERSION = 2;
+
+    /**
+     * Light record tag of a directional light
+     */
+    private static final byte DIRECTIONAL = 0;
+    /**
+     * Light record tag of a point light
+     */
+    private static final byte POINT = 1;
+    /**
+     * Light record tag of a spot light
+     */
+    private static final byte SPOT = 2;
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private SceneCache() {
+    }
+
+    /**
+     * Writes a compiled scene file, building the structures of the scene geometries if they are not built yet
+     *
+     * @param scene the scene
+     * @param path  the file, replaced if it exists
+     * @throws IOException              if writing fails
+     * @throws IllegalArgumentException if the scene holds a kind of geometry or light that cannot be compiled
+     */
+    public static void compile(Scene scene, Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, scene.name);
+            writeColor(out, scene.background);
+            writeColor(out, scene.ambientLight.getIntensity());
+            out.writeInt(scene.lights.size());
+            for (LightSource light : scene.lights)
+                writeLight(out, light);
+            CompiledGeometry.write(scene.geometries, out);
+        }
+    }
+
+    /**
+     * Reads a compiled scene file
+     *
+     * @param path the file
+     * @return the scene
+     * @throws IOException              if reading fails
+     * @throws IllegalArgumentException if the file is not a compiled scene of this version, or is malformed
+     */
+    public static Scene load(Path path) throws IOException {
+        ByteBuffer in;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE)
+                throw new IllegalArgumentException(path + ": compiled scene files are limited to 2 GB");
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        if (in.remaining() < 8 || in.getInt() != MAGIC)
+            throw new IllegalArgumentException(path + ": not a compiled scene file");
+        int version = in.getInt();
+        if (version != VERSION)
+            throw new IllegalArgumentException(path + ": compiled scene version " + version
+                    + " does not match the version " + VERSION + " of the reader");
+        try {
+            Scene scene = new Scene(readString(in))
+                    .setBackground(readColor(in))
+                    .setAmbientLight(new AmbientLight(readColor(in), Double3.ONE));
+            int lights = in.getInt();
+            for (int i = 0; i < lights; ++i)
+                scene.addLight(readLight(in));
+            if (!(CompiledGeometry.read(in) instanceof Geometries geometries))
+                throw new IllegalArgumentException("the scene geometries are not a collection");
+            return scene.setGeometries(geometries);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException(path + ": the compiled scene is truncated", e);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException(path + ": the compiled scene is malformed", e);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(path + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes a light record
+     *
+     * @param out   the output
+     * @param light the light
+     * @throws IOException              if writing fails
+     * @throws IllegalArgumentException if the light cannot be compiled
+     */
+    private static void writeLight(DataOutput out, LightSource light) throws IOException {
+        Class<?> type = light.getClass();
+        if (type == DirectionalLight.class) {
+            DirectionalLight directional = (DirectionalLight) light;
+            out.writeByte(DIRECTIONAL);
+            writeColor(out, directional.getIntensity());
+            writePoint(out, directional.getDirection());
+        } else if (type == PointLight.class || type == SpotLight.class) {
+            PointLight point = (PointLight) light;
+            out.writeByte(type == SpotLight.class ? SPOT : POINT);
+            writeColor(out, point.getIntensity());
+            writePoint(out, point.getPosition());
+            if (type == SpotLight.class) {
+                SpotLight spot = (SpotLight) light;
+                writePoint(out, spot.getDirection());
+                // a spot constructed without a radius has no grid, which shadows differently than a zero radius
+                out.writeBoolean(spot.getGrid(spot.getDirection()) != null);
+            }
+            out.writeDouble(point.getRadius());
+            out.writeDouble(point.getKc());
+            out.writeDouble(point.getKl());
+            out.writeDouble(point.getKq());
+        } else
+            throw new IllegalArgumentException("Cannot compile a light of " + type.getName());
+    }
+
+    /**
+     * Reads a light record
+     *
+     * @param in the buffer
+     * @return the light
+     * @throws IllegalArgumentException if the record is malformed
+     */
+    private static LightSource readLight(ByteBuffer in) {
+        byte tag = in.get();
+        if (tag == DIRECTIONAL)
+            return new DirectionalLight(readColor(in), readVector(in));
+        if (tag != POINT && tag != SPOT)
+            throw new IllegalArgumentException("Unknown light record " + tag);
+        Color intensity = readColor(in);
+        Point position = readPoint(in);
+        Vector direction = tag == SPOT ? readVector(in) : null;
+        boolean grid = tag == SPOT && in.get() != 0;
+        double radius = in.getDouble();
+        PointLight light;
+        if (tag == SPOT)
+            light = grid ? new SpotLight(intensity, position, direction, radius)
+                    : new SpotLight(intensity, position, direction);
+        else
+            light = radius == 0 ? new PointLight(intensity, position) : new PointLight(intensity, position, radius);
+        return light.setKc(in.getDouble()).setKl(in.getDouble()).setKq(in.getDouble());
+    }
+
+    /**
+     * Writes a string as its length and its UTF-8 bytes
+     *
+     * @param out    the output
+     * @param string the string
+     * @throws IOException if writing fails
+     */
+    private static void writeString(DataOutput out, String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #writeString(DataOutput, String)}
+     *
+     * @param in the buffer
+     * @return the string
+     * @throws IllegalArgumentException if the length is malformed
+     */
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0 || length > in.remaining())
+            throw new IllegalArgumentException("malformed scene name");
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a color
+     *
+     * @param out   the output
+     * @param color the color
+     * @throws IOException if writing fails
+     */
+    private static void writeColor(DataOutput out, Color color) throws IOException {
+        Double3 rgb = color.getRgb();
+        out.writeDouble(rgb.getD1());
+        out.writeDouble(rgb.getD2());
+        out.writeDouble(rgb.getD3());
+    }
+
+    /**
+     * Reads a color
+     *
+     * @param in the buffer
+     * @return the color
+     */
+    private static Color readColor(ByteBuffer in) {
+        return new Color(in.getDouble(), in.getDouble(), in.getDouble());
+    }
+
+    /**
+     * Writes the coordinates of a point or a vector
+     *
+     * @param out   the output
+     * @param point the point
+     * @throws IOException if writing fails
+     */
+    private static void writePoint(DataOutput out, Point point) throws IOException {
+        out.writeDouble(point.getX());
+        out.writeDouble(point.getY());
+        out.writeDouble(point.getZ());
+    }
+
+    /**
+     * Reads a point
+     *
+     * @param in the buffer
+     * @return the point
+     */
+    private static Point readPoint(ByteBuffer in) {
+        return new Point(in.getDouble(), in.getDouble(), in.getDouble());
+    }
+
+    /**
+     * Reads a vector
+     *
+     * @param in the buffer
+     * @return the vector
+     */
+    private static Vector readVector(ByteBuffer in) {
+        return new Vector(in.getDouble(), in.getDouble(), in.getDouble());
+    }
+}
@@ -0,0 +1,718 @@
+package scene;
+
+import geometries.Acceleration;
+import geometries.Cylinder;
+import geometries.Geometries;
+import geometries.Geometry;
+import geometries.Instance;
+import geometries.Plane;
+import geometries.Polygon;
+import geometries.Sphere;
+import geometries.Triangle;
+import geometries.TriangleMesh;
+import geometries.Tube;
+import lighting.AmbientLight;
+import lighting.DirectionalLight;
+import lighting.PointLight;
+import lighting.SpotLight;
+import primitives.Color;
+import primitives.Double3;
+import primitives.Material;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Transform;
+import primitives.Vector;
+import renderer.Camera;
+import renderer.ImageWriter;
+import renderer.RayTracerBasic;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A scene described in a text file, with the camera to render it.<br/>
+ * The file is read line by line, and every statement goes into the scene as soon as it is read,
+ * so the memory used by reading does not grow with the file. Every line holds one statement:
+ * a keyword followed by attributes, every attribute a name followed by its values. Attributes may come in any order.
+ * A {@code #} starts a comment up to the end of the line, and names with spaces are written in double quotes.
+ * <pre>
+ * scene "Shadow test"                                  # optional, the first statement
+ * background 0 0 0
+ * ambient color 255 255 255 k 0.15                     # k is one number or three
+ * camera position 0 0 1000 to 0 0 -1 up 0 1 0 size 200 200 distance 1000 [threads 4]
+ * image name shadows resolution 400 400
+ * directional color 50 50 50 direction 1 1 -1
+ * point color 400 300 200 position 0 5 5 [radius 2] [kc 1] [kl 1e-5] [kq 1.5e-7]
+ * spot color 400 240 0 position -100 -100 200 direction 1 1 -3 [radius 2] [kc 1] [kl 1e-5] [kq 1.5e-7]
+ * material shiny kd 0.5 ks 0.5 shininess 30 [kr 0.2] [kt 0.3 0.3 0.5]
+ * sphere center 0 0 -200 radius 60 [material shiny] [emission 0 0 255]
+ * plane point 0 0 -300 normal 0 0 1
+ * triangle vertices -70 -40 0  -40 -70 0  -68 -68 -4
+ * polygon vertices 0 0 0  1 0 0  1 1 0  0 1 0
+ * tube origin 0 0 0 direction 0 1 0 radius 1
+ * cylinder origin 0 0 0 direction 0 1 0 radius 1 height 5
+ * mesh file models/terrain.obj [material shiny] [emission 10 10 10] [surface red shiny] ...
+ * acceleration grid                                    # the structure of the collection the statement is in
+ * group [acceleration bvh]                             # a nested collection, up to its end
+ * end
+ * define tree [acceleration flat_bvh]                  # shared content, placed only by instances
+ * end
+ * instance tree [translate 1 2 3] [scale 2] [rotate 0 0 1 45] ...   # applied in the written order
+ * </pre>
+ * The geometries take the common attributes {@code material} (a name defined before) and {@code emission}.
+ * A mesh file is an OBJ or PLY file read by {@link MeshLoader}, relative to the scene file;
+ * its {@code surface} attributes set the material of the faces after a {@code usemtl} name.
+ * Errors are reported as {@link IllegalArgumentException} with the file and the line number.
+ */
+public final class SceneFile {
+
+    /**
+     * The scene
+     */
+    public final Scene scene;
+
+    /**
+     * The camera rendering the scene, null if the file has no camera
+     */
+    public final Camera camera;
+
+    /**
+     * Constructs a scene file
+     *
+     * @param scene  the scene
+     * @param camera the camera, null if none
+     */
+    private SceneFile(Scene scene, Camera camera) {
+        this.scene = scene;
+        this.camera = camera;
+    }
+
+    /**
+     * Reads a scene file
+     *
+     * @param path the file
+     * @return the scene and its camera
+     * @throws IOException              if the file or a mesh file it refers to cannot be read
+     * @throws IllegalArgumentException if the file is malformed, with the line of the error
+     */
+    public static SceneFile load(Path path) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            return new Parser(path, reader).parse();
+        }
+    }
+
+    /**
+     * Reader of the statements of a scene file, and its state while reading
+     */
+    private static final class Parser {
+        /**
+         * The file, for the messages and for the mesh files relative to it
+         */
+        private final Path path;
+        /**
+         * The reader of the lines
+         */
+        private final BufferedReader reader;
+        /**
+         * The current line
+         */
+        private String line;
+        /**
+         * The number of the current line, from 1
+         */
+        private int lineNumber = 0;
+        /**
+         * The position of the next character to read in the current line
+         */
+        private int pos;
+        /**
+         * The position of the last token read in the current line
+         */
+        private int start;
+        /**
+         * The scene, null until the first statement
+         */
+        private Scene scene = null;
+        /**
+         * The camera, null until its statement
+         */
+        private Camera camera = null;
+        /**
+         * The image writer, null until its statement
+         */
+        private ImageWriter imageWriter = null;
+        /**
+         * The materials defined so far, by name
+         */
+        private final Map<String, Material> materials = new HashMap<>();
+        /**
+         * The shared content defined so far, by name
+         */
+        private final Map<String, Geometries> definitions = new HashMap<>();
+        /**
+         * The collections of the open groups and definitions, innermost first, empty at the top level
+         */
+        private final Deque<Geometries> groups = new ArrayDeque<>();
+        /**
+         * The names of the open definitions, empty for groups, in the same order
+         */
+        private final Deque<String> groupNames = new ArrayDeque<>();
+
+        /**
+         * Constructs a parser
+         *
+         * @param path   the file
+         * @param reader the reader of its lines
+         */
+        Parser(Path path, BufferedReader reader) {
+            this.path = path;
+            this.reader = reader;
+        }
+
+        /**
+         * Reads all the statements
+         *
+         * @return the scene and its camera
+         * @throws IOException if reading fails
+         */
+        SceneFile parse() throws IOException {
+            while ((line = reader.readLine()) != null) {
+                ++lineNumber;
+                pos = 0;
+                if (!hasNext()) continue;
+                try {
+                    statement(token());
+                    if (hasNext()) throw new IllegalArgumentException("unexpected '" + token() + "'");
+                } catch (IllegalArgumentException e) {
+                    throw error(e.getMessage());
+                }
+            }
+            if (!groups.isEmpty())
+                throw new IllegalArgumentException(path + ": the " + (groupNames.peek().isEmpty() ? "group" : "definition")
+                        + " is missing its end");
+            Scene result = scene();
+            if (camera != null && imageWriter != null) camera.setImageWriter(imageWriter);
+            return new SceneFile(result, camera);
+        }
+
+        /**
+         * Reads a statement
+         *
+         * @param keyword the keyword of the statement
+         * @throws IOException if a mesh file cannot be read
+         */
+        private void statement(String keyword) throws IOException {
+            switch (keyword) {
+                case "scene" -> {
+                    if (scene != null) throw new IllegalArgumentException("the scene name must be the first statement");
+                    scene = new Scene(token());
+                }
+                case "background" -> scene().setBackground(color());
+                case "ambient" -> ambient();
+                case "camera" -> camera();
+                case "image" -> image();
+                case "directional" -> directional();
+                case "point", "spot" -> pointOrSpot(keyword.equals("spot"));
+                case "material" -> material();
+                case "acceleration" -> collection().setAcceleration(acceleration());
+                case "group", "define" -> open(keyword.equals("define"));
+                case "end" -> close();
+                case "instance" -> instance();
+                case "mesh" -> collection().add(mesh());
+                case "sphere", "plane", "triangle", "polygon", "tube", "cylinder" -> collection().add(shape(keyword));
+                default -> throw new IllegalArgumentException("unknown statement '" + keyword + "'");
+            }
+        }
+
+        /**
+         * Getter of the scene, created with the name of the file if the file does not name it
+         *
+         * @return the scene
+         */
+        private Scene scene() {
+            if (scene == null) {
+                String name = path.getFileName().toString();
+                int dot = name.lastIndexOf('.');
+                scene = new Scene(dot > 0 ? name.substring(0, dot) : name);
+            }
+            return scene;
+        }
+
+        /**
+         * Getter of the collection the geometries are added to
+         *
+         * @return the innermost open group or definition, the scene geometries at the top level
+         */
+        private Geometries collection() {
+            return groups.isEmpty() ? scene().geometries : groups.peek();
+        }
+
+        /**
+         * Reads an ambient light statement
+         */
+        private void ambient() {
+            Color color = null;
+            Double3 k = Double3.ONE;
+            while (hasNext())
+                switch (token()) {
+                    case "color" -> color = color();
+                    case "k" -> k = coefficients();
+                    default -> throw unknownAttribute();
+                }
+            scene().setAmbientLight(new AmbientLight(required(color, "color"), k));
+        }
+
+        /**
+         * Reads a camera statement
+         */
+        private void camera() {
+            if (camera != null) throw new IllegalArgumentException("the camera is defined twice");
+            Point position = null;
+            Vector to = null, up = null;
+            double width = Double.NaN, height = Double.NaN, distance = Double.NaN;
+            int threads = 0;
+            while (hasNext())
+                switch (token()) {
+                    case "position" -> position = point();
+                    case "to" -> to = vector();
+                    case "up" -> up = vector();
+                    case "size" -> {
+                        width = number();
+                        height = number();
+                    }
+                    case "distance" -> distance = number();
+                    case "threads" -> threads = integer();
+                    default -> throw unknownAttribute();
+                }
+            camera = new Camera(required(position, "position"), required(to, "to"), required(up, "up"))
+                    .setVPSize(required(width, "size"), height)
+                    .setVPDistance(required(distance, "distance"))
+                    .setRayTracer(new RayTracerBasic(scene()));
+            if (threads != 0) camera.setMultiThreading(threads);
+        }
+
+        /**
+         * Reads an image statement
+         */
+        private void image() {
+            String name = null;
+            int nX = 0, nY = 0;
+            while (hasNext())
+                switch (token()) {
+                    case "name" -> name = token();
+                    case "resolution" -> {
+                        nX = integer();
+                        nY = integer();
+                    }
+                    default -> throw unknownAttribute();
+                }
+            if (nX <= 0 || nY <= 0) throw new IllegalArgumentException("the image needs a positive resolution");
+            imageWriter = new ImageWriter(required(name, "name"), nX, nY);
+        }
+
+        /**
+         * Reads a directional light statement
+         */
+        private void directional() {
+            Color color = null;
+            Vector direction = null;
+            while (hasNext())
+                switch (token()) {
+                    case "color" -> color = color();
+                    case "direction" -> direction = vector();
+                    default -> throw unknownAttribute();
+                }
+            scene().addLight(new DirectionalLight(required(color, "color"), required(direction, "direction")));
+        }
+
+        /**
+         * Reads a point light or a spot light statement
+         *
+         * @param spot whether the light is a spot light
+         */
+        private void pointOrSpot(boolean spot) {
+            Color color = null;
+            Point position = null;
+            Vector direction = null;
+            double radius = Double.NaN, kC = 1, kL = 0, kQ = 0;
+            while (hasNext())
+                switch (token()) {
+                    case "color" -> color = color();
+                    case "position" -> position = point();
+                    case "direction" -> {
+                        if (!spot) throw unknownAttribute();
+                        direction = vector();
+                    }
+                    case "radius" -> radius = number();
+                    case "kc" -> kC = number();
+                    case "kl" -> kL = number();
+                    case "kq" -> kQ = number();
+                    default -> throw unknownAttribute();
+                }
+            required(color, "color");
+            required(position, "position");
+            PointLight light;
+            // a light without a radius is constructed as in code, since a spot shadows differently with a zero radius
+            if (spot)
+                light = Double.isNaN(radius) ? new SpotLight(color, position, required(direction, "direction"))
+                        : new SpotLight(color, position, required(direction, "direction"), radius);
+            else
+                light = Double.isNaN(radius) ? new PointLight(color, position) : new PointLight(color, position, radius);
+            scene().addLight(light.setKc(kC).setKl(kL).setKq(kQ));
+        }
+
+        /**
+         * Reads a material statement
+         */
+        private void material() {
+            String name = token();
+            Material material = new Material();
+            while (hasNext())
+                switch (token()) {
+                    case "kd" -> material.setKd(coefficients());
+                    case "ks" -> material.setKs(coefficients());
+                    case "kr" -> material.setKr(coefficients());
+                    case "kt" -> material.setKt(coefficients());
+                    case "shininess" -> material.setShininess(integer());
+                    default -> throw unknownAttribute();
+                }
+            if (materials.putIfAbsent(name, material) != null)
+                throw new IllegalArgumentException("the material '" + name + "' is defined twice");
+        }
+
+        /**
+         * Reads a group or a definition statement, which opens a collection up to its end statement
+         *
+         * @param define whether the collection is shared content rather than a nested group
+         */
+        private void open(boolean define) {
+            String name = define ? token() : null;
+            Geometries collection = new Geometries();
+            while (hasNext())
+                if (token().equals("acceleration"))
+                    collection.setAcceleration(acceleration());
+                else
+                    throw unknownAttribute();
+            if (define) {
+                if (definitions.containsKey(name))
+                    throw new IllegalArgumentException("'" + name + "' is defined twice");
+            } else
+                collection().add(collection);
+            groups.push(collection);
+            groupNames.push(define ? name : "");
+        }
+
+        /**
+         * Reads an end statement, which closes the innermost group or definition
+         */
+        private void close() {
+            if (groups.isEmpty()) throw new IllegalArgumentException("end without a group or a definition");
+            Geometries collection = groups.pop();
+            String name = groupNames.pop();
+            // a definition is known only after its end, so it cannot contain itself
+            if (!name.isEmpty()) definitions.put(name, collection);
+        }
+
+        /**
+         * Reads an instance statement
+         */
+        private void instance() {
+            String name = token();
+            Geometries content = definitions.get(name);
+            if (content == null) throw new IllegalArgumentException("'" + name + "' is not defined");
+            Transform transform = Transform.IDENTITY;
+            while (hasNext())
+                switch (token()) {
+                    case "translate" -> transform = transform.then(Transform.translation(vector()));
+                    case "scale" -> {
+                        Double3 scale = coefficients();
+                        transform = transform.then(Transform.scaling(scale.getD1(), scale.getD2(), scale.getD3()));
+                    }
+                    case "rotate" -> {
+                        Vector axis = vector();
+                        transform = transform.then(Transform.rotation(axis, number()));
+                    }
+                    default -> throw unknownAttribute();
+                }
+            collection().add(new Instance(content, transform));
+        }
+
+        /**
+         * Reads a mesh statement
+         *
+         * @return the mesh
+         * @throws IOException if the mesh file cannot be read
+         */
+        private TriangleMesh mesh() throws IOException {
+            String file = null;
+            Material material = null;
+            Color emission = null;
+            Map<String, Material> surfaces = new HashMap<>();
+            while (hasNext())
+                switch (token()) {
+                    case "file" -> file = token();
+                    case "material" -> material = materialReference();
+                    case "emission" -> emission = color();
+                    case "surface" -> surfaces.put(token(), materialReference());
+                    default -> throw unknownAttribute();
+                }
+            Path meshPath = path.resolveSibling(required(file, "file"));
+            List<String> names = new ArrayList<>();
+            TriangleMesh mesh;
+            try {
+                mesh = MeshLoader.load(meshPath, names);
+            } catch (NoSuchFileException e) {
+                throw new IllegalArgumentException("the mesh file " + meshPath + " does not exist");
+            }
+            for (String surface : surfaces.keySet())
+                if (!names.contains(surface))
+                    throw new IllegalArgumentException("the mesh file " + meshPath + " has no surface '" + surface + "'");
+            for (int i = 0; i < mesh.getSurfaceCount(); ++i) {
+                Material surfaceMaterial = surfaces.getOrDefault(names.get(i), material);
+                if (surfaceMaterial != null) mesh.getSurface(i).setMaterial(surfaceMaterial);
+                if (emission != null) mesh.getSurface(i).setEmission(emission);
+            }
+            return mesh;
+        }
+
+        /**
+         * Reads a statement of a geometry with a single surface
+         *
+         * @param keyword the keyword of the statement
+         * @return the geometry
+         */
+        private Geometry shape(String keyword) {
+            Material material = null;
+            Color emission = null;
+            Point point = null;
+            Vector vector = null;
+            double radius = Double.NaN, height = Double.NaN;
+            List<Point> vertices = null;
+            while (hasNext()) {
+                String attribute = token();
+                switch (keyword + ' ' + attribute) {
+                    case "sphere center", "plane point", "tube origin", "cylinder origin" -> point = point();
+                    case "plane normal", "tube direction", "cylinder direction" -> vector = vector();
+                    case "sphere radius", "tube radius", "cylinder radius" -> radius = number();
+                    case "cylinder height" -> height = number();
+                    case "triangle vertices", "polygon vertices" -> {
+                        vertices = new ArrayList<>();
+                        do vertices.add(point()); while (nextIsNumber());
+                    }
+                    default -> {
+                        switch (attribute) {
+                            case "material" -> material = materialReference();
+                            case "emission" -> emission = color();
+                            default -> throw unknownAttribute();
+                        }
+                    }
+                }
+            }
+            Geometry geometry = switch (keyword) {
+                case "sphere" -> new Sphere(required(radius, "radius"), required(point, "center"));
+                case "plane" -> new Plane(required(point, "point"), required(vector, "normal"));
+                case "triangle" -> {
+                    if (required(vertices, "vertices").size() != 3)
+                        throw new IllegalArgumentException("a triangle needs three vertices");
+                    yield new Triangle(vertices.get(0), vertices.get(1), vertices.get(2));
+                }
+                case "polygon" -> new Polygon(required(vertices, "vertices").toArray(new Point[0]));
+                case "tube" -> new Tube(required(radius, "radius"),
+                        new Ray(required(point, "origin"), required(vector, "direction")));
+                default -> new Cylinder(required(radius, "radius"),
+                        new Ray(required(point, "origin"), required(vector, "direction")), required(height, "height"));
+            };
+            if (material != null) geometry.setMaterial(material);
+            if (emission != null) geometry.setEmission(emission);
+            return geometry;
+        }
+
+        /**
+         * Reads the name of a material defined before
+         *
+         * @return the material
+         */
+        private Material materialReference() {
+            String name = token();
+            Material material = materials.get(name);
+            if (material == null) throw new IllegalArgumentException("the material '" + name + "' is not defined");
+            return material;
+        }
+
+        /**
+         * Reads the name of a kind of structure
+         *
+         * @return the kind of structure
+         */
+        private Acceleration acceleration() {
+            String name = token();
+            try {
+                return Acceleration.valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("unknown acceleration '" + name + "'");
+            }
+        }
+
+        /**
+         * Checks that an attribute was given
+         *
+         * @param value     the value of the attribute, null if it was not given
+         * @param attribute the name of the attribute
+         * @param <T>       the type of the value
+         * @return the value
+         */
+        private static <T> T required(T value, String attribute) {
+            if (value == null) throw new IllegalArgumentException("the attribute '" + attribute + "' is missing");
+            return value;
+        }
+
+        /**
+         * Checks that a number attribute was given
+         *
+         * @param value     the value of the attribute, NaN if it was not given
+         * @param attribute the name of the attribute
+         * @return the value
+         */
+        private static double required(double value, String attribute) {
+            if (Double.isNaN(value)) throw new IllegalArgumentException("the attribute '" + attribute + "' is missing");
+            return value;
+        }
+
+        /**
+         * Creates the error of an attribute the statement does not have, just read
+         *
+         * @return the error
+         */
+        private IllegalArgumentException unknownAttribute() {
+            return new IllegalArgumentException("unknown attribute '" + line.substring(start, pos) + "'");
+        }
+
+        /**
+         * Creates an error of the current line
+         *
+         * @param message the message
+         * @return the error
+         */
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(path + ":" + lineNumber + ": " + message);
+        }
+
+        /**
+         * Skips the spaces before the next token
+         *
+         * @return whether the line has another token before its end or its comment
+         */
+        private boolean hasNext() {
+            while (pos < line.length() && Character.isWhitespace(line.charAt(pos)))
+                ++pos;
+            return pos < line.length() && line.charAt(pos) != '#';
+        }
+
+        /**
+         * Reads the next token - a keyword, the name of an attribute or a name, which may be quoted.
+         * A quoted name is returned without its quotes.
+         *
+         * @return the token
+         */
+        private String token() {
+            if (!hasNext()) throw new IllegalArgumentException("unexpected end of line");
+            start = pos;
+            if (line.charAt(pos) == '"') {
+                int end = line.indexOf('"', pos + 1);
+                if (end < 0) throw new IllegalArgumentException("unterminated string");
+                pos = end + 1;
+                return line.substring(start + 1, end);
+            }
+            while (pos < line.length() && !Character.isWhitespace(line.charAt(pos)) && line.charAt(pos) != '#')
+                ++pos;
+            return line.substring(start, pos);
+        }
+
+        /**
+         * Checks whether the next token is a number, without reading it
+         *
+         * @return whether the next token starts like a number
+         */
+        private boolean nextIsNumber() {
+            if (!hasNext()) return false;
+            char c = line.charAt(pos);
+            return c >= '0' && c <= '9' || c == '-' || c == '+' || c == '.';
+        }
+
+        /**
+         * Reads a number
+         *
+         * @return the number
+         */
+        private double number() {
+            String token = token();
+            try {
+                return Double.parseDouble(token);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("malformed number '" + token + "'");
+            }
+        }
+
+        /**
+         * Reads an integer
+         *
+         * @return the integer
+         */
+        private int integer() {
+            String token = token();
+            try {
+                return Integer.parseInt(token);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("malformed integer '" + token + "'");
+            }
+        }
+
+        /**
+         * Reads three coordinates as a point
+         *
+         * @return the point
+         */
+        private Point point() {
+            return new Point(number(), number(), number());
+        }
+
+        /**
+         * Reads three coordinates as a vector
+         *
+         * @return the vector
+         */
+        private Vector vector() {
+            return new Vector(number(), number(), number());
+        }
+
+        /**
+         * Reads three color components
+         *
+         * @return the color
+         */
+        private Color color() {
+            return new Color(number(), number(), number());
+        }
+
+        /**
+         * Reads coefficients given as one number for the three components or as three numbers
+         *
+         * @return the coefficients
+         */
+        private Double3 coefficients() {
+            double d1 = number();
+            if (!nextIsNumber()) return new Double3(d1);
+            return new Double3(d1, number(), number());
+        }
+    }
+}
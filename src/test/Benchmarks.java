@@ -0,0 +1,148 @@
+package test;
+
+import geometries.Acceleration;
+import geometries.Geometries;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+import renderer.Camera;
+import renderer.ImageForStage7Test;
+import renderer.ImageWriter;
+import renderer.RayTracerBasic;
+import renderer.RenderOrder;
+import scene.Scene;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import static java.lang.System.out;
+
+/**
+ * Benchmarks of the renderer on the scene of the final image of stage 7, run on demand rather than by the unit tests,
+ * as their figures depend on the machine. Run with the benchmark names as arguments, or without arguments for all:
+ * <ul>
+ * <li>acceleration - the memory of the structure over the geometries and the closest hit query time
+ * of every kind of structure</li>
+ * <li>orders - the rendering time of the image in every render order, on a single thread</li>
+ * </ul>
+ */
+public final class Benchmarks {
+
+    /**
+     * The amount of pixel rows and columns the camera rays are cast through
+     */
+    private static final int SIZE = 300;
+
+    /**
+     * The amount of timed passes, the best of which is reported to keep the noise of the machine out
+     */
+    private static final int PASSES = 5;
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private Benchmarks() {
+    }
+
+    /**
+     * Runs the benchmarks
+     *
+     * @param args the names of the benchmarks to run, all of them if none
+     */
+    public static void main(String[] args) {
+        List<String> names = List.of(args);
+        if (names.isEmpty() || names.contains("acceleration"))
+            benchmarkAcceleration();
+        if (names.isEmpty() || names.contains("orders"))
+            benchmarkRenderOrders();
+    }
+
+    /**
+     * Builds the scene of the final image of stage 7
+     *
+     * @return the scene
+     */
+    private static Scene scene() {
+        return new ImageForStage7Test().createScene();
+    }
+
+    /**
+     * Builds the camera of the final image of stage 7
+     *
+     * @return the camera
+     */
+    private static Camera camera() {
+        return new Camera(new Point(0, 0, 1000), new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVPSize(200, 200).setVPDistance(1000);
+    }
+
+    /**
+     * Measures the heap in use after a few collections
+     *
+     * @return the bytes in use
+     */
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; ++i)
+            System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Prints the memory of the structure, its build figures and the closest hit query time of the camera rays
+     * for every kind of structure: the flat hierarchy against the hierarchy of linked nodes, the list scan
+     * and the grid
+     */
+    private static void benchmarkAcceleration() {
+        Camera camera = camera();
+        Ray[] rays = new Ray[SIZE * SIZE];
+        for (int i = 0; i < SIZE; ++i)
+            for (int j = 0; j < SIZE; ++j)
+                rays[i * SIZE + j] = camera.constructRay(SIZE, SIZE, j, i);
+
+        // the scenes are kept so that the memory of one structure is not freed while measuring the next
+        List<Scene> scenes = new LinkedList<>();
+        for (Acceleration acceleration : Acceleration.values()) {
+            Scene scene = scene();
+            scenes.add(scene);
+            Geometries geometries = scene.geometries.setAcceleration(acceleration);
+            long before = usedMemory();
+            // the first query builds the structure
+            String stats = geometries.getBuildStats().toString();
+            long bytes = usedMemory() - before;
+
+            int hits = 0;
+            for (Ray ray : rays) // warm-up
+                if (geometries.findClosestGeoIntersection(ray) != null) ++hits;
+            long best = Long.MAX_VALUE;
+            for (int pass = 0; pass < PASSES; ++pass) {
+                long start = System.nanoTime();
+                for (Ray ray : rays)
+                    geometries.findClosestGeoIntersection(ray);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            out.printf("%-8s %,10d bytes, %7.3f us/ray, %d hits, %s%n",
+                    acceleration, bytes, best / 1e3 / rays.length, hits, stats);
+        }
+    }
+
+    /**
+     * Prints the best rendering time of the image in every render order, on a single thread
+     */
+    private static void benchmarkRenderOrders() {
+        Camera camera = camera().setImageWriter(new ImageWriter("FinalImageBenchmark", SIZE, SIZE))
+                .setRayTracer(new RayTracerBasic(scene())).setMultiThreading(0);
+        // warm up the structures and the JIT before measuring
+        camera.setRenderOrder(RenderOrder.SCANLINE).renderImage();
+        for (RenderOrder order : RenderOrder.values()) {
+            camera.setRenderOrder(order);
+            long best = Long.MAX_VALUE;
+            for (int pass = 0; pass < PASSES; ++pass) {
+                long start = System.nanoTime();
+                camera.renderImage();
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            out.printf("%-8s %6d ms%n", order, best / 1_000_000);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import primitives.Ray;
 import primitives.Vector;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 
 /**
@@ -53,4 +54,29 @@ class CylinderTests {
         assertEquals(new Vector(0, 0, 1), cylinder.getNormal(p5),
                 "testGetNormal() failed, points on side 2 edge.");
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link geometries.Intersectable#findGeoIntersections(primitives.Ray)},
+     * checking the distance and the normal the cylinder hands back with every intersection.
+     */
+    @Test
+    public void testFindGeoIntersections() {
+        Cylinder cylinder = new Cylinder(1, new Ray(new Point(0, 0, 0), new Vector(0, 0, 1)), 4);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray crosses the side twice - every hit knows its distance and its normal
+        Ray ray = new Ray(new Point(-3, 0.5, 2), new Vector(1, 0, 0));
+        var hits = cylinder.findGeoIntersections(ray);
+        assertEquals(2, hits.size(), "findGeoIntersections() failed, wrong amount of hits");
+        for (var hit : hits) {
+            assertEquals(hit.point.distance(ray.getP0()), hit.t, 1e-10, "findGeoIntersections() failed, wrong t");
+            assertEquals(cylinder.getNormal(hit.point), hit.getNormal(),
+                    "findGeoIntersections() failed, wrong normal");
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC02: Ray crosses the tube beyond the height of the cylinder
+        assertNull(cylinder.findGeoIntersections(new Ray(new Point(-3, 0, 5), new Vector(1, 0, 0))),
+                "findGeoIntersections() failed, hit beyond the height");
+    }
+}
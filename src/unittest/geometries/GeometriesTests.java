@@ -1,12 +1,22 @@
 package geometries;
 
 import org.junit.jupiter.api.Test;
+import primitives.Double3;
+import primitives.Material;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
 
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
 /**
@@ -46,4 +56,323 @@ public class GeometriesTests {
         assertNull(geometries.findIntersections(new Ray(new Point(0.5, 4, 0.5), new Vector(0, -1, 0))),
                 "findIntersections(), Empty list");
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link geometries.Geometries#findIntersections(primitives.Ray)}
+     * against a scene big enough to be organized in a hierarchy.
+     */
+    @Test
+    void findIntersectionsHierarchy() {
+        Geometries geometries = new Geometries();
+        List<Intersectable> shapes = new LinkedList<>();
+        for (int i = 0; i < 10; ++i)
+            for (int j = 0; j < 10; ++j) {
+                shapes.add(new Sphere(0.4, new Point(i, j, -5)));
+                shapes.add(new Polygon(new Point(i, j, -2), new Point(i + 0.8, j, -2),
+                        new Point(i + 0.8, j + 0.8, -2), new Point(i, j + 0.8, -2)));
+            }
+        shapes.add(new Plane(new Point(0, 0, -10), new Vector(0, 0, 1)));
+        shapes.forEach(geometries::add);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The hierarchy finds the same intersections as testing every shape
+        Ray[] rays = {
+                new Ray(new Point(0.2, 0.1, 5), new Vector(0, 0, -1)),
+                new Ray(new Point(3.3, 4.3, 5), new Vector(0.1, 0.05, -1)),
+                new Ray(new Point(-3, -3, 3), new Vector(1, 1, -1)),
+                new Ray(new Point(20, 20, 5), new Vector(0, 0, 1))};
+        for (Ray ray : rays) {
+            List<Point> expected = new LinkedList<>();
+            for (Intersectable shape : shapes) {
+                var points = shape.findIntersections(ray);
+                if (points != null) expected.addAll(points);
+            }
+            var result = geometries.findIntersections(ray);
+            assertEquals(sorted(expected, ray), result == null ? List.of() : sorted(result, ray),
+                    "findIntersections() failed, hierarchy result differs for " + ray);
+        }
+    }
+
+    /**
+     * Test method for {@link geometries.Intersectable#findClosestGeoIntersection(primitives.Ray, double)}.
+     */
+    @Test
+    void findClosestGeoIntersection() {
+        Sphere sphere = new Sphere(1, new Point(0, 0, -5));
+        Triangle triangle = new Triangle(new Point(-2, -2, -2), new Point(2, -2, -2), new Point(0, 2, -2));
+        Plane plane = new Plane(new Point(0, 0, -10), new Vector(0, 0, 1));
+        Geometries geometries = new Geometries(sphere, triangle, plane);
+        Ray ray = new Ray(new Point(0, 0, 0), new Vector(0, 0, -1));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The closest of several shapes is found
+        assertEquals(new Intersectable.GeoPoint(triangle, new Point(0, 0, -2)),
+                geometries.findClosestGeoIntersection(ray),
+                "findClosestGeoIntersection() failed, wrong closest point");
+
+        // TC02: Shapes beyond the maximal distance are ignored
+        assertNull(geometries.findClosestGeoIntersection(ray, 1.5),
+                "findClosestGeoIntersection() failed, hit beyond the maximal distance");
+
+        // TC03: Only the unbounded shape is left in front of the ray head
+        assertEquals(new Intersectable.GeoPoint(plane, new Point(0, 0, -10)),
+                geometries.findClosestGeoIntersection(new Ray(new Point(0, 0, -7), new Vector(0, 0, -1))),
+                "findClosestGeoIntersection() failed, wrong closest unbounded point");
+
+        // =============== Boundary Values Tests ==================
+        // TC04: Ray starts inside the sphere - the far sphere point is the closest
+        assertEquals(new Intersectable.GeoPoint(sphere, new Point(0, 0, -6)),
+                geometries.findClosestGeoIntersection(new Ray(new Point(0, 0, -5), new Vector(0, 0, -1)), 4.5),
+                "findClosestGeoIntersection() failed, ray starts inside the sphere");
+
+        // TC05: Nothing is hit
+        assertNull(geometries.findClosestGeoIntersection(new Ray(new Point(0, 0, 0), new Vector(0, 0, 1))),
+                "findClosestGeoIntersection() failed, nothing should be hit");
+    }
+
+    /**
+     * Test method for {@link geometries.Intersectable#findTransparency(primitives.Ray, double, double)}.
+     */
+    @Test
+    void findTransparency() {
+        Geometries geometries = new Geometries(
+                new Sphere(1, new Point(0, 0, -5)).setMaterial(new Material().setKt(0.5)),
+                new Polygon(new Point(-1, -1, -2), new Point(1, -1, -2), new Point(1, 1, -2), new Point(-1, 1, -2))
+                        .setMaterial(new Material().setKt(0.8)),
+                new Triangle(new Point(-1, -1, -8), new Point(1, -1, -8), new Point(0, 1, -8)),
+                new Plane(new Point(0, 0, -20), new Vector(0, 0, 1)));
+        Ray ray = new Ray(new Point(0, 0, 0), new Vector(0, 0, -1));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Light before all the shapes
+        assertEquals(Double3.ONE, geometries.findTransparency(ray, 1, 0.001),
+                "findTransparency() failed, nothing blocks the light");
+
+        // TC02: Light behind transparent shapes - both sphere surfaces and the polygon attenuate it
+        assertEquals(new Double3(0.8 * 0.5 * 0.5), geometries.findTransparency(ray, 7, 0.001),
+                "findTransparency() failed, wrong transparency through transparent shapes");
+
+        // TC03: Light behind an opaque shape
+        assertEquals(Double3.ZERO, geometries.findTransparency(ray, 10, 0.001),
+                "findTransparency() failed, opaque shape must block the light");
+
+        // =============== Boundary Values Tests ==================
+        // TC04: The accumulated transparency falls below the threshold
+        assertEquals(Double3.ZERO, geometries.findTransparency(ray, 7, 0.3),
+                "findTransparency() failed, transparency below the threshold");
+
+        // TC05: Light behind an unbounded opaque shape only
+        assertEquals(Double3.ZERO, geometries.findTransparency(new Ray(new Point(5, 5, 0), new Vector(0, 0, -1)),
+                        Double.POSITIVE_INFINITY, 0.001),
+                "findTransparency() failed, plane must block the light");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#setBoundingBoxCulling(java.util.concurrent.atomic.LongAdder)}.
+     */
+    @Test
+    void testBoundingBoxCulling() {
+        LongAdder culled = new LongAdder();
+        Sphere sphere = new Sphere(1, new Point(0, 0, -5));
+        Geometries geometries = new Geometries(sphere, new Plane(new Point(0, 0, -10), new Vector(0, 0, 1)));
+        geometries.setBoundingBoxCulling(culled);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray misses the sphere box - the exact sphere test is skipped
+        assertNull(sphere.findIntersections(new Ray(new Point(3, 3, 0), new Vector(0, 0, -1))),
+                "testBoundingBoxCulling() failed, ray misses the sphere");
+        assertEquals(1, culled.sum(), "testBoundingBoxCulling() failed, culled test was not counted");
+
+        // TC02: Ray crosses the sphere box - the sphere is still found
+        assertEquals(3, geometries.findIntersections(new Ray(new Point(0, 0, 0), new Vector(0, 0, -1))).size(),
+                "testBoundingBoxCulling() failed, culling lost intersections");
+        assertEquals(1, culled.sum(), "testBoundingBoxCulling() failed, a crossed box was counted");
+
+        // =============== Boundary Values Tests ==================
+        // TC03: Geometries added after the pre-test was turned on are culled as well
+        Sphere added = new Sphere(1, new Point(5, 5, -5));
+        geometries.add(added);
+        assertNull(added.findIntersections(new Ray(new Point(0, 0, 0), new Vector(0, 0, -1))),
+                "testBoundingBoxCulling() failed, ray misses the added sphere");
+        assertEquals(2, culled.sum(), "testBoundingBoxCulling() failed, added geometry was not culled");
+
+        // TC04: Turning the pre-test off stops counting
+        geometries.setBoundingBoxCulling(null);
+        assertNull(sphere.findIntersections(new Ray(new Point(3, 3, 0), new Vector(0, 0, -1))),
+                "testBoundingBoxCulling() failed, ray misses the sphere");
+        assertEquals(2, culled.sum(), "testBoundingBoxCulling() failed, counting after turning off");
+    }
+
+    /**
+     * Test method for {@link geometries.Intersectable#findGeoIntersections(primitives.Ray, geometries.HitBuffer)}.
+     */
+    @Test
+    void findGeoIntersectionsBuffer() {
+        Geometries geometries = new Geometries();
+        for (int i = 0; i < 20; ++i)
+            geometries.add(new Sphere(0.4, new Point(0, 0, -i)));
+        geometries.add(new Plane(new Point(0, 0, -30), new Vector(0, 0, 1)));
+        Ray ray = new Ray(new Point(0, 0, 5), new Vector(0, 0, -1));
+        HitBuffer hits = new HitBuffer();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The buffer grows to hold all the hits, the same as the list
+        hits.add(null, 0);
+        geometries.findGeoIntersections(ray, hits);
+        assertEquals(42, hits.size(), "findGeoIntersections() failed, wrong amount of hits in the buffer");
+        List<Point> points = new LinkedList<>();
+        for (int i = 1; i < hits.size(); ++i)
+            points.add(ray.getPoint(hits.getT(i)));
+        assertEquals(sorted(geometries.findIntersections(ray), ray), sorted(points, ray),
+                "findGeoIntersections() failed, the buffer and the list differ");
+
+        // TC02: Truncating drops the hits of the query only
+        hits.truncate(1);
+        assertEquals(1, hits.size(), "truncate() failed, wrong size");
+
+        // =============== Boundary Values Tests ==================
+        // TC03: No hits
+        geometries.findGeoIntersections(new Ray(new Point(5, 5, 5), new Vector(0, 0, 1)), hits);
+        assertEquals(1, hits.size(), "findGeoIntersections() failed, a missing ray added hits");
+        assertNull(hits.toGeoPoints(ray, 1), "toGeoPoints() failed, no hits must give null");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#setAcceleration(geometries.Acceleration)}.
+     */
+    @Test
+    void testAcceleration() {
+        List<Intersectable> shapes = Terrain.triangles(30);
+        // a transparent sphere spanning many cells of a grid must attenuate the light only once per surface
+        shapes.add(new Sphere(2, new Point(15, 15, 3)).setMaterial(new Material().setKt(0.5)));
+        shapes.add(new Plane(new Point(0, 0, -10), new Vector(0, 0, 1)));
+        Geometries[] structures = new Geometries[Acceleration.values().length];
+        for (Acceleration acceleration : Acceleration.values()) {
+            structures[acceleration.ordinal()] = new Geometries().setAcceleration(acceleration);
+            shapes.forEach(structures[acceleration.ordinal()]::add);
+        }
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: All the structures give the same results for all the queries
+        Ray[] rays = randomRays(500, 30);
+        for (Ray ray : rays) {
+            var expectedAll = structures[0].findIntersections(ray);
+            var expectedClosest = structures[0].findClosestGeoIntersection(ray, Double.POSITIVE_INFINITY);
+            var expectedKtr = structures[0].findTransparency(ray, 20, 0.001);
+            for (Geometries geometries : structures) {
+                var all = geometries.findIntersections(ray);
+                assertEquals(expectedAll == null ? null : sorted(expectedAll, ray), all == null ? null : sorted(all, ray),
+                        "findIntersections() failed, the structures differ for " + ray);
+                var closest = geometries.findClosestGeoIntersection(ray, Double.POSITIVE_INFINITY);
+                assertEquals(expectedClosest == null ? null : expectedClosest.point, closest == null ? null : closest.point,
+                        "findClosestGeoIntersection() failed, the structures differ for " + ray);
+                assertEquals(expectedKtr, geometries.findTransparency(ray, 20, 0.001),
+                        "findTransparency() failed, the structures differ for " + ray);
+            }
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC02: Empty collection
+        for (Acceleration acceleration : Acceleration.values())
+            assertNull(new Geometries().setAcceleration(acceleration).findIntersections(rays[0]),
+                    "findIntersections() failed, empty collection");
+
+        // TC03: No structure
+        assertThrows(IllegalArgumentException.class, () -> new Geometries().setAcceleration(null),
+                "setAcceleration() must not accept null");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#add(Intersectable...)} after the structures were built.
+     */
+    @Test
+    void testAddAfterQuery() {
+        Ray ray = new Ray(new Point(0, 30, 0), new Vector(0, 0, -1));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A geometry added to a nested collection after a query is found through the outer collection
+        // and its snapshot, for every kind of structure
+        for (Acceleration acceleration : Acceleration.values()) {
+            Geometries group = new Geometries(new Sphere(1, new Point(0, 0, -10))).setAcceleration(acceleration);
+            Geometries root = new Geometries(group, new Sphere(1, new Point(5, 0, -10))).setAcceleration(acceleration);
+            assertNull(root.findClosestGeoIntersection(ray), "findClosestGeoIntersection() failed, nothing to hit yet");
+            group.add(new Sphere(1, new Point(0, 30, -10)));
+            assertEquals(new Point(0, 30, -9), root.findClosestGeoIntersection(ray).point,
+                    "add() failed, the outer " + acceleration + " structure misses the added geometry");
+            assertEquals(new Point(0, 30, -9), root.snapshot().findClosestGeoIntersection(ray).point,
+                    "add() failed, the " + acceleration + " snapshot misses the added geometry");
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC02: A geometry added two levels down, after the outer box was computed
+        Geometries inner = new Geometries(new Sphere(1, new Point(0, 0, -10)));
+        Geometries root = new Geometries(new Geometries(inner), new Sphere(1, new Point(5, 0, -10)));
+        assertEquals(-1, root.getBoundingBox().getMin(1), 1e-5, "getBoundingBox() failed, wrong box");
+        inner.add(new Sphere(1, new Point(0, 30, -10)));
+        assertEquals(31, root.getBoundingBox().getMax(1), 1e-5, "add() failed, the outer box was not updated");
+        assertEquals(new Point(0, 30, -9), root.findClosestGeoIntersection(ray).point,
+                "add() failed, the outer structure misses the geometry added two levels down");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#getBuildStats()}.
+     * The hierarchy over a large terrain is built in parallel.
+     */
+    @Test
+    void testBuildStats() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A large hierarchy holds every primitive once and finds the same hits as the list
+        List<Intersectable> shapes = Terrain.triangles(150);
+        Geometries list = new Geometries().setAcceleration(Acceleration.LIST);
+        Geometries hierarchy = new Geometries();
+        shapes.forEach(list::add);
+        shapes.forEach(hierarchy::add);
+        BuildStats stats = hierarchy.getBuildStats();
+        assertEquals(shapes.size(), (int) Math.round(stats.getAverageLeafSize() * stats.getLeaves()),
+                "getBuildStats() failed, wrong amount of primitives in the leaves");
+        assertEquals(2 * stats.getLeaves() - 1, stats.getNodes(), "getBuildStats() failed, wrong amount of nodes");
+        assertTrue(stats.getMinLeafSize() >= 1 && stats.getMaxLeafSize() >= stats.getMinLeafSize(),
+                "getBuildStats() failed, wrong leaf sizes");
+        assertTrue(stats.getSahCost() < list.getBuildStats().getSahCost(),
+                "getBuildStats() failed, the hierarchy must be cheaper than the list");
+        for (Ray ray : randomRays(200, 150)) {
+            var expected = list.findClosestGeoIntersection(ray, Double.POSITIVE_INFINITY);
+            var result = hierarchy.findClosestGeoIntersection(ray, Double.POSITIVE_INFINITY);
+            assertEquals(expected == null ? null : expected.point, result == null ? null : result.point,
+                    "findClosestGeoIntersection() failed, the parallel hierarchy differs for " + ray);
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC02: Empty collection
+        BuildStats empty = new Geometries().getBuildStats();
+        assertEquals(0, empty.getNodes(), "getBuildStats() failed, empty hierarchy must have no nodes");
+        assertEquals(0, empty.getAverageLeafSize(), "getBuildStats() failed, empty hierarchy must have no leaves");
+    }
+
+    /**
+     * Creates reproducible random rays from above a square terrain pointing roughly down at it
+     *
+     * @param count the amount of rays
+     * @param size  the side of the terrain
+     * @return the rays
+     */
+    private static Ray[] randomRays(int count, int size) {
+        Random random = new Random(15);
+        Ray[] rays = new Ray[count];
+        for (int i = 0; i < count; ++i)
+            rays[i] = new Ray(new Point(random.nextDouble() * size, random.nextDouble() * size, 5),
+                    new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1));
+        return rays;
+    }
+
+    /**
+     * Sorts points by their distance from the ray head
+     *
+     * @param points the points
+     * @param ray    the ray
+     * @return the sorted points
+     */
+    private static List<Point> sorted(List<Point> points, Ray ray) {
+        return points.stream().sorted(Comparator.comparingDouble(p -> p.distance(ray.getP0()))).toList();
+    }
+}
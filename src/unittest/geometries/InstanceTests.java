@@ -0,0 +1,154 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import org.junit.jupiter.api.Test;
+import primitives.Double3;
+import primitives.Material;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Transform;
+import primitives.Vector;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for geometries.Instance class
+ */
+class InstanceTests {
+
+    /**
+     * Test method for {@link geometries.Instance#Instance(Intersectable, Transform)}.
+     */
+    @Test
+    void testConstructor() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Content and transform
+        assertDoesNotThrow(() -> new Instance(new Sphere(1, Point.ZERO_POINT), Transform.IDENTITY),
+                "Instance() failed for correct arguments");
+
+        // =============== Boundary Values Tests ==================
+        // TC02: No content
+        assertThrows(IllegalArgumentException.class, () -> new Instance(null, Transform.IDENTITY),
+                "Instance() must not accept null content");
+
+        // TC03: No transform
+        assertThrows(IllegalArgumentException.class, () -> new Instance(new Sphere(1, Point.ZERO_POINT), null),
+                "Instance() must not accept a null transform");
+    }
+
+    /**
+     * Test method for {@link geometries.Instance#findClosestGeoIntersection(Ray, double)}.
+     */
+    @Test
+    void testFindClosestGeoIntersection() {
+        // a triangle placed by a rotation, a non-uniform scaling and a translation,
+        // compared with the same triangle built directly in place
+        Point a = new Point(0, 0, 0), b = new Point(1, 0, 0), c = new Point(0, 1, 0);
+        Transform transform = Transform.rotation(new Vector(1, 0, 0), 30)
+                .then(Transform.scaling(2, 3, 1))
+                .then(Transform.translation(new Vector(1, 1, -5)));
+        Triangle shared = new Triangle(a, b, c);
+        Instance instance = new Instance(new Geometries(shared), transform);
+        Triangle placed = new Triangle(transform.transformPoint(a), transform.transformPoint(b),
+                transform.transformPoint(c));
+        Ray ray = new Ray(new Point(1.2, 1.3, 0), new Vector(0.1, 0.2, -1));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The same point, distance and normal as the placed triangle
+        GeoPoint expected = placed.findClosestGeoIntersection(ray);
+        GeoPoint result = instance.findClosestGeoIntersection(ray);
+        assertNotNull(result, "findClosestGeoIntersection() failed, the instance was missed");
+        assertEquals(expected.point, result.point, "findClosestGeoIntersection() failed, wrong point");
+        assertEquals(expected.t, result.t, 1e-9, "findClosestGeoIntersection() failed, wrong distance");
+        assertEquals(expected.getNormal(), result.getNormal(), "findClosestGeoIntersection() failed, wrong normal");
+        assertSame(shared, result.geometry, "findClosestGeoIntersection() failed, the hit must be on the shared geometry");
+
+        // TC02: The ray misses the placed copy although it hits the shared one in its object space
+        assertNull(instance.findClosestGeoIntersection(new Ray(new Point(0.2, 0.2, 1), new Vector(0, 0, -1))),
+                "findClosestGeoIntersection() failed, ray misses the instance");
+
+        // =============== Boundary Values Tests ==================
+        // TC03: The hit lies beyond the maximal distance, measured in the space around the instance
+        assertNull(instance.findClosestGeoIntersection(ray, expected.t - 0.01),
+                "findClosestGeoIntersection() failed, hit beyond the maximal distance");
+        assertNotNull(instance.findClosestGeoIntersection(ray, expected.t + 0.01),
+                "findClosestGeoIntersection() failed, hit before the maximal distance");
+    }
+
+    /**
+     * Test method for {@link geometries.Intersectable#findGeoIntersections(Ray)} of nested instances.
+     */
+    @Test
+    void testFindGeoIntersections() {
+        Sphere sphere = new Sphere(1, Point.ZERO_POINT);
+        Instance inner = new Instance(sphere, Transform.scaling(2));
+        Instance outer = new Instance(new Geometries(inner), Transform.translation(new Vector(0, 0, -10)));
+        Ray ray = new Ray(new Point(0, 0, 0), new Vector(0, 0, -1));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Both surfaces of the scaled and moved sphere, with the normals and distances around the instance
+        List<GeoPoint> result = outer.findGeoIntersections(ray);
+        assertEquals(2, result.size(), "findGeoIntersections() failed, wrong number of points");
+        GeoPoint near = result.get(0).t < result.get(1).t ? result.get(0) : result.get(1);
+        GeoPoint far = near == result.get(0) ? result.get(1) : result.get(0);
+        assertEquals(new Point(0, 0, -8), near.point, "findGeoIntersections() failed, wrong near point");
+        assertEquals(8, near.t, 1e-9, "findGeoIntersections() failed, wrong near distance");
+        assertEquals(new Vector(0, 0, 1), near.getNormal(), "findGeoIntersections() failed, wrong near normal");
+        assertEquals(new Point(0, 0, -12), far.point, "findGeoIntersections() failed, wrong far point");
+        assertEquals(new Vector(0, 0, -1), far.getNormal(), "findGeoIntersections() failed, wrong far normal");
+
+        // =============== Boundary Values Tests ==================
+        // TC02: The box of the instance is the box of the placed content
+        assertEquals(-12, outer.getBoundingBox().getMin(2), 1e-6, "getBoundingBox() failed, wrong box");
+        assertEquals(2, outer.getBoundingBox().getMax(0), 1e-6, "getBoundingBox() failed, wrong box");
+    }
+
+    /**
+     * Test method for {@link geometries.Instance#getBoundingBox()} after the shared content changed.
+     */
+    @Test
+    void testGetBoundingBox() {
+        Geometries content = new Geometries(new Sphere(1, Point.ZERO_POINT));
+        Instance instance = new Instance(content, Transform.translation(new Vector(0, 0, -10)));
+        Geometries scene = new Geometries(instance, new Sphere(1, new Point(5, 0, -10)));
+        Ray ray = new Ray(new Point(0, 30, 0), new Vector(0, 0, -1));
+        assertNull(instance.findClosestGeoIntersection(ray), "findClosestGeoIntersection() failed, nothing to hit yet");
+        assertNull(scene.findClosestGeoIntersection(ray), "findClosestGeoIntersection() failed, nothing to hit yet");
+        content.add(new Sphere(1, new Point(0, 30, 0)));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The box of the instance follows the content changed after the first query
+        assertEquals(31, instance.getBoundingBox().getMax(1), 1e-5, "getBoundingBox() failed, stale box");
+        assertEquals(new Point(0, 30, -9), instance.findClosestGeoIntersection(ray).point,
+                "findClosestGeoIntersection() failed, the added geometry was culled by the stale box");
+
+        // TC02: The collection over the instance and its snapshot find the added geometry
+        assertEquals(new Point(0, 30, -9), scene.findClosestGeoIntersection(ray).point,
+                "findClosestGeoIntersection() failed, the collection misses the added geometry");
+        assertEquals(new Point(0, 30, -9), scene.snapshot().findClosestGeoIntersection(ray).point,
+                "findClosestGeoIntersection() failed, the snapshot misses the added geometry");
+    }
+
+    /**
+     * Test method for {@link geometries.Intersectable#findTransparency(Ray, double, double)}.
+     */
+    @Test
+    void testFindTransparency() {
+        Sphere sphere = new Sphere(1, Point.ZERO_POINT);
+        sphere.setMaterial(new Material().setKt(0.5));
+        Instance instance = new Instance(sphere, Transform.scaling(3).then(Transform.translation(new Vector(0, 0, -10))));
+        Ray ray = new Ray(new Point(0, 0, 0), new Vector(0, 0, -1));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The light is between the two surfaces of the scaled sphere
+        assertEquals(new Double3(0.5), instance.findTransparency(ray, 10, 0.001),
+                "findTransparency() failed, wrong transparency");
+
+        // =============== Boundary Values Tests ==================
+        // TC02: The light is just before the scaled sphere
+        assertEquals(Double3.ONE, instance.findTransparency(ray, 6.9, 0.001),
+                "findTransparency() failed, the light is before the sphere");
+    }
+}
@@ -129,4 +129,44 @@ public class PolygonTests {
         ray = new Ray(new Point(0.25, 0.25, 1), new Vector(-1.25, -2.25, -1));
         assertNull(polygon.findIntersections(ray), "Ray intersects on edge's continuation of polygon BVA doesn't work.");
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link geometries.Polygon#intersect(primitives.Ray)}.
+     */
+    @Test
+    void testIntersect() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A quad facing each coordinate axis, with its vertices in both directions
+        Point[] square = {new Point(-1, -1, 0), new Point(1, -1, 0), new Point(1, 1, 0), new Point(-1, 1, 0)};
+        for (int axis = 0; axis < 3; ++axis)
+            for (boolean reversed : new boolean[]{false, true}) {
+                Point[] vertices = new Point[4];
+                for (int i = 0; i < 4; ++i) {
+                    Point p = square[reversed ? 3 - i : i];
+                    // turn the square so that its normal is along the axis, slightly slanted
+                    vertices[i] = axis == 2 ? new Point(p.getX(), p.getY(), 0.2 * p.getX())
+                            : axis == 1 ? new Point(p.getY(), 0.2 * p.getX(), p.getX())
+                            : new Point(0.2 * p.getX(), p.getX(), p.getY());
+                }
+                Polygon polygon = new Polygon(vertices);
+                Vector normal = polygon.getNormal(vertices[0]);
+                Point center = new Point(0, 0, 0);
+                Ray ray = new Ray(center.add(normal.scale(3)), normal.scale(-1));
+                assertEquals(3, polygon.intersect(ray), 1e-10,
+                        "testIntersect() failed, wrong distance for axis " + axis);
+                Point outside = vertices[0].add(vertices[0].subtract(center).scale(0.1));
+                assertEquals(Double.POSITIVE_INFINITY, polygon.intersect(new Ray(outside.add(normal), normal.scale(-1))),
+                        "testIntersect() failed, a point outside the polygon for axis " + axis);
+            }
+
+        // =============== Boundary Values Tests ==================
+        // TC02: The polygon is behind the ray head
+        Polygon polygon = new Polygon(square);
+        assertEquals(Double.POSITIVE_INFINITY, polygon.intersect(new Ray(new Point(0, 0, -1), new Vector(0, 0, -1))),
+                "testIntersect() failed, polygon behind the ray");
+
+        // TC03: The ray is parallel to the polygon
+        assertEquals(Double.POSITIVE_INFINITY, polygon.intersect(new Ray(new Point(0, 0, 1), new Vector(1, 0, 0))),
+                "testIntersect() failed, ray parallel to the polygon");
+    }
+}
@@ -0,0 +1,87 @@
+package geometries;
+
+import primitives.Point;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Test fixture of a bumpy square terrain, shared by the tests of the collections, the meshes and the mesh loader.
+ * The terrain has a vertex at every integer point of the square, x and y from 0 to its size,
+ * and two faces per cell.
+ */
+public final class Terrain {
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private Terrain() {
+    }
+
+    /**
+     * Creates the vertices of the terrain
+     *
+     * @param size the amount of cells along a side
+     * @return the coordinates of the vertices, row by row
+     */
+    public static double[] positions(int size) {
+        double[] positions = new double[3 * (size + 1) * (size + 1)];
+        for (int i = 0; i <= size; ++i)
+            for (int j = 0; j <= size; ++j) {
+                int v = 3 * (i * (size + 1) + j);
+                positions[v] = i;
+                positions[v + 1] = j;
+                positions[v + 2] = Math.sin(i * 0.7) * Math.cos(j * 0.5);
+            }
+        return positions;
+    }
+
+    /**
+     * Creates the faces of the terrain, two faces per cell
+     *
+     * @param size the amount of cells along a side
+     * @return the vertex indices of the faces
+     */
+    public static int[] indices(int size) {
+        int[] indices = new int[6 * size * size];
+        int k = 0;
+        for (int i = 0; i < size; ++i)
+            for (int j = 0; j < size; ++j) {
+                int v00 = i * (size + 1) + j, v10 = v00 + size + 1;
+                indices[k++] = v00;
+                indices[k++] = v10;
+                indices[k++] = v10 + 1;
+                indices[k++] = v00;
+                indices[k++] = v10 + 1;
+                indices[k++] = v00 + 1;
+            }
+        return indices;
+    }
+
+    /**
+     * Creates the faces of the terrain as separate triangles
+     *
+     * @param size the amount of cells along a side
+     * @return the triangles, in the order of the faces
+     */
+    public static List<Intersectable> triangles(int size) {
+        double[] positions = positions(size);
+        int[] indices = indices(size);
+        List<Intersectable> triangles = new LinkedList<>();
+        for (int face = 0; face < indices.length; face += 3)
+            triangles.add(new Triangle(vertex(positions, indices[face]), vertex(positions, indices[face + 1]),
+                    vertex(positions, indices[face + 2])));
+        return triangles;
+    }
+
+    /**
+     * Getter of a vertex of the terrain as a point
+     *
+     * @param positions the coordinates of the vertices
+     * @param vertex    the vertex index
+     * @return the point
+     */
+    public static Point vertex(double[] positions, int vertex) {
+        return new Point(positions[3 * vertex], positions[3 * vertex + 1], positions[3 * vertex + 2]);
+    }
+}
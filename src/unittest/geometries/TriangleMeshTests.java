@@ -0,0 +1,174 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Material;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for geometries.TriangleMesh class
+ */
+class TriangleMeshTests {
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#TriangleMesh(double[], int[], int[])}.
+     */
+    @Test
+    void testConstructor() {
+        double[] positions = {0, 0, 0, 1, 0, 0, 0, 1, 0, 1, 1, 0};
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Two faces sharing an edge
+        TriangleMesh mesh = new TriangleMesh(positions, new int[]{0, 1, 2, 1, 3, 2}, new int[]{0, 2});
+        assertEquals(2, mesh.getFaceCount(), "TriangleMesh() failed, wrong amount of faces");
+        assertEquals(4, mesh.getVertexCount(), "TriangleMesh() failed, wrong amount of vertices");
+
+        // TC02: Positions that are not triplets
+        assertThrows(IllegalArgumentException.class, () -> new TriangleMesh(new double[]{0, 0, 0, 1}, new int[]{0, 0, 0}),
+                "TriangleMesh() must not accept positions that are not triplets");
+
+        // TC03: Indices that are not triplets
+        assertThrows(IllegalArgumentException.class, () -> new TriangleMesh(positions, new int[]{0, 1}),
+                "TriangleMesh() must not accept indices that are not triplets");
+
+        // TC04: Wrong amount of surface indices
+        assertThrows(IllegalArgumentException.class,
+                () -> new TriangleMesh(positions, new int[]{0, 1, 2}, new int[]{0, 1}),
+                "TriangleMesh() must have one surface index per face");
+
+        // =============== Boundary Values Tests ==================
+        // TC05: Vertex index just beyond the vertices
+        assertThrows(IllegalArgumentException.class, () -> new TriangleMesh(positions, new int[]{0, 1, 4}),
+                "TriangleMesh() must not accept an index beyond the vertices");
+
+        // TC06: No faces
+        assertThrows(IllegalArgumentException.class, () -> new TriangleMesh(positions, new int[0]),
+                "TriangleMesh() must have faces");
+
+        // TC07: Negative surface index
+        assertThrows(IllegalArgumentException.class,
+                () -> new TriangleMesh(positions, new int[]{0, 1, 2}, new int[]{-1}),
+                "TriangleMesh() must not accept a negative surface index");
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#getSurface(int)}.
+     */
+    @Test
+    void testGetSurface() {
+        TriangleMesh mesh = new TriangleMesh(new double[]{0, 0, -1, 1, 0, -1, 0, 1, -1, 1, 1, -1},
+                new int[]{0, 1, 2, 1, 3, 2}, new int[]{0, 2});
+        Color emission = new Color(10, 20, 30);
+        mesh.getSurface(2).setMaterial(new Material().setKt(0.5)).setEmission(emission);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The hit face gets the material and the emission of its surface
+        GeoPoint hit = mesh.findClosestGeoIntersection(new Ray(new Point(0.8, 0.8, 0), new Vector(0, 0, -1)));
+        assertSame(mesh.getSurface(2), hit.geometry, "getSurface() failed, wrong surface of the hit face");
+        assertSame(emission, hit.geometry.getEmission(), "getSurface() failed, wrong emission");
+        assertEquals(new Vector(0, 0, 1), hit.getNormal(), "getSurface() failed, wrong normal");
+
+        // TC02: The other face is on the default surface
+        hit = mesh.findClosestGeoIntersection(new Ray(new Point(0.2, 0.2, 0), new Vector(0, 0, -1)));
+        assertSame(mesh.getSurface(0), hit.geometry, "getSurface() failed, wrong surface of the hit face");
+
+        // TC03: The normal of a point of a surface given alone is the normal of its face
+        assertEquals(new Vector(0, 0, 1), mesh.getSurface(2).getNormal(new Point(0.8, 0.8, -1)),
+                "getNormal() failed, wrong normal of the surface");
+
+        // TC04: A point over a face of another surface is not on the surface
+        assertThrows(IllegalArgumentException.class, () -> mesh.getSurface(2).getNormal(new Point(0.2, 0.2, -1)),
+                "getNormal() must not accept a point off the surface");
+
+        // =============== Boundary Values Tests ==================
+        // TC05: Surface beyond the ones of the faces
+        assertThrows(IllegalArgumentException.class, () -> mesh.getSurface(3),
+                "getSurface() must not accept an index beyond the surfaces");
+    }
+
+    /**
+     * Test method for {@link geometries.Intersectable#findGeoIntersections(Ray)},
+     * {@link geometries.Intersectable#findClosestGeoIntersection(Ray)} and
+     * {@link geometries.Intersectable#findTransparency(Ray, double, double)}.
+     */
+    @Test
+    void testFindIntersections() {
+        int size = 30;
+        double[] positions = Terrain.positions(size);
+        int[] indices = Terrain.indices(size);
+        int[] faceSurfaces = new int[indices.length / 3];
+        for (int face = 0; face < faceSurfaces.length; ++face)
+            faceSurfaces[face] = face % 2;
+        TriangleMesh mesh = new TriangleMesh(positions, indices, faceSurfaces);
+        mesh.getSurface(1).setMaterial(new Material().setKt(0.5));
+        Geometries triangles = new Geometries();
+        for (int face = 0; face < indices.length / 3; ++face) {
+            Triangle triangle = new Triangle(Terrain.vertex(positions, indices[3 * face]),
+                    Terrain.vertex(positions, indices[3 * face + 1]), Terrain.vertex(positions, indices[3 * face + 2]));
+            triangle.setMaterial(mesh.getSurface(faceSurfaces[face]).getMaterial());
+            triangles.add(triangle);
+        }
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The same hits, normals and transparency as separate triangles
+        Random random = new Random(19);
+        for (int i = 0; i < 500; ++i) {
+            Ray ray = new Ray(new Point(random.nextDouble() * size, random.nextDouble() * size, 3),
+                    new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, i % 5 == 0 ? 1 : -1));
+            List<GeoPoint> expected = sorted(triangles.findGeoIntersections(ray));
+            List<GeoPoint> result = sorted(mesh.findGeoIntersections(ray));
+            assertEquals(expected.size(), result.size(), "findGeoIntersections() failed, wrong number of points");
+            for (int k = 0; k < expected.size(); ++k) {
+                assertEquals(expected.get(k).point, result.get(k).point, "findGeoIntersections() failed, wrong point");
+                assertEquals(expected.get(k).getNormal(), result.get(k).getNormal(),
+                        "findGeoIntersections() failed, wrong normal");
+            }
+            GeoPoint closest = mesh.findClosestGeoIntersection(ray);
+            assertEquals(expected.isEmpty() ? null : expected.get(0).point, closest == null ? null : closest.point,
+                    "findClosestGeoIntersection() failed, wrong closest point");
+            assertEquals(triangles.findTransparency(ray, 10, 0.001), mesh.findTransparency(ray, 10, 0.001),
+                    "findTransparency() failed, wrong transparency");
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC02: Ray through a shared vertex of the faces - no face owns the border
+        assertNull(mesh.findGeoIntersections(new Ray(new Point(5, 5, 3), new Vector(0, 0, -1))),
+                "findGeoIntersections() failed, a vertex is on the border of the faces");
+    }
+
+    /**
+     * Compares the storage of a mesh with the storage of separate triangles, counting only the coordinates,
+     * indices and node data they keep - the object headers and references of the triangles only widen the gap
+     */
+    @Test
+    void testMemory() {
+        int size = 100;
+        TriangleMesh mesh = new TriangleMesh(Terrain.positions(size), Terrain.indices(size));
+        // a triangle keeps its three vertices, its first vertex and two edges for the intersection test,
+        // the point and the normal of its plane and its bounding box
+        long trianglesBytes = 30L * Double.BYTES * mesh.getFaceCount();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The mesh takes at least three times less storage than the triangles
+        assertTrue(trianglesBytes >= 3 * mesh.getStorageBytes(), "TriangleMesh() failed, the mesh takes too much memory");
+    }
+
+    /**
+     * Sorts intersections by their distance from the ray head, an empty list for no intersections
+     *
+     * @param points the intersections, may be null
+     * @return the sorted intersections
+     */
+    private static List<GeoPoint> sorted(List<GeoPoint> points) {
+        return points == null ? List.of() : points.stream().sorted(Comparator.comparingDouble(gp -> gp.t)).toList();
+    }
+}
@@ -5,6 +5,8 @@ import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
 
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -109,4 +111,50 @@ class TriangleTests {
         assertNull(tr.findIntersections(ray),
                 "testFindIntersections() failed, On edge's continuation");
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link geometries.Triangle#intersect(primitives.Ray, double[])}.
+     */
+    @Test
+    void testIntersect() {
+        Point p1 = new Point(1, 0, 0), p2 = new Point(1, 5, 0), p3 = new Point(6, 0, 0);
+        Triangle tr = new Triangle(p1, p2, p3);
+        double[] barycentric = new double[2];
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Inside triangle - the distance and the barycentric coordinates give the hit point
+        Ray ray = new Ray(new Point(3, 3, 2), new Vector(-1, -1, -4));
+        double t = tr.intersect(ray, barycentric);
+        Point expected = ray.getPoint(t);
+        Point weighted = new Point(
+                p1.getX() + barycentric[0] * (p2.getX() - p1.getX()) + barycentric[1] * (p3.getX() - p1.getX()),
+                p1.getY() + barycentric[0] * (p2.getY() - p1.getY()) + barycentric[1] * (p3.getY() - p1.getY()),
+                0);
+        assertEquals(tr.findIntersections(ray).get(0), expected, "testIntersect() failed, wrong distance");
+        assertEquals(expected, weighted, "testIntersect() failed, wrong barycentric coordinates");
+
+        // TC02: The same hits as the general polygon test over many rays
+        Polygon polygon = new Polygon(p1, p2, p3);
+        Random random = new Random(7);
+        Ray[] rays = new Ray[2000];
+        for (int i = 0; i < rays.length; ++i)
+            rays[i] = new Ray(new Point(random.nextDouble() * 8 - 1, random.nextDouble() * 8 - 1, 3),
+                    new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1));
+        for (Ray r : rays) {
+            var expectedPoints = polygon.findIntersections(r);
+            var points = tr.findIntersections(r);
+            assertEquals(expectedPoints == null, points == null, "testIntersect() failed, hit differs for " + r);
+            if (points != null)
+                assertEquals(expectedPoints.get(0), points.get(0), "testIntersect() failed, point differs for " + r);
+        }
+
+        // TC03: Behind the ray head
+        assertEquals(Double.POSITIVE_INFINITY, tr.intersect(new Ray(new Point(3, 1, -2), new Vector(0, 0, -1)), null),
+                "testIntersect() failed, triangle behind the ray");
+
+        // =============== Boundary Values Tests ==================
+        // TC04: Ray parallel to the triangle plane
+        assertEquals(Double.POSITIVE_INFINITY, tr.intersect(new Ray(new Point(0, 1, 0), new Vector(1, 0, 0)), null),
+                "testIntersect() failed, ray parallel to the triangle");
+    }
+}
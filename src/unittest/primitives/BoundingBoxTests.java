@@ -0,0 +1,69 @@
+package primitives;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for primitives.BoundingBox class
+ */
+public class BoundingBoxTests {
+
+    /**
+     * Test method for {@link primitives.BoundingBox#intersect(primitives.Ray, double)}.
+     */
+    @Test
+    void testIntersect() {
+        BoundingBox box = new BoundingBox(new Point(1, 1, 1), new Point(3, 3, 3));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray crosses the box
+        assertEquals(1, box.intersect(new Ray(new Point(2, 2, 0), new Vector(0, 0, 1)), Double.POSITIVE_INFINITY),
+                1e-5, "testIntersect() failed, Ray crosses the box");
+
+        // TC02: Ray misses the box
+        assertEquals(Double.POSITIVE_INFINITY,
+                box.intersect(new Ray(new Point(5, 2, 0), new Vector(0, 0, 1)), Double.POSITIVE_INFINITY),
+                "testIntersect() failed, Ray misses the box");
+
+        // TC03: Ray points away from the box
+        assertEquals(Double.POSITIVE_INFINITY,
+                box.intersect(new Ray(new Point(2, 2, 0), new Vector(0, 0, -1)), Double.POSITIVE_INFINITY),
+                "testIntersect() failed, Ray points away from the box");
+
+        // TC04: Ray starts inside the box
+        assertEquals(0, box.intersect(new Ray(new Point(2, 2, 2), new Vector(1, 1, 0)), Double.POSITIVE_INFINITY),
+                "testIntersect() failed, Ray starts inside the box");
+
+        // =============== Boundary Values Tests ==================
+        // TC05: The box is beyond the maximal distance
+        assertEquals(Double.POSITIVE_INFINITY,
+                box.intersect(new Ray(new Point(2, 2, 0), new Vector(0, 0, 1)), 0.5),
+                "testIntersect() failed, The box is beyond the maximal distance");
+
+        // TC06: Ray runs inside a flat box
+        BoundingBox flat = new BoundingBox(new Point(0, 0, 0), new Point(2, 0, 2));
+        assertEquals(1, flat.intersect(new Ray(new Point(-1, 0, 1), new Vector(1, 0, 0)), Double.POSITIVE_INFINITY),
+                1e-5, "testIntersect() failed, Ray runs inside a flat box");
+    }
+
+    /**
+     * Test method for {@link primitives.BoundingBox#union(primitives.BoundingBox)}.
+     */
+    @Test
+    void testUnion() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Union of two disjoint boxes
+        BoundingBox box = new BoundingBox(0, 0, 0, 1, 1, 1).union(new BoundingBox(2, -1, 0, 3, 0, 4));
+        assertEquals(0, box.getMin(0), 1e-5, "testUnion() failed, wrong minimal x");
+        assertEquals(-1, box.getMin(1), 1e-5, "testUnion() failed, wrong minimal y");
+        assertEquals(3, box.getMax(0), 1e-5, "testUnion() failed, wrong maximal x");
+        assertEquals(4, box.getMax(2), 1e-5, "testUnion() failed, wrong maximal z");
+        assertEquals(2 * (3 * 2 + 2 * 4 + 4 * 3), box.surfaceArea(), 1e-5, "testUnion() failed, wrong surface area");
+
+        // =============== Boundary Values Tests ==================
+        // TC02: Minimal coordinates bigger than the maximal ones
+        assertThrows(IllegalArgumentException.class, () -> new BoundingBox(1, 0, 0, 0, 1, 1),
+                "testUnion() failed, inverted box must throw");
+    }
+}
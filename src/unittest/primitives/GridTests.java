@@ -0,0 +1,81 @@
+package primitives;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for primitives.Grid class
+ */
+public class GridTests {
+
+    /**
+     * Test method for {@link primitives.Grid#circleGrid(double[], primitives.Point, primitives.Vector)}.
+     */
+    @Test
+    void testCircleGrid() {
+        Point center = new Point(1, 2, 3);
+        Vector normal = new Vector(1, 2, 2);
+        double[] offsets = Grid.constructCircleOffsets(17, 2);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The turned grid has the same points as the grid built directly
+        List<Point> grid = Grid.circleGrid(offsets, center, normal);
+        assertEquals(offsets.length / 2, grid.size(), "testCircleGrid() failed, wrong amount of points");
+        assertEquals(Grid.constructCircleGrid(17, center, 2, new Vector(0, 1, 0), new Vector(1, 0, 0)).size(),
+                grid.size(), "testCircleGrid() failed, different amount of points than constructCircleGrid");
+
+        // TC02: All the points are on the disk orthogonal to the normal
+        for (Point p : grid) {
+            assertTrue(p.distanceSquared(center) <= 4 + 1e-10, "testCircleGrid() failed, point outside the circle");
+            if (!p.equals(center))
+                assertEquals(0, p.subtract(center).dotProduct(normal), 1e-10,
+                        "testCircleGrid() failed, point is not on the circle plane");
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC03: Normal along a coordinate axis
+        for (Point p : Grid.circleGrid(offsets, center, new Vector(0, 0, 1)))
+            assertEquals(3, p.getZ(), 1e-10, "testCircleGrid() failed, point is not on the z = 3 plane");
+
+        // TC04: Zero radius - only the center
+        assertEquals(List.of(center), Grid.circleGrid(Grid.constructCircleOffsets(17, 0), center, normal),
+                "testCircleGrid() failed, zero radius must give the center only");
+    }
+
+    /**
+     * Test method for {@link primitives.Grid#sampleCircleOffsets(Sampler, int, long, double)}.
+     */
+    @Test
+    void testSampleCircleOffsets() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: All the offsets of every sampler are on the disk
+        for (Sampler sampler : Sampler.values()) {
+            double[] offsets = Grid.sampleCircleOffsets(sampler, 32, 11, 2);
+            assertEquals(64, offsets.length, "sampleCircleOffsets() failed, wrong amount of offsets");
+            for (int i = 0; i < offsets.length; i += 2)
+                assertTrue(offsets[i] * offsets[i] + offsets[i + 1] * offsets[i + 1] <= 4 + 1e-10,
+                        "sampleCircleOffsets() failed, " + sampler + " offset outside the circle");
+        }
+
+        // TC02: The probe set at the head of the offsets of every sampler reaches every quadrant of the disk
+        for (Sampler sampler : Sampler.values())
+            for (int count : new int[]{16, 32, 64, 100})
+                for (long scramble : new long[]{0, 3, 0x123456789ABCDEFL}) {
+                    double[] offsets = Grid.sampleCircleOffsets(sampler, count, scramble, 1);
+                    boolean[] quadrants = new boolean[4];
+                    for (int i = 0; i < Grid.getProbeSize(); i++)
+                        quadrants[(offsets[2 * i] < 0 ? 0 : 1) + (offsets[2 * i + 1] < 0 ? 0 : 2)] = true;
+                    for (boolean quadrant : quadrants)
+                        assertTrue(quadrant, "sampleCircleOffsets() failed, the " + sampler + " probes of "
+                                + count + " offsets miss a quadrant");
+                }
+
+        // =============== Boundary Values Tests ==================
+        // TC03: No offsets
+        assertThrows(IllegalArgumentException.class, () -> Grid.sampleCircleOffsets(Sampler.JITTERED, 0, 0, 1),
+                "sampleCircleOffsets() must not accept zero offsets");
+    }
+}
@@ -0,0 +1,180 @@
+package primitives;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for primitives.Sampler class
+ */
+class SamplerTests {
+
+    /**
+     * Test method for {@link primitives.Sampler#sample(int, int, long, double[])}.
+     */
+    @Test
+    void testSample() {
+        double[] uv = new double[2];
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Every sample of every sampler is in the unit square, for plain and scrambled sequences
+        for (Sampler sampler : Sampler.values())
+            for (long scramble : new long[]{0, -1, 0x123456789ABCDEFL})
+                for (int i = 0; i < 100; i++) {
+                    sampler.sample(i, 100, scramble, uv);
+                    assertTrue(uv[0] >= 0 && uv[0] < 1 && uv[1] >= 0 && uv[1] < 1,
+                            "sample() failed, " + sampler + " sample outside the square");
+                }
+
+        // TC02: The plain Halton sequence
+        Sampler.HALTON.sample(5, 8, 0, uv);
+        assertEquals(0.625, uv[0], 1e-12, "sample() failed, wrong Halton base 2 value");
+        assertEquals(7.0 / 9, uv[1], 1e-12, "sample() failed, wrong Halton base 3 value");
+
+        // TC03: Every power of 2 long run of Sobol samples has a single sample in every cell of
+        // every grid of 2^k by 2^(m-k) cells, also when scrambled
+        for (long scramble : new long[]{0, 0x5DEECE66DL * 0x9E3779B97F4A7C15L})
+            for (int k = 0; k <= 6; k++) {
+                boolean[] cells = new boolean[64];
+                for (int i = 64; i < 128; i++) {
+                    Sampler.SOBOL.sample(i, 64, scramble, uv);
+                    int cell = (int) (uv[0] * (1 << k)) * (64 >> k) + (int) (uv[1] * (64 >> k));
+                    assertFalse(cells[cell], "sample() failed, two Sobol samples in a cell of 2^" + k + " columns");
+                    cells[cell] = true;
+                }
+            }
+
+        // TC04: The jittered samples fill the cells of equal area one by one, for a square amount of samples
+        // and for an amount with a partial last row of wider cells
+        boolean[] cells = new boolean[16];
+        for (int i = 0; i < 16; i++) {
+            Sampler.JITTERED.sample(i, 16, 77, uv);
+            int cell = (int) (uv[0] * 4) * 4 + (int) (uv[1] * 4);
+            assertFalse(cells[cell], "sample() failed, two jittered samples in a cell");
+            cells[cell] = true;
+        }
+        int[] perRow = new int[3];
+        for (int i = 0; i < 10; i++) {
+            Sampler.JITTERED.sample(i, 10, 5, uv);
+            perRow[uv[1] < 0.4 ? 0 : uv[1] < 0.8 ? 1 : 2]++;
+        }
+        assertEquals(4, perRow[0], "sample() failed, wrong amount of jittered samples in the first row");
+        assertEquals(4, perRow[1], "sample() failed, wrong amount of jittered samples in the second row");
+        assertEquals(2, perRow[2], "sample() failed, wrong amount of jittered samples in the partial row");
+
+        // TC05: The same scrambling gives the same samples, another scrambling different ones
+        double[] other = new double[2];
+        for (Sampler sampler : Sampler.values()) {
+            sampler.sample(3, 16, 42, uv);
+            sampler.sample(3, 16, 42, other);
+            assertEquals(uv[0], other[0], 0, "sample() failed, " + sampler + " is not deterministic");
+            sampler.sample(3, 16, 43, other);
+            assertTrue(uv[0] != other[0] || uv[1] != other[1], "sample() failed, " + sampler + " is not scrambled");
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC06: The first sample of the plain sequences is the corner of the square
+        for (Sampler sampler : new Sampler[]{Sampler.HALTON, Sampler.SOBOL}) {
+            sampler.sample(0, 1, 0, uv);
+            assertEquals(0, uv[0], 0, "sample() failed, wrong first sample of " + sampler);
+            assertEquals(0, uv[1], 0, "sample() failed, wrong first sample of " + sampler);
+        }
+    }
+
+    /**
+     * Test method for {@link primitives.Sampler#toDisk(double[])}.
+     */
+    @Test
+    void testToDisk() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A point inside the square is mapped into the disk, keeping its quadrant
+        double[] uv = {0.9, 0.6};
+        Sampler.toDisk(uv);
+        assertTrue(uv[0] * uv[0] + uv[1] * uv[1] <= 1, "toDisk() failed, point outside the disk");
+        assertTrue(uv[0] > 0 && uv[1] > 0, "toDisk() failed, wrong quadrant");
+
+        // =============== Boundary Values Tests ==================
+        // TC02: The center of the square is the center of the disk
+        uv = new double[]{0.5, 0.5};
+        Sampler.toDisk(uv);
+        assertEquals(0, uv[0], 1e-12, "toDisk() failed, wrong center");
+        assertEquals(0, uv[1], 1e-12, "toDisk() failed, wrong center");
+
+        // TC03: The edge of the square is the rim of the disk
+        uv = new double[]{1, 0.5};
+        Sampler.toDisk(uv);
+        assertEquals(1, uv[0], 1e-12, "toDisk() failed, wrong rim point");
+        assertEquals(0, uv[1], 1e-12, "toDisk() failed, wrong rim point");
+    }
+
+    /**
+     * Test method for {@link primitives.Sampler#scramble(Sampler.Site)}.
+     */
+    @Test
+    void testScramble() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The scrambling depends on the pixel, the sample and the use site
+        SamplingRandom.seed(7, 10, 20, 0);
+        long pixel = Sampler.scramble(Sampler.Site.PIXEL), light = Sampler.scramble(Sampler.Site.LIGHT_DISK);
+        assertTrue(pixel != light, "scramble() failed, the use sites must differ");
+        SamplingRandom.seed(7, 20, 10, 0);
+        assertTrue(pixel != Sampler.scramble(Sampler.Site.PIXEL), "scramble() failed, the pixels must differ");
+        SamplingRandom.seed(7, 10, 20, 1);
+        assertTrue(pixel != Sampler.scramble(Sampler.Site.PIXEL), "scramble() failed, the samples must differ");
+
+        // TC02: The same pixel sample gives the same scrambling
+        SamplingRandom.seed(7, 10, 20, 0);
+        assertEquals(pixel, Sampler.scramble(Sampler.Site.PIXEL), "scramble() failed, not deterministic");
+    }
+
+    /**
+     * Estimates the lit fraction of a light disk behind the edge of an occluder, as the soft shadows do,
+     * by a fixed grid and by the Sobol sampler. The edge moves slightly between the pixels of a 3x3 neighbourhood,
+     * and the root mean square error of the neighbourhood average - the error seen in the image - is compared.
+     * The errors of a fixed grid repeat in neighbouring pixels as bands,
+     * while the scrambled errors are independent noise that averages out.
+     */
+    @Test
+    void testConvergence() {
+        int edges = 2000;
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Sobol samples are more accurate than a fixed grid of twice as many samples
+        double[] grid = Grid.constructCircleOffsets(13, 1);
+        assertTrue(grid.length / 2 >= 128, "testConvergence() failed, wrong grid size");
+        assertTrue(error(edges, Sampler.SOBOL, new double[2 * 64]) < error(edges, null, grid),
+                "testConvergence() failed, Sobol samples are less accurate than the fixed grid");
+    }
+
+    /**
+     * Computes the root mean square error of the lit fraction of the unit disk behind random straight edges,
+     * averaged over the 3x3 pixels around every edge
+     *
+     * @param edges   the amount of edges
+     * @param sampler the sampler, null for the fixed grid
+     * @param offsets the offsets of the fixed grid, or an array of the size of the sampled offsets
+     * @return the error
+     */
+    private static double error(int edges, Sampler sampler, double[] offsets) {
+        java.util.Random random = new java.util.Random(24);
+        double sum = 0;
+        for (int e = 0; e < edges; e++) {
+            double angle = random.nextDouble() * 2 * Math.PI, center = random.nextDouble() * 1.8 - 0.9;
+            double nx = Math.cos(angle), ny = Math.sin(angle);
+            double diff = 0;
+            for (int pixel = 0; pixel < 9; pixel++) {
+                double distance = center + (pixel - 4) * 0.005;
+                if (sampler != null)
+                    offsets = Grid.sampleCircleOffsets(sampler, offsets.length / 2, random.nextLong(), 1);
+                int lit = 0;
+                for (int i = 0; i < offsets.length; i += 2)
+                    if (offsets[i] * nx + offsets[i + 1] * ny < distance) lit++;
+                // the exact lit area of the unit disk below the edge
+                double exact = (Math.PI - Math.acos(distance) + distance * Math.sqrt(1 - distance * distance)) / Math.PI;
+                diff += ((double) lit / (offsets.length / 2) - exact) / 9;
+            }
+            sum += diff * diff;
+        }
+        return Math.sqrt(sum / edges);
+    }
+}
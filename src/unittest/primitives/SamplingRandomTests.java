@@ -0,0 +1,114 @@
+package primitives;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for primitives.SamplingRandom class
+ */
+class SamplingRandomTests {
+
+    /**
+     * Test method for {@link primitives.SamplingRandom#next()}.
+     */
+    @Test
+    void testNext() throws Exception {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The numbers are in [0, 1) and spread evenly
+        SamplingRandom.seed(1, 2, 3, 4);
+        int[] bins = new int[10];
+        for (int i = 0; i < 100_000; i++) {
+            double number = SamplingRandom.next();
+            assertTrue(number >= 0 && number < 1, "next() failed, number out of range");
+            bins[(int) (number * 10)]++;
+        }
+        for (int bin : bins)
+            assertEquals(10_000, bin, 500, "next() failed, the numbers are not uniform");
+
+        // TC02: The same seed and pixel sample repeat the stream, any other one changes it
+        double[] first = draw(1, 2, 3, 4);
+        assertArrayEquals(first, draw(1, 2, 3, 4), "next() failed, the stream is not repeated");
+        for (double[] other : new double[][]{draw(9, 2, 3, 4), draw(1, 3, 2, 4), draw(1, 2, 3, 5)})
+            assertNotEquals(first[0], other[0], "next() failed, the stream must depend on the seed, pixel and sample");
+
+        // TC03: The stream does not depend on the thread drawing it
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<double[]> other = pool.submit(() -> draw(1, 2, 3, 4));
+            pool.submit(() -> draw(5, 6, 7, 8)).get();
+            assertArrayEquals(first, other.get(), "next() failed, the stream depends on the thread");
+        } finally {
+            pool.shutdown();
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC04: Util.random draws from the stream of the thread
+        SamplingRandom.seed(1, 2, 3, 4);
+        assertEquals(first[0] * 2 - 1, Util.random(-1, 1), 1e-15, "random() failed, not drawn from the stream");
+    }
+
+    /**
+     * Test method for {@link primitives.SamplingRandom#split(long)}.
+     */
+    @Test
+    void testSplit() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The sub-streams differ from each other and do not draw from the stream
+        SamplingRandom.seed(1, 2, 3, 4);
+        long first = SamplingRandom.split(0), second = SamplingRandom.split(1);
+        double number = SamplingRandom.next();
+        assertNotEquals(first, second, "split() failed, the sub-streams must differ");
+        assertEquals(draw(1, 2, 3, 4)[0], number, 0, "split() failed, the stream changed");
+        SamplingRandom.seed(1, 2, 3, 4);
+        assertEquals(first, SamplingRandom.split(0), "split() failed, not deterministic");
+    }
+
+    /**
+     * Test method for the thread-local streams of {@link primitives.SamplingRandom#next()}.
+     */
+    @Test
+    void testThreads() throws Exception {
+        int threads = 4;
+        List<Callable<double[]>> tasks = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int sample = t;
+            tasks.add(() -> draw(3, 2, 1, sample));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            // ============ Equivalence Partitions Tests ==============
+            // TC01: Threads drawing at once from their streams draw the same numbers as a thread alone
+            List<Future<double[]>> results = pool.invokeAll(tasks);
+            for (int t = 0; t < threads; t++)
+                assertArrayEquals(draw(3, 2, 1, t), results.get(t).get(),
+                        "next() failed, the stream depends on the thread");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Draws the first numbers of the stream of a pixel sample on the calling thread
+     *
+     * @param seed   the seed
+     * @param col    the column of the pixel
+     * @param row    the row of the pixel
+     * @param sample the index of the sample
+     * @return the numbers
+     */
+    private static double[] draw(long seed, int col, int row, int sample) {
+        SamplingRandom.seed(seed, col, row, sample);
+        double[] numbers = new double[16];
+        for (int i = 0; i < numbers.length; i++)
+            numbers[i] = SamplingRandom.next();
+        return numbers;
+    }
+}
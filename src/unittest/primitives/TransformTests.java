@@ -0,0 +1,86 @@
+package primitives;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for primitives.Transform class
+ */
+class TransformTests {
+
+    /**
+     * Test method for {@link primitives.Transform#Transform(double...)}.
+     */
+    @Test
+    void testConstructor() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Invertible matrix
+        assertDoesNotThrow(() -> new Transform(2, 1, 0, 1, 0, 1, 0, 2, 0, 0, 3, 3),
+                "Transform() failed for an invertible matrix");
+
+        // TC02: Wrong amount of elements
+        assertThrows(IllegalArgumentException.class, () -> new Transform(1, 0, 0, 0, 1, 0, 0, 0, 1),
+                "Transform() must not accept a 3x3 matrix");
+
+        // =============== Boundary Values Tests ==================
+        // TC03: Singular matrix
+        assertThrows(IllegalArgumentException.class, () -> Transform.scaling(1, 0, 1),
+                "Transform() must not accept a singular matrix");
+    }
+
+    /**
+     * Test method for {@link primitives.Transform#transformPoint(Point)},
+     * {@link primitives.Transform#transformVector(Vector)} and {@link primitives.Transform#transformNormal(Vector)}.
+     */
+    @Test
+    void testTransform() {
+        Transform rotation = Transform.rotation(new Vector(0, 0, 1), 90);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Rotation of a point, counterclockwise about z
+        assertEquals(new Point(-2, 1, 3), rotation.transformPoint(new Point(1, 2, 3)),
+                "transformPoint() failed, wrong rotation");
+
+        // TC02: Translation moves points but not directions
+        Transform translation = Transform.translation(new Vector(1, 2, 3));
+        assertEquals(new Point(2, 3, 4), translation.transformPoint(new Point(1, 1, 1)),
+                "transformPoint() failed, wrong translation");
+        assertEquals(new Vector(1, 1, 1), translation.transformVector(new Vector(1, 1, 1)),
+                "transformVector() failed, translation moved a direction");
+
+        // TC03: A normal stays orthogonal to the surface under a non-uniform scaling
+        Transform scaling = Transform.scaling(1, 4, 1);
+        Vector tangent = scaling.transformVector(new Vector(1, -1, 0));
+        Vector normal = scaling.transformNormal(new Vector(1, 1, 0));
+        assertEquals(0, tangent.dotProduct(normal), 1e-12, "transformNormal() failed, normal is not orthogonal");
+        assertEquals(1, normal.length(), 1e-12, "transformNormal() failed, normal is not normalized");
+    }
+
+    /**
+     * Test method for {@link primitives.Transform#then(Transform)} and {@link primitives.Transform#inverse()}.
+     */
+    @Test
+    void testComposition() {
+        Transform transform = Transform.scaling(2, 3, 4)
+                .then(Transform.rotation(new Vector(1, 1, 0), 30))
+                .then(Transform.translation(new Vector(-1, 5, 2)));
+        Point p = new Point(0.5, -2, 7);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The composition applies the transforms in order
+        Point expected = new Point(1, -6, 28);
+        expected = Transform.rotation(new Vector(1, 1, 0), 30).transformPoint(expected);
+        expected = Transform.translation(new Vector(-1, 5, 2)).transformPoint(expected);
+        assertEquals(expected, transform.transformPoint(p), "then() failed, wrong composition");
+
+        // TC02: The inverse takes the point back
+        assertEquals(p, transform.inverse().transformPoint(transform.transformPoint(p)),
+                "inverse() failed, the point did not come back");
+
+        // =============== Boundary Values Tests ==================
+        // TC03: Composition with the identity
+        assertEquals(p, Transform.IDENTITY.then(Transform.IDENTITY).transformPoint(p),
+                "then() failed, identity moved the point");
+    }
+}
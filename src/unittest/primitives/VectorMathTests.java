@@ -0,0 +1,53 @@
+package primitives;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static primitives.VectorMath.*;
+
+/**
+ * Unit tests for primitives.VectorMath class
+ */
+class VectorMathTests {
+
+    /**
+     * Test method for {@link primitives.VectorMath#crossX(double, double, double, double)},
+     * {@link primitives.VectorMath#crossY(double, double, double, double)} and
+     * {@link primitives.VectorMath#crossZ(double, double, double, double)}.
+     */
+    @Test
+    void testCross() {
+        Vector v1 = new Vector(1, 2, 3);
+        Vector v2 = new Vector(0, 3, -2);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The same result as the vector cross product
+        assertEquals(v1.crossProduct(v2),
+                new Vector(crossX(2, 3, 3, -2), crossY(1, 3, 0, -2), crossZ(1, 2, 0, 3)),
+                "testCross() wrong result");
+
+        // =============== Boundary Values Tests ==================
+        // TC02: Parallel vectors give the zero vector
+        assertTrue(isZeroVector(crossX(2, 3, -4, -6), crossY(1, 3, -2, -6), crossZ(1, 2, -2, -4)),
+                "testCross() parallel vectors must give the zero vector");
+    }
+
+    /**
+     * Test method for {@link primitives.VectorMath#dotNormalized(double, double, double, double, double, double)}.
+     */
+    @Test
+    void testDotNormalized() {
+        Vector v1 = new Vector(1, 2, 3);
+        Vector v2 = new Vector(0, 3, -2);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The same result as the dot product with the normalized vector
+        assertEquals(v1.dotProduct(v2.normalize()), dotNormalized(1, 2, 3, 0, 3, -2),
+                "testDotNormalized() wrong result");
+        assertEquals(v1.dotProduct(v2), dot(1, 2, 3, 0, 3, -2), "testDotNormalized() wrong dot product");
+
+        // =============== Boundary Values Tests ==================
+        // TC02: The zero vector has no direction
+        assertEquals(0, dotNormalized(1, 2, 3, 0, 0, 0), "testDotNormalized() zero vector must give 0");
+    }
+}
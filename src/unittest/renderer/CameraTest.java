@@ -1,9 +1,20 @@
 package renderer;
 
+import geometries.Sphere;
+import geometries.Triangle;
+import lighting.AmbientLight;
+import lighting.PointLight;
 import org.junit.jupiter.api.Test;
-import primitives.Ray;
-import primitives.Vector;
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import primitives.*;
+import scene.Scene;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
 import static primitives.Point.ZERO_POINT;
 
 /**
@@ -53,4 +64,236 @@ public class CameraTest {
                 camera.setVPSize(8, 8).constructRay(4, 4, 1, 0), badRay);
     }
 
+    /**
+     * Image writer that keeps the written pixels in memory instead of a file
+     */
+    private static class PixelsWriter extends ImageWriter {
+        /**
+         * The written pixels, row by row
+         */
+        final int[] pixels;
+
+        /**
+         * Constructs the writer
+         *
+         * @param nX amount of pixels by width
+         * @param nY amount of pixels by height
+         */
+        PixelsWriter(int nX, int nY) {
+            super("pixels", nX, nY);
+            pixels = new int[nX * nY];
+        }
+
+        @Override
+        public void writePixel(int xIndex, int yIndex, Color color) {
+            pixels[yIndex * getNx() + xIndex] = color.getColor().getRGB();
+        }
+    }
+
+    /**
+     * Builds a small scene with soft shadows
+     *
+     * @return the scene
+     */
+    private static Scene scene() {
+        Scene scene = new Scene("Test scene").setAmbientLight(new AmbientLight(new Color(50, 50, 50), Double3.ONE));
+        scene.geometries.add(new Sphere(30, new Point(0, 0, -100)).setEmission(new Color(0, 0, 100))
+                        .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(30)),
+                new Triangle(new Point(-150, -150, -150), new Point(150, -150, -150), new Point(0, 150, -150))
+                        .setMaterial(new Material().setKd(0.5).setKt(0.2)));
+        scene.addLight(new PointLight(new Color(400, 300, 300), new Point(40, 40, 50), 5).setKl(1e-4));
+        return scene;
+    }
+
+    /**
+     * Builds a camera of the small scene, rendering into memory
+     *
+     * @param writer the image writer
+     * @return the camera
+     */
+    private static Camera camera(PixelsWriter writer) {
+        return new Camera(new Point(0, 0, 500), new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVPSize(200, 160).setVPDistance(500)
+                .setRayTracer(new RayTracerBasic(scene()))
+                .setImageWriter(writer);
+    }
+
+    /**
+     * Renders the small scene into memory
+     *
+     * @param threads  the amount of rendering threads
+     * @param tileSize the tile size
+     * @param order    the render order
+     * @return the rendered pixels
+     */
+    private static int[] render(int threads, int tileSize, RenderOrder order) {
+        PixelsWriter writer = new PixelsWriter(37, 29);
+        camera(writer).setMultiThreading(threads).setTileSize(tileSize).setRenderOrder(order).renderImage();
+        return writer.pixels;
+    }
+
+    /**
+     * Test method for {@link renderer.Camera#renderImage()} with a pool of rendering threads.
+     */
+    @Test
+    void testRenderImageMultiThreading() {
+        int[] expected = render(0, 16, RenderOrder.TILES);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Several threads and tiles render the same image as a single thread
+        assertArrayEquals(expected, render(4, 8, RenderOrder.TILES), "renderImage() failed, multi-threaded image differs");
+
+        // =============== Boundary Values Tests ==================
+        // TC02: One thread with one-pixel tiles
+        assertArrayEquals(expected, render(1, 1, RenderOrder.TILES), "renderImage() failed, one-pixel tiles image differs");
+
+        // TC03: A tile bigger than the image
+        assertArrayEquals(expected, render(3, 100, RenderOrder.TILES), "renderImage() failed, one tile image differs");
+    }
+
+    /**
+     * Test method for {@link renderer.Camera#renderImage()} rendering again after the scene changed,
+     * and for {@link renderer.RayTracerBase#freeze()}.
+     */
+    @Test
+    void testRenderImageAfterChange() {
+        Scene scene = scene();
+        RayTracerBasic tracer = new RayTracerBasic(scene);
+        PixelsWriter writer = new PixelsWriter(37, 29);
+        Camera camera = camera(writer).setRayTracer(tracer).setMultiThreading(2);
+        camera.renderImage();
+        int[] before = writer.pixels.clone();
+        Ray corner = new Ray(new Point(0, 0, 500), new Vector(-100, 80, -500));
+        RayTracerBase bound = tracer.freeze();
+        Double3 background = bound.traceRay(corner).getRgb();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Every render takes its own snapshot, so it shows the changes of the scene since the last one
+        scene.setBackground(new Color(0, 255, 0));
+        camera.renderImage();
+        assertFalse(java.util.Arrays.equals(before, writer.pixels), "renderImage() failed, the change of the scene is missing");
+
+        // TC02: A ray tracer bound to a snapshot keeps tracing in the snapshot
+        assertEquals(background, bound.traceRay(corner).getRgb(), "traceRay() failed, the snapshot changed");
+        assertEquals(new Double3(0, 255, 0), tracer.freeze().traceRay(corner).getRgb(),
+                "freeze() failed, a new snapshot must see the change");
+
+        // =============== Boundary Values Tests ==================
+        // TC03: A ray tracer not bound to a snapshot does not trace
+        assertThrows(IllegalStateException.class, () -> tracer.traceRay(corner),
+                "traceRay() must not trace before the ray tracer is bound to a snapshot");
+    }
+
+    /**
+     * Test method for {@link renderer.Camera#setSeed(long)}.
+     */
+    @Test
+    void testSeed() {
+        int[] expected = renderSampled(0, RenderOrder.SCANLINE, 5);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A sampled rendering with the same seed is identical whatever the threads and the order
+        assertArrayEquals(expected, renderSampled(0, RenderOrder.SCANLINE, 5), "renderImage() failed, not reproducible");
+        assertArrayEquals(expected, renderSampled(3, RenderOrder.HILBERT, 5),
+                "renderImage() failed, multi-threaded sampled image differs");
+
+        // TC02: Another seed gives other samples
+        assertFalse(java.util.Arrays.equals(expected, renderSampled(0, RenderOrder.SCANLINE, 6)),
+                "renderImage() failed, the seed must change the samples");
+    }
+
+    /**
+     * Renders the small scene into memory with jittered antialiasing and soft shadows
+     *
+     * @param threads the amount of rendering threads
+     * @param order   the render order
+     * @param seed    the seed of the sampling
+     * @return the rendered pixels
+     */
+    private static int[] renderSampled(int threads, RenderOrder order, long seed) {
+        PixelsWriter writer = new PixelsWriter(37, 29);
+        camera(writer).setRayTracer(new RayTracerBasic(scene()).setSoftShadowSampling(Sampler.JITTERED, 8))
+                .setAntiAliasing(Sampler.JITTERED, 4).setSeed(seed).setMultiThreading(threads).setTileSize(4)
+                .setRenderOrder(order).renderImage();
+        return writer.pixels;
+    }
+
+    /**
+     * Test method for {@link renderer.Camera#setRenderOrder(RenderOrder)}.
+     */
+    @Test
+    void testRenderOrder() {
+        int[] expected = render(0, 16, RenderOrder.SCANLINE);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Every order renders the same image on a single thread and on a pool of threads
+        for (RenderOrder order : RenderOrder.values()) {
+            assertArrayEquals(expected, render(0, 8, order), "renderImage() failed, image differs for " + order);
+            assertArrayEquals(expected, render(3, 8, order),
+                    "renderImage() failed, multi-threaded image differs for " + order);
+        }
+
+        // TC02: Every order visits every tile once
+        for (RenderOrder order : RenderOrder.values()) {
+            int[] tiles = order.tileOrder(5, 3);
+            assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14},
+                    IntStream.of(tiles).sorted().toArray(), "tileOrder() failed, not a permutation for " + order);
+        }
+
+        // TC03: Consecutive tiles of the Hilbert order are adjacent on a square power of 2 grid
+        int[] hilbert = RenderOrder.HILBERT.tileOrder(8, 8);
+        for (int i = 1; i < hilbert.length; i++)
+            assertEquals(1, Math.abs(hilbert[i] % 8 - hilbert[i - 1] % 8) + Math.abs(hilbert[i] / 8 - hilbert[i - 1] / 8),
+                    "tileOrder() failed, Hilbert tiles are not adjacent");
+
+        // TC04: The Morton order visits the tiles in Z shapes
+        assertArrayEquals(new int[]{0, 1, 4, 5, 2, 3, 6, 7, 8, 9, 12, 13, 10, 11, 14, 15},
+                RenderOrder.MORTON.tileOrder(4, 4), "tileOrder() failed, wrong Morton order");
+
+        // =============== Boundary Values Tests ==================
+        // TC05: A single tile
+        for (RenderOrder order : RenderOrder.values())
+            assertArrayEquals(new int[]{0}, order.tileOrder(1, 1), "tileOrder() failed, single tile for " + order);
+    }
+
+    /**
+     * Test method for {@link renderer.Camera#setProgressListener(RenderProgress.Listener, double)}.
+     */
+    @Test
+    void testProgressListener() throws InterruptedException {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The reports grow up to the whole image
+        List<Long> reports = new CopyOnWriteArrayList<>();
+        AtomicReference<RenderProgress> last = new AtomicReference<>();
+        camera(new PixelsWriter(37, 29)).setMultiThreading(3).setTileSize(4)
+                .setProgressListener(progress -> {
+                    reports.add(progress.getPixelsDone());
+                    last.set(progress);
+                }, 0.001)
+                .renderImage();
+        for (int i = 1; i < reports.size(); i++)
+            assertTrue(reports.get(i - 1) <= reports.get(i), "testProgressListener() failed, progress went back");
+        RenderProgress progress = last.get();
+        assertEquals(37 * 29, progress.getTotalPixels(), "testProgressListener() failed, wrong amount of pixels");
+        assertEquals(37 * 29, progress.getPixelsDone(), "testProgressListener() failed, final report is not done");
+        assertEquals(100, progress.getPercent(), 1e-10, "testProgressListener() failed, final percent");
+        assertEquals(0, progress.getEtaSeconds(), 1e-10, "testProgressListener() failed, final ETA");
+        assertTrue(progress.getPixelsPerSecond() > 0, "testProgressListener() failed, no rendering rate");
+
+        // TC02: Two cameras rendering at the same time follow their own progress
+        AtomicLong first = new AtomicLong(), second = new AtomicLong();
+        Thread other = new Thread(() -> camera(new PixelsWriter(20, 10)).setMultiThreading(2)
+                .setProgressListener(p -> first.set(p.getPixelsDone()), 0).renderImage());
+        other.start();
+        camera(new PixelsWriter(15, 11)).setProgressListener(p -> second.set(p.getPixelsDone()), 0).renderImage();
+        other.join();
+        assertEquals(200, first.get(), "testProgressListener() failed, wrong progress of the first camera");
+        assertEquals(165, second.get(), "testProgressListener() failed, wrong progress of the second camera");
+
+        // =============== Boundary Values Tests ==================
+        // TC03: Negative interval
+        assertThrows(IllegalArgumentException.class,
+                () -> camera(new PixelsWriter(1, 1)).setProgressListener(p -> { }, -1),
+                "testProgressListener() failed, negative interval must throw");
+    }
 }
@@ -29,11 +29,7 @@ public class ImageForStage7Test {
      */
     @Test
     public void renderFinalImage() {
-        createRoom();
-        createLights();
-        createTable();
-        createChess();
-        scene.setAmbientLight(new AmbientLight(new Color(white), new Double3(0.1)));
+        createScene();
         camera.setImageWriter(new ImageWriter("FinalImage", 1000, 1000)) //
                 .setRayTracer(new RayTracerBasic(scene)) //
                 .setMultiThreading(-1).setDebugPrint(100) //
@@ -42,6 +38,20 @@ public class ImageForStage7Test {
 
     }
 
+    /**
+     * function creates the whole scene of the final image - the room, the lights, the table and the chess set
+     *
+     * @return the scene
+     */
+    public Scene createScene() {
+        createRoom();
+        createLights();
+        createTable();
+        createChess();
+        scene.setAmbientLight(new AmbientLight(new Color(white), new Double3(0.1)));
+        return scene;
+    }
+
     /**
      * function creates room
      */
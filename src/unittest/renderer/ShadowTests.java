@@ -179,4 +179,64 @@ public class ShadowTests {
                 .renderImage() //
                 .writeToImage();
     }
-}
\ No newline at end of file
+
+
+    /**
+     * Produce a picture of two triangles lighted by a point light with a radius and a Sphere producing
+     * a soft shadow, where the light grid is sampled adaptively
+     */
+    @Test
+    public void trianglesSphereSoftShadowPointAdaptive() {
+        scene.setAmbientLight(new AmbientLight(new Color(WHITE), new Double3(0.15)));
+
+        scene.geometries.add( //
+                new Triangle(new Point(-150, -150, -115), new Point(150, -150, -135),
+                        new Point(75, 75, -150)) //
+                        .setMaterial(new Material().setKs(0.8).setShininess(60)), //
+                new Triangle(new Point(-150, -150, -115), new Point(-70, 70, -140), new Point(75, 75, -150)) //
+                        .setMaterial(new Material().setKs(0.8).setShininess(60)), //
+                new Sphere(30d, new Point(0, 0, -11)) //
+                        .setEmission(new Color(BLUE)) //
+                        .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(30)) //
+        );
+
+        scene.lights.add( //
+                new PointLight(new Color(500, 300, 300), new Point(40, 40, 115), 10) //
+                        .setKl(4E-4).setKq(2E-5));
+
+        camera.setImageWriter(new ImageWriter("shadowTrianglesSphereSoftShadowPointAdaptive", 1200, 1200)) //
+                .setRayTracer(new RayTracerBasic(scene).setAdaptiveSoftShadows(true)) //
+                .renderImage() //
+                .writeToImage();
+    }
+
+
+    /**
+     * Produce a picture of two triangles lighted by a point light with a radius and a Sphere producing
+     * a soft shadow, where the light disk is sampled by a low-discrepancy sequence of a few rays
+     */
+    @Test
+    public void trianglesSphereSoftShadowPointSampled() {
+        scene.setAmbientLight(new AmbientLight(new Color(WHITE), new Double3(0.15)));
+
+        scene.geometries.add( //
+                new Triangle(new Point(-150, -150, -115), new Point(150, -150, -135),
+                        new Point(75, 75, -150)) //
+                        .setMaterial(new Material().setKs(0.8).setShininess(60)), //
+                new Triangle(new Point(-150, -150, -115), new Point(-70, 70, -140), new Point(75, 75, -150)) //
+                        .setMaterial(new Material().setKs(0.8).setShininess(60)), //
+                new Sphere(30d, new Point(0, 0, -11)) //
+                        .setEmission(new Color(BLUE)) //
+                        .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(30)) //
+        );
+
+        scene.lights.add( //
+                new PointLight(new Color(500, 300, 300), new Point(40, 40, 115), 10) //
+                        .setKl(4E-4).setKq(2E-5));
+
+        camera.setImageWriter(new ImageWriter("shadowTrianglesSphereSoftShadowPointSampled", 1200, 1200)) //
+                .setRayTracer(new RayTracerBasic(scene).setSoftShadowSampling(Sampler.SOBOL, 32)) //
+                .renderImage() //
+                .writeToImage();
+    }
+}
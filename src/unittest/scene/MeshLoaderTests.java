@@ -0,0 +1,251 @@
+package scene;
+
+import geometries.Intersectable.GeoPoint;
+import geometries.Terrain;
+import geometries.TriangleMesh;
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for scene.MeshLoader class
+ */
+class MeshLoaderTests {
+
+    /**
+     * Test method for {@link scene.MeshLoader#load(Path, List)} of OBJ files.
+     */
+    @Test
+    void testLoadObj() throws IOException {
+        Path path = write("quad.obj", """
+                # a quad and a triangle
+                mtllib scene.mtl
+                o quad
+                v 0 0 -1
+                v 1 0 -1
+                v 1 1 -1
+                v 0 1 -1
+                vt 0 0
+                vn 0 0 1
+                f 1/1/1 2/1/1 3/1/1 4/1/1
+                usemtl red
+                v 0 0 -2
+                v 1e1 0 -2
+                v 0 10 -2
+                f -3//1 -2//1 -1//1
+                """);
+        List<String> names = new ArrayList<>();
+        TriangleMesh mesh = MeshLoader.load(path, names);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The quad is split into two triangles, and the negative indices count back from the last vertex
+        assertEquals(3, mesh.getFaceCount(), "load() failed, wrong amount of faces");
+        assertEquals(7, mesh.getVertexCount(), "load() failed, wrong amount of vertices");
+        assertEquals(List.of("", "red"), names, "load() failed, wrong surface names");
+
+        // TC02: The faces after a material are on its surface
+        GeoPoint hit = mesh.findClosestGeoIntersection(new Ray(new Point(0.75, 0.5, 0), new Vector(0, 0, -1)));
+        assertEquals(new Point(0.75, 0.5, -1), hit.point, "load() failed, wrong quad");
+        assertSame(mesh.getSurface(0), hit.geometry, "load() failed, the quad is before any material");
+        hit = mesh.findClosestGeoIntersection(new Ray(new Point(3, 2, 0), new Vector(0, 0, -1)));
+        assertEquals(new Point(3, 2, -2), hit.point, "load() failed, wrong triangle");
+        assertSame(mesh.getSurface(1), hit.geometry, "load() failed, the triangle is on the red surface");
+
+        // =============== Boundary Values Tests ==================
+        // TC03: Unknown file type
+        assertThrows(IllegalArgumentException.class, () -> MeshLoader.load(Path.of("mesh.stl")),
+                "load() must not accept unknown file types");
+    }
+
+    /**
+     * Test method for {@link scene.MeshLoader#load(Path)} of malformed files.
+     */
+    @Test
+    void testErrors() throws IOException {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The error tells the line, also in a later chunk
+        Path path = write("bad.obj", "v 0 0 0\nv 1 0 0\nv 0 1 0\nf 1 2 3\n# comment\nf 1 2\n");
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> MeshLoader.load(path, null, 16), "load() must not accept a face of two vertices");
+        assertTrue(e.getMessage().contains(":6:"), "load() failed, wrong line in " + e.getMessage());
+
+        // TC02: Malformed number
+        Path number = write("number.obj", "v 0 0 0\nv 1 0.5.0 0\n");
+        e = assertThrows(IllegalArgumentException.class, () -> MeshLoader.load(number),
+                "load() must not accept a malformed number");
+        assertTrue(e.getMessage().contains(":2:"), "load() failed, wrong line in " + e.getMessage());
+
+        // TC03: Unknown PLY property type
+        Path type = write("type.ply", "ply\nformat ascii 1.0\nelement vertex 3\nproperty quad x\nend_header\n");
+        e = assertThrows(IllegalArgumentException.class, () -> MeshLoader.load(type),
+                "load() must not accept an unknown property type");
+        assertTrue(e.getMessage().contains(":4:"), "load() failed, wrong line in " + e.getMessage());
+
+        // =============== Boundary Values Tests ==================
+        // TC04: Vertex index just beyond the vertices
+        Path range = write("range.obj", "v 0 0 0\nv 1 0 0\nv 0 1 0\nf 1 2 4\n");
+        assertThrows(IllegalArgumentException.class, () -> MeshLoader.load(range),
+                "load() must not accept a vertex index beyond the vertices");
+
+        // TC05: Binary file that ends in the middle of the faces
+        Path binary = writePly("short.ply", ByteOrder.LITTLE_ENDIAN, 2);
+        try (FileChannel channel = FileChannel.open(binary, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        assertThrows(IOException.class, () -> MeshLoader.load(binary), "load() must not accept a truncated file");
+    }
+
+    /**
+     * Test method for {@link scene.MeshLoader#load(Path)} of the same terrain in all the formats,
+     * parsed both in one chunk and in many small ones.
+     */
+    @Test
+    void testFormats() throws IOException {
+        int size = 12;
+        TriangleMesh expected = new TriangleMesh(Terrain.positions(size), Terrain.indices(size));
+        Path obj = writeObj("terrain.obj", size);
+        Path ascii = writeAsciiPly("terrain.ply", size);
+        Path little = writePly("little.ply", ByteOrder.LITTLE_ENDIAN, size);
+        Path big = writePly("big.ply", ByteOrder.BIG_ENDIAN, size);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Every format in one chunk gives the same mesh
+        for (Path path : List.of(obj, ascii, little, big))
+            assertSameMesh(expected, MeshLoader.load(path), path);
+
+        // =============== Boundary Values Tests ==================
+        // TC02: Chunks far smaller than the file, cutting lines and records
+        for (Path path : List.of(obj, ascii, little, big))
+            for (int chunkSize : new int[]{1, 7, 100})
+                assertSameMesh(expected, MeshLoader.load(path, null, chunkSize), path);
+    }
+
+    /**
+     * Checks that two meshes have the same faces by casting random rays at both
+     *
+     * @param expected the expected mesh
+     * @param result   the loaded mesh
+     * @param path     the file of the loaded mesh, for the messages
+     */
+    private static void assertSameMesh(TriangleMesh expected, TriangleMesh result, Path path) {
+        assertEquals(expected.getFaceCount(), result.getFaceCount(), "load() failed, wrong faces in " + path);
+        assertEquals(expected.getVertexCount(), result.getVertexCount(), "load() failed, wrong vertices in " + path);
+        Random random = new Random(20);
+        for (int i = 0; i < 100; ++i) {
+            Ray ray = new Ray(new Point(random.nextDouble() * 12, random.nextDouble() * 12, 3),
+                    new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1));
+            GeoPoint a = expected.findClosestGeoIntersection(ray), b = result.findClosestGeoIntersection(ray);
+            assertEquals(a == null ? null : a.point, b == null ? null : b.point, "load() failed, wrong hit in " + path);
+        }
+    }
+
+    /**
+     * Writes a text file in the temporary directory
+     *
+     * @param name    the name of the file
+     * @param content the content
+     * @return the path of the file
+     * @throws IOException if the file cannot be written
+     */
+    private static Path write(String name, String content) throws IOException {
+        Path path = Files.createTempDirectory("mesh").resolve(name);
+        Files.writeString(path, content);
+        path.toFile().deleteOnExit();
+        path.getParent().toFile().deleteOnExit();
+        return path;
+    }
+
+    /**
+     * Writes a terrain as an OBJ file, with the faces as quads
+     *
+     * @param name the name of the file
+     * @param size the amount of cells along a side
+     * @return the path of the file
+     * @throws IOException if the file cannot be written
+     */
+    private static Path writeObj(String name, int size) throws IOException {
+        Path path = write(name, "");
+        double[] positions = Terrain.positions(size);
+        try (BufferedWriter out = Files.newBufferedWriter(path)) {
+            out.write("# terrain\n");
+            for (int v = 0; v < positions.length; v += 3)
+                out.write("v " + positions[v] + " " + positions[v + 1] + " " + positions[v + 2] + "\n");
+            for (int i = 0; i < size; ++i)
+                for (int j = 0; j < size; ++j) {
+                    int v00 = i * (size + 1) + j + 1, v10 = v00 + size + 1;
+                    out.write("f " + v00 + " " + v10 + " " + (v10 + 1) + " " + (v00 + 1) + "\n");
+                }
+        }
+        return path;
+    }
+
+    /**
+     * Writes a terrain as an ASCII PLY file, with an extra vertex property and the faces as quads
+     *
+     * @param name the name of the file
+     * @param size the amount of cells along a side
+     * @return the path of the file
+     * @throws IOException if the file cannot be written
+     */
+    private static Path writeAsciiPly(String name, int size) throws IOException {
+        Path path = write(name, "");
+        double[] positions = Terrain.positions(size);
+        try (BufferedWriter out = Files.newBufferedWriter(path)) {
+            out.write("ply\nformat ascii 1.0\ncomment terrain\nelement vertex " + positions.length / 3
+                    + "\nproperty float confidence\nproperty double x\nproperty double y\nproperty double z\n"
+                    + "element face " + size * size + "\nproperty list uchar int vertex_indices\nend_header\n");
+            for (int v = 0; v < positions.length; v += 3)
+                out.write("1 " + positions[v] + " " + positions[v + 1] + " " + positions[v + 2] + "\n");
+            for (int i = 0; i < size; ++i)
+                for (int j = 0; j < size; ++j) {
+                    int v00 = i * (size + 1) + j, v10 = v00 + size + 1;
+                    out.write("4 " + v00 + " " + v10 + " " + (v10 + 1) + " " + (v00 + 1) + "\n");
+                }
+        }
+        return path;
+    }
+
+    /**
+     * Writes a terrain as a binary PLY file, with an extra face property and the faces as triangles
+     *
+     * @param name  the name of the file
+     * @param order the byte order
+     * @param size  the amount of cells along a side
+     * @return the path of the file
+     * @throws IOException if the file cannot be written
+     */
+    private static Path writePly(String name, ByteOrder order, int size) throws IOException {
+        Path path = write(name, "");
+        double[] positions = Terrain.positions(size);
+        int[] indices = Terrain.indices(size);
+        String header = "ply\nformat " + (order == ByteOrder.LITTLE_ENDIAN ? "binary_little_endian" : "binary_big_endian")
+                + " 1.0\nelement vertex " + positions.length / 3 + "\nproperty double x\nproperty double y\n"
+                + "property double z\nelement face " + indices.length / 3 + "\nproperty list uchar uint vertex_indices\n"
+                + "property ushort flags\nend_header\n";
+        ByteBuffer buffer = ByteBuffer.allocate(header.length() + 8 * positions.length + 15 * indices.length / 3)
+                .order(order);
+        buffer.put(header.getBytes());
+        for (double coordinate : positions)
+            buffer.putDouble(coordinate);
+        for (int face = 0; face < indices.length; face += 3)
+            buffer.put((byte) 3).putInt(indices[face]).putInt(indices[face + 1]).putInt(indices[face + 2])
+                    .putShort((short) 7);
+        Files.write(path, buffer.array());
+        return path;
+    }
+}
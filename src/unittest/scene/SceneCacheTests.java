@@ -0,0 +1,256 @@
+package scene;
+
+import geometries.Acceleration;
+import geometries.BuildStats;
+import geometries.Cylinder;
+import geometries.Geometries;
+import geometries.Instance;
+import geometries.Intersectable.GeoPoint;
+import geometries.Plane;
+import geometries.Polygon;
+import geometries.Sphere;
+import geometries.Triangle;
+import geometries.TriangleMesh;
+import geometries.Tube;
+import lighting.AmbientLight;
+import lighting.DirectionalLight;
+import lighting.LightSource;
+import lighting.PointLight;
+import lighting.SpotLight;
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Double3;
+import primitives.Material;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Transform;
+import primitives.Vector;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for scene.SceneCache class
+ */
+class SceneCacheTests {
+
+    /**
+     * Test method for {@link scene.SceneCache#compile(Scene, Path)} and {@link scene.SceneCache#load(Path)}.
+     */
+    @Test
+    void testLoad() throws IOException {
+        Scene scene = sampleScene();
+        Path path = tempFile("sample.scene");
+        SceneCache.compile(scene, path);
+        Scene loaded = SceneCache.load(path);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The name, the colors and the lights
+        assertEquals(scene.name, loaded.name, "load() failed, wrong name");
+        assertEquals(scene.background.getRgb(), loaded.background.getRgb(), "load() failed, wrong background");
+        assertEquals(scene.ambientLight.getIntensity().getRgb(), loaded.ambientLight.getIntensity().getRgb(),
+                "load() failed, wrong ambient light");
+        assertEquals(scene.lights.size(), loaded.lights.size(), "load() failed, wrong amount of lights");
+        Point shaded = new Point(1, 2, -3);
+        Vector towards = new Vector(0, 1, 1);
+        for (int i = 0; i < scene.lights.size(); ++i) {
+            LightSource expected = scene.lights.get(i), result = loaded.lights.get(i);
+            assertSame(expected.getClass(), result.getClass(), "load() failed, wrong kind of light");
+            assertEquals(expected.getIntensity(shaded).getRgb(), result.getIntensity(shaded).getRgb(),
+                    "load() failed, wrong light intensity");
+            assertEquals(expected.getL(shaded), result.getL(shaded), "load() failed, wrong light direction");
+            assertEquals(expected.getGrid(towards) == null, result.getGrid(towards) == null,
+                    "load() failed, wrong soft shadow grid");
+            if (expected.getGrid(towards) != null)
+                assertEquals(expected.getGrid(towards).size(), result.getGrid(towards).size(),
+                        "load() failed, wrong soft shadow grid");
+        }
+
+        // TC02: The same hits with the same materials and emissions, and the shared materials stay shared
+        Random random = new Random(21);
+        Material shared = null;
+        for (int i = 0; i < 400; ++i) {
+            Ray ray = new Ray(new Point(random.nextDouble() * 20 - 10, random.nextDouble() * 20 - 10, 10),
+                    new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1));
+            GeoPoint expected = scene.geometries.findClosestGeoIntersection(ray);
+            GeoPoint result = loaded.geometries.findClosestGeoIntersection(ray);
+            assertEquals(expected == null, result == null, "load() failed, wrong hit");
+            if (expected == null) continue;
+            assertEquals(expected.point, result.point, "load() failed, wrong hit point");
+            assertEquals(expected.getNormal(), result.getNormal(), "load() failed, wrong normal");
+            assertSame(expected.geometry.getClass(), result.geometry.getClass(), "load() failed, wrong geometry");
+            assertEquals(expected.geometry.getEmission().getRgb(), result.geometry.getEmission().getRgb(),
+                    "load() failed, wrong emission");
+            Material a = expected.geometry.getMaterial(), b = result.geometry.getMaterial();
+            assertEquals(a.getKd(), b.getKd(), "load() failed, wrong material");
+            assertEquals(a.getKt(), b.getKt(), "load() failed, wrong material");
+            assertEquals(a.getShininess(), b.getShininess(), "load() failed, wrong material");
+            if (a == SHARED) {
+                if (shared == null) shared = b;
+                assertSame(shared, b, "load() failed, a shared material must stay shared");
+            }
+        }
+        assertNotNull(shared, "load() failed, the geometries of the shared material were missed");
+
+        // TC03: The hierarchy is restored as it was built
+        BuildStats expected = scene.geometries.getBuildStats(), result = loaded.geometries.getBuildStats();
+        assertEquals(expected.getNodes(), result.getNodes(), "load() failed, wrong hierarchy");
+        assertEquals(expected.getDepth(), result.getDepth(), "load() failed, wrong hierarchy");
+        assertEquals(expected.getSahCost(), result.getSahCost(), 1e-9, "load() failed, wrong hierarchy");
+
+        // =============== Boundary Values Tests ==================
+        // TC04: An empty scene
+        SceneCache.compile(new Scene("empty"), path);
+        Scene empty = SceneCache.load(path);
+        assertTrue(empty.lights.isEmpty(), "load() failed, an empty scene has no lights");
+        assertNull(empty.geometries.findGeoIntersections(new Ray(Point.ZERO_POINT, new Vector(0, 0, -1))),
+                "load() failed, an empty scene has no geometries");
+    }
+
+    /**
+     * Test method for {@link scene.SceneCache#load(Path)} of files it cannot read,
+     * and {@link scene.SceneCache#compile(Scene, Path)} of scenes it cannot write.
+     */
+    @Test
+    void testErrors() throws IOException {
+        Path path = tempFile("errors.scene");
+        SceneCache.compile(sampleScene(), path);
+        byte[] bytes = Files.readAllBytes(path);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Not a compiled scene
+        Path other = tempFile("other.scene");
+        Files.writeString(other, "# not a compiled scene");
+        assertThrows(IllegalArgumentException.class, () -> SceneCache.load(other),
+                "load() must not accept other files");
+
+        // TC02: Another version of the format
+        ByteBuffer.wrap(bytes).putInt(4, SceneCache.VERSION + 1);
+        Files.write(other, bytes);
+        Exception e = assertThrows(IllegalArgumentException.class, () -> SceneCache.load(other),
+                "load() must not accept another version");
+        assertTrue(e.getMessage().contains("version"), "load() failed, the version must be reported");
+
+        // TC03: A geometry of an unknown kind
+        Scene unknown = new Scene("unknown");
+        unknown.geometries.add(new Sphere(1, Point.ZERO_POINT) {
+        });
+        assertThrows(IllegalArgumentException.class, () -> SceneCache.compile(unknown, other),
+                "compile() must not accept unknown kinds of geometries");
+
+        // =============== Boundary Values Tests ==================
+        // TC04: A truncated file
+        ByteBuffer.wrap(bytes).putInt(4, SceneCache.VERSION);
+        Files.write(other, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IllegalArgumentException.class, () -> SceneCache.load(other),
+                "load() must not accept a truncated file");
+
+        // TC05: An empty file
+        Files.write(other, new byte[0]);
+        assertThrows(IllegalArgumentException.class, () -> SceneCache.load(other),
+                "load() must not accept an empty file");
+
+        // TC06: A mesh face referring to a vertex beyond the vertices
+        Scene single = new Scene("single");
+        single.geometries.add(new TriangleMesh(new double[]{0, 0, 0, 1, 0, 0, 0, 1, 0}, new int[]{0, 1, 2}));
+        SceneCache.compile(single, path);
+        bytes = Files.readAllBytes(path);
+        // the three indices of the face follow their amount
+        int indices = find(bytes, 3, 0, 1, 2);
+        assertTrue(indices >= 0, "compile() failed, the mesh indices were not found");
+        byte[] vertex = bytes.clone();
+        ByteBuffer.wrap(vertex).putInt(indices + 12, 3);
+        Files.write(other, vertex);
+        assertThrows(IllegalArgumentException.class, () -> SceneCache.load(other),
+                "load() must not accept a vertex index beyond the vertices");
+
+        // TC07: A mesh leaf referring to faces beyond the faces
+        // the indices are followed by the missing surfaces, the six node bounds and the two integers of the leaf
+        int leaf = indices + 16 + 4 + 4 + 24;
+        assertEquals(2, ByteBuffer.wrap(bytes).getInt(leaf), "compile() failed, the mesh nodes were not found");
+        ByteBuffer.wrap(bytes).putInt(leaf + 8, 2);
+        Files.write(other, bytes);
+        assertThrows(IllegalArgumentException.class, () -> SceneCache.load(other),
+                "load() must not accept a leaf beyond the faces");
+    }
+
+    /**
+     * The material shared by several geometries of the sample scene
+     */
+    private static final Material SHARED = new Material().setKd(0.4).setKs(0.3).setShininess(30);
+
+    /**
+     * Builds a scene with every kind of geometry and light
+     *
+     * @return the scene
+     */
+    private static Scene sampleScene() {
+        Color emission = new Color(20, 30, 40);
+        Material glass = new Material().setKt(new Double3(0.5, 0.6, 0.7)).setKr(0.1);
+
+        TriangleMesh mesh = new TriangleMesh(new double[]{-8, -8, -6, -2, -8, -6, -8, -2, -6, -2, -2, -6},
+                new int[]{0, 1, 2, 1, 3, 2}, new int[]{0, 1});
+        mesh.getSurface(1).setMaterial(SHARED).setEmission(emission);
+
+        Geometries model = new Geometries(
+                new Sphere(0.5, new Point(0, 0, 0)).setMaterial(glass),
+                new Triangle(new Point(-1, -1, -1), new Point(1, -1, -1), new Point(0, 1, -1)).setMaterial(SHARED))
+                .setAcceleration(Acceleration.GRID);
+
+        Scene scene = new Scene("sample")
+                .setBackground(new Color(5, 6, 7))
+                .setAmbientLight(new AmbientLight(new Color(100, 100, 100), new Double3(0.1, 0.2, 0.3)))
+                .addLight(new DirectionalLight(new Color(50, 50, 50), new Vector(1, 1, -1)))
+                .addLight(new PointLight(new Color(400, 300, 200), new Point(0, 5, 5), 2).setKl(0.01).setKq(0.002))
+                .addLight(new SpotLight(new Color(300, 300, 300), new Point(5, 0, 5), new Vector(-1, 0, -1)).setKc(2))
+                .addLight(new SpotLight(new Color(300, 300, 300), new Point(-5, 0, 5), new Vector(1, 0, -1), 1));
+        scene.geometries.add(
+                new Sphere(2, new Point(4, 4, -4)).setMaterial(SHARED).setEmission(emission),
+                new Plane(new Point(0, 0, -10), new Vector(0, 0.1, 1)),
+                new Polygon(new Point(2, -8, -5), new Point(8, -8, -5), new Point(8, -2, -5), new Point(2, -2, -5))
+                        .setMaterial(glass),
+                new Tube(0.5, new Ray(new Point(-9, 0, -7), new Vector(0, 1, 0))),
+                new Cylinder(1, new Ray(new Point(0, 8, -8), new Vector(0, 0, 1)), 3).setMaterial(SHARED),
+                mesh,
+                new Instance(model, Transform.translation(new Vector(-4, 4, -3))),
+                new Instance(model, Transform.scaling(2).then(Transform.translation(new Vector(6, -4, -2)))));
+        return scene;
+    }
+
+    /**
+     * Finds a run of integers written in a file
+     *
+     * @param bytes the content of the file
+     * @param ints  the integers
+     * @return the offset of the first integer, -1 if the run is not found
+     */
+    private static int find(byte[] bytes, int... ints) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        for (int offset = 0; offset + 4 * ints.length <= bytes.length; ++offset) {
+            int k = 0;
+            while (k < ints.length && buffer.getInt(offset + 4 * k) == ints[k]) ++k;
+            if (k == ints.length) return offset;
+        }
+        return -1;
+    }
+
+    /**
+     * Creates a path for a file in a new temporary directory
+     *
+     * @param name the name of the file
+     * @return the path of the file
+     * @throws IOException if the directory cannot be created
+     */
+    private static Path tempFile(String name) throws IOException {
+        Path path = Files.createTempDirectory("scene").resolve(name);
+        path.toFile().deleteOnExit();
+        path.getParent().toFile().deleteOnExit();
+        return path;
+    }
+}
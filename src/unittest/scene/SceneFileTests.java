@@ -0,0 +1,214 @@
+package scene;
+
+import geometries.Intersectable.GeoPoint;
+import geometries.Sphere;
+import geometries.Triangle;
+import lighting.AmbientLight;
+import lighting.SpotLight;
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Double3;
+import primitives.Material;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+import renderer.Camera;
+import renderer.RayTracerBase;
+import renderer.RayTracerBasic;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.awt.Color.BLUE;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for scene.SceneFile class
+ */
+class SceneFileTests {
+
+    /**
+     * Test method for {@link scene.SceneFile#load(Path)}.
+     */
+    @Test
+    void testLoad() throws IOException {
+        Path path = write("shadow.scene", """
+                scene "Test scene"
+                # the sphere and triangle shadow test
+                camera position 0 0 1000 to 0 0 -1 up 0 1 0 size 200 200 distance 1000
+                image name shadowFromFile resolution 400 400
+                material plastic kd 0.5 ks 0.5 shininess 30
+                sphere center 0 0 -200 radius 60 emission 0 0 255 material plastic
+                triangle vertices -70 -40 0  -40 -70 0  -68 -68 -4  material plastic emission 0 0 255
+                spot color 400 240 0 position -100 -100 200 direction 1 1 -3 kl 1E-5 kq 1.5E-7   # no radius
+                """);
+        SceneFile file = SceneFile.load(path);
+
+        Material material = new Material().setKd(0.5).setKs(0.5).setShininess(30);
+        Scene scene = new Scene("Test scene");
+        scene.geometries.add(
+                new Sphere(60d, new Point(0, 0, -200)).setEmission(new Color(BLUE)).setMaterial(material),
+                new Triangle(new Point(-70, -40, 0), new Point(-40, -70, 0), new Point(-68, -68, -4))
+                        .setEmission(new Color(BLUE)).setMaterial(material));
+        scene.lights.add(new SpotLight(new Color(400, 240, 0), new Point(-100, -100, 200), new Vector(1, 1, -3))
+                .setKl(1E-5).setKq(1.5E-7));
+        Camera camera = new Camera(new Point(0, 0, 1000), new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVPSize(200, 200).setVPDistance(1000);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The scene of the file renders as the scene built in code
+        assertEquals("Test scene", file.scene.name, "load() failed, wrong name");
+        assertNotNull(file.camera, "load() failed, the camera is missing");
+        RayTracerBase expected = new RayTracerBasic(scene).freeze(), result = new RayTracerBasic(file.scene).freeze();
+        for (int row = 0; row < 40; ++row)
+            for (int col = 0; col < 40; ++col)
+                assertEquals(expected.traceRay(camera.constructRay(40, 40, col, row)).getRgb(),
+                        result.traceRay(file.camera.constructRay(40, 40, col, row)).getRgb(),
+                        "load() failed, wrong color of pixel " + col + "," + row);
+
+        // TC02: The other statements
+        write(path.resolveSibling("quad.obj"), """
+                v -1 -1 0
+                v 1 -1 0
+                v 1 1 0
+                v -1 1 0
+                f 1 2 3
+                usemtl red
+                f 1 3 4
+                """);
+        path = write(path.resolveSibling("all.scene"), """
+                background 1 2 3
+                ambient color 255 255 255 k 0.1 0.2 0.3
+                directional color 10 10 10 direction 0 0 -1
+                point color 100 100 100 position 0 0 10 radius 2 kc 2
+                material red kd 0.7 0 0
+                material glass kt 0.8 kr 0.1
+                acceleration grid
+                plane point 0 0 -100 normal 0 0 1
+                group acceleration list
+                  polygon vertices 10 10 -5  12 10 -5  12 12 -5  10 12 -5  material glass
+                  tube origin -10 0 0 direction 0 1 0 radius 1
+                end
+                cylinder origin 20 0 -10 direction 0 0 1 radius 1 height 2
+                define quad
+                  mesh file quad.obj surface red red emission 5 5 5
+                end
+                instance quad scale 2 translate 0 0 -10
+                instance quad translate 30 30 -20
+                """);
+        file = SceneFile.load(path);
+        assertEquals("all", file.scene.name, "load() failed, the name must default to the file name");
+        assertNull(file.camera, "load() failed, the file has no camera");
+        assertEquals(new Color(1, 2, 3).getRgb(), file.scene.background.getRgb(), "load() failed, wrong background");
+        assertEquals(new AmbientLight(new Color(255, 255, 255), new Double3(0.1, 0.2, 0.3))
+                .getIntensity().getRgb(), file.scene.ambientLight.getIntensity().getRgb(), "load() failed, wrong ambient");
+        assertEquals(2, file.scene.lights.size(), "load() failed, wrong amount of lights");
+        assertHit(file, new Point(11, 11, 0), new Point(11, 11, -5), 0.8);
+        assertHit(file, new Point(-1.5, -0.5, 10), new Point(-1.5, -0.5, -10), 0);
+        GeoPoint red = file.scene.geometries.findClosestGeoIntersection(new Ray(new Point(29.5, 30.5, 0), new Vector(0, 0, -1)));
+        assertEquals(new Point(29.5, 30.5, -20), red.point, "load() failed, wrong instance");
+        assertEquals(0.7, red.geometry.getMaterial().getKd().getD1(), 1e-9, "load() failed, wrong surface material");
+        assertEquals(new Color(5, 5, 5).getRgb(), red.geometry.getEmission().getRgb(), "load() failed, wrong emission");
+        assertHit(file, new Point(25, 0, -9), new Point(21, 0, -9), 0);
+        assertHit(file, new Point(50, 50, 0), new Point(50, 50, -100), 0);
+
+        // =============== Boundary Values Tests ==================
+        // TC03: A file of comments only
+        file = SceneFile.load(write(path.resolveSibling("empty.scene"), "# nothing\n\n   # here\n"));
+        assertTrue(file.scene.lights.isEmpty(), "load() failed, an empty file has no lights");
+    }
+
+    /**
+     * Test method for {@link scene.SceneFile#load(Path)} of malformed files.
+     */
+    @Test
+    void testErrors() throws IOException {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Unknown statement
+        assertError("sphere center 0 0 0 radius 1\n\ncube size 1\n", 3, "unknown statement");
+        // TC02: Unknown attribute
+        assertError("sphere center 0 0 0 radius 1 color 1 2 3\n", 1, "unknown attribute 'color'");
+        // TC03: Missing attribute
+        assertError("# a sphere\nsphere center 0 0 0\n", 2, "'radius' is missing");
+        // TC04: Malformed number
+        assertError("background 1 2 x\n", 1, "malformed number 'x'");
+        // TC05: Material used before it is defined
+        assertError("sphere center 0 0 0 radius 1 material glass\nmaterial glass kt 1\n", 1, "not defined");
+        // TC06: Invalid geometry
+        assertError("triangle vertices 0 0 0  1 0 0  2 0 0\n", 1, "");
+        // TC07: Missing mesh file
+        assertError("mesh file missing.obj\n", 1, "does not exist");
+        // TC08: Group without an end
+        assertError("group\nsphere center 0 0 0 radius 1\n", -1, "missing its end");
+        // TC09: Instance of an unknown definition
+        assertError("instance tree\n", 1, "not defined");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: Trailing values
+        assertError("background 1 2 3 4\n", 1, "unexpected '4'");
+        // TC11: End without a group
+        assertError("end\n", 1, "without a group");
+        // TC12: Scene name after other statements
+        assertError("background 1 2 3\nscene late\n", 2, "first statement");
+    }
+
+    /**
+     * Checks the closest hit of a ray in a loaded scene
+     *
+     * @param file         the loaded scene
+     * @param from         the head of the ray
+     * @param expected     the expected hit point
+     * @param transparency the expected transparency of the hit material
+     */
+    private static void assertHit(SceneFile file, Point from, Point expected, double transparency) {
+        GeoPoint hit = file.scene.geometries.findClosestGeoIntersection(new Ray(from, expected.subtract(from)));
+        assertNotNull(hit, "load() failed, " + expected + " was missed");
+        assertEquals(expected, hit.point, "load() failed, wrong hit");
+        assertEquals(transparency, hit.geometry.getMaterial().getKt().getD1(), 1e-9, "load() failed, wrong material");
+    }
+
+    /**
+     * Checks that loading a file fails with the line of the error
+     *
+     * @param content the content of the file
+     * @param line    the line of the error, -1 for an error of the whole file
+     * @param message a part of the expected message
+     */
+    private static void assertError(String content, int line, String message) throws IOException {
+        Path path = write("error.scene", content);
+        Exception e = assertThrows(IllegalArgumentException.class, () -> SceneFile.load(path),
+                "load() must not accept " + content);
+        String prefix = line < 0 ? path + ": " : path + ":" + line + ": ";
+        assertTrue(e.getMessage().startsWith(prefix), "load() failed, wrong line in '" + e.getMessage() + "'");
+        assertTrue(e.getMessage().contains(message), "load() failed, wrong message '" + e.getMessage() + "'");
+    }
+
+    /**
+     * Writes a text file in a new temporary directory
+     *
+     * @param name    the name of the file
+     * @param content the content
+     * @return the path of the file
+     * @throws IOException if the file cannot be written
+     */
+    private static Path write(String name, String content) throws IOException {
+        Path path = Files.createTempDirectory("scene").resolve(name);
+        path.getParent().toFile().deleteOnExit();
+        return write(path, content);
+    }
+
+    /**
+     * Writes a text file
+     *
+     * @param path    the path of the file
+     * @param content the content
+     * @return the path of the file
+     * @throws IOException if the file cannot be written
+     */
+    private static Path write(Path path, String content) throws IOException {
+        Files.writeString(path, content);
+        path.toFile().deleteOnExit();
+        return path;
+    }
+}
@@ -0,0 +1,109 @@
+package scene;
+
+import geometries.Geometries;
+import geometries.Geometry;
+import geometries.Plane;
+import geometries.Sphere;
+import geometries.Triangle;
+import lighting.PointLight;
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Double3;
+import primitives.Material;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for scene.Scene class
+ */
+class SceneTests {
+
+    /**
+     * Test method for {@link scene.Scene#freeze()}.
+     */
+    @Test
+    void testFreeze() {
+        Material shiny = new Material().setKd(0.5).setKs(0.5).setShininess(30);
+        Geometry sphere = new Sphere(1d, new Point(0, 0, -5)).setMaterial(shiny);
+        Geometry triangle = new Triangle(new Point(0, 0, 0), new Point(1, 0, 0), new Point(0, 1, 0))
+                .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(30));
+        Geometry plane = new Plane(new Point(0, 0, -10), new Vector(0, 0, 1))
+                .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(20));
+        Sphere plain = new Sphere(2d, new Point(0, 0, -20));
+        PointLight light = new PointLight(new Color(100, 100, 100), new Point(0, 0, 10));
+        Scene scene = new Scene("Test scene").setBackground(new Color(1, 2, 3));
+        scene.geometries.add(sphere, new Geometries(triangle, plane), plain);
+        scene.addLight(light);
+        FrozenScene frozen = scene.freeze();
+        Point target = new Point(0, 0, -5);
+        Double3 intensity = frozen.lights.get(0).getIntensity(target).getRgb();
+        Geometry sphereCopy = hit(frozen, new Point(-0.1, -0.1, 1), new Vector(0, 0, -1));
+        Geometry triangleCopy = hit(frozen, new Point(0.2, 0.2, 1), new Vector(0, 0, -1));
+        Geometry planeCopy = hit(frozen, new Point(5, 5, 1), new Vector(0, 0, -1));
+        Geometry plainCopy = hit(frozen, new Point(0, 0, -30), new Vector(0, 0, 1));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The snapshot has copies of the values of the scene
+        assertEquals("Test scene", frozen.name, "freeze() failed, wrong name");
+        assertEquals(new Color(1, 2, 3).getRgb(), frozen.background.getRgb(), "freeze() failed, wrong background");
+        assertTrue(scene.geometries != frozen.geometries, "freeze() failed, the geometries must be copied");
+        assertTrue(sphere != sphereCopy && triangle != triangleCopy && plane != planeCopy && plain != plainCopy,
+                "freeze() failed, every geometry must be copied");
+        assertEquals(1, frozen.lights.size(), "freeze() failed, wrong amount of lights");
+        assertTrue(light != frozen.lights.get(0), "freeze() failed, a light that may change must be copied");
+
+        // TC02: Equal materials are shared, different materials are not
+        assertSame(sphereCopy.getMaterial(), triangleCopy.getMaterial(), "freeze() failed, equal materials must be shared");
+        assertTrue(sphereCopy.getMaterial() != planeCopy.getMaterial(), "freeze() failed, different materials must not be shared");
+        assertEquals(20, planeCopy.getMaterial().getShininess(), "freeze() failed, wrong material");
+
+        // TC03: The snapshot rejects changes
+        assertThrows(UnsupportedOperationException.class, () -> frozen.lights.clear(),
+                "freeze() failed, the snapshot lights must not change");
+        assertThrows(IllegalStateException.class, () -> frozen.geometries.add(new Sphere(1d, new Point(5, 5, 5))),
+                "freeze() failed, the snapshot geometries must not change");
+        assertThrows(IllegalStateException.class, () -> triangleCopy.setMaterial(new Material()),
+                "freeze() failed, a snapshot geometry must not change");
+        assertThrows(IllegalStateException.class, () -> sphereCopy.getMaterial().setKd(1),
+                "freeze() failed, a snapshot material must not change");
+        assertThrows(IllegalStateException.class, () -> plainCopy.getMaterial().setKt(1),
+                "freeze() failed, a snapshot default material must not change");
+
+        // TC04: The scene stays mutable, and its later changes do not affect the snapshot
+        assertDoesNotThrow(() -> {
+            shiny.setShininess(50);
+            triangle.setMaterial(new Material());
+            scene.geometries.add(new Sphere(1d, new Point(5, 5, 5)));
+            light.setKl(1);
+        }, "freeze() failed, the scene must stay mutable");
+        scene.addLight(new PointLight(new Color(1, 1, 1), new Point(0, 0, 20))).setBackground(Color.BLACK);
+        assertEquals(1, frozen.lights.size(), "freeze() failed, the snapshot lights changed");
+        assertEquals(intensity, frozen.lights.get(0).getIntensity(target).getRgb(),
+                "freeze() failed, the snapshot light changed");
+        assertEquals(new Color(1, 2, 3).getRgb(), frozen.background.getRgb(), "freeze() failed, the snapshot background changed");
+        assertEquals(30, sphereCopy.getMaterial().getShininess(), "freeze() failed, the snapshot material changed");
+        assertSame(planeCopy, hit(frozen, new Point(5, 5, 7), new Vector(0, 0, -1)),
+                "freeze() failed, the snapshot geometries changed");
+        assertEquals(2, scene.freeze().lights.size(), "freeze() failed, a new snapshot must see the new light");
+
+        // =============== Boundary Values Tests ==================
+        // TC05: Freezing again and freezing an empty scene
+        assertDoesNotThrow(() -> scene.freeze(), "freeze() failed, a scene may be frozen again");
+        assertTrue(new Scene("empty").freeze().lights.isEmpty(), "freeze() failed, an empty scene has no lights");
+    }
+
+    /**
+     * Finds the geometry of a snapshot hit first by a ray
+     *
+     * @param frozen    the snapshot
+     * @param head      the head of the ray
+     * @param direction the direction of the ray
+     * @return the geometry hit first
+     */
+    private static Geometry hit(FrozenScene frozen, Point head, Vector direction) {
+        return frozen.geometries.findClosestGeoIntersection(new Ray(head, direction)).geometry;
+    }
+}